@@ -0,0 +1,217 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.tmatesoft.svn.core.SVNDepth;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.internal.io.fs.FSRepositoryFactory;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
+import org.tmatesoft.svn.core.wc2.SvnCheckout;
+import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
+import org.tmatesoft.svn.core.wc2.SvnTarget;
+import org.tmatesoft.svn.core.wc2.admin.SvnRepositoryPack;
+
+/**
+ * Generates the repositories and the working copy used by the benchmarks.
+ *
+ * <p/>
+ * Everything is created locally, once, under the directory given by the
+ * <code>svnkit.benchmarks.dir</code> system property (<code>java.io.tmpdir/svnkit-benchmarks</code>
+ * by default) and reused by later runs. Delete the directory to regenerate the data.
+ *
+ * <p/>
+ * The repository has {@link #DIRECTORIES} directories with {@link #FILES_PER_DIRECTORY}
+ * small files each under <code>trunk</code>, and a {@link #BIG_FILE big file} modified in every
+ * one of {@link #REVISIONS} revisions, so that its representations form long delta chains.
+ * The packed variant has the same content with all complete shards packed.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+public class BenchmarkRepositories {
+
+    public static final int DIRECTORIES = 20;
+    public static final int FILES_PER_DIRECTORY = 50;
+    public static final int REVISIONS = 2000;
+    public static final String BIG_FILE = "trunk/big.txt";
+
+    private static final int BIG_FILE_LINES = 4000;
+    private static final int SMALL_FILE_LINES = 40;
+    private static final int SMALL_FILES_PER_REVISION = 2;
+    private static final String READY_MARKER = "benchmark.ready";
+
+    public static synchronized File getRepository(boolean packed) throws SVNException {
+        final File repositoryRoot = new File(getRoot(), packed ? "repository-packed" : "repository");
+        if (isReady(repositoryRoot)) {
+            return repositoryRoot;
+        }
+        SVNFileUtil.deleteAll(repositoryRoot, true);
+        generateRepository(repositoryRoot);
+        if (packed) {
+            final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+            try {
+                final SvnRepositoryPack pack = svnOperationFactory.createRepositoryPack();
+                pack.setRepositoryRoot(repositoryRoot);
+                pack.run();
+            } finally {
+                svnOperationFactory.dispose();
+            }
+        }
+        setReady(repositoryRoot);
+        return repositoryRoot;
+    }
+
+    public static synchronized File getWorkingCopy() throws SVNException {
+        final File workingCopy = new File(getRoot(), "working-copy");
+        if (isReady(workingCopy)) {
+            return workingCopy;
+        }
+        final File repositoryRoot = getRepository(false);
+        SVNFileUtil.deleteAll(workingCopy, true);
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        try {
+            final SvnCheckout checkout = svnOperationFactory.createCheckout();
+            checkout.setSource(SvnTarget.fromURL(SVNURL.fromFile(repositoryRoot).appendPath("trunk", false)));
+            checkout.setSingleTarget(SvnTarget.fromFile(workingCopy));
+            checkout.setDepth(SVNDepth.INFINITY);
+            checkout.run();
+        } finally {
+            svnOperationFactory.dispose();
+        }
+        for (int i = 0; i < DIRECTORIES * FILES_PER_DIRECTORY; i += 10) {
+            final File file = new File(workingCopy, getSmallFilePath(i).substring("trunk/".length()));
+            SVNFileUtil.writeToFile(file, "locally modified\n", "UTF-8");
+        }
+        setReady(workingCopy);
+        return workingCopy;
+    }
+
+    public static String getSmallFilePath(int index) {
+        return "trunk/dir" + (index / FILES_PER_DIRECTORY) + "/file" + (index % FILES_PER_DIRECTORY) + ".txt";
+    }
+
+    private static File getRoot() {
+        final String root = System.getProperty("svnkit.benchmarks.dir");
+        if (root != null) {
+            return new File(root);
+        }
+        return new File(System.getProperty("java.io.tmpdir"), "svnkit-benchmarks");
+    }
+
+    private static boolean isReady(File directory) {
+        return new File(directory, READY_MARKER).isFile();
+    }
+
+    private static void setReady(File directory) throws SVNException {
+        SVNFileUtil.createEmptyFile(new File(directory, READY_MARKER));
+    }
+
+    private static void generateRepository(File repositoryRoot) throws SVNException {
+        FSRepositoryFactory.setup();
+        final SVNURL url = SVNRepositoryFactory.createLocalRepository(repositoryRoot, true, true);
+        final SVNRepository svnRepository = SVNRepositoryFactory.create(url);
+        final SVNDeltaGenerator deltaGenerator = new SVNDeltaGenerator();
+        final Random random = new Random(0);
+        final List<String> bigFileLines = new ArrayList<String>();
+        for (int i = 0; i < BIG_FILE_LINES; i++) {
+            bigFileLines.add(createLine(random, i));
+        }
+        try {
+            ISVNEditor editor = svnRepository.getCommitEditor("Initial import", null);
+            editor.openRoot(-1);
+            editor.addDir("trunk", null, -1);
+            for (int dir = 0; dir < DIRECTORIES; dir++) {
+                editor.addDir("trunk/dir" + dir, null, -1);
+                for (int file = 0; file < FILES_PER_DIRECTORY; file++) {
+                    final String path = getSmallFilePath(dir * FILES_PER_DIRECTORY + file);
+                    editor.addFile(path, null, -1);
+                    sendContents(editor, deltaGenerator, path, createSmallFile(random, 1));
+                }
+                editor.closeDir();
+            }
+            editor.addFile(BIG_FILE, null, -1);
+            sendContents(editor, deltaGenerator, BIG_FILE, join(bigFileLines));
+            editor.closeDir();
+            editor.closeDir();
+            editor.closeEdit();
+
+            for (long revision = 2; revision <= REVISIONS; revision++) {
+                editor = svnRepository.getCommitEditor("Change " + revision + "\n\nModifies the big file and a couple of small files.", null);
+                editor.openRoot(-1);
+                editor.openDir("trunk", -1);
+                for (int i = 0; i < SMALL_FILES_PER_REVISION; i++) {
+                    final int index = random.nextInt(DIRECTORIES * FILES_PER_DIRECTORY);
+                    final String dirPath = "trunk/dir" + (index / FILES_PER_DIRECTORY);
+                    final String path = getSmallFilePath(index);
+                    editor.openDir(dirPath, -1);
+                    editor.openFile(path, -1);
+                    sendContents(editor, deltaGenerator, path, createSmallFile(random, revision));
+                    editor.closeDir();
+                }
+                for (int i = 0; i < 3; i++) {
+                    final int line = random.nextInt(BIG_FILE_LINES);
+                    bigFileLines.set(line, createLine(random, line));
+                }
+                editor.openFile(BIG_FILE, -1);
+                sendContents(editor, deltaGenerator, BIG_FILE, join(bigFileLines));
+                editor.closeDir();
+                editor.closeDir();
+                editor.closeEdit();
+            }
+        } finally {
+            svnRepository.closeSession();
+        }
+    }
+
+    private static void sendContents(ISVNEditor editor, SVNDeltaGenerator deltaGenerator, String path, byte[] contents) throws SVNException {
+        editor.applyTextDelta(path, null);
+        final String checksum = deltaGenerator.sendDelta(path, new ByteArrayInputStream(contents), editor, true);
+        editor.closeFile(path, checksum);
+    }
+
+    private static byte[] createSmallFile(Random random, long revision) {
+        final List<String> lines = new ArrayList<String>();
+        lines.add("revision " + revision);
+        for (int i = 1; i < SMALL_FILE_LINES; i++) {
+            lines.add(createLine(random, i));
+        }
+        return join(lines);
+    }
+
+    private static String createLine(Random random, int index) {
+        return "    line " + index + ": value = " + Long.toHexString(random.nextLong()) + " * " + random.nextInt(1000) + ";";
+    }
+
+    private static byte[] join(List<String> lines) {
+        final StringBuilder contents = new StringBuilder();
+        for (String line : lines) {
+            contents.append(line).append('\n');
+        }
+        try {
+            return contents.toString().getBytes("UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.delta.SVNDeltaCombiner;
+import org.tmatesoft.svn.core.internal.io.fs.FSFS;
+import org.tmatesoft.svn.core.internal.io.fs.FSRevisionRoot;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+
+/**
+ * File contents reconstruction from packed and unpacked FSFS repositories:
+ * the big file with long delta chains at the youngest and at an old revision,
+ * and a series of small files.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FSInputStreamBenchmark {
+
+    private static final int SMALL_FILES_COUNT = 100;
+
+    @Param({"unpacked", "packed"})
+    public String layout;
+
+    private FSFS myFSFS;
+    private SVNDeltaCombiner myCombiner;
+    private byte[] myBuffer;
+
+    @Setup
+    public void setUp() throws SVNException {
+        myFSFS = new FSFS(BenchmarkRepositories.getRepository("packed".equals(layout)));
+        myFSFS.open();
+        myCombiner = new SVNDeltaCombiner();
+        myBuffer = new byte[8192];
+    }
+
+    @TearDown
+    public void tearDown() throws SVNException {
+        myFSFS.close();
+    }
+
+    @Benchmark
+    public void readBigFileYoungest(Blackhole blackhole) throws SVNException, IOException {
+        read(myFSFS.createRevisionRoot(myFSFS.getYoungestRevision()), BenchmarkRepositories.BIG_FILE, blackhole);
+    }
+
+    @Benchmark
+    public void readBigFileOld(Blackhole blackhole) throws SVNException, IOException {
+        read(myFSFS.createRevisionRoot(BenchmarkRepositories.REVISIONS / 4), BenchmarkRepositories.BIG_FILE, blackhole);
+    }
+
+    @Benchmark
+    public void readSmallFiles(Blackhole blackhole) throws SVNException, IOException {
+        final FSRevisionRoot root = myFSFS.createRevisionRoot(myFSFS.getYoungestRevision());
+        for (int i = 0; i < SMALL_FILES_COUNT; i++) {
+            read(root, BenchmarkRepositories.getSmallFilePath(i * 7), blackhole);
+        }
+    }
+
+    private void read(FSRevisionRoot root, String path, Blackhole blackhole) throws SVNException, IOException {
+        final InputStream is = root.getFileStreamForPath(myCombiner, path);
+        try {
+            int read;
+            while ((read = is.read(myBuffer)) >= 0) {
+                blackhole.consume(read);
+            }
+        } finally {
+            SVNFileUtil.closeFile(is);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tmatesoft.svn.core.ISVNLogEntryHandler;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNLogEntry;
+import org.tmatesoft.svn.core.internal.io.fs.FSFS;
+import org.tmatesoft.svn.core.internal.io.fs.FSLog;
+
+/**
+ * History of packed and unpacked FSFS repositories: the whole repository log
+ * with changed paths and the node history of a single file.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FSLogBenchmark {
+
+    private static final String[] REVISION_PROPERTIES = new String[] {"svn:author", "svn:date", "svn:log"};
+
+    @Param({"unpacked", "packed"})
+    public String layout;
+
+    private FSFS myFSFS;
+
+    @Setup
+    public void setUp() throws SVNException {
+        myFSFS = new FSFS(BenchmarkRepositories.getRepository("packed".equals(layout)));
+        myFSFS.open();
+    }
+
+    @TearDown
+    public void tearDown() throws SVNException {
+        myFSFS.close();
+    }
+
+    @Benchmark
+    public long logRepository(Blackhole blackhole) throws SVNException {
+        return runLog("/", true, blackhole);
+    }
+
+    @Benchmark
+    public long logFile(Blackhole blackhole) throws SVNException {
+        return runLog("/" + BenchmarkRepositories.getSmallFilePath(0), false, blackhole);
+    }
+
+    private long runLog(String path, boolean discoverChangedPaths, final Blackhole blackhole) throws SVNException {
+        final long youngest = myFSFS.getYoungestRevision();
+        final FSLog log = new FSLog(myFSFS, new String[] {path}, 0, 0, youngest, true, discoverChangedPaths, false, false,
+                REVISION_PROPERTIES, new ISVNLogEntryHandler() {
+                    public void handleLogEntry(SVNLogEntry logEntry) {
+                        blackhole.consume(logEntry);
+                    }
+                });
+        return log.runLog();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tmatesoft.svn.core.internal.delta.SVNDeltaAlgorithm;
+import org.tmatesoft.svn.core.internal.delta.SVNVDeltaAlgorithm;
+import org.tmatesoft.svn.core.internal.delta.SVNXDeltaAlgorithm;
+
+/**
+ * Delta computation for a single 100K window, as done on commit (<code>xdelta</code>)
+ * and when reading old FSFS formats (<code>vdelta</code>).
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SVNDeltaAlgorithmBenchmark {
+
+    private static final int WINDOW_SIZE = 100 * 1024;
+
+    @Param({"xdelta", "vdelta"})
+    public String algorithm;
+
+    /**
+     * <code>similar</code>: target is the source with a few edits,
+     * <code>unrelated</code>: target shares no data with the source.
+     */
+    @Param({"similar", "unrelated"})
+    public String target;
+
+    private SVNDeltaAlgorithm myAlgorithm;
+    private byte[] mySource;
+    private byte[] myTarget;
+
+    @Setup
+    public void setUp() {
+        myAlgorithm = "vdelta".equals(algorithm) ? new SVNVDeltaAlgorithm() : new SVNXDeltaAlgorithm();
+        final Random random = new Random(0);
+        mySource = createText(random);
+        if ("unrelated".equals(target)) {
+            myTarget = createText(random);
+        } else {
+            myTarget = mySource.clone();
+            for (int i = 0; i < 20; i++) {
+                final int offset = random.nextInt(myTarget.length - 64);
+                for (int j = 0; j < 64; j++) {
+                    myTarget[offset + j] = (byte) ('a' + random.nextInt(26));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public int computeDelta() {
+        myAlgorithm.computeDelta(mySource, mySource.length, myTarget, myTarget.length);
+        final int length = myAlgorithm.getInstructionsLength() + myAlgorithm.getNewDataLength();
+        myAlgorithm.reset();
+        return length;
+    }
+
+    static byte[] createText(Random random) {
+        final byte[] text = new byte[WINDOW_SIZE];
+        for (int i = 0; i < text.length; i++) {
+            text[i] = (i % 64 == 63) ? (byte) '\n' : (byte) ('a' + random.nextInt(26));
+        }
+        return text;
+    }
+}
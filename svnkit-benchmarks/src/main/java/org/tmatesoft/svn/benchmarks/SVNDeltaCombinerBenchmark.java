@@ -0,0 +1,95 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.benchmarks;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.delta.SVNDeltaAlgorithm;
+import org.tmatesoft.svn.core.internal.delta.SVNDeltaCombiner;
+import org.tmatesoft.svn.core.internal.delta.SVNXDeltaAlgorithm;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+
+/**
+ * Combination of a delta chain into a single 100K window, the way
+ * <code>FSInputStream</code> reconstructs a file text from its representations.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SVNDeltaCombinerBenchmark {
+
+    @Param({"2", "8", "32"})
+    public int chainLength;
+
+    private SVNDeltaCombiner myCombiner;
+    private SVNDiffWindow[] myWindows;
+
+    @Setup
+    public void setUp() {
+        myCombiner = new SVNDeltaCombiner();
+        myWindows = new SVNDiffWindow[chainLength];
+
+        final Random random = new Random(0);
+        final SVNDeltaAlgorithm algorithm = new SVNXDeltaAlgorithm();
+        byte[] source = new byte[0];
+        byte[] target = SVNDeltaAlgorithmBenchmark.createText(random);
+        for (int i = 0; i < chainLength; i++) {
+            algorithm.computeDelta(source, source.length, target, target.length);
+            final SVNDiffWindow window = new SVNDiffWindow(0, source.length, target.length,
+                    algorithm.getInstructionsLength(), algorithm.getNewDataLength());
+            window.setData(algorithm.getData());
+            myWindows[chainLength - i - 1] = window.clone(ByteBuffer.allocate(window.getDataLength()));
+            algorithm.reset();
+
+            source = target;
+            target = source.clone();
+            for (int j = 0; j < 10; j++) {
+                final int offset = random.nextInt(target.length - 32);
+                for (int k = 0; k < 32; k++) {
+                    target[offset + k] = (byte) ('a' + random.nextInt(26));
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public ByteBuffer combine() throws SVNException {
+        myCombiner.reset();
+        for (int i = 0; i < myWindows.length; i++) {
+            final ByteBuffer result = myCombiner.addWindow(myWindows[i]);
+            if (result != null) {
+                return result;
+            }
+        }
+        throw new IllegalStateException("Delta chain does not end with a full text window");
+    }
+}
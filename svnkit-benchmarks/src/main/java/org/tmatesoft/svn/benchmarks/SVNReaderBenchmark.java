@@ -0,0 +1,90 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.io.svn.SVNItem;
+import org.tmatesoft.svn.core.internal.io.svn.SVNReader;
+
+/**
+ * Parsing of an svn:// protocol log response with 1000 entries, using the same
+ * tuple templates as <code>SVNRepositoryImpl.log()</code>.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SVNReaderBenchmark {
+
+    private static final int ENTRIES_COUNT = 1000;
+
+    private byte[] myResponse;
+
+    @Setup
+    public void setUp() throws UnsupportedEncodingException {
+        final StringBuilder response = new StringBuilder();
+        for (int revision = ENTRIES_COUNT; revision > 0; revision--) {
+            response.append("( ( ");
+            for (int i = 0; i < 3; i++) {
+                final String path = "/trunk/dir" + i + "/file" + revision + ".txt";
+                response.append("( ").append(path.length()).append(':').append(path).append(" M ( ) ( 4:file false false ) ) ");
+            }
+            final String message = "Change " + revision + "\n\nModifies a couple of files.";
+            response.append(") ").append(revision).append(" ( 6:author ) ( 27:2016-01-01T12:00:00.000000Z ) ( ");
+            response.append(message.length()).append(':').append(message).append(" ) false false 0 ( ) false ) ");
+        }
+        response.append("done ");
+        myResponse = response.toString().getBytes("UTF-8");
+    }
+
+    @Benchmark
+    public int parseLog(Blackhole blackhole) throws SVNException {
+        final InputStream is = new ByteArrayInputStream(myResponse);
+        int count = 0;
+        while (true) {
+            final SVNItem item = SVNReader.readItem(is);
+            if (item.getKind() == SVNItem.WORD && "done".equals(item.getWord())) {
+                break;
+            }
+            final List items = SVNReader.parseTuple("lr(?s)(?s)(?s)?ssnl?s", item.getItems(), null);
+            final List changedPaths = (List) items.get(0);
+            for (Object changedPath : changedPaths) {
+                blackhole.consume(SVNReader.parseTuple("sw(?sr)?(?s)", ((SVNItem) changedPath).getItems(), null));
+            }
+            blackhole.consume(items);
+            count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.tmatesoft.svn.core.internal.wc.admin.SVNTranslatorInputStream;
+import org.tmatesoft.svn.core.internal.wc.admin.SVNTranslatorOutputStream;
+
+/**
+ * EOL and keyword translation of a 1M file, as done on checkout (expansion)
+ * and on commit or status (contraction).
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SVNSubstitutorBenchmark {
+
+    private static final int FILE_SIZE = 1024 * 1024;
+    private static final int CHUNK_SIZE = 8192;
+
+    /**
+     * <code>source</code>: program text with LF line ends and a few keywords,
+     * <code>binary</code>: random bytes without LF or '$'.
+     */
+    @Param({"source", "binary"})
+    public String content;
+
+    @Param({"eol", "keywords", "eol+keywords"})
+    public String translation;
+
+    private byte[] myContent;
+    private byte[] myEOL;
+    private Map<String, byte[]> myKeywords;
+
+    @Setup
+    public void setUp() throws IOException {
+        myContent = "binary".equals(content) ? createBinaryContent() : createSourceContent();
+        myEOL = translation.contains("eol") ? new byte[] {'\r', '\n'} : null;
+        if (translation.contains("keywords")) {
+            myKeywords = new HashMap<String, byte[]>();
+            myKeywords.put("Rev", "12345".getBytes("UTF-8"));
+            myKeywords.put("Id", "SVNSubstitutorBenchmark.java 12345 2016-01-01 12:00:00Z author".getBytes("UTF-8"));
+        }
+    }
+
+    @Benchmark
+    public void expand(Blackhole blackhole) throws IOException {
+        final OutputStream os = new SVNTranslatorOutputStream(new BlackholeOutputStream(blackhole), myEOL, false, myKeywords, true);
+        for (int offset = 0; offset < myContent.length; offset += CHUNK_SIZE) {
+            os.write(myContent, offset, Math.min(CHUNK_SIZE, myContent.length - offset));
+        }
+        os.close();
+    }
+
+    @Benchmark
+    public void contract(Blackhole blackhole) throws IOException {
+        final SVNTranslatorInputStream is = new SVNTranslatorInputStream(new java.io.ByteArrayInputStream(myContent), new byte[] {'\n'}, true, myKeywords, false);
+        final byte[] buffer = new byte[CHUNK_SIZE];
+        int read;
+        while ((read = is.read(buffer)) >= 0) {
+            blackhole.consume(read);
+        }
+        is.close();
+    }
+
+    private static byte[] createSourceContent() throws IOException {
+        final StringBuilder text = new StringBuilder();
+        text.append("/* $Id$ */\n");
+        int line = 0;
+        while (text.length() < FILE_SIZE) {
+            if (line % 500 == 0) {
+                text.append("    // $Rev$\n");
+            }
+            text.append("    public void method").append(line).append("(int argument) { return argument * ").append(line).append("; }\n");
+            line++;
+        }
+        return text.substring(0, FILE_SIZE).getBytes("UTF-8");
+    }
+
+    private static byte[] createBinaryContent() {
+        final byte[] content = new byte[FILE_SIZE];
+        new Random(0).nextBytes(content);
+        for (int i = 0; i < content.length; i++) {
+            if (content[i] == '\r' || content[i] == '\n' || content[i] == '$') {
+                content[i] = 0;
+            }
+        }
+        return content;
+    }
+
+    private static class BlackholeOutputStream extends OutputStream {
+
+        private final Blackhole myBlackhole;
+
+        public BlackholeOutputStream(Blackhole blackhole) {
+            myBlackhole = blackhole;
+        }
+
+        public void write(int b) {
+            myBlackhole.consume(b);
+        }
+
+        public void write(byte[] b, int off, int len) {
+            myBlackhole.consume(b);
+            myBlackhole.consume(len);
+        }
+    }
+}
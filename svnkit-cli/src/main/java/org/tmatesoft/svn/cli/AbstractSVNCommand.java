@@ -56,6 +56,10 @@ public abstract class AbstractSVNCommand {
         }
     }
     
+    public static void clearCommands() {
+        ourCommands.clear();
+    }
+
     public static AbstractSVNCommand getCommand(String nameOrAlias) {
         return (AbstractSVNCommand) ourCommands.get(nameOrAlias);
     }
@@ -75,6 +75,7 @@ public abstract class AbstractSVNCommandEnvironment implements ISVNCanceller {
     private String myProgramName;
     private AbstractSVNCommand myCommand;
     private String myCommandName;
+    private File myWorkingDirectory;
 
     protected AbstractSVNCommandEnvironment(String programName, PrintStream out, PrintStream err, InputStream in) {
         myOut = out;
@@ -119,6 +120,43 @@ public abstract class AbstractSVNCommandEnvironment implements ISVNCanceller {
         return myCommandName;
     }
 
+    /**
+     * Makes relative paths resolve against <code>directory</code> instead of the JVM's working
+     * directory, which <code>java.io.File</code> always uses; set for commands run by
+     * {@link SVNDaemon} on behalf of a client.
+     */
+    void setWorkingDirectory(File directory) {
+        myWorkingDirectory = directory;
+    }
+
+    public File getWorkingDirectory() {
+        return myWorkingDirectory != null ? myWorkingDirectory : new File("").getAbsoluteFile();
+    }
+
+    /**
+     * Returns <code>path</code> made absolute against the working directory of the command.
+     * URLs, repository relative URLs and absolute paths are returned as they are, as are
+     * all paths when the command runs in the JVM's own working directory.
+     */
+    public String resolvePath(String path) {
+        if (myWorkingDirectory == null || path == null || SVNCommandUtil.isURL(path) || isReposRelative(path) || new File(path).isAbsolute()) {
+            return path;
+        }
+        return new File(myWorkingDirectory, path).getPath();
+    }
+
+    public File resolveFile(String path) {
+        return new File(resolvePath(path));
+    }
+
+    public SVNPath createPath(String target) throws SVNException {
+        return new SVNPath(resolvePath(target));
+    }
+
+    public SVNPath createPath(String target, boolean keepPegRevision) throws SVNException {
+        return new SVNPath(resolvePath(target), keepPegRevision);
+    }
+
     public String popArgument() {
         if (myArguments.isEmpty()) {
             return null;
@@ -275,7 +313,7 @@ public abstract class AbstractSVNCommandEnvironment implements ISVNCanceller {
         if (hasRelativeURLs) {
             if (rootURL == null) {
                 SVNWCClient wcClient = getClientManager().getWCClient();
-                rootURL = wcClient.getReposRoot(new File("").getAbsoluteFile(), null, SVNRevision.BASE);
+                rootURL = wcClient.getReposRoot(getWorkingDirectory(), null, SVNRevision.BASE);
             }
             for (Iterator targetsIter = targets.iterator(); targetsIter.hasNext();) {
                 String target = (String) targetsIter.next();
@@ -403,7 +441,7 @@ public abstract class AbstractSVNCommandEnvironment implements ISVNCanceller {
 
     public String getRelativePath(File file) {
         String inPath = file.getAbsolutePath().replace(File.separatorChar, '/');
-        String basePath = new File("").getAbsolutePath().replace(File.separatorChar, '/');
+        String basePath = getWorkingDirectory().getAbsolutePath().replace(File.separatorChar, '/');
         String commonRoot = getCommonAncestor(inPath, basePath);
         if (commonRoot != null && commonRoot.length() > 0) {
             if (equals(inPath , commonRoot)) {
@@ -421,7 +459,7 @@ public abstract class AbstractSVNCommandEnvironment implements ISVNCanceller {
         }
         try {
             SvnGetInfo info = new SvnOperationFactory().createGetInfo();
-            info.setSingleTarget(SvnTarget.fromFile(new File(target)));
+            info.setSingleTarget(SvnTarget.fromFile(resolveFile(target)));
             info.setDepth(SVNDepth.EMPTY);
             SvnInfo i = info.run();
             return i != null ? i.getUrl() : null;
@@ -432,7 +470,7 @@ public abstract class AbstractSVNCommandEnvironment implements ISVNCanceller {
     }
 
     public boolean isVersioned(String target) throws SVNException {
-        SVNPath commandTarget = new SVNPath(target);
+        SVNPath commandTarget = createPath(target);
         if (SVNBasicClient.isWC17Supported()) {
             SVNWCContext context = null;
             try {
@@ -488,7 +526,7 @@ public abstract class AbstractSVNCommandEnvironment implements ISVNCanceller {
     }
 
     private SVNURL checkRootURLOfTarget(SVNURL rootURL, String target) throws SVNException {
-        SVNPath svnPath = new SVNPath(target, true);
+        SVNPath svnPath = createPath(target, true);
         SVNWCClient client = getClientManager().getWCClient();
         File path = svnPath.isFile() ? svnPath.getFile() : null;
         SVNURL url = svnPath.isURL() ? svnPath.getURL() : null;
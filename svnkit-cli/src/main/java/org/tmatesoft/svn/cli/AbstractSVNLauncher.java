@@ -11,6 +11,7 @@
  */
 package org.tmatesoft.svn.cli;
 
+import java.io.File;
 import java.text.MessageFormat;
 
 import org.tmatesoft.svn.core.SVNAuthenticationException;
@@ -28,15 +29,43 @@ public abstract class AbstractSVNLauncher {
 
     private static volatile boolean ourIsCompleted;
     private static volatile Thread ourShutdownHook;
+    private static volatile boolean ourIsExitDisabled;
+    private static volatile int ourExitCode;
+
+    private File myWorkingDirectory;
+
+    /**
+     * Makes launchers record the exit code instead of exiting the JVM, so that
+     * commands may be run by a long-lived {@link SVNDaemon}.
+     */
+    static void setExitDisabled(boolean disabled) {
+        ourIsExitDisabled = disabled;
+    }
+
+    static int getExitCode() {
+        return ourExitCode;
+    }
+
+    /**
+     * Sets the directory relative paths of the command are resolved against, see
+     * {@link AbstractSVNCommandEnvironment#getWorkingDirectory()}.
+     */
+    void setWorkingDirectory(File directory) {
+        myWorkingDirectory = directory;
+    }
 
     protected void run(String[] args) {
         ourIsCompleted = false;
+        ourExitCode = 0;
         
         if (needArgs() && (args == null || args.length < 1)) {
             printBasicUsage();
             failure();
             return;
         }
+        // a daemon runs several programs in one JVM.
+        SVNCommandLine.clearOptions();
+        AbstractSVNCommand.clearCommands();
         registerOptions();
         registerCommands();
 
@@ -50,6 +79,7 @@ public abstract class AbstractSVNLauncher {
             return;
         }
         AbstractSVNCommandEnvironment env = createCommandEnvironment();
+        env.setWorkingDirectory(myWorkingDirectory);
         synchronized(AbstractSVNLauncher.class) {
             if (ourShutdownHook == null) {
                 ourShutdownHook = new Thread(new Cancellator(env)); 
@@ -117,17 +147,21 @@ public abstract class AbstractSVNLauncher {
 
     public void failure() {
         setCompleted();
-        try {
-            System.exit(1);
-        } catch (SecurityException se) {
-            
-        }
+        exit(1);
     }
 
     public void success() {
         setCompleted();
+        exit(0);
+    }
+
+    private void exit(int code) {
+        ourExitCode = code;
+        if (ourIsExitDisabled) {
+            return;
+        }
         try {
-            System.exit(0);
+            System.exit(code);
         } catch (SecurityException se) {
             
         }
@@ -44,6 +44,14 @@ public class SVNCommandLine {
         }
     }
 
+    public static void clearOptions() {
+        ourOptions.clear();
+    }
+
+    static AbstractSVNOption getOption(String name) {
+        return (AbstractSVNOption) ourOptions.get(name);
+    }
+
     private String myCommand;
     private Collection myArguments;
     private Collection myOptions;
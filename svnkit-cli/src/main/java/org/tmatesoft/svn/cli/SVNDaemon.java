@@ -0,0 +1,349 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.cli;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.util.SVNDebugLog;
+import org.tmatesoft.svn.util.SVNLogType;
+
+/**
+ * Keeps a JVM with SVNKit loaded and runs <code>jsvn</code>, <code>jsvnadmin</code>,
+ * <code>jsvnlook</code>, <code>jsvnsync</code>, <code>jsvnversion</code> and
+ * <code>jsvndumpfilter</code> commands in it, so that repeated invocations (for instance
+ * <code>svnlook</code> calls from repository hooks) do not pay for JVM startup and class
+ * loading, and share repository caches.
+ *
+ * <p/>
+ * The daemon speaks the Nailgun protocol, so the native <code>ng</code> client is used as
+ * the thin client. It forwards arguments, environment, working directory and standard
+ * streams; the program is selected by the command name, either passed to <code>ng</code>
+ * or taken from the name of a link to it:
+ * <pre>
+ *     jsvnd --port 2113 &
+ *     export JSVND_TOKEN=`cat ~/.jsvnd/token`
+ *     ng jsvnlook youngest /var/svn/repos
+ *     ln -s `which ng` jsvnlook; ./jsvnlook youngest /var/svn/repos
+ *     ng jsvnd-stop
+ * </pre>
+ *
+ * <p/>
+ * Every user who may connect to the daemon would run commands with its rights, so the daemon
+ * only listens on a loopback address and runs a command, <code>jsvnd-stop</code> included,
+ * only for a client whose <code>JSVND_TOKEN</code> environment variable holds the daemon's
+ * token. The token is read from the file given by <code>--token-file</code>
+ * (<code>~/.jsvnd/token</code> by default), which is created readable by its owner only
+ * when missing.
+ *
+ * <p/>
+ * Commands change JVM wide state (standard streams and environment), so they are run one at
+ * a time. Relative paths are resolved against the client's working directory, see
+ * {@link AbstractSVNCommandEnvironment#getWorkingDirectory()}.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ * @since   1.9
+ */
+public class SVNDaemon {
+
+    public static final int DEFAULT_PORT = 2113;
+
+    public static final String TOKEN_VARIABLE = "JSVND_TOKEN";
+
+    private static final String STOP_COMMAND = "jsvnd-stop";
+    private static final int TOKEN_LENGTH = 32;
+    private static final String[] PROGRAMS = {"svn", "svnadmin", "svnlook", "svnsync", "svnversion", "svndumpfilter"};
+
+    private final ServerSocket myServerSocket;
+    private final byte[] myToken;
+    private final ExecutorService myConnections;
+    private final Lock myCommandLock = new ReentrantLock(true);
+    private volatile boolean myIsRunning;
+
+    public static void main(String[] args) {
+        String host = null;
+        int port = DEFAULT_PORT;
+        File tokenFile = new File(System.getProperty("user.home"), ".jsvnd/token");
+        for (int i = 0; i < args.length; i++) {
+            if (("--host".equals(args[i]) || "--port".equals(args[i]) || "--token-file".equals(args[i])) && i + 1 < args.length) {
+                if ("--host".equals(args[i])) {
+                    host = args[++i];
+                } else if ("--port".equals(args[i])) {
+                    port = Integer.parseInt(args[++i]);
+                } else {
+                    tokenFile = new File(args[++i]).getAbsoluteFile();
+                }
+            } else {
+                System.err.println("usage: jsvnd [--host LOOPBACK-ADDRESS] [--port PORT] [--token-file FILE]");
+                System.exit(1);
+            }
+        }
+        try {
+            SVNDaemon daemon = new SVNDaemon(host, port, readToken(tokenFile));
+            System.err.println("jsvnd: listening on " + daemon.myServerSocket.getLocalSocketAddress() + ", token in " + tokenFile);
+            daemon.run();
+        } catch (IOException e) {
+            System.err.println("jsvnd: " + e.getMessage());
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * @param host   loopback address to listen on, <code>127.0.0.1</code> when <code>null</code>
+     * @param token  token clients have to pass in the <code>JSVND_TOKEN</code> environment variable
+     */
+    public SVNDaemon(String host, int port, String token) throws IOException {
+        if (token == null || token.length() == 0) {
+            throw new IllegalArgumentException("token is empty");
+        }
+        InetAddress address = host != null ? InetAddress.getByName(host) : InetAddress.getByName("127.0.0.1");
+        if (!address.isLoopbackAddress()) {
+            throw new IOException("refusing to listen on '" + host + "', it is not a loopback address");
+        }
+        myToken = token.getBytes("UTF-8");
+        myServerSocket = new ServerSocket();
+        myServerSocket.setReuseAddress(true);
+        myServerSocket.bind(new InetSocketAddress(address, port));
+        myConnections = Executors.newCachedThreadPool(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "jsvnd-connection");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public int getPort() {
+        return myServerSocket.getLocalPort();
+    }
+
+    public void run() {
+        myIsRunning = true;
+        AbstractSVNLauncher.setExitDisabled(true);
+        try {
+            while (myIsRunning) {
+                final Socket socket;
+                try {
+                    socket = myServerSocket.accept();
+                } catch (IOException e) {
+                    if (myIsRunning) {
+                        SVNDebugLog.getDefaultLog().logError(SVNLogType.CLIENT, e);
+                    }
+                    break;
+                }
+                myConnections.execute(new Runnable() {
+                    public void run() {
+                        serve(socket);
+                    }
+                });
+            }
+        } finally {
+            AbstractSVNLauncher.setExitDisabled(false);
+            myConnections.shutdownNow();
+        }
+    }
+
+    public void stop() {
+        myIsRunning = false;
+        try {
+            myServerSocket.close();
+        } catch (IOException e) {
+            //
+        }
+    }
+
+    private void serve(Socket socket) {
+        SVNDaemonConnection connection = null;
+        try {
+            socket.setTcpNoDelay(true);
+            connection = new SVNDaemonConnection(socket);
+            connection.readRequest();
+            String token = (String) connection.getEnvironment().remove(TOKEN_VARIABLE);
+            if (token == null || !MessageDigest.isEqual(myToken, token.getBytes("UTF-8"))) {
+                connection.getErr().println("jsvnd: access denied, set " + TOKEN_VARIABLE + " to the daemon's token");
+                connection.exit(1);
+                return;
+            }
+            String command = connection.getCommand();
+            if (STOP_COMMAND.equals(command)) {
+                connection.exit(0);
+                stop();
+                return;
+            }
+            String program = getProgramName(command);
+            if (program == null) {
+                connection.getErr().println("jsvnd: unknown command '" + command + "'");
+                connection.exit(1);
+                return;
+            }
+            connection.startInput();
+            myCommandLock.lock();
+            try {
+                connection.exit(runProgram(program, connection));
+            } finally {
+                myCommandLock.unlock();
+            }
+        } catch (SocketException e) {
+            // client has gone.
+        } catch (IOException e) {
+            SVNDebugLog.getDefaultLog().logFine(SVNLogType.CLIENT, e);
+        } finally {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+    }
+
+    private int runProgram(String program, SVNDaemonConnection connection) {
+        PrintStream out = System.out;
+        PrintStream err = System.err;
+        InputStream in = System.in;
+        try {
+            System.setOut(connection.getOut());
+            System.setErr(connection.getErr());
+            System.setIn(connection.getIn());
+            SVNFileUtil.setEnvironment(connection.getEnvironment());
+
+            AbstractSVNLauncher launcher = createLauncher(program);
+            // java.io.File ignores changes of user.dir, the command resolves paths itself.
+            File directory = connection.getWorkingDirectory() != null ? new File(connection.getWorkingDirectory()) : null;
+            if (directory == null || !directory.isAbsolute()) {
+                connection.getErr().println("jsvnd: client has not sent an absolute working directory");
+                return 1;
+            }
+            launcher.setWorkingDirectory(directory);
+            launcher.run(connection.getArguments());
+            return AbstractSVNLauncher.getExitCode();
+        } catch (Throwable th) {
+            SVNDebugLog.getDefaultLog().logSevere(SVNLogType.CLIENT, th);
+            th.printStackTrace(connection.getErr());
+            return 1;
+        } finally {
+            connection.getOut().flush();
+            connection.getErr().flush();
+            SVNFileUtil.setEnvironment(null);
+            System.setIn(in);
+            System.setErr(err);
+            System.setOut(out);
+        }
+    }
+
+    /**
+     * Reads the token from <code>file</code>, creating the file with a random token, readable
+     * and writable by its owner only, when it does not exist.
+     */
+    static String readToken(File file) throws IOException {
+        if (!file.isFile()) {
+            File directory = file.getParentFile();
+            if (directory != null && !directory.isDirectory()) {
+                if (!directory.mkdirs()) {
+                    throw new IOException("cannot create directory '" + directory + "'");
+                }
+                restrictToOwner(directory);
+                directory.setExecutable(false, false);
+                directory.setExecutable(true, true);
+            }
+            if (!file.createNewFile()) {
+                throw new IOException("cannot create token file '" + file + "'");
+            }
+            restrictToOwner(file);
+            byte[] random = new byte[TOKEN_LENGTH];
+            new SecureRandom().nextBytes(random);
+            StringBuffer token = new StringBuffer();
+            for (int i = 0; i < random.length; i++) {
+                token.append(Integer.toHexString((random[i] & 0xFF) | 0x100).substring(1));
+            }
+            OutputStream os = new FileOutputStream(file);
+            try {
+                os.write(token.toString().getBytes("US-ASCII"));
+            } finally {
+                SVNFileUtil.closeFile(os);
+            }
+        }
+        String token;
+        try {
+            token = new String(SVNFileUtil.readFully(file), "US-ASCII").trim();
+        } catch (SVNException e) {
+            throw new IOException(e.getMessage());
+        }
+        if (token.length() == 0) {
+            throw new IOException("token file '" + file + "' is empty");
+        }
+        return token;
+    }
+
+    private static void restrictToOwner(File file) throws IOException {
+        if (SVNFileUtil.isWindows) {
+            // permissions are inherited from the user's profile directory.
+            return;
+        }
+        if (!file.setReadable(false, false) || !file.setReadable(true, true) ||
+                !file.setWritable(false, false) || !file.setWritable(true, true)) {
+            throw new IOException("cannot restrict access to '" + file + "' to its owner");
+        }
+    }
+
+    private static AbstractSVNLauncher createLauncher(String program) {
+        if ("svn".equals(program)) {
+            return new org.tmatesoft.svn.cli.svn.SVN();
+        } else if ("svnadmin".equals(program)) {
+            return new org.tmatesoft.svn.cli.svnadmin.SVNAdmin();
+        } else if ("svnlook".equals(program)) {
+            return new org.tmatesoft.svn.cli.svnlook.SVNLook();
+        } else if ("svnsync".equals(program)) {
+            return new org.tmatesoft.svn.cli.svnsync.SVNSync();
+        } else if ("svnversion".equals(program)) {
+            return new org.tmatesoft.svn.cli.svnversion.SVNVersion();
+        }
+        return new org.tmatesoft.svn.cli.svndumpfilter.SVNDumpFilter();
+    }
+
+    private static String getProgramName(String command) {
+        if (command == null) {
+            return null;
+        }
+        int slash = Math.max(command.lastIndexOf('/'), command.lastIndexOf('\\'));
+        String name = command.substring(slash + 1);
+        if (name.endsWith(".exe")) {
+            name = name.substring(0, name.length() - ".exe".length());
+        }
+        if (name.startsWith("j")) {
+            name = name.substring(1);
+        }
+        for (int i = 0; i < PROGRAMS.length; i++) {
+            if (PROGRAMS[i].equals(name)) {
+                return name;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,246 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.cli;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.tmatesoft.svn.core.internal.util.SVNHashMap;
+
+/**
+ * One client of {@link SVNDaemon}. Data is exchanged in Nailgun chunks: a four byte
+ * big-endian length, a chunk type byte and the payload. The client sends arguments
+ * (<code>A</code>), environment (<code>E</code>), working directory (<code>D</code>) and the
+ * command (<code>C</code>), then standard input (<code>0</code>, <code>.</code> at its end);
+ * the daemon answers with standard output (<code>1</code>), standard error (<code>2</code>)
+ * and the exit code (<code>X</code>).
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+class SVNDaemonConnection {
+
+    private static final int CHUNK_ARGUMENT = 'A';
+    private static final int CHUNK_ENVIRONMENT = 'E';
+    private static final int CHUNK_DIRECTORY = 'D';
+    private static final int CHUNK_COMMAND = 'C';
+    private static final int CHUNK_STDIN = '0';
+    private static final int CHUNK_STDOUT = '1';
+    private static final int CHUNK_STDERR = '2';
+    private static final int CHUNK_STDIN_EOF = '.';
+    private static final int CHUNK_EXIT = 'X';
+
+    private static final int MAX_CHUNK_LENGTH = 1024 * 1024;
+
+    private static final byte[] EOF = new byte[0];
+
+    private final Socket mySocket;
+    private final DataInputStream myInput;
+    private final OutputStream myOutput;
+
+    private final List<String> myArguments = new ArrayList<String>();
+    private final Map myEnvironment = new SVNHashMap();
+    private String myWorkingDirectory;
+    private String myCommand;
+
+    private final BlockingQueue<byte[]> myStdin = new LinkedBlockingQueue<byte[]>();
+    private final PrintStream myOut;
+    private final PrintStream myErr;
+    private final InputStream myIn;
+
+    public SVNDaemonConnection(Socket socket) throws IOException {
+        mySocket = socket;
+        myInput = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        myOutput = socket.getOutputStream();
+        myOut = new PrintStream(new BufferedOutputStream(new ChunkOutputStream(CHUNK_STDOUT), 8192));
+        myErr = new PrintStream(new BufferedOutputStream(new ChunkOutputStream(CHUNK_STDERR), 8192));
+        myIn = new StdinInputStream();
+    }
+
+    public void readRequest() throws IOException {
+        while (myCommand == null) {
+            int length = myInput.readInt();
+            int type = myInput.readUnsignedByte();
+            byte[] data = readChunkData(length);
+            String value = new String(data, "UTF-8");
+            if (type == CHUNK_ARGUMENT) {
+                myArguments.add(value);
+            } else if (type == CHUNK_ENVIRONMENT) {
+                int index = value.indexOf('=');
+                if (index > 0) {
+                    myEnvironment.put(value.substring(0, index), value.substring(index + 1));
+                }
+            } else if (type == CHUNK_DIRECTORY) {
+                myWorkingDirectory = value;
+            } else if (type == CHUNK_COMMAND) {
+                myCommand = value;
+            } else {
+                throw new IOException("Unexpected chunk type '" + (char) type + "'");
+            }
+        }
+    }
+
+    public void startInput() {
+        Thread reader = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    while (true) {
+                        int length = myInput.readInt();
+                        int type = myInput.readUnsignedByte();
+                        byte[] data = readChunkData(length);
+                        if (type == CHUNK_STDIN && length > 0) {
+                            myStdin.add(data);
+                        } else if (type == CHUNK_STDIN_EOF) {
+                            break;
+                        }
+                    }
+                } catch (IOException e) {
+                    //
+                } finally {
+                    myStdin.add(EOF);
+                }
+            }
+        }, "jsvnd-stdin");
+        reader.setDaemon(true);
+        reader.start();
+    }
+
+    public String getCommand() {
+        return myCommand;
+    }
+
+    public String[] getArguments() {
+        return myArguments.toArray(new String[myArguments.size()]);
+    }
+
+    public Map getEnvironment() {
+        return myEnvironment;
+    }
+
+    public String getWorkingDirectory() {
+        return myWorkingDirectory;
+    }
+
+    public PrintStream getOut() {
+        return myOut;
+    }
+
+    public PrintStream getErr() {
+        return myErr;
+    }
+
+    public InputStream getIn() {
+        return myIn;
+    }
+
+    public void exit(int code) throws IOException {
+        myOut.flush();
+        myErr.flush();
+        byte[] data = String.valueOf(code).getBytes("US-ASCII");
+        writeChunk(CHUNK_EXIT, data, 0, data.length);
+    }
+
+    public void close() {
+        try {
+            mySocket.close();
+        } catch (IOException e) {
+            //
+        }
+    }
+
+    private byte[] readChunkData(int length) throws IOException {
+        if (length < 0 || length > MAX_CHUNK_LENGTH) {
+            throw new IOException("Invalid chunk length " + length);
+        }
+        byte[] data = new byte[length];
+        myInput.readFully(data);
+        return data;
+    }
+
+    private synchronized void writeChunk(int type, byte[] data, int offset, int length) throws IOException {
+        byte[] header = new byte[] {(byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8), (byte) length, (byte) type};
+        myOutput.write(header);
+        myOutput.write(data, offset, length);
+        myOutput.flush();
+    }
+
+    private class ChunkOutputStream extends OutputStream {
+
+        private final int myType;
+
+        public ChunkOutputStream(int type) {
+            myType = type;
+        }
+
+        public void write(int b) throws IOException {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                writeChunk(myType, b, off, len);
+            }
+        }
+    }
+
+    private class StdinInputStream extends InputStream {
+
+        private byte[] myBuffer;
+        private int myPosition;
+
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int read = read(b, 0, 1);
+            return read < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (myBuffer == null || myPosition >= myBuffer.length) {
+                if (myBuffer == EOF) {
+                    return -1;
+                }
+                try {
+                    myBuffer = myStdin.take();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted");
+                }
+                myPosition = 0;
+                if (myBuffer == EOF) {
+                    return -1;
+                }
+            }
+            int count = Math.min(len, myBuffer.length - myPosition);
+            System.arraycopy(myBuffer, myPosition, b, off, count);
+            myPosition += count;
+            return count;
+        }
+
+        public int available() {
+            return myBuffer != null && myBuffer != EOF ? myBuffer.length - myPosition : 0;
+        }
+    }
+}
@@ -68,7 +68,7 @@ public class SVNAddCommand extends SVNCommand {
         boolean hasPresentPaths = false;
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String targetName = (String) ts.next();
-            SVNPath target = new SVNPath(targetName);
+            SVNPath target = getSVNEnvironment().createPath(targetName);
             if (target.isURL()) {
                 continue;
             }
@@ -92,7 +92,7 @@ public class SVNBlameCommand extends SVNXMLCommand implements ISVNAnnotateHandle
         boolean hasMissingTargets = false;
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String targetName = (String) ts.next();
-            SVNPath target = new SVNPath(targetName, true);
+            SVNPath target = getSVNEnvironment().createPath(targetName, true);
             SVNRevision endRev = end;
             if (endRev == SVNRevision.UNDEFINED) {
                 if (target.getPegRevision() != SVNRevision.UNDEFINED) {
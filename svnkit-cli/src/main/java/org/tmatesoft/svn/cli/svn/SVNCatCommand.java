@@ -52,7 +52,7 @@ public class SVNCatCommand extends SVNCommand {
         boolean seenNonExistentTarget = false;
         
         for(int i = 0; i < targets.size(); i++) {
-            SVNPath target = new SVNPath((String) targets.get(i), true);
+            SVNPath target = getSVNEnvironment().createPath((String) targets.get(i), true);
             try {
                 if (target.isURL()) {
                     client.doGetFileContents(target.getURL(), target.getPegRevision(), getSVNEnvironment().getStartRevision(), true, getSVNEnvironment().getOut());
@@ -72,7 +72,7 @@ public class SVNChangeListCommand extends SVNCommand {
         Collection paths = new ArrayList();
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String targetName = (String) ts.next();
-            SVNPath target = new SVNPath(targetName);
+            SVNPath target = getSVNEnvironment().createPath(targetName);
             paths.add(target.getFile());
         }
         File[] files = (File[]) paths.toArray(new File[paths.size()]);
@@ -57,7 +57,7 @@ public class SVNCheckoutCommand extends SVNCommand {
         String lastTarget = (String) targets.get(targets.size() - 1);
         if (SVNCommandUtil.isURL(lastTarget)) {
             if (targets.size() == 1) {
-                SVNPath target = new SVNPath(lastTarget, true);
+                SVNPath target = getSVNEnvironment().createPath(lastTarget, true);
                 lastTarget = target.getURL().getPath();
                 lastTarget = SVNPathUtil.tail(lastTarget);
             } else {
@@ -75,7 +75,7 @@ public class SVNCheckoutCommand extends SVNCommand {
         SVNRevision revision = getSVNEnvironment().getStartRevision();
         for (int i = 0; i < targets.size() - 1; i++) {
             String targetName = (String) targets.get(i);
-            SVNPath target = new SVNPath(targetName, true);
+            SVNPath target = getSVNEnvironment().createPath(targetName, true);
             if (!target.isURL()) {
                 SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.BAD_URL, "''{0}'' doesn not appear to be a URL", targetName), SVNLogType.CLIENT);
             }
@@ -84,13 +84,13 @@ public class SVNCheckoutCommand extends SVNCommand {
             if (targets.size() == 2) {
                 // url + path
                 targetDir = lastTarget;
-                dstTarget = new SVNPath(targetDir);
+                dstTarget = getSVNEnvironment().createPath(targetDir);
             } else {
                 // all urls + base dst.
                 targetDir = target.getURL().getPath();
                 targetDir = SVNPathUtil.tail(targetDir);
                 targetDir = SVNPathUtil.append(lastTarget, targetDir);
-                dstTarget = new SVNPath(targetDir);
+                dstTarget = getSVNEnvironment().createPath(targetDir);
             }
             SVNRevision pegRevision = target.getPegRevision();
             if (revision == SVNRevision.UNDEFINED) {
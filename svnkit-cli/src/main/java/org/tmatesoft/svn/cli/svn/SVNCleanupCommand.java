@@ -61,7 +61,7 @@ public class SVNCleanupCommand extends SVNCommand {
 
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String targetName = (String) ts.next();
-            SVNPath target = new SVNPath(targetName);
+            SVNPath target = getSVNEnvironment().createPath(targetName);
 
             eventHandler.checkCancelled();
 
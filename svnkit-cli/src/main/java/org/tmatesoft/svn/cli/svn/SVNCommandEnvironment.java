@@ -208,7 +208,7 @@ public class SVNCommandEnvironment extends AbstractSVNCommandEnvironment impleme
     }
 
     protected DefaultSVNOptions createClientOptions() throws SVNException {
-        File configDir = myConfigDir != null ? new File(myConfigDir) : SVNWCUtil.getDefaultConfigurationDirectory();        
+        File configDir = myConfigDir != null ? resolveFile(myConfigDir) : SVNWCUtil.getDefaultConfigurationDirectory();        
         DefaultSVNOptions options = SVNWCUtil.createDefaultOptions(configDir, true);
         options.setAuthStorageEnabled(!myIsNoAuthCache);
         if (myIsAutoProps) {
@@ -245,7 +245,7 @@ public class SVNCommandEnvironment extends AbstractSVNCommandEnvironment impleme
     }
 
     protected ISVNAuthenticationManager createClientAuthenticationManager() {
-        File configDir = myConfigDir != null ? new File(myConfigDir) : SVNWCUtil.getDefaultConfigurationDirectory();        
+        File configDir = myConfigDir != null ? resolveFile(myConfigDir) : SVNWCUtil.getDefaultConfigurationDirectory();        
         final DefaultSVNAuthenticationManager authManager = (DefaultSVNAuthenticationManager) SVNWCUtil.createDefaultAuthenticationManager(configDir, myUserName, myPassword, !myIsNoAuthCache);
 
 
@@ -456,10 +456,10 @@ public class SVNCommandEnvironment extends AbstractSVNCommandEnvironment impleme
         } else if (option == SVNOption.FILE) {
             String fileName = optionValue.getValue();
             myFilePath = fileName;
-            myFileData = readFromFile(new File(fileName));
+            myFileData = readFromFile(resolveFile(fileName));
         } else if (option == SVNOption.TARGETS) {
             String fileName = optionValue.getValue();
-            byte[] data = readFromFile(new File(fileName));
+            byte[] data = readFromFile(resolveFile(fileName));
             try {
                 String[] targets = new String(data, "UTF-8").split("[\n\r]");
                 myTargets = new LinkedList();
@@ -732,7 +732,7 @@ public class SVNCommandEnvironment extends AbstractSVNCommandEnvironment impleme
                 }
             }
             if (myMessage != null && !"".equals(myMessage)) {
-                File file = new File(myMessage).getAbsoluteFile();
+                File file = resolveFile(myMessage).getAbsoluteFile();
                 if (SVNFileType.getType(file) != SVNFileType.NONE) {
                     SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.CL_LOG_MESSAGE_IS_PATHNAME, getSVNCommand().getMessageAmbigousErrorMessage());
                     SVNErrorManager.error(err, SVNLogType.CLIENT);
@@ -62,7 +62,7 @@ public class SVNCommitCommand extends SVNCommand {
         List targets = getSVNEnvironment().combineTargets(getSVNEnvironment().getTargets(), true);
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String targetName = (String) ts.next();
-            SVNPath target = new SVNPath(targetName);
+            SVNPath target = getSVNEnvironment().createPath(targetName);
             if (target.isURL()) {
                 if(SVNBasicClient.isWC17Supported()) {
                     SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR, "''{0}'' is a URL, but URLs cannot be commit targets", targetName);
@@ -85,7 +85,7 @@ public class SVNCommitCommand extends SVNCommand {
         Collection filesList = new ArrayList();
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String targetName = (String) ts.next();
-            SVNPath target = new SVNPath(targetName);
+            SVNPath target = getSVNEnvironment().createPath(targetName);
             if (target.isFile()) {
                 filesList.add(target.getFile());
             } else if (targetName != null) {
@@ -57,7 +57,7 @@ public class SVNCopyCommand extends SVNCommand {
         if (targets.size() < 2) {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.CL_INSUFFICIENT_ARGS), SVNLogType.CLIENT);
         }
-        SVNPath dst = new SVNPath((String) targets.remove(targets.size() - 1));
+        SVNPath dst = getSVNEnvironment().createPath((String) targets.remove(targets.size() - 1));
         if (!dst.isURL()) {
             if (getSVNEnvironment().getMessage() != null || getSVNEnvironment().getFileData() != null || getSVNEnvironment().getRevisionProperties() != null) {
                 SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.CL_UNNECESSARY_LOG_MESSAGE,
@@ -69,7 +69,7 @@ public class SVNCopyCommand extends SVNCommand {
         boolean sourceIsURL = false;
         for (int i = 0; i < targets.size(); i++) {
             String targetName = (String) targets.get(i);
-            SVNPath source = new SVNPath(targetName, true);
+            SVNPath source = getSVNEnvironment().createPath(targetName, true);
             if (i == 0) {
                 sourceIsURL = source.isURL();
             }
@@ -104,7 +104,7 @@ public class SVNDeleteCommand extends SVNCommand {
             try {
                 for (Iterator ts = targets.iterator(); ts.hasNext();) {
                     String targetName = (String) ts.next();
-                    SVNPath target = new SVNPath(targetName);
+                    SVNPath target = getSVNEnvironment().createPath(targetName);
                     client.doDelete(target.getFile(), getSVNEnvironment().isForce(), !getSVNEnvironment().isKeepLocal(), false);
                 }
             } catch (SVNException e) {
@@ -26,7 +26,6 @@ import org.tmatesoft.svn.core.internal.wc2.ng.SvnNewDiffGenerator;
 import org.tmatesoft.svn.core.wc.*;
 import org.tmatesoft.svn.util.SVNLogType;
 
-import java.io.File;
 import java.io.PrintStream;
 import java.util.*;
 
@@ -101,8 +100,8 @@ public class SVNDiffCommand extends SVNXMLCommand implements ISVNDiffStatusHandl
                 SVNCommandUtil.isURL((String) targets.get(1)) &&
                 getSVNEnvironment().getStartRevision() == SVNRevision.UNDEFINED &&
                 getSVNEnvironment().getEndRevision() == SVNRevision.UNDEFINED) {
-            oldTarget = new SVNPath((String) targets.get(0), true);
-            newTarget = new SVNPath((String) targets.get(1), true);
+            oldTarget = getSVNEnvironment().createPath((String) targets.get(0), true);
+            newTarget = getSVNEnvironment().createPath((String) targets.get(1), true);
             start = oldTarget.getPegRevision();
             end = newTarget.getPegRevision();
             targets.clear();
@@ -148,7 +147,7 @@ public class SVNDiffCommand extends SVNXMLCommand implements ISVNDiffStatusHandl
             boolean hasWCs = false;
             
             for(int i = 0; i < targets.size(); i++) {
-                SVNPath target = new SVNPath((String) targets.get(i));
+                SVNPath target = getSVNEnvironment().createPath((String) targets.get(i));
                 hasURLs |= target.isURL();
                 hasWCs |= target.isFile();
             }
@@ -185,8 +184,8 @@ public class SVNDiffCommand extends SVNXMLCommand implements ISVNDiffStatusHandl
         for(int i = 0; i < targets.size(); i++) {
             String targetName = (String) targets.get(i);
             if (!peggedDiff) {
-                SVNPath target1 = new SVNPath(SVNPathUtil.append(oldTarget.getTarget(), targetName));
-                SVNPath target2 = new SVNPath(SVNPathUtil.append(newTarget.getTarget(), targetName));
+                SVNPath target1 = getSVNEnvironment().createPath(SVNPathUtil.append(oldTarget.getTarget(), targetName));
+                SVNPath target2 = getSVNEnvironment().createPath(SVNPathUtil.append(newTarget.getTarget(), targetName));
                 if (getSVNEnvironment().isSummarize()) {
                     this.anchor = target1;
                     if (target1.isURL() && target2.isURL()) {
@@ -217,7 +216,7 @@ public class SVNDiffCommand extends SVNXMLCommand implements ISVNDiffStatusHandl
                     }
                 }
             } else {
-                SVNPath target = new SVNPath(targetName, true);
+                SVNPath target = getSVNEnvironment().createPath(targetName, true);
                 SVNRevision pegRevision = target.getPegRevision();
                 if (pegRevision == SVNRevision.UNDEFINED) {
                     pegRevision = target.isURL() ? SVNRevision.HEAD : SVNRevision.WORKING;
@@ -259,7 +258,7 @@ public class SVNDiffCommand extends SVNXMLCommand implements ISVNDiffStatusHandl
         diffGenerator.setDiffDeleted(!svnEnvironment.isNoDiffDeleted());
         diffGenerator.setDiffAdded(!svnEnvironment.isNoDiffAdded());
         diffGenerator.setForcedBinaryDiff(svnEnvironment.isForce());
-        diffGenerator.setBasePath(new File("").getAbsoluteFile());
+        diffGenerator.setBasePath(svnEnvironment.getWorkingDirectory());
         diffGenerator.setFallbackToAbsolutePath(true);
         diffGenerator.setOptions(svnEnvironment.getOptions());
         diffGenerator.setDiffDeleted(!svnEnvironment.isNoDiffDeleted());
@@ -60,7 +60,7 @@ public class SVNExportCommand extends SVNCommand {
         if (targets.size() > 2) {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR), SVNLogType.CLIENT);
         }
-        SVNPath from = new SVNPath((String) targets.get(0), true);
+        SVNPath from = getSVNEnvironment().createPath((String) targets.get(0), true);
         SVNRevision pegRevision = from.getPegRevision();
         String to;
         if (targets.size() == 1) {
@@ -80,7 +80,7 @@ public class SVNExportCommand extends SVNCommand {
             depth = SVNDepth.INFINITY;
         }
         try {
-            SVNPath dst = new SVNPath(to);
+            SVNPath dst = getSVNEnvironment().createPath(to);
             String eol = getSVNEnvironment().getNativeEOL();
             SVNRevision revision = getSVNEnvironment().getStartRevision();
             client.setExportExpandsKeywords(!getSVNEnvironment().isIgnoreKeywords());
@@ -65,11 +65,11 @@ public class SVNImportCommand extends SVNCommand {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR,
                 "Too many arguments to import command"), SVNLogType.CLIENT);
         } else if (targets.size() == 1) {
-            src = new SVNPath("");
-            url = new SVNPath((String) targets.get(0));
+            src = getSVNEnvironment().createPath("");
+            url = getSVNEnvironment().createPath((String) targets.get(0));
         } else {
-            src = new SVNPath((String) targets.get(0));
-            url = new SVNPath((String) targets.get(1));
+            src = getSVNEnvironment().createPath((String) targets.get(0));
+            url = getSVNEnvironment().createPath((String) targets.get(1));
         }
         if (!url.isURL()) {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR,
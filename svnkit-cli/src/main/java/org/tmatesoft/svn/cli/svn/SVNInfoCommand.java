@@ -104,7 +104,7 @@ public class SVNInfoCommand extends SVNXMLCommand implements ISVNInfoHandler {
         boolean seenNonExistingTargets = false;
         for(int i = 0; i < targets.size(); i++) {
             String targetName = (String) targets.get(i);
-            SVNPath target = new SVNPath(targetName, true);
+            SVNPath target = getSVNEnvironment().createPath(targetName, true);
             SVNRevision pegRevision = target.getPegRevision();
 
             if (target.isURL()) {
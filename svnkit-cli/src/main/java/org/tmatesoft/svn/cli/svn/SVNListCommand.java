@@ -81,7 +81,7 @@ public class SVNListCommand extends SVNXMLCommand implements ISVNDirEntryHandler
         boolean seenNonExistentPaths = false;
         for (int i = 0; i < targets.size(); i++) {
             String targetName = (String) targets.get(i);
-            SVNPath target = new SVNPath(targetName, true);
+            SVNPath target = getSVNEnvironment().createPath(targetName, true);
             if (getSVNEnvironment().isXML()) {
                 StringBuffer buffer = openXMLTag("list", SVNXMLUtil.XML_STYLE_NORMAL, "path",
                         "".equals(target.getTarget()) ? "." : target.getTarget(), new StringBuffer());
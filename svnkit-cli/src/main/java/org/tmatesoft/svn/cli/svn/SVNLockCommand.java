@@ -77,7 +77,7 @@ public class SVNLockCommand extends SVNCommand {
         Collection urls = new ArrayList();
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String targetName = (String) ts.next();
-            SVNPath target = new SVNPath(targetName);
+            SVNPath target = getSVNEnvironment().createPath(targetName);
             if (target.isURL()) {
                 urls.add(target.getURL());
             } else {
@@ -143,7 +143,7 @@ public class SVNLogCommand extends SVNXMLCommand implements ISVNLogEntryHandler
         if (targets.isEmpty()) {
             targets.add("");
         }
-        SVNPath target = new SVNPath((String) targets.get(0), true);
+        SVNPath target = getSVNEnvironment().createPath((String) targets.get(0), true);
         
         SVNRevision start = getSVNEnvironment().getStartRevision();
         SVNRevision end = getSVNEnvironment().getEndRevision();
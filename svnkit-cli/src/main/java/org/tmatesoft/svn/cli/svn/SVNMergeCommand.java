@@ -73,10 +73,10 @@ public class SVNMergeCommand extends SVNCommand {
         SVNRevision pegRevision2 = null;
         
         if (targets.size() >= 1) {
-            source1 = new SVNPath((String) targets.get(0), true);
+            source1 = getSVNEnvironment().createPath((String) targets.get(0), true);
             pegRevision1 = source1.getPegRevision();
             if (targets.size() >= 2) {
-                source2 = new SVNPath((String) targets.get(1), true);
+                source2 = getSVNEnvironment().createPath((String) targets.get(1), true);
                 pegRevision2 = source2.getPegRevision();
             }
         }
@@ -120,7 +120,7 @@ public class SVNMergeCommand extends SVNCommand {
                     pegRevision1 = source1.isURL() ? SVNRevision.HEAD : SVNRevision.WORKING;
                 }
                 if (targets.size() == 2) {
-                    target = new SVNPath((String) targets.get(1));
+                    target = getSVNEnvironment().createPath((String) targets.get(1));
                     if (target.isURL()) {
                     	SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR, 
                     			"Cannot specifify a revision range with two URLs");
@@ -151,7 +151,7 @@ public class SVNMergeCommand extends SVNCommand {
                 firstRangeEnd = SVNRevision.HEAD;
             }
             if (targets.size() >= 3) {
-                target = new SVNPath((String) targets.get(2));
+                target = getSVNEnvironment().createPath((String) targets.get(2));
             }
         }
         
@@ -161,21 +161,21 @@ public class SVNMergeCommand extends SVNCommand {
                 String name2 = SVNPathUtil.tail(source2.getTarget());
                 if (name1.equals(name2)) {
                     String decodedPath = SVNEncodingUtil.uriDecode(name1);
-                    SVNPath decodedPathTarget = new SVNPath(decodedPath); 
+                    SVNPath decodedPathTarget = getSVNEnvironment().createPath(decodedPath); 
                     if (SVNFileType.getType(decodedPathTarget.getFile()) == SVNFileType.FILE) {
                         target = decodedPathTarget;
                     }
                 }
             } else if (source1.equals(source2)) {
                 String decodedPath = SVNEncodingUtil.uriDecode(source1.getTarget());
-                SVNPath decodedPathTarget = new SVNPath(decodedPath); 
+                SVNPath decodedPathTarget = getSVNEnvironment().createPath(decodedPath); 
                 if (SVNFileType.getType(decodedPathTarget.getFile()) == SVNFileType.FILE) {
                     target = decodedPathTarget;
                 }
             } 
         }
         if (target == null) {
-            target = new SVNPath("");
+            target = getSVNEnvironment().createPath("");
         }
         SVNDiffClient client = getSVNEnvironment().getClientManager().getDiffClient();
         SVNNotifyPrinter printer = new SVNNotifyPrinter(getSVNEnvironment());
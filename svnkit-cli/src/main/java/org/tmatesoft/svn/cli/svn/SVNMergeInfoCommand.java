@@ -63,7 +63,7 @@ public class SVNMergeInfoCommand extends SVNCommand implements ISVNLogEntryHandl
             SVNErrorManager.error(err, SVNLogType.CLIENT);
         }
         
-        SVNPath source = new SVNPath((String) targets.get(0), true);
+        SVNPath source = getSVNEnvironment().createPath((String) targets.get(0), true);
         SVNRevision srcPegRevision = source.getPegRevision();
         if (srcPegRevision == SVNRevision.UNDEFINED) {
             srcPegRevision = SVNRevision.HEAD;
@@ -72,10 +72,10 @@ public class SVNMergeInfoCommand extends SVNCommand implements ISVNLogEntryHandl
         SVNPath target = null;
         SVNRevision tgtPegRevision = null;
         if (targets.size() == 2) {
-            target = new SVNPath((String) targets.get(1), true);
+            target = getSVNEnvironment().createPath((String) targets.get(1), true);
             tgtPegRevision = target.getPegRevision();
         } else {
-            target = new SVNPath("");
+            target = getSVNEnvironment().createPath("");
             tgtPegRevision = SVNRevision.UNDEFINED;
         }
         
@@ -112,7 +112,7 @@ public class SVNMkDirCommand extends SVNCommand {
             try {
                 for (Iterator ts = targets.iterator(); ts.hasNext();) {
                     String targetName = (String) ts.next();
-                    SVNPath target = new SVNPath(targetName);
+                    SVNPath target = getSVNEnvironment().createPath(targetName);
                     client.doAdd(target.getFile(), false, true, false, SVNDepth.EMPTY, false,
                             getSVNEnvironment().isParents());
                 }
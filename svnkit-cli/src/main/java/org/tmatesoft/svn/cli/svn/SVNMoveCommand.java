@@ -63,7 +63,7 @@ public class SVNMoveCommand extends SVNCommand {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.UNSUPPORTED_FEATURE,
                     "Cannot specify revision (except HEAD) with move operation"), SVNLogType.CLIENT);
         }
-        SVNPath dst = new SVNPath((String) targets.remove(targets.size() - 1));
+        SVNPath dst = getSVNEnvironment().createPath((String) targets.remove(targets.size() - 1));
         if (!dst.isURL()) {
             if (getSVNEnvironment().getMessage() != null || getSVNEnvironment().getFileData() != null || getSVNEnvironment().getRevisionProperties() != null) {
                 SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.CL_UNNECESSARY_LOG_MESSAGE,
@@ -79,7 +79,7 @@ public class SVNMoveCommand extends SVNCommand {
         Collection sources = new ArrayList();
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String targetName = (String) ts.next();
-            SVNPath source = new SVNPath(targetName);
+            SVNPath source = getSVNEnvironment().createPath(targetName);
             if (source.isURL()) {
                 sources.add(new SVNCopySource(SVNRevision.HEAD, SVNRevision.UNDEFINED, source.getURL()));
             } else {
@@ -61,8 +61,8 @@ public class SVNPatchCommand extends SVNCommand {
             client.setEventHandler(printer);
         }
 
-        final File patchPath = new File((String) targets.get(0));
-        final File targetPath = new File(targetsCount != 2 ? "." : (String) targets.get(1));
+        final File patchPath = getSVNEnvironment().resolveFile((String) targets.get(0));
+        final File targetPath = getSVNEnvironment().resolveFile(targetsCount != 2 ? "." : (String) targets.get(1));
 
         try {
             client.doPatch(patchPath.getAbsoluteFile(), targetPath.getAbsoluteFile(), getSVNEnvironment().isDryRun(), getSVNEnvironment().getStripCount(), getSVNEnvironment().isIgnoreWhitespace(), true, getSVNEnvironment().isReverseDiff());
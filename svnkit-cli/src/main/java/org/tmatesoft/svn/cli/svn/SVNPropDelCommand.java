@@ -75,7 +75,7 @@ public class SVNPropDelCommand extends SVNPropertiesCommand {
                 SVNURL url = SVNURL.parseURIEncoded(target);
                 wcClient.doSetRevisionProperty(url, getSVNEnvironment().getStartRevision(), propertyName, null, getSVNEnvironment().isForce(), this);
             } else {
-                File targetFile = new SVNPath(target).getFile();
+                File targetFile = getSVNEnvironment().createPath(target).getFile();
                 wcClient.doSetRevisionProperty(targetFile, getSVNEnvironment().getStartRevision(), propertyName, null, getSVNEnvironment().isForce(), this);
             }
         } else if (getSVNEnvironment().getStartRevision() != SVNRevision.UNDEFINED) {
@@ -105,7 +105,7 @@ public class SVNPropDelCommand extends SVNPropertiesCommand {
             });
             for (Iterator ts = targets.iterator(); ts.hasNext();) {
                 String targetName = (String) ts.next();
-                SVNPath target = new SVNPath(targetName);
+                SVNPath target = getSVNEnvironment().createPath(targetName);
                 if (target.isFile()) {
                     boolean success = true;
                     try {
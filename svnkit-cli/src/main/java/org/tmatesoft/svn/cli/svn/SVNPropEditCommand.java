@@ -78,7 +78,7 @@ public class SVNPropEditCommand extends SVNPropertiesCommand {
                 revPropURL = SVNURL.parseURIEncoded(target);
                 rev = client.doGetRevisionProperty(revPropURL, propertyName, getSVNEnvironment().getStartRevision(), this);
             } else {
-                targetPath = new SVNPath(target).getFile();
+                targetPath = getSVNEnvironment().createPath(target).getFile();
                 rev = client.doGetRevisionProperty(targetPath, propertyName, getSVNEnvironment().getStartRevision(), this);
             }
             SVNPropertyData property = getRevisionProperty(rev);
@@ -116,7 +116,7 @@ public class SVNPropEditCommand extends SVNPropertiesCommand {
             client.setEventHandler(printer);
             for (Iterator ts = targets.iterator(); ts.hasNext();) {
                 String targetName = (String) ts.next();
-                SVNPath target = new SVNPath(targetName);
+                SVNPath target = getSVNEnvironment().createPath(targetName);
                 if (target.isFile()) {
                     if (getSVNEnvironment().getMessage() != null || getSVNEnvironment().getFileData() != null || getSVNEnvironment().getRevisionProperties() != null) {
                         SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.CL_UNNECESSARY_LOG_MESSAGE,
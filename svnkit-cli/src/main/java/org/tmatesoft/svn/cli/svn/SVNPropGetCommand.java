@@ -83,7 +83,7 @@ public class SVNPropGetCommand extends SVNPropertiesCommand {
             if (SVNCommandUtil.isURL(target)) {
                 rev = wcClient.doGetRevisionProperty(SVNURL.parseURIEncoded(target), propertyName, getSVNEnvironment().getStartRevision(), this);
             } else {
-                File targetPath = new SVNPath(target).getFile();
+                File targetPath = getSVNEnvironment().createPath(target).getFile();
                 rev = wcClient.doGetRevisionProperty(targetPath, propertyName, getSVNEnvironment().getStartRevision(), this);
             }
             SVNPropertyData propertyValue = getRevisionProperty(rev);
@@ -134,7 +134,7 @@ public class SVNPropGetCommand extends SVNPropertiesCommand {
             client.setEventHandler(printer);
             for (Iterator<String> ts = targets.iterator(); ts.hasNext();) {
                 String targetPath = ts.next();
-                SVNPath target = new SVNPath(targetPath, true);
+                SVNPath target = getSVNEnvironment().createPath(targetPath, true);
                 SVNRevision pegRevision = target.getPegRevision();
                 boolean printFileNames = false;
                 final SvnOperationFactory of = client.getOperationsFactory();
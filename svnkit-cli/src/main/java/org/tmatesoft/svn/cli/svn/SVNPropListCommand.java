@@ -68,7 +68,7 @@ public class SVNPropListCommand extends SVNPropertiesCommand {
             if (SVNCommandUtil.isURL(target)) {
                 rev = wcClient.doGetRevisionProperty(SVNURL.parseURIEncoded(target), null, getSVNEnvironment().getStartRevision(), this);
             } else {
-                File targetPath = new SVNPath(target).getFile();
+                File targetPath = getSVNEnvironment().createPath(target).getFile();
                 rev = wcClient.doGetRevisionProperty(targetPath, null, getSVNEnvironment().getStartRevision(), this);
             }
             Map revisionPropertiesMap = getRevisionProperties();
@@ -124,7 +124,7 @@ public class SVNPropListCommand extends SVNPropertiesCommand {
             SVNErrorCode errorCode = null;
             for (Iterator<String> ts = targets.iterator(); ts.hasNext();) {
                 final String targetPath = (String) ts.next();
-                final SVNPath target = new SVNPath(targetPath, true);
+                final SVNPath target = getSVNEnvironment().createPath(targetPath, true);
                 final SVNRevision pegRevision = target.getPegRevision();
                 try {
                     final SvnOperationFactory of = client.getOperationsFactory();
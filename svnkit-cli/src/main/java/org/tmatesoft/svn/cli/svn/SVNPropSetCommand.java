@@ -127,7 +127,7 @@ public class SVNPropSetCommand extends SVNPropertiesCommand {
                 getSVNEnvironment().getClientManager().getWCClient().doSetRevisionProperty(revPropURL, getSVNEnvironment().getStartRevision(),
                         propertyName, propertyValue, getSVNEnvironment().isForce(), this);
             } else {
-                File targetFile = new SVNPath(target).getFile();
+                File targetFile = getSVNEnvironment().createPath(target).getFile();
                 getSVNEnvironment().getClientManager().getWCClient().doSetRevisionProperty(targetFile, getSVNEnvironment().getStartRevision(),
                         propertyName, propertyValue, getSVNEnvironment().isForce(), this);
             }
@@ -161,7 +161,7 @@ public class SVNPropSetCommand extends SVNPropertiesCommand {
             }
             for (Iterator ts = targets.iterator(); ts.hasNext();) {
                 String targetName = (String) ts.next();
-                SVNPath target = new SVNPath(targetName);
+                SVNPath target = getSVNEnvironment().createPath(targetName);
                 if (target.isFile()) {
                     boolean success = true;
                     try {
@@ -208,7 +208,7 @@ public class SVNPropSetCommand extends SVNPropertiesCommand {
         if (SVNProperty.MIME_TYPE.equals(propertyName)) {
             for (Object target : targets) {
                 String path = (String) target;
-                File localAbsPath = SVNFileUtil.createFilePath(path).getAbsoluteFile();
+                File localAbsPath = getSVNEnvironment().resolveFile(path).getAbsoluteFile();
                 if (SVNFileType.getNodeKind(SVNFileType.getType(localAbsPath)) != SVNNodeKind.FILE) {
                     continue;
                 }
@@ -86,7 +86,7 @@ public class SVNResolveCommand extends SVNCommand {
         }
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String targetName = (String) ts.next();
-            SVNPath target = new SVNPath(targetName);
+            SVNPath target = getSVNEnvironment().createPath(targetName);
             if (target.isFile()) {
                 try {
                     client.doResolve(target.getFile(), depth, choice);
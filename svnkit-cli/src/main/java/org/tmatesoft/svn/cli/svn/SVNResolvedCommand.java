@@ -61,7 +61,7 @@ public class SVNResolvedCommand extends SVNCommand {
         }
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String targetName = (String) ts.next();
-            SVNPath target = new SVNPath(targetName);
+            SVNPath target = getSVNEnvironment().createPath(targetName);
             if (target.isFile()) {
                 try {
                     client.doResolve(target.getFile(), depth, SVNConflictChoice.MERGED);
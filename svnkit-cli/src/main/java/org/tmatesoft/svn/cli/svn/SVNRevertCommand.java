@@ -65,7 +65,7 @@ public class SVNRevertCommand extends SVNCommand {
         }
         Collection pathsList = new ArrayList(targets.size());
         for(int i = 0; i < targets.size(); i++) {
-            SVNPath target = new SVNPath((String) targets.get(i));
+            SVNPath target = getSVNEnvironment().createPath((String) targets.get(i));
             if (target.isFile()) {
                 if ("".equals(target.getTarget())) {
                     if (isScheduledForAddition(target.getFile())) {
@@ -100,7 +100,7 @@ public class SVNStatusCommand extends SVNXMLCommand implements ISVNStatusHandler
         Collection changeLists = getSVNEnvironment().getChangelistsCollection();
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String target = (String) ts.next();
-            SVNPath commandTarget = new SVNPath(target);
+            SVNPath commandTarget = getSVNEnvironment().createPath(target);
 
             if (getSVNEnvironment().isXML()) {
                 StringBuffer xmlBuffer = openXMLTag("target", SVNXMLUtil.XML_STYLE_NORMAL, "path", SVNCommandUtil.getLocalPath(target), null);
@@ -69,16 +69,16 @@ public class SVNSwitchCommand extends SVNCommand {
         if (targets.size() > 2) {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR), SVNLogType.CLIENT);
         }
-        SVNPath switchURL = new SVNPath((String) targets.get(0), true);
+        SVNPath switchURL = getSVNEnvironment().createPath((String) targets.get(0), true);
         if (!switchURL.isURL()) {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.BAD_URL, 
                     "''{0}'' doesn not appear to be a URL", switchURL.getTarget()), SVNLogType.CLIENT);
         }
         SVNPath target;
         if (targets.size() == 1) {
-            target = new SVNPath("");
+            target = getSVNEnvironment().createPath("");
         } else {
-            target = new SVNPath((String) targets.get(1));
+            target = getSVNEnvironment().createPath((String) targets.get(1));
         }
         SVNUpdateClient client = getSVNEnvironment().getClientManager().getUpdateClient();
         SVNNotifyPrinter printer = new SVNNotifyPrinter(getSVNEnvironment(), false, false, false);
@@ -116,17 +116,17 @@ public class SVNSwitchCommand extends SVNCommand {
         SVNUpdateClient client = getSVNEnvironment().getClientManager().getUpdateClient();
         if (targets.size() == 1 ||
                 (targets.size() == 2 
-                && new SVNPath((String) targets.get(0)).isURL() 
-                && !new SVNPath((String) targets.get(1)).isURL())) {
-            SVNPath target = targets.size() == 2 ? new SVNPath((String) targets.get(1)) : new SVNPath("");
-            SVNPath to = new SVNPath((String) targets.get(0));
+                && getSVNEnvironment().createPath((String) targets.get(0)).isURL() 
+                && !getSVNEnvironment().createPath((String) targets.get(1)).isURL())) {
+            SVNPath target = targets.size() == 2 ? getSVNEnvironment().createPath((String) targets.get(1)) : getSVNEnvironment().createPath("");
+            SVNPath to = getSVNEnvironment().createPath((String) targets.get(0));
             client.doRelocate(target.getFile(), null, to.getURL(), getSVNEnvironment().getDepth().isRecursive());
         } else {
             if (targets.get(0).equals(targets.get(1))) {
                 return;
             }
-            SVNPath from = new SVNPath((String) targets.get(0));
-            SVNPath to = new SVNPath((String) targets.get(1));
+            SVNPath from = getSVNEnvironment().createPath((String) targets.get(0));
+            SVNPath to = getSVNEnvironment().createPath((String) targets.get(1));
             
             if (from.isURL() != to.isURL() || !from.isURL()) {
                 SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.INCORRECT_PARAMS, 
@@ -134,11 +134,11 @@ public class SVNSwitchCommand extends SVNCommand {
                 SVNErrorManager.error(err, SVNLogType.CLIENT);
             }
             if (targets.size() == 2) {
-                SVNPath target = new SVNPath("");
+                SVNPath target = getSVNEnvironment().createPath("");
                 client.doRelocate(target.getFile(), from.getURL(), to.getURL(), getSVNEnvironment().getDepth().isRecursive());
             } else {
                 for(int i = 2; i < targets.size(); i++) {
-                    SVNPath target = new SVNPath((String) targets.get(i));
+                    SVNPath target = getSVNEnvironment().createPath((String) targets.get(i));
                     client.doRelocate(target.getFile(), from.getURL(), to.getURL(), getSVNEnvironment().getDepth().isRecursive());
                 }
             }
@@ -70,7 +70,7 @@ public class SVNUpdateCommand extends SVNCommand {
         List fileTargets = new LinkedList();
         for (Iterator targetsIter = targets.iterator(); targetsIter.hasNext();) {
             String targetName = (String) targetsIter.next();
-            SVNPath target = new SVNPath(targetName);
+            SVNPath target = getSVNEnvironment().createPath(targetName);
             fileTargets.add(target.getFile());
         }
         
@@ -107,7 +107,7 @@ public class SVNUpdateCommand extends SVNCommand {
         List files = new ArrayList(targets.size());
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
             String targetName = (String) ts.next();
-            SVNPath target = new SVNPath(targetName);
+            SVNPath target = getSVNEnvironment().createPath(targetName);
             if (!target.isFile()) {
                 getSVNEnvironment().getOut().println("Skipped '" + targetName + "'");
                 continue;
@@ -55,7 +55,7 @@ public class SVNUpgradeCommand extends SVNCommand {
         
         for (Iterator ts = targets.iterator(); ts.hasNext();) {
         	String targetName = (String) ts.next();
-            SVNPath target = new SVNPath(targetName);
+            SVNPath target = getSVNEnvironment().createPath(targetName);
             if (target.isFile()) {
             	getSVNEnvironment().checkCancelled();
             	upgrade.setSingleTarget(SvnTarget.fromFile(target.getFile()));
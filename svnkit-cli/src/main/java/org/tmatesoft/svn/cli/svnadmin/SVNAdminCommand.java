@@ -54,7 +54,7 @@ public abstract class SVNAdminCommand extends AbstractSVNCommand {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR, 
                     "Repository argument required"), SVNLogType.CLIENT);
         }
-        SVNPath target = new SVNPath((String) targets.get(index));
+        SVNPath target = getEnvironment().createPath((String) targets.get(index));
         if (target.isURL()) {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR, 
                     "'" + target.getTarget() + "' is an URL when it should be a path"), SVNLogType.CLIENT);
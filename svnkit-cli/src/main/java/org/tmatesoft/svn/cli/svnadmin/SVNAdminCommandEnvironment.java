@@ -74,12 +74,12 @@ public class SVNAdminCommandEnvironment extends AbstractSVNCommandEnvironment {
     }
 
     protected ISVNAuthenticationManager createClientAuthenticationManager() {
-        File configDir = myConfigDir != null ? new File(myConfigDir).getAbsoluteFile() : null;
+        File configDir = myConfigDir != null ? resolveFile(myConfigDir).getAbsoluteFile() : null;
         return SVNWCUtil.createDefaultAuthenticationManager(configDir);
     }
 
     protected DefaultSVNOptions createClientOptions() {
-        File configDir = myConfigDir != null ? new File(myConfigDir).getAbsoluteFile() : null;
+        File configDir = myConfigDir != null ? resolveFile(myConfigDir).getAbsoluteFile() : null;
         return SVNWCUtil.createDefaultOptions(configDir, true);
     }
 
@@ -65,7 +65,7 @@ public class SVNAdminSetLogCommand extends SVNAdminCommand {
                 "Exactly one file argument required"), SVNLogType.CLIENT);
         }
         
-        SVNPath target = new SVNPath((String) targets.get(0));
+        SVNPath target = getEnvironment().createPath((String) targets.get(0));
         if (!target.isFile()) {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR, 
                 "Exactly one file argument required"), SVNLogType.CLIENT);
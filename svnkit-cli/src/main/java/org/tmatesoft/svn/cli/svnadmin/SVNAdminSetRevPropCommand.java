@@ -65,7 +65,7 @@ public class SVNAdminSetRevPropCommand extends SVNAdminCommand {
                 "Exactly one property name and one file argument required"), SVNLogType.CLIENT);
         }
         String propertyName = (String) targets.get(0);
-        SVNPath target = new SVNPath((String) targets.get(1));
+        SVNPath target = getEnvironment().createPath((String) targets.get(1));
         if (!target.isFile()) {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR, 
                 "Exactly one property name and one file argument required"), SVNLogType.CLIENT);
@@ -118,7 +118,7 @@ public class SVNDumpFilterCommandEnvironment extends AbstractSVNCommandEnvironme
         }
         
         if (myTargetsFile != null) {
-            File targetsFile = new File(myTargetsFile);
+            File targetsFile = resolveFile(myTargetsFile);
             String contents = new String(readFromFile(targetsFile));
             for (StringTokenizer tokens = new StringTokenizer(contents, "\n\r"); tokens.hasMoreTokens();) {
                 String prefix = tokens.nextToken();
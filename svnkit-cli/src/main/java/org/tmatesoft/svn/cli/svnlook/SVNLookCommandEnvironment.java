@@ -181,7 +181,7 @@ public class SVNLookCommandEnvironment extends AbstractSVNCommandEnvironment {
                 SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.CL_INSUFFICIENT_ARGS, "Repository argument required");
                 SVNErrorManager.error(err, SVNLogType.CLIENT);
             }
-            SVNPath path = new SVNPath((String) getArguments().get(0), false);
+            SVNPath path = createPath((String) getArguments().get(0), false);
             if (path.isURL()) {
                 SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR, "''{0}'' is URL when it should be a path", path.getTarget());
                 SVNErrorManager.error(err, SVNLogType.CLIENT);
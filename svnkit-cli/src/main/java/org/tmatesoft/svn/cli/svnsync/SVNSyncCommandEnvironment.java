@@ -113,7 +113,7 @@ public class SVNSyncCommandEnvironment extends AbstractSVNCommandEnvironment {
     }
 
     protected ISVNAuthenticationManager createClientAuthenticationManager() {
-        File configDir = myConfigDir != null ? new File(myConfigDir) : SVNWCUtil.getDefaultConfigurationDirectory();        
+        File configDir = myConfigDir != null ? resolveFile(myConfigDir) : SVNWCUtil.getDefaultConfigurationDirectory();        
         final DefaultSVNAuthenticationManager authManager = (DefaultSVNAuthenticationManager) SVNWCUtil.createDefaultAuthenticationManager(configDir, 
                 myUserName, myPassword, !myIsNoAuthCache);
 
@@ -61,7 +61,7 @@ public class SVNSyncInfoCommand extends SVNSyncCommand {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR);
             SVNErrorManager.error(err, SVNLogType.CLIENT);
         }
-        SVNPath toURL = new SVNPath((String) targets.get(0));
+        SVNPath toURL = getEnvironment().createPath((String) targets.get(0));
         if (!toURL.isURL()) {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR, 
                     "Path ''{0}'' is not a URL", toURL.getTarget());
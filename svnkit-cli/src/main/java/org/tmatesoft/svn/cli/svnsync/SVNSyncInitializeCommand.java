@@ -66,14 +66,14 @@ public class SVNSyncInitializeCommand extends SVNSyncCommand implements ISVNAdmi
             SVNErrorManager.error(err, SVNLogType.CLIENT);
         }
         
-        SVNPath toURL = new SVNPath((String) targets.get(0));
+        SVNPath toURL = getEnvironment().createPath((String) targets.get(0));
         if (!toURL.isURL()) {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR, 
                     "Path ''{0}'' is not a URL", toURL.getTarget());
             SVNErrorManager.error(err, SVNLogType.CLIENT);
         }
         
-        SVNPath fromURL = new SVNPath((String) targets.get(1));
+        SVNPath fromURL = getEnvironment().createPath((String) targets.get(1));
         if (!fromURL.isURL()) {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.CL_ARG_PARSING_ERROR, 
                     "Path ''{0}'' is not a URL", fromURL.getTarget());
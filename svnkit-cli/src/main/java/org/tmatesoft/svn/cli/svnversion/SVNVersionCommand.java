@@ -54,9 +54,9 @@ public class SVNVersionCommand extends AbstractSVNCommand {
         if (targets.isEmpty()) {
             targets.add("");
         }
-        SVNPath target = new SVNPath((String) targets.get(0));
+        SVNPath target = getEnvironment().createPath((String) targets.get(0));
         if (target.isURL()) {
-            target = new SVNPath("");
+            target = getEnvironment().createPath("");
             targets.add(0, "");
         }
         String trailURL = (String) (targets.size() > 1 ? targets.get(1) : null);
@@ -59,12 +59,18 @@ if "%SVNKIT_LIB%"=="" set SVNKIT_LIB=%BASEDIR%\\lib
 <% } %>
 
 set EXTRA_JVM_ARGUMENTS=-Djava.util.logging.config.file="%BASEDIR%\\conf\\logging.properties" -Dsun.io.useCanonCaches=false
+
+@REM Class data sharing archive, see jsvn shell script: SVNKIT_CDS=dump records it, SVNKIT_CDS=off ignores it.
+if "%SVNKIT_CDS_ARCHIVE%"=="" set SVNKIT_CDS_ARCHIVE=%SVNKIT_LIB%\\svnkit.jsa
+set CDS_JVM_ARGUMENT=
+if "%SVNKIT_CDS%"=="dump" set CDS_JVM_ARGUMENT="-XX:ArchiveClassesAtExit=%SVNKIT_CDS_ARCHIVE%"
+if not "%SVNKIT_CDS%"=="dump" if not "%SVNKIT_CDS%"=="off" if exist "%SVNKIT_CDS_ARCHIVE%" set CDS_JVM_ARGUMENT="-XX:SharedArchiveFile=%SVNKIT_CDS_ARCHIVE%"
 goto endInit
 
 @REM Reaching here means variables are defined and arguments have been captured
 :endInit
 
-%JAVACMD% %JAVA_OPTS% %EXTRA_JVM_ARGUMENTS% -classpath %CLASSPATH% ${mainclass} %CMD_LINE_ARGS%
+%JAVACMD% %JAVA_OPTS% %EXTRA_JVM_ARGUMENTS% %CDS_JVM_ARGUMENT% -classpath %CLASSPATH% ${mainclass} %CMD_LINE_ARGS%
 if ERRORLEVEL 1 goto error
 goto end
 
@@ -0,0 +1,225 @@
+package org.tmatesoft.svn.cli;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.net.Socket;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+
+public class SVNDaemonTest {
+
+    private static final String TOKEN = "secret";
+
+    private File myDirectory;
+    private SVNDaemon myDaemon;
+    private Thread myDaemonThread;
+
+    @Before
+    public void setUp() throws Exception {
+        myDirectory = File.createTempFile("jsvnd", ".test").getCanonicalFile();
+        SVNFileUtil.deleteFile(myDirectory);
+        myDirectory.mkdirs();
+
+        myDaemon = new SVNDaemon(null, 0, TOKEN);
+        myDaemonThread = new Thread(new Runnable() {
+            public void run() {
+                myDaemon.run();
+            }
+        });
+        myDaemonThread.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        myDaemon.stop();
+        myDaemonThread.join(10000);
+        SVNFileUtil.deleteAll(myDirectory, true);
+    }
+
+    @Test
+    public void testRelativePathsAreResolvedAgainstClientDirectory() throws Exception {
+        final File repositoryDirectory = new File(myDirectory, "repository");
+        final SVNURL url = SVNRepositoryFactory.createLocalRepository(repositoryDirectory, true, false);
+
+        final File workingCopyDirectory = new File(myDirectory, "wc");
+        run(myDirectory, "jsvn", "checkout", url.toString(), "wc").assertSucceeded();
+        Assert.assertTrue(new File(workingCopyDirectory, ".svn").isDirectory());
+        Assert.assertFalse(new File("wc").exists());
+
+        final File file = new File(workingCopyDirectory, "file");
+        SVNFileUtil.writeToFile(file, "contents", "UTF-8");
+        run(workingCopyDirectory, "jsvn", "add", "file").assertSucceeded();
+
+        Assert.assertEquals(String.format("A       file%n"), run(workingCopyDirectory, "jsvn", "status").getOut());
+        Assert.assertEquals(String.format("A       wc/file%n"), run(myDirectory, "jsvn", "status", "wc").getOut());
+
+        final File messageFile = new File(myDirectory, "message");
+        SVNFileUtil.writeToFile(messageFile, "Added a file.", "UTF-8");
+        run(workingCopyDirectory, "jsvn", "commit", "-F", "../message").assertSucceeded();
+
+        final SVNRepository svnRepository = SVNRepositoryFactory.create(url);
+        try {
+            Assert.assertEquals(1, svnRepository.getLatestRevision());
+            Assert.assertEquals("Added a file.", svnRepository.getRevisionPropertyValue(1, "svn:log").getString());
+        } finally {
+            svnRepository.closeSession();
+        }
+
+        final Result youngest = run(myDirectory, "jsvnlook", "youngest", "repository");
+        youngest.assertSucceeded();
+        Assert.assertEquals("1", youngest.getOut().trim());
+
+        final Result list = run(workingCopyDirectory, "jsvn", "list", "^/");
+        list.assertSucceeded();
+        Assert.assertEquals(String.format("file%n"), list.getOut());
+
+        SVNFileUtil.writeToFile(file, "changed contents", "UTF-8");
+        Assert.assertEquals(String.format("M       file%n"), run(workingCopyDirectory, "jsvn", "status").getOut());
+
+        final Result diff = run(workingCopyDirectory, "jsvn", "diff");
+        diff.assertSucceeded();
+        Assert.assertTrue(diff.getOut(), diff.getOut().startsWith(String.format("Index: file%n")));
+        Assert.assertTrue(diff.getOut(), diff.getOut().contains(String.format("--- file\t(revision 1)%n")));
+    }
+
+    @Test
+    public void testInvalidChunkLengthClosesConnection() throws Exception {
+        final Socket socket = new Socket("127.0.0.1", myDaemon.getPort());
+        try {
+            socket.setSoTimeout(10000);
+            final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            output.writeInt(-1);
+            output.writeByte('A');
+            output.flush();
+            Assert.assertEquals(-1, socket.getInputStream().read());
+        } finally {
+            socket.close();
+        }
+
+        run(myDirectory, "jsvnversion", "--help").assertSucceeded();
+    }
+
+    @Test
+    public void testCommandWithoutTokenIsRefused() throws Exception {
+        final File repositoryDirectory = new File(myDirectory, "repository");
+        SVNRepositoryFactory.createLocalRepository(repositoryDirectory, true, false);
+
+        final Result youngest = run(null, myDirectory, "jsvnlook", "youngest", "repository");
+        Assert.assertEquals(1, youngest.getExitCode());
+        Assert.assertEquals("", youngest.getOut());
+
+        Assert.assertEquals(1, run("wrong", myDirectory, "jsvnlook", "youngest", "repository").getExitCode());
+
+        Assert.assertEquals(1, run(null, myDirectory, "jsvnd-stop").getExitCode());
+        run(myDirectory, "jsvnlook", "youngest", "repository").assertSucceeded();
+    }
+
+    @Test
+    public void testNonLoopbackAddressIsRefused() throws Exception {
+        try {
+            new SVNDaemon("0.0.0.0", 0, TOKEN);
+            Assert.fail("Daemon listens on a non-loopback address");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("not a loopback address"));
+        }
+    }
+
+    @Test
+    public void testTokenFileIsCreatedForOwnerOnly() throws Exception {
+        final File tokenFile = new File(myDirectory, "jsvnd/token");
+        final String token = SVNDaemon.readToken(tokenFile);
+        Assert.assertTrue(token, token.matches("[0-9a-f]{64}"));
+        Assert.assertEquals(token, SVNDaemon.readToken(tokenFile));
+
+        if (!SVNFileUtil.isWindows) {
+            final String listing = SVNFileUtil.execCommand(new String[] {"ls", "-l", tokenFile.getAbsolutePath()});
+            Assert.assertTrue(listing, listing.startsWith("-rw-------"));
+        }
+    }
+
+    private Result run(File directory, String command, String... args) throws IOException {
+        return run(TOKEN, directory, command, args);
+    }
+
+    private Result run(String token, File directory, String command, String... args) throws IOException {
+        final Socket socket = new Socket("127.0.0.1", myDaemon.getPort());
+        try {
+            socket.setSoTimeout(60000);
+            final DataOutputStream output = new DataOutputStream(socket.getOutputStream());
+            for (int i = 0; i < args.length; i++) {
+                writeChunk(output, 'A', args[i]);
+            }
+            if (token != null) {
+                writeChunk(output, 'E', SVNDaemon.TOKEN_VARIABLE + "=" + token);
+            }
+            writeChunk(output, 'D', directory.getAbsolutePath());
+            writeChunk(output, 'C', command);
+            writeChunk(output, '.', "");
+            output.flush();
+
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            final ByteArrayOutputStream err = new ByteArrayOutputStream();
+            final DataInputStream input = new DataInputStream(socket.getInputStream());
+            while (true) {
+                final int length = input.readInt();
+                final int type = input.readUnsignedByte();
+                final byte[] data = new byte[length];
+                input.readFully(data);
+                if (type == '1') {
+                    out.write(data);
+                } else if (type == '2') {
+                    err.write(data);
+                } else if (type == 'X') {
+                    return new Result(Integer.parseInt(new String(data, "US-ASCII")), out.toString("UTF-8"), err.toString("UTF-8"));
+                }
+            }
+        } catch (EOFException e) {
+            throw new IOException("Daemon closed connection without exit code");
+        } finally {
+            socket.close();
+        }
+    }
+
+    private static void writeChunk(DataOutputStream output, int type, String value) throws IOException {
+        final byte[] data = value.getBytes("UTF-8");
+        output.writeInt(data.length);
+        output.writeByte(type);
+        output.write(data);
+    }
+
+    private static class Result {
+
+        private final int myExitCode;
+        private final String myOut;
+        private final String myErr;
+
+        public Result(int exitCode, String out, String err) {
+            myExitCode = exitCode;
+            myOut = out;
+            myErr = err;
+        }
+
+        public void assertSucceeded() {
+            Assert.assertEquals(myErr, 0, myExitCode);
+        }
+
+        public int getExitCode() {
+            return myExitCode;
+        }
+
+        public String getOut() {
+            return myOut;
+        }
+    }
+}
@@ -18,6 +18,7 @@ import javax.servlet.ServletConfig;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.server.svn.SVNServer;
 import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
 import org.tmatesoft.svn.util.SVNLogType;
 
@@ -39,6 +40,8 @@ public class DAVConfig {
     private static final String AUTOVERSIONING = "SVNAutoversioning";
     private static final String ALLOW_BULK_UPDATES = "SVNAllowBulkUpdates";
     private static final String DAV_DEPTH = "DAVDepthInfinity";
+    private static final String SVNSERVE_PORT = "SVNServePort";
+    private static final String SVNSERVE_ANONYMOUS_ACCESS = "SVNServeAnonymousAccess";
     private static final String OFF = "off";
     private static final String ON = "on";
 
@@ -55,6 +58,8 @@ public class DAVConfig {
     private boolean myIsAutoVersioning = false;
     private boolean myIsAllowBulkUpdates = false;
     private boolean myIsAllowDepthInfinity = false;
+    private int mySVNServePort = -1;
+    private int mySVNServeAnonymousAccess = SVNServer.ACCESS_NONE;
     
     public DAVConfig(ServletConfig servletConfig) throws SVNException {
         String repositoryPath = servletConfig.getInitParameter(PATH_DIRECIVE);
@@ -120,6 +125,21 @@ public class DAVConfig {
         }
         
         myActivitiesDBPath = servletConfig.getInitParameter(ACTIVITIES_DB);
+
+        String svnservePort = servletConfig.getInitParameter(SVNSERVE_PORT);
+        if (svnservePort != null) {
+            try {
+                mySVNServePort = Integer.parseInt(svnservePort.trim());
+            } catch (NumberFormatException e) {
+                SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_DAV_INVALID_CONFIG_VALUE,
+                        "Invalid SVNServePort value ''{0}''", svnservePort), SVNLogType.NETWORK);
+            }
+        }
+
+        String svnserveAnonymousAccess = servletConfig.getInitParameter(SVNSERVE_ANONYMOUS_ACCESS);
+        if (svnserveAnonymousAccess != null) {
+            mySVNServeAnonymousAccess = SVNServer.parseAccess(svnserveAnonymousAccess.trim());
+        }
     }
     
     public boolean isAllowDepthInfinity() {
@@ -178,4 +198,16 @@ public class DAVConfig {
         return myIsAllowBulkUpdates;
     }
 
+    public boolean isSVNServeEnabled() {
+        return mySVNServePort >= 0;
+    }
+
+    public int getSVNServePort() {
+        return mySVNServePort;
+    }
+
+    public int getSVNServeAnonymousAccess() {
+        return mySVNServeAnonymousAccess;
+    }
+
 }
@@ -11,6 +11,7 @@
  */
 package org.tmatesoft.svn.core.internal.server.dav;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -28,6 +29,7 @@ import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.internal.io.dav.DAVElement;
 import org.tmatesoft.svn.core.internal.io.fs.FSRepositoryFactory;
 import org.tmatesoft.svn.core.internal.server.dav.handlers.DAVHandlerFactory;
+import org.tmatesoft.svn.core.internal.server.svn.SVNServer;
 import org.tmatesoft.svn.core.internal.server.dav.handlers.DAVResponse;
 import org.tmatesoft.svn.core.internal.server.dav.handlers.ServletDAVHandler;
 import org.tmatesoft.svn.core.internal.util.SVNEncodingUtil;
@@ -109,6 +111,7 @@ public class DAVServlet extends HttpServlet {
     }
      
     private DAVConfig myDAVConfig;
+    private SVNServer mySVNServer;
 
     private DAVConfig getDAVConfig() {
         return myDAVConfig;
@@ -121,6 +124,43 @@ public class DAVServlet extends HttpServlet {
         } catch (SVNException e) {
             myDAVConfig = null;
         }
+        if (myDAVConfig != null && myDAVConfig.isSVNServeEnabled()) {
+            startSVNServer(myDAVConfig);
+        }
+    }
+
+    public void destroy() {
+        if (mySVNServer != null) {
+            mySVNServer.stop();
+            mySVNServer = null;
+        }
+        super.destroy();
+    }
+
+    private void startSVNServer(DAVConfig config) {
+        if (config.isUsingPBA()) {
+            // svn:// requests would bypass the path-based authorization of the servlet.
+            SVNDebugLog.getDefaultLog().logError(SVNLogType.NETWORK,
+                    "SVNServePort is ignored: svn:// access can not be used together with AuthzSVNAccessFile");
+            return;
+        }
+        if (config.getSVNServeAnonymousAccess() == SVNServer.ACCESS_NONE) {
+            SVNDebugLog.getDefaultLog().logError(SVNLogType.NETWORK,
+                    "SVNServePort is ignored: set SVNServeAnonymousAccess to 'read' or 'write' to allow svn:// access");
+            return;
+        }
+        String root = config.isUsingRepositoryPathDirective() ? config.getRepositoryPath() : config.getRepositoryParentPath();
+        SVNServer server = new SVNServer(new File(root));
+        server.setPort(config.getSVNServePort());
+        server.setAnonymousAccess(config.getSVNServeAnonymousAccess());
+        // users are authenticated by the servlet container, svn:// access is anonymous only.
+        server.setAuthenticatedAccess(SVNServer.ACCESS_NONE);
+        try {
+            server.start();
+            mySVNServer = server;
+        } catch (SVNException e) {
+            SVNDebugLog.getDefaultLog().logError(SVNLogType.NETWORK, e);
+        }
     }
 
     public void service(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
@@ -0,0 +1,180 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.server.dav.handlers;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.server.dav.DAVException;
+import org.tmatesoft.svn.core.internal.server.dav.DAVRepositoryManager;
+import org.tmatesoft.svn.core.internal.util.SVNBase64;
+import org.tmatesoft.svn.core.internal.util.SVNDate;
+import org.tmatesoft.svn.core.internal.util.SVNHashMap;
+import org.tmatesoft.svn.core.internal.util.SVNHashSet;
+import org.tmatesoft.svn.core.internal.util.SVNPathUtil;
+import org.tmatesoft.svn.core.internal.util.SVNXMLUtil;
+import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.core.wc.ISVNAnnotateHandler;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+import org.tmatesoft.svn.util.SVNLogType;
+
+/**
+ * Computes annotations of a file in the repository and sends only the annotated lines 
+ * to the client, instead of every file revision as <code>file-revs-report</code> does.
+ * 
+ * <p>
+ * <code>blame-report</code> is an SVNKit extension: it is not part of the Subversion 
+ * protocol although it uses the <code>svn:</code> namespace, and Apache mod_dav_svn as 
+ * well as older SVNKit servers answer it with 501 (unknown report). Clients must then 
+ * compute annotations from <code>file-revs-report</code> themselves, as SVNKit does.
+ * 
+ * @author TMate Software Ltd.
+ * @version 1.9
+ */
+public class DAVBlameHandler extends DAVReportHandler implements ISVNAnnotateHandler {
+
+    private static final String BLAME_REVISION_TAG = "blame-rev";
+    private static final String BLAME_LINE_TAG = "blame-line";
+    
+    /**
+     * Lines are decoded with a single-byte charset so that the original bytes 
+     * may be restored and sent to the client, which decodes them itself.
+     */
+    private static final String LINE_ENCODING = "ISO-8859-1";
+
+    private DAVBlameRequest myDAVRequest;
+    private boolean myWriteHeader;
+    private DAVReportHandler myCommonReportHandler;
+    private Set myReportedRevisions;
+
+    public DAVBlameHandler(DAVRepositoryManager repositoryManager, HttpServletRequest request, HttpServletResponse response, 
+            DAVReportHandler commonReportHandler) {
+        super(repositoryManager, request, response);
+        myCommonReportHandler = commonReportHandler;
+        myReportedRevisions = new SVNHashSet();
+    }
+
+    protected DAVRequest getDAVRequest() {
+        return getBlameRequest();
+    }
+
+    private DAVBlameRequest getBlameRequest() {
+        if (myDAVRequest == null) {
+            myDAVRequest = new DAVBlameRequest();
+        }
+        return myDAVRequest;
+    }
+
+    public void execute() throws SVNException {
+        myCommonReportHandler.checkSVNNamespace(null);
+
+        setDAVResource(getRequestedDAVResource(false, false));
+        myWriteHeader = true;
+        DAVBlameRequest request = getBlameRequest();
+        String path = SVNPathUtil.append(getDAVResource().getResourceURI().getPath(), request.getPath());
+        try {
+            getDAVResource().getRepository().getAnnotations(path, request.getStartRevision(), request.getEndRevision(), 
+                    request.isIncludeMergedRevisions(), request.isForce(), request.getDiffOptions(), LINE_ENCODING, this);
+        } catch (SVNException svne) {
+            throw DAVException.convertError(svne.getErrorMessage(), HttpServletResponse.SC_INTERNAL_SERVER_ERROR, 
+                    svne.getErrorMessage().getMessage(), null);
+        }
+        
+        try {
+            maybeSendHeader();
+        } catch (SVNException svne) {
+            throw DAVException.convertError(svne.getErrorMessage(), HttpServletResponse.SC_INTERNAL_SERVER_ERROR, 
+                    "Error beginning REPORT reponse", null);
+        }
+        
+        try {
+            writeXMLFooter(null);
+        } catch (SVNException svne) {
+            throw DAVException.convertError(svne.getErrorMessage(), HttpServletResponse.SC_INTERNAL_SERVER_ERROR, 
+                    "Error ending REPORT reponse", null);
+        }
+    }
+
+    public void handleLine(Date date, long revision, String author, String line) throws SVNException {
+    }
+
+    public void handleLine(Date date, long revision, String author, String line, Date mergedDate, 
+            long mergedRevision, String mergedAuthor, String mergedPath, int lineNumber) throws SVNException {
+        maybeSendHeader();
+        maybeSendRevision(revision, author, date);
+        maybeSendRevision(mergedRevision, mergedAuthor, mergedDate);
+
+        Map attrs = new SVNHashMap();
+        attrs.put(REVISION_ATTR, String.valueOf(revision));
+        if (SVNRevision.isValidRevisionNumber(mergedRevision)) {
+            attrs.put("merged-rev", String.valueOf(mergedRevision));
+        }
+        if (mergedPath != null) {
+            attrs.put("merged-path", mergedPath);
+        }
+        byte[] bytes;
+        try {
+            bytes = line.getBytes(LINE_ENCODING);
+        } catch (UnsupportedEncodingException e) {
+            SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e), e, SVNLogType.NETWORK);
+            return;
+        }
+        StringBuffer xmlBuffer = SVNXMLUtil.openXMLTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, BLAME_LINE_TAG, SVNXMLUtil.XML_STYLE_PROTECT_CDATA, 
+                attrs, null);
+        xmlBuffer.append(SVNBase64.byteArrayToBase64(bytes));
+        SVNXMLUtil.closeXMLTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, BLAME_LINE_TAG, xmlBuffer);
+        write(xmlBuffer);
+    }
+
+    public boolean handleRevision(Date date, long revision, String author, File contents) throws SVNException {
+        return false;
+    }
+
+    public void handleEOF() throws SVNException {
+    }
+
+    private void maybeSendRevision(long revision, String author, Date date) throws SVNException {
+        if (!SVNRevision.isValidRevisionNumber(revision) || (author == null && date == null)) {
+            return;
+        }
+        if (!myReportedRevisions.add(new Long(revision))) {
+            return;
+        }
+        Map attrs = new SVNHashMap();
+        attrs.put(REVISION_ATTR, String.valueOf(revision));
+        if (author != null) {
+            attrs.put("author", author);
+        }
+        if (date != null) {
+            attrs.put("date", SVNDate.formatDate(date));
+        }
+        StringBuffer xmlBuffer = SVNXMLUtil.openXMLTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, BLAME_REVISION_TAG, SVNXMLUtil.XML_STYLE_SELF_CLOSING, 
+                attrs, null);
+        write(xmlBuffer);
+    }
+
+    private void maybeSendHeader() throws SVNException {
+        if (myWriteHeader) {
+            writeXMLHeader(null);
+            myWriteHeader = false;
+        }
+    }
+}
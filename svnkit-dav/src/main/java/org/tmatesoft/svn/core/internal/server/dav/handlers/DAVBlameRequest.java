@@ -0,0 +1,107 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.server.dav.handlers;
+
+import java.util.Iterator;
+import java.util.List;
+
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.io.dav.DAVElement;
+import org.tmatesoft.svn.core.internal.server.dav.DAVPathUtil;
+import org.tmatesoft.svn.core.internal.server.dav.DAVResource;
+import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.core.wc.SVNDiffOptions;
+import org.tmatesoft.svn.util.SVNLogType;
+
+/**
+ * @author TMate Software Ltd.
+ * @version 1.9
+ */
+public class DAVBlameRequest extends DAVRequest {
+
+    private static final DAVElement FORCE = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "force");
+    private static final DAVElement IGNORE_ALL_WHITESPACE = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "ignore-all-whitespace");
+    private static final DAVElement IGNORE_AMOUNT_OF_WHITESPACE = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "ignore-amount-of-whitespace");
+    private static final DAVElement IGNORE_EOL_STYLE = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "ignore-eol-style");
+
+    private String myPath;
+    private long myStartRevision = DAVResource.INVALID_REVISION;
+    private long myEndRevision = DAVResource.INVALID_REVISION;
+    private boolean myIsIncludeMergedRevisions;
+    private boolean myIsForce;
+    private SVNDiffOptions myDiffOptions = new SVNDiffOptions();
+
+    public String getPath() {
+        return myPath;
+    }
+
+    public long getStartRevision() {
+        return myStartRevision;
+    }
+
+    public long getEndRevision() {
+        return myEndRevision;
+    }
+
+    public boolean isIncludeMergedRevisions() {
+        return myIsIncludeMergedRevisions;
+    }
+
+    public boolean isForce() {
+        return myIsForce;
+    }
+
+    public SVNDiffOptions getDiffOptions() {
+        return myDiffOptions;
+    }
+
+    protected void init() throws SVNException {
+        DAVElementProperty rootElement = getRootElement();
+        List children = rootElement.getChildren();
+        for (Iterator iterator = children.iterator(); iterator.hasNext();) {
+            DAVElementProperty childElement = (DAVElementProperty) iterator.next();
+            DAVElement childElementName = childElement.getName();
+            if (!DAVElement.SVN_NAMESPACE.equals(childElementName.getNamespace())) {
+                continue;
+            }
+            if (childElementName == DAVElement.PATH) {
+                String path = childElement.getFirstValue(false);
+                DAVPathUtil.testCanonical(path);
+                myPath = path;
+            } else if (childElementName == DAVElement.START_REVISION) {
+                try {
+                    myStartRevision = Long.parseLong(childElement.getFirstValue(true));
+                } catch (NumberFormatException nfe) {
+                    SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_DAV_REQUEST_FAILED, nfe), SVNLogType.NETWORK);
+                }
+            } else if (childElementName == DAVElement.END_REVISION) {
+                try {
+                    myEndRevision = Long.parseLong(childElement.getFirstValue(true));
+                } catch (NumberFormatException nfe) {
+                    SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_DAV_REQUEST_FAILED, nfe), SVNLogType.NETWORK);
+                }
+            } else if (childElementName == DAVElement.INCLUDE_MERGED_REVISIONS) {
+                myIsIncludeMergedRevisions = true;
+            } else if (childElementName == FORCE) {
+                myIsForce = true;
+            } else if (childElementName == IGNORE_ALL_WHITESPACE) {
+                myDiffOptions.setIgnoreAllWhitespace(true);
+            } else if (childElementName == IGNORE_AMOUNT_OF_WHITESPACE) {
+                myDiffOptions.setIgnoreAmountOfWhitespace(true);
+            } else if (childElementName == IGNORE_EOL_STYLE) {
+                myDiffOptions.setIgnoreEOLStyle(true);
+            }
+        }
+    }
+}
@@ -67,6 +67,7 @@ public class DAVReportHandler extends ServletDAVHandler {
     protected static final String START_EMPTY_ATTR = "start-empty";
     protected static final String SEND_ALL_ATTR = "send-all";
     protected static final String BASE_CHECKSUM_ATTR = "base-checksum";
+    protected static final String SHA1_CHECKSUM_ATTR = "sha1-checksum";
     protected static final String BC_URL_ATTR = "bc-url";
 
     private DAVRepositoryManager myRepositoryManager;
@@ -199,6 +200,8 @@ public class DAVReportHandler extends ServletDAVHandler {
             setReportHandler(new DAVGetLocationSegmentsHandler(myRepositoryManager, myRequest, myResponse, this));
         } else if (rootElement == GET_DELETED_REVISION_REPORT) {
             setReportHandler(new DAVGetDeletedRevisionHandler(myRepositoryManager, myRequest, myResponse, this));
+        } else if (rootElement == BLAME_REPORT) {
+            setReportHandler(new DAVBlameHandler(myRepositoryManager, myRequest, myResponse, this));
         } else {
             myIsUnknownReport = true;
             setReportHandler(new DumpReportHandler(myRepositoryManager, myRequest, myResponse));
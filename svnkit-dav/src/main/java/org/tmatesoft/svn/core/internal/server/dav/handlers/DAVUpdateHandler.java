@@ -550,7 +550,10 @@ public class DAVUpdateHandler extends DAVReportHandler implements ISVNEditor {
 
     public void closeFile(String path, String textChecksum) throws SVNException {
         if (!getUpdateRequest().isSendAll() && !getFileEditorEntry().isAdded() && isFileTextChanged()) {
-            StringBuffer xmlBuffer = SVNXMLUtil.openXMLTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "fetch-file", SVNXMLUtil.XML_STYLE_SELF_CLOSING, BASE_CHECKSUM_ATTR, getFileBaseChecksum(), null);
+            Map attrs = new SVNHashMap();
+            attrs.put(BASE_CHECKSUM_ATTR, getFileBaseChecksum());
+            addSHA1Checksum(getRealPath(path), attrs);
+            StringBuffer xmlBuffer = SVNXMLUtil.openXMLTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "fetch-file", SVNXMLUtil.XML_STYLE_SELF_CLOSING, attrs, null);
             write(xmlBuffer);
         }
 
@@ -635,6 +638,9 @@ public class DAVUpdateHandler extends DAVReportHandler implements ISVNEditor {
                 attrs.put(COPYFROM_PATH_ATTR, copyFromPath);
                 attrs.put(COPYFROM_REVISION_ATTR, String.valueOf(copyFromRevision));
             }
+            if (!isDirectory && !getUpdateRequest().isSendAll()) {
+                addSHA1Checksum(realPath, attrs);
+            }
             String tagName = isDirectory ? "add-directory" : "add-file";
             xmlBuffer = SVNXMLUtil.openXMLTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, tagName, SVNXMLUtil.XML_STYLE_NORMAL, attrs, null);
         }
@@ -645,6 +651,17 @@ public class DAVUpdateHandler extends DAVReportHandler implements ISVNEditor {
         write(xmlBuffer);
     }
 
+    /**
+     * Lets the client, which fetches texts itself, find a text it already has by its SHA-1
+     * checksum (as mod_dav_svn does). Nothing is added for representations without SHA-1.
+     */
+    private void addSHA1Checksum(String path, Map attrs) throws SVNException {
+        String sha1Checksum = myRevisionRoot.getRevisionNode(path).getFileSHA1Checksum();
+        if (sha1Checksum != null && sha1Checksum.length() > 0) {
+            attrs.put(SHA1_CHECKSUM_ATTR, sha1Checksum);
+        }
+    }
+
     private void changeProperties(EditorEntry entry, String name, SVNPropertyValue value) throws SVNException {
         //String quotedName = SVNEncodingUtil.xmlEncodeCDATA(name, true);
         if (getUpdateRequest().isSendAll()) {
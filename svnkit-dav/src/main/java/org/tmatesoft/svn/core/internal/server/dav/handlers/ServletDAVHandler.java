@@ -194,6 +194,7 @@ public abstract class ServletDAVHandler extends BasicDAVHandler {
     protected static final DAVElement REPLAY_REPORT = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "replay-report");
     protected static final DAVElement MERGEINFO_REPORT = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "mergeinfo-report");
     protected static final DAVElement GET_DELETED_REVISION_REPORT = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "get-deleted-rev-report");
+    protected static final DAVElement BLAME_REPORT = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "blame-report");
     protected static final DAVElement LOCK_PATH_ELEM = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "lock-path");
     protected static final DAVElement LOCK_TOKEN_ELEM = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "lock-token");
     
@@ -215,6 +216,7 @@ public abstract class ServletDAVHandler extends BasicDAVHandler {
         REPORT_ELEMENTS.add(GET_LOCKS_REPORT);
         REPORT_ELEMENTS.add(REPLAY_REPORT);
         REPORT_ELEMENTS.add(MERGEINFO_REPORT);
+        REPORT_ELEMENTS.add(BLAME_REPORT);
     }
 
     protected static final Map OUR_LIVE_PROPS = new HashMap(); 
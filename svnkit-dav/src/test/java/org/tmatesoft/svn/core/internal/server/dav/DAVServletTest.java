@@ -0,0 +1,197 @@
+package org.tmatesoft.svn.core.internal.server.dav;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.tmatesoft.svn.core.SVNDepth;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.auth.BasicAuthenticationManager;
+import org.tmatesoft.svn.core.internal.io.dav.DAVRepositoryFactory;
+import org.tmatesoft.svn.core.internal.wc.DefaultSVNOptions;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.tmatesoft.svn.core.wc.ISVNAnnotateHandler;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+import org.tmatesoft.svn.core.wc.SVNWCUtil;
+import org.tmatesoft.svn.core.wc2.SvnCheckout;
+import org.tmatesoft.svn.core.wc2.SvnCommit;
+import org.tmatesoft.svn.core.wc2.SvnExport;
+import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
+import org.tmatesoft.svn.core.wc2.SvnScheduleForAddition;
+import org.tmatesoft.svn.core.wc2.SvnTarget;
+import org.tmatesoft.svn.core.wc2.SvnUpdate;
+
+public class DAVServletTest {
+
+    private File myDirectory;
+    private SVNURL myFileURL;
+    private DAVTestServer myServer;
+    private SvnOperationFactory mySvnOperationFactory;
+
+    @Before
+    public void setUp() throws Exception {
+        DAVRepositoryFactory.setup();
+        myDirectory = File.createTempFile("svnkit-dav", ".test").getCanonicalFile();
+        SVNFileUtil.deleteFile(myDirectory);
+        myDirectory.mkdirs();
+
+        final File repositoryDirectory = new File(myDirectory, "repository");
+        myFileURL = SVNRepositoryFactory.createLocalRepository(repositoryDirectory, true, false);
+        myServer = new DAVTestServer(repositoryDirectory);
+        mySvnOperationFactory = new SvnOperationFactory();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        mySvnOperationFactory.dispose();
+        myServer.stop();
+        SVNFileUtil.deleteAll(myDirectory, true);
+    }
+
+    @Test
+    public void testCheckoutAndExportReadSharedPristines() throws Exception {
+        final File workingCopyDirectory = checkout(myFileURL, "wc");
+        final File file = new File(workingCopyDirectory, "directory/file");
+        file.getParentFile().mkdirs();
+        SVNFileUtil.writeToFile(file, "contents", "UTF-8");
+        add(file.getParentFile());
+        commit(workingCopyDirectory);
+
+        final File copy = new File(workingCopyDirectory, "copy");
+        SVNFileUtil.writeToFile(copy, "contents", "UTF-8");
+        add(copy);
+        SVNFileUtil.writeToFile(file, "changed", "UTF-8");
+        commit(workingCopyDirectory);
+
+        final File pristinesDirectory = new File(myDirectory, "pristines");
+        final DefaultSVNOptions options = SVNWCUtil.createDefaultOptions(new File(myDirectory, "config"), false);
+        options.setSharedPristinesDirectory(pristinesDirectory);
+        mySvnOperationFactory.setOptions(options);
+
+        final SVNURL url = myServer.getURL();
+        final File workingCopyDirectory1 = new File(myDirectory, "wc1");
+        final SvnCheckout checkout1 = mySvnOperationFactory.createCheckout();
+        checkout1.setSource(SvnTarget.fromURL(url, SVNRevision.create(1)));
+        checkout1.setRevision(SVNRevision.create(1));
+        checkout1.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory1));
+        checkout1.run();
+        Assert.assertEquals(1, myServer.getRequestsCount("GET"));
+
+        // 'copy' has the text of r1 'directory/file', only the changed file is fetched.
+        final SvnUpdate update = mySvnOperationFactory.createUpdate();
+        update.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory1));
+        update.run();
+        Assert.assertEquals(2, myServer.getRequestsCount("GET"));
+
+        final File workingCopyDirectory2 = new File(myDirectory, "wc2");
+        final SvnCheckout checkout2 = mySvnOperationFactory.createCheckout();
+        checkout2.setSource(SvnTarget.fromURL(url));
+        checkout2.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory2));
+        checkout2.run();
+        Assert.assertEquals(2, myServer.getRequestsCount("GET"));
+
+        final File exportDirectory = new File(myDirectory, "export");
+        final SvnExport export = mySvnOperationFactory.createExport();
+        export.setSource(SvnTarget.fromURL(url));
+        export.setSingleTarget(SvnTarget.fromFile(exportDirectory));
+        export.run();
+        Assert.assertEquals(2, myServer.getRequestsCount("GET"));
+
+        for (File directory : new File[] {workingCopyDirectory1, workingCopyDirectory2, exportDirectory}) {
+            Assert.assertEquals("contents", SVNFileUtil.readFile(new File(directory, "copy")));
+            Assert.assertEquals("changed", SVNFileUtil.readFile(new File(directory, "directory/file")));
+        }
+    }
+
+    @Test
+    public void testBlameReportSendsAnnotatedLines() throws Exception {
+        createFileWithTwoRevisions();
+
+        final List<String> annotations = annotate(myServer.getURL());
+        Assert.assertEquals(Arrays.asList("1 author first", "2 author changed", "1 author third"), annotations);
+        Assert.assertEquals(1, myServer.getReportsCount("blame-report"));
+        Assert.assertEquals(0, myServer.getReportsCount("file-revs-report"));
+    }
+
+    @Test
+    public void testBlameFallsBackToFileRevisionsWhenReportIsNotSupported() throws Exception {
+        createFileWithTwoRevisions();
+        myServer.refuseReport("blame-report");
+
+        final List<String> annotations = annotate(myServer.getURL());
+        Assert.assertEquals(Arrays.asList("1 author first", "2 author changed", "1 author third"), annotations);
+        Assert.assertEquals(1, myServer.getReportsCount("blame-report"));
+        Assert.assertEquals(1, myServer.getReportsCount("file-revs-report"));
+    }
+
+    private void createFileWithTwoRevisions() throws Exception {
+        mySvnOperationFactory.setAuthenticationManager(new BasicAuthenticationManager("author", "password"));
+        final File workingCopyDirectory = checkout(myFileURL, "wc");
+        final File file = new File(workingCopyDirectory, "file");
+        SVNFileUtil.writeToFile(file, "first\nsecond\nthird\n", "UTF-8");
+        add(file);
+        commit(workingCopyDirectory);
+
+        SVNFileUtil.writeToFile(file, "first\nchanged\nthird\n", "UTF-8");
+        commit(workingCopyDirectory);
+    }
+
+    private static List<String> annotate(SVNURL url) throws SVNException {
+        final List<String> annotations = new ArrayList<String>();
+        final SVNRepository svnRepository = SVNRepositoryFactory.create(url);
+        try {
+            svnRepository.getAnnotations("file", 1, 2, false, false, null, "UTF-8", new ISVNAnnotateHandler() {
+                public void handleLine(Date date, long revision, String author, String line) {
+                }
+
+                public void handleLine(Date date, long revision, String author, String line, Date mergedDate,
+                        long mergedRevision, String mergedAuthor, String mergedPath, int lineNumber) {
+                    Assert.assertNotNull(date);
+                    annotations.add(revision + " " + author + " " + line.trim());
+                }
+
+                public boolean handleRevision(Date date, long revision, String author, File contents) {
+                    return false;
+                }
+
+                public void handleEOF() {
+                }
+            });
+        } finally {
+            svnRepository.closeSession();
+        }
+        return annotations;
+    }
+
+    private File checkout(SVNURL url, String name) throws Exception {
+        final File directory = new File(myDirectory, name);
+        final SvnCheckout checkout = mySvnOperationFactory.createCheckout();
+        checkout.setSource(SvnTarget.fromURL(url));
+        checkout.setSingleTarget(SvnTarget.fromFile(directory));
+        checkout.run();
+        return directory;
+    }
+
+    private void add(File path) throws Exception {
+        final SvnScheduleForAddition add = mySvnOperationFactory.createScheduleForAddition();
+        add.setSingleTarget(SvnTarget.fromFile(path));
+        add.setDepth(SVNDepth.INFINITY);
+        add.run();
+    }
+
+    private void commit(File workingCopyDirectory) throws Exception {
+        final SvnCommit commit = mySvnOperationFactory.createCommit();
+        commit.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory));
+        commit.setCommitMessage("");
+        commit.run();
+    }
+}
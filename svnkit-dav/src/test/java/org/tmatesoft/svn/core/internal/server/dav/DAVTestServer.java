@@ -0,0 +1,335 @@
+package org.tmatesoft.svn.core.internal.server.dav;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.servlet.ServletConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Serves one repository with {@link DAVServlet} from the JDK's HTTP server, so that tests
+ * do not need a servlet container. Only the parts of the servlet API the servlet uses are
+ * implemented; requests are counted by method and reports by the name of their root element.
+ */
+class DAVTestServer {
+
+    private static final String CONTEXT_PATH = "/repos";
+    private static final Pattern ROOT_ELEMENT = Pattern.compile("<(?:[\\w.-]+:)?([\\w.-]+)[\\s/>]");
+
+    private final HttpServer myServer;
+    private final DAVServlet myServlet;
+    private final Map<String, Integer> myRequestsCount = new HashMap<String, Integer>();
+    private final Set<String> myRefusedReports = new HashSet<String>();
+
+    public DAVTestServer(File repositoryDirectory) throws Exception {
+        final Map<String, String> parameters = new HashMap<String, String>();
+        parameters.put("SVNPath", repositoryDirectory.getAbsolutePath());
+
+        myServlet = new DAVServlet();
+        myServlet.init(createProxy(ServletConfig.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) {
+                if ("getInitParameter".equals(method.getName())) {
+                    return parameters.get(args[0]);
+                } else if ("getInitParameterNames".equals(method.getName())) {
+                    return Collections.enumeration(parameters.keySet());
+                } else if ("getServletContext".equals(method.getName())) {
+                    return createProxy(ServletContext.class, null);
+                }
+                return defaultValue(method);
+            }
+        }));
+
+        myServer = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        myServer.setExecutor(Executors.newCachedThreadPool());
+        myServer.createContext(CONTEXT_PATH, new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                serve(exchange);
+            }
+        });
+        myServer.start();
+    }
+
+    public SVNURL getURL() throws SVNException {
+        return SVNURL.create("http", null, "127.0.0.1", myServer.getAddress().getPort(), CONTEXT_PATH, false);
+    }
+
+    public synchronized int getRequestsCount(String method) {
+        final Integer count = myRequestsCount.get(method);
+        return count != null ? count.intValue() : 0;
+    }
+
+    public int getReportsCount(String name) {
+        return getRequestsCount("REPORT " + name);
+    }
+
+    /**
+     * Answers the report the way servers which do not know it do, with 501 and an
+     * unsupported feature error.
+     */
+    public synchronized void refuseReport(String name) {
+        myRefusedReports.add(name);
+    }
+
+    private synchronized boolean isRefused(String name) {
+        return myRefusedReports.contains(name);
+    }
+
+    public void stop() {
+        myServer.stop(0);
+        myServlet.destroy();
+    }
+
+    private synchronized void countRequest(String method) {
+        myRequestsCount.put(method, Integer.valueOf(getRequestsCount(method) + 1));
+    }
+
+    private void serve(HttpExchange exchange) throws IOException {
+        countRequest(exchange.getRequestMethod());
+        final byte[] requestBody = readFully(exchange.getRequestBody());
+        final Response response = new Response();
+        if ("REPORT".equals(exchange.getRequestMethod())) {
+            final String reportName = getRootElementName(requestBody);
+            countRequest("REPORT " + reportName);
+            if (isRefused(reportName)) {
+                refuse(exchange);
+                return;
+            }
+        }
+        try {
+            myServlet.service(createRequest(exchange, requestBody), createProxy(HttpServletResponse.class, response));
+        } catch (Exception e) {
+            response.status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        }
+        response.flush();
+        final byte[] body = response.body.toByteArray();
+        final Headers headers = exchange.getResponseHeaders();
+        for (Map.Entry<String, List<String>> header : response.headers.entrySet()) {
+            headers.put(header.getKey(), header.getValue());
+        }
+        exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+        if (body.length > 0) {
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+
+    private static void refuse(HttpExchange exchange) throws IOException {
+        final byte[] body = ("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n" +
+                "<D:error xmlns:D=\"DAV:\" xmlns:m=\"http://apache.org/dav/xmlns\" xmlns:C=\"svn:\">\n" +
+                "<C:error/>\n" +
+                "<m:human-readable errcode=\"200007\">\nThe requested report is unknown.\n</m:human-readable>\n" +
+                "</D:error>\n").getBytes("UTF-8");
+        exchange.getResponseHeaders().set("Content-Type", "text/xml; charset=\"utf-8\"");
+        exchange.sendResponseHeaders(HttpServletResponse.SC_NOT_IMPLEMENTED, body.length);
+        exchange.getResponseBody().write(body);
+        exchange.close();
+    }
+
+    private static String getRootElementName(byte[] body) throws IOException {
+        String xml = new String(body, "UTF-8");
+        if (xml.startsWith("<?")) {
+            xml = xml.substring(xml.indexOf("?>") + 2);
+        }
+        final Matcher matcher = ROOT_ELEMENT.matcher(xml);
+        return matcher.find() ? matcher.group(1) : "";
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private HttpServletRequest createRequest(final HttpExchange exchange, byte[] requestBody) {
+        final String requestURI = exchange.getRequestURI().getRawPath();
+        final String pathInfo = exchange.getRequestURI().getPath().substring(CONTEXT_PATH.length());
+        final InputStream body = new ByteArrayInputStream(requestBody);
+        final ServletInputStream inputStream = new ServletInputStream() {
+            public int read() throws IOException {
+                return body.read();
+            }
+
+            public int read(byte[] b, int off, int len) throws IOException {
+                return body.read(b, off, len);
+            }
+        };
+        return createProxy(HttpServletRequest.class, new InvocationHandler() {
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                final String name = method.getName();
+                if ("getMethod".equals(name)) {
+                    return exchange.getRequestMethod();
+                } else if ("getHeader".equals(name)) {
+                    return exchange.getRequestHeaders().getFirst((String) args[0]);
+                } else if ("getHeaders".equals(name)) {
+                    final List<String> values = exchange.getRequestHeaders().get(args[0]);
+                    return Collections.enumeration(values != null ? values : Collections.<String>emptyList());
+                } else if ("getHeaderNames".equals(name)) {
+                    return Collections.enumeration(exchange.getRequestHeaders().keySet());
+                } else if ("getIntHeader".equals(name)) {
+                    final String value = exchange.getRequestHeaders().getFirst((String) args[0]);
+                    return Integer.valueOf(value != null ? Integer.parseInt(value) : -1);
+                } else if ("getDateHeader".equals(name)) {
+                    return Long.valueOf(-1);
+                } else if ("getContentLength".equals(name)) {
+                    final String value = exchange.getRequestHeaders().getFirst("Content-Length");
+                    return Integer.valueOf(value != null ? Integer.parseInt(value) : -1);
+                } else if ("getContentType".equals(name)) {
+                    return exchange.getRequestHeaders().getFirst("Content-Type");
+                } else if ("getInputStream".equals(name)) {
+                    return inputStream;
+                } else if ("getContextPath".equals(name)) {
+                    return CONTEXT_PATH;
+                } else if ("getServletPath".equals(name)) {
+                    return "";
+                } else if ("getPathInfo".equals(name)) {
+                    return pathInfo;
+                } else if ("getRequestURI".equals(name)) {
+                    return requestURI;
+                } else if ("getRequestURL".equals(name)) {
+                    return new StringBuffer("http://127.0.0.1:" + myServer.getAddress().getPort() + requestURI);
+                } else if ("getQueryString".equals(name)) {
+                    return exchange.getRequestURI().getRawQuery();
+                } else if ("getScheme".equals(name)) {
+                    return "http";
+                } else if ("getServerName".equals(name) || "getRemoteAddr".equals(name) || "getRemoteHost".equals(name)) {
+                    return "127.0.0.1";
+                } else if ("getServerPort".equals(name)) {
+                    return Integer.valueOf(myServer.getAddress().getPort());
+                } else if ("getProtocol".equals(name)) {
+                    return exchange.getProtocol();
+                }
+                return defaultValue(method);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T createProxy(Class<T> type, InvocationHandler handler) {
+        if (handler == null) {
+            handler = new InvocationHandler() {
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    return defaultValue(method);
+                }
+            };
+        }
+        return (T) Proxy.newProxyInstance(DAVTestServer.class.getClassLoader(), new Class[] {type}, handler);
+    }
+
+    private static Object defaultValue(Method method) {
+        final Class<?> type = method.getReturnType();
+        if (type == Boolean.TYPE) {
+            return Boolean.FALSE;
+        } else if (type == Integer.TYPE) {
+            return Integer.valueOf(0);
+        } else if (type == Long.TYPE) {
+            return Long.valueOf(0);
+        }
+        return null;
+    }
+
+    private static class Response implements InvocationHandler {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final Map<String, List<String>> headers = new HashMap<String, List<String>>();
+        private int status = HttpServletResponse.SC_OK;
+        private String characterEncoding = "UTF-8";
+        private PrintWriter writer;
+
+        private final ServletOutputStream outputStream = new ServletOutputStream() {
+            public void write(int b) {
+                body.write(b);
+            }
+
+            public void write(byte[] b, int off, int len) {
+                body.write(b, off, len);
+            }
+        };
+
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            final String name = method.getName();
+            if ("setStatus".equals(name)) {
+                status = ((Integer) args[0]).intValue();
+            } else if ("sendError".equals(name)) {
+                status = ((Integer) args[0]).intValue();
+                body.reset();
+            } else if ("setHeader".equals(name) || "setIntHeader".equals(name) || "setDateHeader".equals(name)) {
+                final List<String> values = new ArrayList<String>();
+                values.add(String.valueOf(args[1]));
+                headers.put((String) args[0], values);
+            } else if ("addHeader".equals(name) || "addIntHeader".equals(name) || "addDateHeader".equals(name)) {
+                List<String> values = headers.get(args[0]);
+                if (values == null) {
+                    values = new ArrayList<String>();
+                    headers.put((String) args[0], values);
+                }
+                values.add(String.valueOf(args[1]));
+            } else if ("containsHeader".equals(name)) {
+                return Boolean.valueOf(headers.containsKey(args[0]));
+            } else if ("setContentType".equals(name)) {
+                final List<String> values = new ArrayList<String>();
+                values.add((String) args[0]);
+                headers.put("Content-Type", values);
+            } else if ("setCharacterEncoding".equals(name)) {
+                characterEncoding = (String) args[0];
+            } else if ("getCharacterEncoding".equals(name)) {
+                return characterEncoding;
+            } else if ("getOutputStream".equals(name)) {
+                return outputStream;
+            } else if ("getWriter".equals(name)) {
+                if (writer == null) {
+                    writer = new PrintWriter(new OutputStreamWriter(outputStream, characterEncoding));
+                }
+                return writer;
+            } else if ("flushBuffer".equals(name)) {
+                flush();
+            } else if ("resetBuffer".equals(name) || "reset".equals(name)) {
+                body.reset();
+            } else if ("encodeURL".equals(name) || "encodeRedirectURL".equals(name)) {
+                return args[0];
+            } else {
+                return defaultValue(method);
+            }
+            return null;
+        }
+
+        public void flush() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+    }
+}
@@ -11,6 +11,8 @@
  */
 package org.tmatesoft.svn.core;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -24,7 +26,9 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.tmatesoft.svn.core.internal.util.SVNDate;
+import org.tmatesoft.svn.core.internal.util.SVNLineInterner;
 import org.tmatesoft.svn.core.internal.util.SVNPathUtil;
+import org.tmatesoft.svn.core.internal.wc.ISVNAnnotateRevisionHandler;
 import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
 import org.tmatesoft.svn.core.internal.wc.SVNEventFactory;
 import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
@@ -95,6 +99,8 @@ import de.regnis.q.sequence.line.simplifier.QSequenceLineWhiteSpaceSkippingSimpl
  */
 public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
 
+    private static final long MEMORY_THRESHOLD = Long.getLong("svnkit.annotate.memory", 16 * 1024 * 1024).longValue();
+
     private File myTmpDirectory;
     private boolean myIsTmpDirCreated;
     private String myPath;
@@ -127,6 +133,14 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
     private long myLatestRevision;
     private SVNProperties myLatestRevisionProperties;
 
+    private boolean myIsInMemory;
+    private SVNLineInterner myLineInterner;
+    private Text myPreviousText;
+    private Text myPreviousOriginalText;
+    private TextOutputStream myCurrentContents;
+    private SVNException myContentsError;
+    private boolean myIsHandlingRevision;
+
     /**
      * Constructs an annotation generator object. 
      * 
@@ -215,6 +229,7 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
         myIncludeMergedRevisions = includeMergedRevisions;
         myFileHandler = handler;
         myEncoding = encoding;
+        myIsInMemory = MEMORY_THRESHOLD > 0;
     }
 
     public void setBackwards(boolean backwards) {
@@ -298,13 +313,18 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
     }
     
     /**
-     * Creates a temporary file for delta application.
+     * Prepares a buffer (or a temporary file, for large files) for delta application.
      * 
      * @param  token             not used in this method 
      * @param  baseChecksum      not used in this method
      * @throws SVNException 
      */
     public void applyTextDelta(String token, String baseChecksum) throws SVNException {
+        if (myIsInMemory) {
+            myCurrentContents = new TextOutputStream();
+            myDeltaProcessor.applyTextDelta(myPreviousText != null ? myPreviousText.open() : null, myCurrentContents, false);
+            return;
+        }
         if (myCurrentFile == null) {
             myCurrentFile = SVNFileUtil.createUniqueFile(myTmpDirectory, "annotate", ".tmp", false);
         }
@@ -331,7 +351,93 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
     public void textDeltaEnd(String token) throws SVNException {
 	    myIsLastRevisionReported = false;
         myDeltaProcessor.textDeltaEnd();
-        
+        addRevision();
+    }
+
+    /**
+     * Handles the full text of the current revision. May be called instead of 
+     * {@link #applyTextDelta(String, String) applyTextDelta()}, {@link #textDeltaChunk(String, SVNDiffWindow) textDeltaChunk()}
+     * and {@link #textDeltaEnd(String) textDeltaEnd()} when the contents of the revision 
+     * are at hand, so that no delta has to be produced and applied.
+     * 
+     * @param  token          not used in this method
+     * @param  contents       contents of the current revision
+     * @throws SVNException 
+     * @since  1.9
+     */
+    public void applyText(String token, InputStream contents) throws SVNException {
+        myIsLastRevisionReported = false;
+        OutputStream os = null;
+        try {
+            if (myIsInMemory) {
+                myCurrentContents = new TextOutputStream();
+                os = myCurrentContents;
+            } else {
+                if (myCurrentFile == null) {
+                    myCurrentFile = SVNFileUtil.createUniqueFile(myTmpDirectory, "annotate", ".tmp", false);
+                }
+                os = SVNFileUtil.openFileForWriting(myCurrentFile);
+            }
+            SVNTranslator.copy(contents, os);
+        } catch (IOException e) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e);
+            SVNErrorManager.error(err, SVNLogType.WC);
+        } finally {
+            SVNFileUtil.closeFile(os);
+        }
+        addRevision();
+    }
+
+    private void addRevision() throws SVNException {
+        final TextOutputStream currentContents = myCurrentContents;
+        myCurrentContents = null;
+        if (currentContents != null && currentContents.size() <= MEMORY_THRESHOLD) {
+            addTextBlame(createText(currentContents));
+        } else {
+            if (currentContents != null) {
+                spillToDisk(currentContents);
+            }
+            addFileBlame();
+        }
+
+        if (myFileHandler != null) {
+            final long revision = myCurrentDate != null ? myCurrentRevision : -1;
+            boolean generate;
+            if (myFileHandler instanceof ISVNAnnotateRevisionHandler) {
+                myContentsError = null;
+                myIsHandlingRevision = true;
+                try {
+                    generate = ((ISVNAnnotateRevisionHandler) myFileHandler).handleRevision(myCurrentDate, revision, myCurrentAuthor, this);
+                } finally {
+                    myIsHandlingRevision = false;
+                }
+                if (myContentsError != null) {
+                    throw myContentsError;
+                }
+            } else {
+                generate = myFileHandler.handleRevision(myCurrentDate, revision, myCurrentAuthor, getPreviousFile());
+            }
+            if (generate) {
+                myIsLastRevisionReported = true;
+                reportAnnotations(myFileHandler, myEncoding);
+            }
+        }
+    }
+
+    private void addTextBlame(Text currentText) throws SVNException {
+        if (myIncludeMergedRevisions) {
+            myMergeBlameChunks = addTextBlame(myPreviousText, currentText, myMergeBlameChunks);
+            if (!myIsCurrentResultOfMerge) {
+                myBlameChunks = addTextBlame(myPreviousOriginalText, currentText, myBlameChunks);
+                myPreviousOriginalText = currentText;
+            }
+        } else {
+            myBlameChunks = addTextBlame(myPreviousText, currentText, myBlameChunks);
+        }
+        myPreviousText = currentText;
+    }
+
+    private void addFileBlame() throws SVNException {
         if (myIncludeMergedRevisions) {
             myMergeBlameChunks = addFileBlame(myPreviousFile, myCurrentFile, myMergeBlameChunks);
             if (!myIsCurrentResultOfMerge) {
@@ -361,29 +467,38 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
                 SVNFileUtil.rename(myCurrentFile, myPreviousFile);
             }
         }
-
-        if (myFileHandler != null) {
-            boolean generate = myFileHandler.handleRevision(myCurrentDate, myCurrentDate != null ? myCurrentRevision : -1, myCurrentAuthor, myPreviousFile);
-            if (generate) {
-                myIsLastRevisionReported = true;
-                reportAnnotations(myFileHandler, myEncoding);
-            }
-        }
     }
     
     public void addFileBlame(InputStream contents) throws SVNException {
-        if (myCurrentFile == null) {
-            myCurrentFile = SVNFileUtil.createUniqueFile(myTmpDirectory, "annotate", ".tmp", false);
-        }
-        OutputStream os = null;
-        try {
-            os = SVNFileUtil.openFileForWriting(myCurrentFile);
-            SVNTranslator.copy(contents, os);
-        } catch (IOException e) {
-            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e);
-            SVNErrorManager.error(err, SVNLogType.WC);
-        } finally {
-            SVNFileUtil.closeFile(os);
+        if (myIsInMemory) {
+            final TextOutputStream currentContents = new TextOutputStream();
+            try {
+                SVNTranslator.copy(contents, currentContents);
+            } catch (IOException e) {
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e);
+                SVNErrorManager.error(err, SVNLogType.WC);
+            }
+            if (currentContents.size() <= MEMORY_THRESHOLD) {
+                final Text currentText = createText(currentContents);
+                myBlameChunks = addTextBlame(myPreviousText, currentText, myBlameChunks);
+                myPreviousText = currentText;
+                return;
+            }
+            spillToDisk(currentContents);
+        } else {
+            if (myCurrentFile == null) {
+                myCurrentFile = SVNFileUtil.createUniqueFile(myTmpDirectory, "annotate", ".tmp", false);
+            }
+            OutputStream os = null;
+            try {
+                os = SVNFileUtil.openFileForWriting(myCurrentFile);
+                SVNTranslator.copy(contents, os);
+            } catch (IOException e) {
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e);
+                SVNErrorManager.error(err, SVNLogType.WC);
+            } finally {
+                SVNFileUtil.closeFile(os);
+            }
         }
         myBlameChunks = addFileBlame(myPreviousFile, myCurrentFile, myBlameChunks);
         if (myPreviousFile == null) {
@@ -421,7 +536,7 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
             return;
         }
 
-        SVNErrorManager.assertionFailure(myPreviousFile != null, null, SVNLogType.WC);
+        SVNErrorManager.assertionFailure(myPreviousText != null || myPreviousFile != null, null, SVNLogType.WC);
         int mergedCount = -1;
         if (myIncludeMergedRevisions) {
             if (myBlameChunks.isEmpty()) {
@@ -442,7 +557,7 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
 
         InputStream stream = null;
         try {
-            stream = new SVNTranslatorInputStream(SVNFileUtil.openFileForReading(myPreviousFile), 
+            stream = new SVNTranslatorInputStream(myPreviousText != null ? myPreviousText.open() : SVNFileUtil.openFileForReading(myPreviousFile), 
                                                   SVNProperty.EOL_LF_BYTES, true, null, false);
             
             StringBuffer buffer = new StringBuffer();
@@ -466,7 +581,9 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
                 }
                 
                 for (int lineNo = chunk.blockStart; nextChunk == null || lineNo < nextChunk.blockStart; lineNo++) {
-                    myCancelBaton.checkCancelled();
+                    if (myCancelBaton != null) {
+                        myCancelBaton.checkCancelled();
+                    }
                     buffer.setLength(0);
                     String line = SVNFileUtil.readLineFromStream(stream, buffer, decoder);
                     boolean isEOF = false;
@@ -503,6 +620,9 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
      */
     public void dispose() {
         myIsCurrentResultOfMerge = false;
+        myPreviousText = null;
+        myPreviousOriginalText = null;
+        myCurrentContents = null;
         if (myCurrentFile != null) {
             SVNFileUtil.deleteAll(myCurrentFile, true);
         }
@@ -521,16 +641,22 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
         myMergeBlameChunks.clear();
     }
 
+    private List addTextBlame(Text previousText, Text currentText, List chain) throws SVNException {
+        if (previousText == null) {
+            return addFirstBlameChunk(chain);
+        }
+        try {
+            addBlameChunks(getLineInterner().getBlocks(previousText.myLines, currentText.myLines), chain);
+        } catch (Throwable e) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.UNKNOWN, "Exception while generating annotation: {0}", e.getMessage());
+            SVNErrorManager.error(err, e, SVNLogType.DEFAULT);
+        }
+        return chain;
+    }
+
     private List addFileBlame(File previousFile, File currentFile, List chain) throws SVNException {
         if (previousFile == null) {
-            BlameChunk chunk = new BlameChunk();
-            chunk.author = myCurrentAuthor;
-            chunk.revision = myCurrentDate != null ? myCurrentRevision : -1;
-            chunk.date = myCurrentDate;
-            chunk.blockStart = 0;
-            chunk.path = myCurrentPath;
-            chain.add(chunk);
-            return chain;
+            return addFirstBlameChunk(chain);
         }
         
         RandomAccessFile left = null;
@@ -541,18 +667,7 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
 
             final QSequenceLineResult result = QSequenceLineMedia.createBlocks(new QSequenceLineRAFileData(left), new QSequenceLineRAFileData(right), createSimplifier());
             try {
-                List blocksList = result.getBlocks();
-                for(int i = 0; i < blocksList.size(); i++) {
-                    QSequenceDifferenceBlock block = (QSequenceDifferenceBlock) blocksList.get(i);
-                    if (block.getLeftSize() > 0) {
-                        deleteBlameChunk(block.getRightFrom(), block.getLeftSize(), chain);
-                    }
-                    if (block.getRightSize() > 0) {
-                        insertBlameChunk(myCurrentRevision, myCurrentAuthor, 
-                                         myCurrentDate, myCurrentPath, 
-                                         block.getRightFrom(), block.getRightSize(), chain);
-                    }
-                }
+                addBlameChunks(result.getBlocks(), chain);
             } finally {
                 result.close();
             }
@@ -570,6 +685,112 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
 
         return chain;
     }
+
+    private List addFirstBlameChunk(List chain) {
+        BlameChunk chunk = new BlameChunk();
+        chunk.author = myCurrentAuthor;
+        chunk.revision = myCurrentDate != null ? myCurrentRevision : -1;
+        chunk.date = myCurrentDate;
+        chunk.blockStart = 0;
+        chunk.path = myCurrentPath;
+        chain.add(chunk);
+        return chain;
+    }
+
+    private void addBlameChunks(List blocksList, List chain) {
+        for(int i = 0; i < blocksList.size(); i++) {
+            QSequenceDifferenceBlock block = (QSequenceDifferenceBlock) blocksList.get(i);
+            if (block.getLeftSize() > 0) {
+                deleteBlameChunk(block.getRightFrom(), block.getLeftSize(), chain);
+            }
+            if (block.getRightSize() > 0) {
+                insertBlameChunk(myCurrentRevision, myCurrentAuthor, 
+                                 myCurrentDate, myCurrentPath, 
+                                 block.getRightFrom(), block.getRightSize(), chain);
+            }
+        }
+    }
+
+    private Text createText(TextOutputStream contents) {
+        final byte[] bytes = contents.getBuffer();
+        final int length = contents.size();
+        return new Text(bytes, length, getLineInterner().split(bytes, length));
+    }
+
+    private SVNLineInterner getLineInterner() {
+        if (myLineInterner == null) {
+            final boolean simplify = myDiffOptions.isIgnoreEOLStyle() || myDiffOptions.isIgnoreAllWhitespace() || myDiffOptions.isIgnoreAmountOfWhitespace();
+            myLineInterner = new SVNLineInterner(simplify ? createSimplifier() : null);
+        }
+        return myLineInterner;
+    }
+
+    /**
+     * Returns a temporary file with the contents of the revision being handled.
+     * The file is written on the first call, revisions nobody asks for stay in memory.
+     * A failure to write the file is rethrown once the handler returns.
+     *
+     * @return temporary file with the revision contents or <span class="javakeyword">null</span>
+     *         if it could not be written or no revision is being handled
+     * @since  1.9
+     */
+    public File getRevisionContents() {
+        if (!myIsHandlingRevision) {
+            return null;
+        }
+        try {
+            return getPreviousFile();
+        } catch (SVNException e) {
+            myContentsError = e;
+            return null;
+        }
+    }
+
+    private File getPreviousFile() throws SVNException {
+        if (myPreviousText != null) {
+            myPreviousFile = writeText(myPreviousText.myBytes, myPreviousText.myLength, myPreviousFile);
+        }
+        return myPreviousFile;
+    }
+
+    /**
+     * Moves the texts kept in memory to temporary files, used once a revision
+     * of the file turns out to be larger than the memory threshold.
+     */
+    private void spillToDisk(TextOutputStream currentContents) throws SVNException {
+        myIsInMemory = false;
+        if (myPreviousOriginalText != null) {
+            myPreviousOriginalFile = writeText(myPreviousOriginalText.myBytes, myPreviousOriginalText.myLength, null);
+        }
+        if (myPreviousText != null && myPreviousText == myPreviousOriginalText) {
+            if (myPreviousFile != null) {
+                SVNFileUtil.deleteFile(myPreviousFile);
+            }
+            myPreviousFile = myPreviousOriginalFile;
+        } else if (myPreviousText != null) {
+            myPreviousFile = writeText(myPreviousText.myBytes, myPreviousText.myLength, myPreviousFile);
+        }
+        myPreviousText = null;
+        myPreviousOriginalText = null;
+        myCurrentFile = writeText(currentContents.getBuffer(), currentContents.size(), myCurrentFile);
+    }
+
+    private File writeText(byte[] bytes, int length, File file) throws SVNException {
+        if (file == null) {
+            file = SVNFileUtil.createUniqueFile(myTmpDirectory, "annotate", ".tmp", false);
+        }
+        OutputStream os = null;
+        try {
+            os = SVNFileUtil.openFileForWriting(file);
+            os.write(bytes, 0, length);
+        } catch (IOException e) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e);
+            SVNErrorManager.error(err, SVNLogType.WC);
+        } finally {
+            SVNFileUtil.closeFile(os);
+        }
+        return file;
+    }
     
     private void insertBlameChunk(long revision, String author, Date date, String path, int start, int length, List chain) {
         int[] index = new int[1];
@@ -737,6 +958,28 @@ public class SVNAnnotationGenerator implements ISVNFileRevisionHandler {
         return mySimplifier;
     }
 
+    private static class Text {
+        private final byte[] myBytes;
+        private final int myLength;
+        private final int[] myLines;
+
+        public Text(byte[] bytes, int length, int[] lines) {
+            myBytes = bytes;
+            myLength = length;
+            myLines = lines;
+        }
+
+        public InputStream open() {
+            return new ByteArrayInputStream(myBytes, 0, myLength);
+        }
+    }
+
+    private static class TextOutputStream extends ByteArrayOutputStream {
+        public byte[] getBuffer() {
+            return buf;
+        }
+    }
+
     private static class BlameChunk {
         public int blockStart;
         public long revision;
@@ -31,6 +31,7 @@ import org.tmatesoft.svn.core.internal.wc17.db.statement.SVNWCDbSchema;
 import org.tmatesoft.svn.core.internal.wc17.db.statement.SVNWCDbStatements;
 import org.tmatesoft.svn.util.SVNDebugLog;
 import org.tmatesoft.svn.util.SVNLogType;
+import org.tmatesoft.svn.util.SVNMetrics;
 
 /**
  * @author TMate Software Ltd.
@@ -54,6 +55,7 @@ public class SVNSqlJetDb {
     private EnumMap<SVNWCDbStatements, SVNSqlJetStatement> statements;
 
     private int openCount = 0;
+    private long transactionStartTime;
     private SVNSqlJetDb temporaryDb;
     private boolean temporaryDbInMemory;
 
@@ -160,6 +162,9 @@ public class SVNSqlJetDb {
         if (stmt != null && stmt.isNeedsReset()) {
             stmt.reset();
         }
+        if (SVNMetrics.isEnabled(SVNLogType.WC)) {
+            SVNMetrics.count(SVNLogType.WC, "sql." + statementIndex, 1);
+        }
 
         return stmt;
     }
@@ -198,6 +203,9 @@ public class SVNSqlJetDb {
     public void beginTransaction(SqlJetTransactionMode mode) throws SVNException {
         if (mode != null) {
             openCount++;
+            if (openCount == 1) {
+                transactionStartTime = SVNMetrics.start(SVNLogType.WC);
+            }
             if (isLogTransactions()) {
                 logCall("Being transaction request (" + openCount + "): " + mode, 5);
             }
@@ -238,6 +246,9 @@ public class SVNSqlJetDb {
                     }
                 } catch (SqlJetException e) {
                     createSqlJetError(e);
+                } finally {
+                    SVNMetrics.time(SVNLogType.WC, "sql-transaction", transactionStartTime, 0);
+                    transactionStartTime = 0;
                 }
             }
         } else {
@@ -25,7 +25,9 @@ import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
 import org.tmatesoft.svn.core.internal.wc.SVNEventFactory;
 import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.io.*;
+import org.tmatesoft.svn.core.wc.ISVNAnnotateHandler;
 import org.tmatesoft.svn.core.wc.ISVNEventHandler;
+import org.tmatesoft.svn.core.wc.SVNDiffOptions;
 import org.tmatesoft.svn.core.wc.SVNEvent;
 import org.tmatesoft.svn.core.wc.SVNEventAction;
 import org.tmatesoft.svn.core.wc2.SvnChecksum;
@@ -248,7 +250,7 @@ public class DAVRepository extends SVNRepository {
     }
 
     public long getFile(String path, long revision, final SVNProperties properties, OutputStream contents) throws SVNException {
-        return getFile(path, revision, properties, contents, null);
+        return getFile(path, revision, properties, contents, getWorkingCopyContentMediator());
     }
 
     public long getFile(String path, long revision, final SVNProperties properties, OutputStream contents, ISVNWorkingCopyContentMediator workingCopyContentMediator) throws SVNException {
@@ -302,7 +304,7 @@ public class DAVRepository extends SVNRepository {
         return getDir(path, revision, properties, SVNDirEntry.DIRENT_ALL, handler);
     }
 
-    public long getDir(String path, long revision, SVNProperties properties, int entryFields, ISVNDirEntryHandler handler) throws SVNException {
+    public long getDir(String path, long revision, SVNProperties properties, final int entryFields, final ISVNDirEntryHandler handler) throws SVNException {
         long dirRevision = revision;
         try {
             openConnection();
@@ -317,7 +319,7 @@ public class DAVRepository extends SVNRepository {
             }
 
             DAVProperties deadProp = DAVUtil.getResourceProperties(connection, path, null, new DAVElement[] {DAVElement.DEADPROP_COUNT});
-            boolean supportsDeadPropCount = deadProp != null && deadProp.getPropertyValue(DAVElement.DEADPROP_COUNT) != null ;
+            final boolean supportsDeadPropCount = deadProp != null && deadProp.getPropertyValue(DAVElement.DEADPROP_COUNT) != null ;
 
             if (handler != null) {
                 DAVElement[] whichProps = null;
@@ -347,102 +349,101 @@ public class DAVRepository extends SVNRepository {
                     whichProps = (DAVElement[]) individualProps.toArray(new DAVElement[individualProps.size()]);
                 }
                 final int parentPathSegments = SVNPathUtil.getSegmentsCount(path);
-                Map dirEntsMap = new SVNHashMap();
-                HTTPStatus status = DAVUtil.getProperties(connection, path, DAVUtil.DEPTH_ONE, null, whichProps, dirEntsMap);
-                if (status.getError() != null) {
-                    SVNErrorManager.error(status.getError(), SVNLogType.NETWORK);
-                }
                 if (!hasRepositoryRoot()) {
                     connection.fetchRepositoryRoot(this);
                 }
-                SVNURL repositryRoot = getRepositoryRoot(false);
-                for(Iterator dirEnts = dirEntsMap.keySet().iterator(); dirEnts.hasNext();) {
-                    String url = (String) dirEnts.next();
-                    DAVProperties child = (DAVProperties) dirEntsMap.get(url);
-                    String href = child.getURL();
-                    if (parentPathSegments == SVNPathUtil.getSegmentsCount(href)) {
-                        continue;
-                    }
-                    String name = SVNEncodingUtil.uriDecode(SVNPathUtil.tail(href));
-
-                    SVNNodeKind kind = SVNNodeKind.UNKNOWN;
-                    if ((entryFields & SVNDirEntry.DIRENT_KIND) != 0) {
-                        kind = child.isCollection() ? SVNNodeKind.DIR : SVNNodeKind.FILE;
-                    }
+                final SVNURL repositryRoot = getRepositoryRoot(false);
+                // entries are passed to the handler while the response is parsed, the listing is never held in memory.
+                HTTPStatus status = DAVUtil.getProperties(connection, path, DAVUtil.DEPTH_ONE, null, whichProps, new IDAVResourceHandler() {
+                    public void handleResource(DAVProperties child) throws SVNException {
+                        String href = child.getURL();
+                        if (parentPathSegments == SVNPathUtil.getSegmentsCount(href)) {
+                            return;
+                        }
+                        String name = SVNEncodingUtil.uriDecode(SVNPathUtil.tail(href));
 
-                    long size = 0;
-                    if ((entryFields & SVNDirEntry.DIRENT_SIZE) != 0) {
-                        final SVNPropertyValue sizeValue = child.getPropertyValue(DAVElement.GET_CONTENT_LENGTH);
-                        final String sizeValueString = SVNPropertyValue.getPropertyAsString(sizeValue);
-                        if (sizeValueString != null && sizeValueString.trim().length() > 0) {
-                            try {
-                                size = Long.parseLong(sizeValueString.trim());
-                            } catch (NumberFormatException nfe) {
-                                SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_DAV_MALFORMED_DATA, nfe), SVNLogType.NETWORK);
-                            }
+                        SVNNodeKind kind = SVNNodeKind.UNKNOWN;
+                        if ((entryFields & SVNDirEntry.DIRENT_KIND) != 0) {
+                            kind = child.isCollection() ? SVNNodeKind.DIR : SVNNodeKind.FILE;
                         }
-                    }
 
-                    boolean hasProperties = false;
-                    if ((entryFields & SVNDirEntry.DIRENT_HAS_PROPERTIES) != 0) {
-                        if (supportsDeadPropCount) {
-                            SVNPropertyValue propVal = child.getPropertyValue(DAVElement.DEADPROP_COUNT);
-                            if (propVal == null) {
-                                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.INCOMPLETE_DATA,
-                                        "Server response missing the expected deadprop-count property");
-                                SVNErrorManager.error(err, SVNLogType.NETWORK);
-                            } else {
-                                long propCount = -1;
+                        long size = 0;
+                        if ((entryFields & SVNDirEntry.DIRENT_SIZE) != 0) {
+                            final SVNPropertyValue sizeValue = child.getPropertyValue(DAVElement.GET_CONTENT_LENGTH);
+                            final String sizeValueString = SVNPropertyValue.getPropertyAsString(sizeValue);
+                            if (sizeValueString != null && sizeValueString.trim().length() > 0) {
                                 try {
-                                    propCount = Long.parseLong(propVal.getString());
+                                    size = Long.parseLong(sizeValueString.trim());
                                 } catch (NumberFormatException nfe) {
                                     SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_DAV_MALFORMED_DATA, nfe), SVNLogType.NETWORK);
                                 }
-                                hasProperties = propCount > 0;
                             }
-                        } else {
-                            for(Iterator props = child.getProperties().keySet().iterator(); props.hasNext();) {
-                                DAVElement property = (DAVElement) props.next();
-                                if (DAVElement.SVN_CUSTOM_PROPERTY_NAMESPACE.equals(property.getNamespace()) ||
-                                        DAVElement.SVN_SVN_PROPERTY_NAMESPACE.equals(property.getNamespace())) {
-                                    hasProperties = true;
-                                    break;
+                        }
+
+                        boolean hasProperties = false;
+                        if ((entryFields & SVNDirEntry.DIRENT_HAS_PROPERTIES) != 0) {
+                            if (supportsDeadPropCount) {
+                                SVNPropertyValue propVal = child.getPropertyValue(DAVElement.DEADPROP_COUNT);
+                                if (propVal == null) {
+                                    SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.INCOMPLETE_DATA,
+                                            "Server response missing the expected deadprop-count property");
+                                    SVNErrorManager.error(err, SVNLogType.NETWORK);
+                                } else {
+                                    long propCount = -1;
+                                    try {
+                                        propCount = Long.parseLong(propVal.getString());
+                                    } catch (NumberFormatException nfe) {
+                                        SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_DAV_MALFORMED_DATA, nfe), SVNLogType.NETWORK);
+                                    }
+                                    hasProperties = propCount > 0;
+                                }
+                            } else {
+                                for(Iterator props = child.getProperties().keySet().iterator(); props.hasNext();) {
+                                    DAVElement property = (DAVElement) props.next();
+                                    if (DAVElement.SVN_CUSTOM_PROPERTY_NAMESPACE.equals(property.getNamespace()) ||
+                                            DAVElement.SVN_SVN_PROPERTY_NAMESPACE.equals(property.getNamespace())) {
+                                        hasProperties = true;
+                                        break;
+                                    }
                                 }
                             }
                         }
-                    }
 
-                    long lastRevision = INVALID_REVISION;
-                    if ((entryFields & SVNDirEntry.DIRENT_CREATED_REVISION) != 0) {
-                        Object revisionStr = child.getPropertyValue(DAVElement.VERSION_NAME);
-                        if (revisionStr != null) {
-                            try {
-                                lastRevision = Long.parseLong(revisionStr.toString());
-                            } catch (NumberFormatException nfe) {
-                                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_DAV_MALFORMED_DATA);
-                                SVNErrorManager.error(err, SVNLogType.NETWORK);
+                        long lastRevision = INVALID_REVISION;
+                        if ((entryFields & SVNDirEntry.DIRENT_CREATED_REVISION) != 0) {
+                            Object revisionStr = child.getPropertyValue(DAVElement.VERSION_NAME);
+                            if (revisionStr != null) {
+                                try {
+                                    lastRevision = Long.parseLong(revisionStr.toString());
+                                } catch (NumberFormatException nfe) {
+                                    SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_DAV_MALFORMED_DATA);
+                                    SVNErrorManager.error(err, SVNLogType.NETWORK);
+                                }
                             }
                         }
-                    }
 
-                    Date date = null;
-                    if ((entryFields & SVNDirEntry.DIRENT_TIME) != 0) {
-                        SVNPropertyValue dateValue = child.getPropertyValue(DAVElement.CREATION_DATE);
-                        if (dateValue != null) {
-                            date = SVNDate.parseDate(dateValue.getString());
+                        Date date = null;
+                        if ((entryFields & SVNDirEntry.DIRENT_TIME) != 0) {
+                            SVNPropertyValue dateValue = child.getPropertyValue(DAVElement.CREATION_DATE);
+                            if (dateValue != null) {
+                                date = SVNDate.parseDate(dateValue.getString());
+                            }
                         }
-                    }
 
-                    String author = null;
-                    if ((entryFields & SVNDirEntry.DIRENT_LAST_AUTHOR) != 0) {
-                        SVNPropertyValue authorValue = child.getPropertyValue(DAVElement.CREATOR_DISPLAY_NAME);
-                        author = authorValue == null ? null : authorValue.getString();
-                    }
+                        String author = null;
+                        if ((entryFields & SVNDirEntry.DIRENT_LAST_AUTHOR) != 0) {
+                            SVNPropertyValue authorValue = child.getPropertyValue(DAVElement.CREATOR_DISPLAY_NAME);
+                            author = authorValue == null ? null : authorValue.getString();
+                        }
 
-                    SVNURL childURL = getLocation().setPath(fullPath, true);
-                    childURL = childURL.appendPath(name, false);
-                    SVNDirEntry dirEntry = new SVNDirEntry(childURL, repositryRoot, name, kind, size, hasProperties, lastRevision, date, author);
-                    handler.handleDirEntry(dirEntry);
+                        SVNURL childURL = getLocation().setPath(fullPath, true);
+                        childURL = childURL.appendPath(name, false);
+                        SVNDirEntry dirEntry = new SVNDirEntry(childURL, repositryRoot, name, kind, size, hasProperties, lastRevision, date, author);
+                        handler.handleDirEntry(dirEntry);
+                    }
+                });
+                if (status.getError() != null) {
+                    SVNErrorManager.error(status.getError(), SVNLogType.NETWORK);
                 }
             }
             if (properties != null) {
@@ -834,14 +835,18 @@ public class DAVRepository extends SVNRepository {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_ILLEGAL_URL, "URL could not be NULL");
             SVNErrorManager.error(err, SVNLogType.NETWORK);
         }
-        runReport(getLocation(), revision, target, url.toString(), depth, true, false, true, false, true, true,
-                false, null, reporter, editor);
+        ISVNWorkingCopyContentMediator mediator = getWorkingCopyContentMediator();
+        runReport(getLocation(), revision, target, url.toString(), depth, true, false, true, false, mediator == null, true,
+                false, mediator, reporter, editor);
     }
 
     public void update(long revision, String target, SVNDepth depth, boolean sendCopyFromArgs,
             ISVNReporterBaton reporter, ISVNEditor editor) throws SVNException {
-        runReport(getLocation(), revision, target, null, depth, false, false, true, sendCopyFromArgs, true,
-                false, false, null, reporter, editor);
+        // without send-all the server names file texts and their checksums, and the client
+        // fetches only those the mediator does not have.
+        ISVNWorkingCopyContentMediator mediator = getWorkingCopyContentMediator();
+        runReport(getLocation(), revision, target, null, depth, false, false, true, sendCopyFromArgs, mediator == null,
+                false, false, mediator, reporter, editor);
     }
 
     public boolean hasCapability(SVNCapability capability) throws SVNException {
@@ -936,6 +941,42 @@ public class DAVRepository extends SVNRepository {
         }
     }
 
+    protected void getAnnotationsImpl(String path, long startRevision, long endRevision, boolean includeMergedRevisions,
+            boolean force, SVNDiffOptions diffOptions, String inputEncoding, ISVNAnnotateHandler handler) throws SVNException {
+        if (isValidRevision(startRevision) && isValidRevision(endRevision) && startRevision > endRevision) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_NOT_IMPLEMENTED,
+                    "Backwards annotation is computed from file revisions");
+            SVNErrorManager.error(err, SVNLogType.NETWORK);
+        }
+        String bcPath = getLocation().getPath();
+        bcPath = SVNEncodingUtil.uriEncode(bcPath);
+        try {
+            openConnection();
+            DAVConnection connection = getConnection();
+
+            path = "".equals(path) ? "" : doGetRepositoryPath(path);
+            DAVBlameHandler davHandler = new DAVBlameHandler(handler, inputEncoding);
+            StringBuffer request = DAVBlameHandler.generateBlameRequest(null, path, startRevision, endRevision,
+                    includeMergedRevisions, force, diffOptions);
+            long revision = isValidRevision(endRevision) ? endRevision : -1;
+            DAVBaselineInfo info = DAVUtil.getStableURL(connection, this, bcPath, revision, false, false, null);
+            bcPath = SVNPathUtil.append(info.baselineBase, info.baselinePath);
+            HTTPStatus status = connection.doReport(bcPath, request, davHandler);
+            // blame-report is an SVNKit extension, other servers make the caller fall back to file revisions.
+            if (status.getCode() == 501 ||
+                    (status.getError() != null && status.getError().getErrorCode() == SVNErrorCode.UNSUPPORTED_FEATURE)) {
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_NOT_IMPLEMENTED,
+                        "'blame' REPORT not implemented");
+                SVNErrorManager.error(err, status.getError(), SVNLogType.NETWORK);
+            } else if (status.getError() != null) {
+                SVNErrorManager.error(status.getError(), SVNLogType.NETWORK);
+            }
+            handler.handleEOF();
+        } finally {
+            closeConnection();
+        }
+    }
+
     //TODO: FIXME
     protected long logImpl(String[] targetPaths, long startRevision, long endRevision,
                     boolean changedPath, boolean strictNode, long limit,
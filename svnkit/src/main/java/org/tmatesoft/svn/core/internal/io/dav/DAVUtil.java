@@ -18,6 +18,7 @@ import java.util.Map;
 import org.tmatesoft.svn.core.*;
 import org.tmatesoft.svn.core.internal.io.dav.handlers.DAVOptionsHandler;
 import org.tmatesoft.svn.core.internal.io.dav.handlers.DAVPropertiesHandler;
+import org.tmatesoft.svn.core.internal.io.dav.handlers.IDAVResourceHandler;
 import org.tmatesoft.svn.core.internal.io.dav.http.HTTPHeader;
 import org.tmatesoft.svn.core.internal.io.dav.http.HTTPStatus;
 import org.tmatesoft.svn.core.internal.util.SVNEncodingUtil;
@@ -50,6 +51,18 @@ public class DAVUtil {
     }
 
     public static HTTPStatus getProperties(DAVConnection connection, String path, int depth, String label, DAVElement[] properties, Map result) throws SVNException {
+        DAVPropertiesHandler davHandler = new DAVPropertiesHandler();
+        davHandler.setDAVProperties(result);
+        return getProperties(connection, path, depth, label, properties, davHandler);
+    }
+
+    public static HTTPStatus getProperties(DAVConnection connection, String path, int depth, String label, DAVElement[] properties, IDAVResourceHandler handler) throws SVNException {
+        DAVPropertiesHandler davHandler = new DAVPropertiesHandler();
+        davHandler.setResourceHandler(handler);
+        return getProperties(connection, path, depth, label, properties, davHandler);
+    }
+
+    private static HTTPStatus getProperties(DAVConnection connection, String path, int depth, String label, DAVElement[] properties, DAVPropertiesHandler davHandler) throws SVNException {
         HTTPHeader header = new HTTPHeader();
         if (depth == DEPTH_ZERO) {
             header.setHeaderValue(HTTPHeader.DEPTH_HEADER, "0");
@@ -66,8 +79,6 @@ public class DAVUtil {
             header.setHeaderValue(HTTPHeader.LABEL_HEADER, label);
         }
         StringBuffer body = DAVPropertiesHandler.generatePropertiesRequest(null, properties);
-        DAVPropertiesHandler davHandler = new DAVPropertiesHandler();
-        davHandler.setDAVProperties(result);        
         return connection.doPropfind(path, header, body, davHandler);
     }
     
@@ -0,0 +1,156 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.io.dav.handlers;
+
+import java.io.UnsupportedEncodingException;
+import java.util.Date;
+import java.util.Map;
+
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.io.dav.DAVElement;
+import org.tmatesoft.svn.core.internal.util.SVNBase64;
+import org.tmatesoft.svn.core.internal.util.SVNDate;
+import org.tmatesoft.svn.core.internal.util.SVNHashMap;
+import org.tmatesoft.svn.core.internal.util.SVNXMLUtil;
+import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.wc.ISVNAnnotateHandler;
+import org.tmatesoft.svn.core.wc.SVNDiffOptions;
+import org.tmatesoft.svn.util.SVNLogType;
+import org.xml.sax.Attributes;
+
+/**
+ * Parses <code>blame-report</code> responses of SVNKit DAV servers. The response
+ * describes every revision once (<code>blame-rev</code>) and then lists lines of the file
+ * (<code>blame-line</code>, base64 encoded) with revisions they were last changed in.
+ *
+ * <p>
+ * <code>blame-report</code> is an SVNKit extension in the <code>svn:</code> namespace.
+ * Servers that do not know it (Apache mod_dav_svn, older SVNKit servers) answer 501 or
+ * an unsupported feature error, then annotations are computed from file revisions.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+public class DAVBlameHandler extends BasicDAVHandler {
+
+    public static StringBuffer generateBlameRequest(StringBuffer xmlBuffer, String path, long startRevision, long endRevision,
+            boolean includeMergedRevisions, boolean force, SVNDiffOptions diffOptions) {
+        xmlBuffer = xmlBuffer == null ? new StringBuffer() : xmlBuffer;
+        SVNXMLUtil.addXMLHeader(xmlBuffer);
+        SVNXMLUtil.openNamespaceDeclarationTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "blame-report", SVN_NAMESPACES_LIST, SVNXMLUtil.PREFIX_MAP, xmlBuffer);
+        if (startRevision >= 0) {
+            SVNXMLUtil.openCDataTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "start-revision", String.valueOf(startRevision), xmlBuffer);
+        }
+        if (endRevision >= 0) {
+            SVNXMLUtil.openCDataTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "end-revision", String.valueOf(endRevision), xmlBuffer);
+        }
+        if (includeMergedRevisions) {
+            SVNXMLUtil.openXMLTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "include-merged-revisions", SVNXMLUtil.XML_STYLE_SELF_CLOSING, null, xmlBuffer);
+        }
+        if (force) {
+            SVNXMLUtil.openXMLTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "force", SVNXMLUtil.XML_STYLE_SELF_CLOSING, null, xmlBuffer);
+        }
+        if (diffOptions != null && diffOptions.isIgnoreAllWhitespace()) {
+            SVNXMLUtil.openXMLTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "ignore-all-whitespace", SVNXMLUtil.XML_STYLE_SELF_CLOSING, null, xmlBuffer);
+        }
+        if (diffOptions != null && diffOptions.isIgnoreAmountOfWhitespace()) {
+            SVNXMLUtil.openXMLTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "ignore-amount-of-whitespace", SVNXMLUtil.XML_STYLE_SELF_CLOSING, null, xmlBuffer);
+        }
+        if (diffOptions != null && diffOptions.isIgnoreEOLStyle()) {
+            SVNXMLUtil.openXMLTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "ignore-eol-style", SVNXMLUtil.XML_STYLE_SELF_CLOSING, null, xmlBuffer);
+        }
+        SVNXMLUtil.openCDataTag(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "path", path, xmlBuffer);
+        SVNXMLUtil.addXMLFooter(SVNXMLUtil.SVN_NAMESPACE_PREFIX, "blame-report", xmlBuffer);
+        return xmlBuffer;
+    }
+
+    private static final DAVElement BLAME_REVISION = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "blame-rev");
+    private static final DAVElement BLAME_LINE = DAVElement.getElement(DAVElement.SVN_NAMESPACE, "blame-line");
+
+    private ISVNAnnotateHandler myAnnotateHandler;
+    private String myEncoding;
+    private Map myAuthors;
+    private Map myDates;
+    private long myRevision;
+    private long myMergedRevision;
+    private String myMergedPath;
+    private int myLineNumber;
+
+    public DAVBlameHandler(ISVNAnnotateHandler handler, String inputEncoding) {
+        myAnnotateHandler = handler;
+        myEncoding = inputEncoding == null ? System.getProperty("file.encoding") : inputEncoding;
+        myAuthors = new SVNHashMap();
+        myDates = new SVNHashMap();
+        init();
+    }
+
+    protected void startElement(DAVElement parent, DAVElement element, Attributes attrs) throws SVNException {
+        if (element == BLAME_REVISION) {
+            Long revision = new Long(getRevision(element, attrs, "rev", true));
+            String author = attrs.getValue("author");
+            if (author != null) {
+                myAuthors.put(revision, author);
+            }
+            String date = attrs.getValue("date");
+            if (date != null) {
+                myDates.put(revision, SVNDate.parseDate(date));
+            }
+        } else if (element == BLAME_LINE) {
+            myRevision = getRevision(element, attrs, "rev", true);
+            myMergedRevision = getRevision(element, attrs, "merged-rev", false);
+            myMergedPath = attrs.getValue("merged-path");
+        }
+    }
+
+    protected void endElement(DAVElement parent, DAVElement element, StringBuffer cdata) throws SVNException {
+        if (element == BLAME_LINE) {
+            String line = "";
+            if (cdata != null && cdata.length() > 0) {
+                StringBuffer sb = SVNBase64.normalizeBase64(cdata);
+                byte[] buffer = allocateBuffer(sb.length());
+                int length = SVNBase64.base64ToByteArray(sb, buffer);
+                try {
+                    line = new String(buffer, 0, length, myEncoding);
+                } catch (UnsupportedEncodingException e) {
+                    line = new String(buffer, 0, length);
+                }
+            }
+            Long revision = new Long(myRevision);
+            Long mergedRevision = new Long(myMergedRevision);
+            myAnnotateHandler.handleLine((Date) myDates.get(revision), myRevision, (String) myAuthors.get(revision), line,
+                    (Date) myDates.get(mergedRevision), myMergedRevision, (String) myAuthors.get(mergedRevision), myMergedPath,
+                    myLineNumber++);
+            myMergedPath = null;
+        }
+    }
+
+    private long getRevision(DAVElement element, Attributes attrs, String attr, boolean required) throws SVNException {
+        String revString = attrs.getValue(attr);
+        if (revString == null) {
+            if (required) {
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_DAV_MALFORMED_DATA,
+                        "Missing attribute ''{0}'' on element {1}", new Object[]{attr, element});
+                SVNErrorManager.error(err, SVNLogType.NETWORK);
+            }
+            return SVNRepository.INVALID_REVISION;
+        }
+        try {
+            return Long.parseLong(revString);
+        } catch (NumberFormatException nfe) {
+            SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_DAV_MALFORMED_DATA, nfe), SVNLogType.NETWORK);
+        }
+        return SVNRepository.INVALID_REVISION;
+    }
+}
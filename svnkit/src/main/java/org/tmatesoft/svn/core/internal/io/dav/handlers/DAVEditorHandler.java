@@ -456,7 +456,9 @@ public class DAVEditorHandler extends BasicDAVDeltaHandler {
                 myEditor.changeFileProperty(myPath, SVNProperty.SVNKIT_SHA1_CHECKSUM, SVNPropertyValue.create(sha1Checksum));
             }
             myChecksum = null;
-            mySha1Checksum = sha1Checksum;
+            if (sha1Checksum != null) {
+                mySha1Checksum = sha1Checksum;
+            }
             if (!myIsReceiveAll) {
                 fetchFile(baseChecksum);
             }
@@ -606,17 +608,19 @@ public class DAVEditorHandler extends BasicDAVDeltaHandler {
             try {
                 SVNErrorManager.assertionFailure(myHref != null, "myHref is null", SVNLogType.NETWORK);
                 String deltaBaseVersionURL = myPath != null ? (String) myVersionURLs.get(myPath) : null;
-                DeltaOutputStreamWrapper osWrapper = new DeltaOutputStreamWrapper(deltaBaseVersionURL != null, myPath);
-                if (myWorkingCopyContentMediator != null) {
-                    inputStream = myWorkingCopyContentMediator.getContentAsStream(new SvnChecksum(SvnChecksum.Kind.sha1, this.mySha1Checksum));
+                if (myWorkingCopyContentMediator != null && mySha1Checksum != null) {
+                    inputStream = myWorkingCopyContentMediator.getContentAsStream(new SvnChecksum(SvnChecksum.Kind.sha1, mySha1Checksum));
                 }
                 if (inputStream != null) {
+                    // local contents are a full text, whatever the server would have sent.
+                    DeltaOutputStreamWrapper osWrapper = new DeltaOutputStreamWrapper(false, myPath);
                     try {
                         FSRepositoryUtil.copy(inputStream, osWrapper, null);
                     } finally {
                         SVNFileUtil.closeFile(osWrapper);
                     }
                 } else {
+                    DeltaOutputStreamWrapper osWrapper = new DeltaOutputStreamWrapper(deltaBaseVersionURL != null, myPath);
                     DAVConnection connection = getConnection();
                     connection.doGet(myHref, deltaBaseVersionURL, osWrapper);//this will close osWrapper
                 }
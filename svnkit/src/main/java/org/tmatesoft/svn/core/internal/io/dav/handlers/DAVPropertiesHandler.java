@@ -74,6 +74,7 @@ public class DAVPropertiesHandler extends BasicDAVHandler {
     private String myEncoding;
     private Map myResources;
     private Map myCurrentProperties;
+    private IDAVResourceHandler myResourceHandler;
 
     public DAVPropertiesHandler() {
         init();
@@ -110,7 +111,11 @@ public class DAVPropertiesHandler extends BasicDAVHandler {
             if (myCurrentResource.getURL() == null) {
                 invalidXML();
             }
-            myResources.put(myCurrentResource.getURL(), myCurrentResource);
+            if (myResourceHandler != null) {
+                myResourceHandler.handleResource(myCurrentResource);
+            } else {
+                myResources.put(myCurrentResource.getURL(), myCurrentResource);
+            }
             myCurrentResource = null;
             return;
         } else if (element == DAVElement.PROPSTAT) {
@@ -176,4 +181,8 @@ public class DAVPropertiesHandler extends BasicDAVHandler {
         myResources = result;
     }
 
+    public void setResourceHandler(IDAVResourceHandler resourceHandler) {
+        myResourceHandler = resourceHandler;
+    }
+
 }
\ No newline at end of file
@@ -23,6 +23,7 @@ import org.tmatesoft.svn.core.io.SVNRepository;
 import org.tmatesoft.svn.util.ISVNDebugLog;
 import org.tmatesoft.svn.util.SVNDebugLog;
 import org.tmatesoft.svn.util.SVNLogType;
+import org.tmatesoft.svn.util.SVNMetrics;
 import org.xml.sax.*;
 import org.xml.sax.helpers.DefaultHandler;
 
@@ -357,6 +358,26 @@ public class HTTPConnection implements IHTTPConnection {
     }
 
     public HTTPStatus request(String method, String path, HTTPHeader header, InputStream body, int ok1, int ok2, OutputStream dst, DefaultHandler handler, SVNErrorMessage context) throws SVNException {
+        if (!SVNMetrics.isEnabled(SVNLogType.NETWORK)) {
+            return doRequest(method, path, header, body, ok1, ok2, dst, handler, context);
+        }
+        final String spanName = "http." + method;
+        final long startTime = SVNMetrics.startSpan(SVNLogType.NETWORK, spanName);
+        Throwable failure = null;
+        try {
+            return doRequest(method, path, header, body, ok1, ok2, dst, handler, context);
+        } catch (SVNException e) {
+            failure = e;
+            throw e;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            SVNMetrics.finishSpan(SVNLogType.NETWORK, spanName, startTime, 0, failure);
+        }
+    }
+
+    private HTTPStatus doRequest(String method, String path, HTTPHeader header, InputStream body, int ok1, int ok2, OutputStream dst, DefaultHandler handler, SVNErrorMessage context) throws SVNException {
         myLastStatus = null;
         myRequestCount++;
 
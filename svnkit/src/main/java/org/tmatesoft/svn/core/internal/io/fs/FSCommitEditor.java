@@ -16,6 +16,7 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Stack;
 
@@ -395,16 +396,20 @@ public class FSCommitEditor implements ISVNEditor {
         if (pathsToLockTokens == null) {
             return;
         }
+        Map<String, String> absPathsToLockTokens = new LinkedHashMap<String, String>();
         for (Iterator<String> paths = pathsToLockTokens.keySet().iterator(); paths.hasNext();) {
             String path = (String) paths.next();
             String token = (String) pathsToLockTokens.get(path);
             String absPath = !path.startsWith("/") ? SVNPathUtil.getAbsolutePath(SVNPathUtil.append(myBasePath, path)) : path;
-
-            try {
-                myFSFS.unlockPath(absPath, token, getAuthor(), breakLocks, runHooks);
-            } catch (SVNException svne) {
-                // ignore exceptions
-            }
+            absPathsToLockTokens.put(absPath, token);
+        }
+        if (absPathsToLockTokens.isEmpty()) {
+            return;
+        }
+        try {
+            myFSFS.unlockPaths(absPathsToLockTokens, getAuthor(), breakLocks, runHooks, null);
+        } catch (SVNException svne) {
+            // ignore exceptions
         }
     }
 
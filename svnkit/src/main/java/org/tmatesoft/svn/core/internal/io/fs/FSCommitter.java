@@ -60,6 +60,25 @@ public class FSCommitter {
         myAuthor = author;
     }
 
+    public static void insertRepresentations(final FSFS fsfs, final Collection<FSRepresentation> representations) {
+        final IFSRepresentationCacheManager cacheManager = fsfs.getRepositoryCacheManager();
+        if (cacheManager == null || representations.isEmpty()) {
+            return;
+        }
+        try {
+            cacheManager.runWriteTransaction(new IFSSqlJetTransaction() {
+                public void run() throws SVNException {
+                    for (FSRepresentation fsRepresentation : representations) {
+                        cacheManager.insert(fsRepresentation, false);
+                    }
+                }
+            });
+        } catch (SVNException e) {
+            // ignore
+            SVNDebugLog.getDefaultLog().logError(SVNLogType.FSFS, e);
+        }
+    }
+
     public Map<String, String> getAutoUnlockPaths() {
         return myAutoUnlockPaths;
     }
@@ -311,20 +330,16 @@ public class FSCommitter {
                 }
             }
             // write representations here.
-            if (representations != null && !representations.isEmpty()) {
-                if (myFSFS.getRepositoryCacheManager() != null) {
-                    try {
-                        myFSFS.getRepositoryCacheManager().runWriteTransaction(new IFSSqlJetTransaction() {
-                            public void run() throws SVNException {
-                                for (FSRepresentation fsRepresentation : representations) {
-                                    myFSFS.getRepositoryCacheManager().insert(fsRepresentation, false);
-                                }
-                            }
-                        });
-                    } catch (SVNException e) {
-                        // ignore
-                        SVNDebugLog.getDefaultLog().logError(SVNLogType.FSFS, e);
+            if (representations != null) {
+                final Map<String, FSRepresentation> deferredRepresentations = myFSFS.getDeferredRepresentations();
+                if (deferredRepresentations != null) {
+                    for (FSRepresentation representation : representations) {
+                        if (!deferredRepresentations.containsKey(representation.getSHA1HexDigest())) {
+                            deferredRepresentations.put(representation.getSHA1HexDigest(), representation);
+                        }
                     }
+                } else {
+                    insertRepresentations(myFSFS, representations);
                 }
             }
             break;
@@ -416,7 +431,7 @@ public class FSCommitter {
         FSTransactionRoot txnRoot = getTxnRoot();
         String[] nextIds = txnRoot.readNextIDs();
         String copyId = FSRepositoryUtil.generateNextKey(nextIds[1]);
-        myFSFS.writeNextIDs(txnId, nextIds[0], copyId);
+        txnRoot.writeNextIDs(nextIds[0], copyId);
         return "_" + nextIds[1];
     }
 
@@ -762,7 +777,7 @@ public class FSCommitter {
                 public void handleUnlock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
                 }
             };
-            fsfs.walkDigestFiles(fsfs.getDigestFileFromRepositoryPath(path), handler, haveWriteLock);
+            fsfs.walkLocks(path, handler, haveWriteLock);
         } else {
             SVNLock lock = fsfs.getLockHelper(path, haveWriteLock);
             if (lock != null) {
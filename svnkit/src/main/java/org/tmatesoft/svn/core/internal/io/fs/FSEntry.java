@@ -11,6 +11,8 @@
  */
 package org.tmatesoft.svn.core.internal.io.fs;
 
+import java.util.Comparator;
+
 import org.tmatesoft.svn.core.SVNNodeKind;
 
 /**
@@ -19,6 +21,12 @@ import org.tmatesoft.svn.core.SVNNodeKind;
  */
 public class FSEntry {
 
+    public static final Comparator<FSEntry> NAME_COMPARATOR = new Comparator<FSEntry>() {
+        public int compare(FSEntry entry1, FSEntry entry2) {
+            return entry1.getName().compareTo(entry2.getName());
+        }
+    };
+
     private FSID myId;
     private SVNNodeKind myType;
     private String myName;
@@ -11,6 +11,7 @@
  */
 package org.tmatesoft.svn.core.internal.io.fs;
 
+import java.io.BufferedInputStream;
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
@@ -33,6 +34,7 @@ import org.tmatesoft.svn.core.SVNProperties;
 import org.tmatesoft.svn.core.SVNProperty;
 import org.tmatesoft.svn.core.SVNPropertyValue;
 import org.tmatesoft.svn.core.SVNRevisionProperty;
+import org.tmatesoft.svn.core.internal.delta.SVNDeltaCombiner;
 import org.tmatesoft.svn.core.internal.delta.SVNDeltaReader;
 import org.tmatesoft.svn.core.internal.io.fs.index.FSLogicalAddressingIndex;
 import org.tmatesoft.svn.core.internal.io.fs.index.FSL2PProtoIndex;
@@ -83,6 +85,7 @@ public class FSFS {
     public static final String TRANSACTION_PROTOS_DIR = "txn-protorevs";
     public static final String NODE_ORIGINS_DIR = "node-origins";
     public static final String MANIFEST_FILE = "manifest";
+    public static final String REVPROP_GENERATION_FILE = "revprop-generation";
 
     public static final String REP_CACHE_DB = "rep-cache.db";
     public static final String PACK_EXT = ".pack";
@@ -179,6 +182,8 @@ public class FSFS {
     private boolean myUseLogAddressing;
     private SVNConfigFile myConfig;
     private IFSRepresentationCacheManager myReposCacheManager;
+    private FSLockIndex myLockIndex;
+    private Map<String, FSRepresentation> myDeferredRepresentations;
     private long myMinUnpackedRevProp;
     
     private boolean myIsHooksEnabled;
@@ -230,6 +235,7 @@ public class FSFS {
             myReposCacheManager.close();
             myReposCacheManager = null;
         }
+        releaseLockIndex();
     }
 
     public void openForRecovery() throws SVNException {
@@ -464,6 +470,10 @@ public class FSFS {
         return myLocksRoot;
     }
 
+    public File getLockIndexFile() {
+        return new File(getDBLocksDir(), FSLockIndex.LOCK_INDEX_FILE);
+    }
+
     public File getFSTypeFile() {
         if (myFSTypeFile == null) {
             myFSTypeFile = new File(getDBRoot(), FS_TYPE_FILE);
@@ -699,7 +709,13 @@ public class FSFS {
         ensureRevisionsExists(revision);
         SVNProperties properties = null;
         if (!isPackedRevisionProperties(revision)) {
-            FSFile file = new FSFile(getRevisionPropertiesFile(revision, false));
+            final File revisionPropertiesFile = getRevisionPropertiesFile(revision, false);
+            final long generation = getRevisionPropertiesGeneration();
+            properties = FSRevisionPropertiesCache.getProperties(revisionPropertiesFile, revision, generation);
+            if (properties != null) {
+                return properties;
+            }
+            FSFile file = new FSFile(revisionPropertiesFile);
             try {
                 properties = file.readProperties(false, true);
             } catch (SVNException e) {
@@ -709,6 +725,9 @@ public class FSFS {
             } finally {
                 file.close();
             }
+            if (properties != null) {
+                FSRevisionPropertiesCache.putProperties(revisionPropertiesFile, revision, generation, properties);
+            }
         }
         if (myDBFormat >= MIN_PACKED_REVPROP_FORMAT && properties == null) {
             // read packed revision props
@@ -726,20 +745,55 @@ public class FSFS {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.FS_NO_SUCH_REVISION, "No such packed revision {0}", (Long) revision);
             SVNErrorManager.error(err, SVNLogType.FSFS);
         }
-        final File packFile = getPackedRevPropFile(revision);
-        final SVNFSFSPackedRevProps packedRevProps = SVNFSFSPackedRevProps.fromPackFile(packFile);
-        final SVNProperties properties = packedRevProps.parseProperties(revision);
-        return properties == null ? new SVNProperties() : properties;
+        final long generation = getRevisionPropertiesGeneration();
+        final File packFile = getPackedRevPropFile(revision, generation);
+        SVNProperties properties = FSRevisionPropertiesCache.getProperties(packFile, revision, generation);
+        if (properties != null) {
+            return properties;
+        }
+        SVNFSFSPackedRevProps packedRevProps = FSRevisionPropertiesCache.getPack(packFile, generation);
+        if (packedRevProps == null) {
+            packedRevProps = SVNFSFSPackedRevProps.fromPackFile(packFile);
+            FSRevisionPropertiesCache.putPack(packFile, generation, packedRevProps);
+        }
+        properties = packedRevProps.parseProperties(revision);
+        if (properties == null) {
+            return new SVNProperties();
+        }
+        FSRevisionPropertiesCache.putProperties(packFile, revision, generation, properties);
+        return properties;
     }
 
-    private File getPackedRevPropFile(long revision) throws SVNException {
+    private File getPackedRevPropFile(long revision, long generation) throws SVNException {
         final File packShardDirectory = getPackedRevPropsShardPath(revision);
         final File manifestFile = new File(packShardDirectory, MANIFEST_FILE);
 
-        final SVNFSFSPackedRevPropsManifest manifest = SVNFSFSPackedRevPropsManifest.fromFile(manifestFile, revision, myMaxFilesPerDirectory);
+        SVNFSFSPackedRevPropsManifest manifest = FSRevisionPropertiesCache.getManifest(manifestFile, generation);
+        if (manifest == null) {
+            manifest = SVNFSFSPackedRevPropsManifest.fromFile(manifestFile, revision, myMaxFilesPerDirectory);
+            FSRevisionPropertiesCache.putManifest(manifestFile, generation, manifest);
+        }
         return new File(packShardDirectory, manifest.getPackName(revision));
     }
 
+    public File getRevisionPropertiesGenerationFile() {
+        return new File(getDBRoot(), REVPROP_GENERATION_FILE);
+    }
+
+    private long getRevisionPropertiesGeneration() throws SVNException {
+        if (!FSRevisionPropertiesCache.isEnabled()) {
+            return 0;
+        }
+        return FSRevisionPropertiesCache.getGeneration(getRevisionPropertiesGenerationFile());
+    }
+
+    private void setRevisionPropertiesGeneration(long generation) throws SVNException {
+        final File generationFile = getRevisionPropertiesGenerationFile();
+        final File tmpFile = SVNFileUtil.createUniqueFile(generationFile.getParentFile(), generationFile.getName(), ".tmp", false);
+        SVNFileUtil.writeToFile(tmpFile, generation + "\n", "US-ASCII");
+        SVNFileUtil.rename(tmpFile, generationFile);
+    }
+
     private static long decodeUncompressedSize(InputStream inputStream, int lengthRecordSize, int[] outputBytesRead) throws SVNException {
         int temp = 0;
         int bytesRead = 0;
@@ -901,6 +955,158 @@ public class FSFS {
         return new SVNHashMap();// returns an empty map, must not be null!!
     }
 
+    /**
+     * Returns the entries of a directory sorted by name.
+     */
+    public List<FSEntry> getSortedDirEntries(FSRevisionNode revNode) throws SVNException {
+        final List<FSEntry> entries = new ArrayList<FSEntry>();
+        walkSortedDirEntries(revNode, new IFSDirEntryHandler() {
+            public void handleDirEntry(FSEntry entry) {
+                entries.add(entry);
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Passes the entries of a directory to the handler sorted by name. Entries of committed
+     * directories are normally stored sorted; they are then read one by one from the
+     * representation and handed out as they are read, without collecting the directory.
+     * Representations that are not sorted are collected and sorted first.
+     */
+    public void walkSortedDirEntries(FSRevisionNode revNode, IFSDirEntryHandler handler) throws SVNException {
+        final FSRepresentation txtRep = revNode.getTextRepresentation();
+        if (revNode.getType() != SVNNodeKind.DIR || txtRep == null || txtRep.isTxn() || revNode.getDirContents() != null) {
+            final List<FSEntry> entries = new ArrayList<FSEntry>(revNode.getDirEntries(this).values());
+            Collections.sort(entries, FSEntry.NAME_COMPARATOR);
+            for (FSEntry entry : entries) {
+                handler.handleDirEntry(entry);
+            }
+            return;
+        }
+        if (readDirRepresentation(txtRep, null)) {
+            readDirRepresentation(txtRep, handler);
+            return;
+        }
+        final List<FSEntry> entries = new ArrayList<FSEntry>();
+        readDirRepresentation(txtRep, new IFSDirEntryHandler() {
+            public void handleDirEntry(FSEntry entry) {
+                entries.add(entry);
+            }
+        });
+        Collections.sort(entries, FSEntry.NAME_COMPARATOR);
+        for (FSEntry entry : entries) {
+            handler.handleDirEntry(entry);
+        }
+    }
+
+    /**
+     * Reads a committed directory representation entry by entry. Without a handler only
+     * the order of names is checked and reading stops at the first unsorted name.
+     *
+     * @return <code>true</code> if the entries are sorted by name
+     */
+    private boolean readDirRepresentation(FSRepresentation txtRep, IFSDirEntryHandler handler) throws SVNException {
+        String lastName = null;
+        final FSFile revisionFile = openAndSeekRepresentation(txtRep);
+        InputStream contents = null;
+        try {
+            final boolean isPlain = "PLAIN".equals(revisionFile.readLine(160));
+            if (isPlain) {
+                revisionFile.resetDigest();
+                contents = new InputStream() {
+                    public int read() throws IOException {
+                        return revisionFile.read();
+                    }
+
+                    public int read(byte[] b, int off, int len) throws IOException {
+                        return revisionFile.read(b, off, len);
+                    }
+                };
+            } else {
+                revisionFile.close();
+                contents = new BufferedInputStream(FSInputStream.createDeltaStream(new SVNDeltaCombiner(), txtRep, this));
+            }
+            boolean isSorted = true;
+            while (true) {
+                final String name = readHashItem(contents, 'K');
+                if (name == null) {
+                    break;
+                }
+                final String value = readHashItem(contents, 'V');
+                if (lastName != null && lastName.compareTo(name) > 0) {
+                    if (handler == null) {
+                        return false;
+                    }
+                    isSorted = false;
+                }
+                lastName = name;
+                if (handler == null) {
+                    continue;
+                }
+                final FSEntry entry = parseRepEntryValue(name, value);
+                if (entry == null) {
+                    SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.FS_CORRUPT, "Directory entry corrupt");
+                    SVNErrorManager.error(err, SVNLogType.FSFS);
+                }
+                handler.handleDirEntry(entry);
+            }
+            if (isPlain && handler != null) {
+                final String checksum = revisionFile.digest();
+                if (!checksum.equals(txtRep.getMD5HexDigest())) {
+                    SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.FS_CORRUPT,
+                            "Checksum mismatch while reading representation:\n   expected:  {0}\n     actual:  {1}",
+                            new Object[] { checksum, txtRep.getMD5HexDigest() });
+                    SVNErrorManager.error(err, SVNLogType.FSFS);
+                }
+            }
+            return isSorted;
+        } catch (IOException e) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e.getLocalizedMessage());
+            SVNErrorManager.error(err, e, SVNLogType.FSFS);
+            return false;
+        } finally {
+            revisionFile.close();
+            SVNFileUtil.closeFile(contents);
+        }
+    }
+
+    private static String readHashItem(InputStream contents, char kind) throws IOException, SVNException {
+        final StringBuilder header = new StringBuilder();
+        for (int ch = contents.read(); ch != '\n'; ch = contents.read()) {
+            if (ch < 0) {
+                break;
+            }
+            header.append((char) ch);
+        }
+        if (kind == 'K' && "END".equals(header.toString())) {
+            return null;
+        }
+        int length = -1;
+        if (header.length() > 2 && header.charAt(0) == kind && header.charAt(1) == ' ') {
+            try {
+                length = Integer.parseInt(header.substring(2));
+            } catch (NumberFormatException e) {
+                length = -1;
+            }
+        }
+        if (length < 0) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.MALFORMED_FILE, "Malformed directory representation");
+            SVNErrorManager.error(err, SVNLogType.FSFS);
+        }
+        final byte[] bytes = new byte[length + 1];
+        int offset = 0;
+        while (offset < bytes.length) {
+            final int read = contents.read(bytes, offset, bytes.length - offset);
+            if (read < 0) {
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.MALFORMED_FILE, "Malformed directory representation");
+                SVNErrorManager.error(err, SVNLogType.FSFS);
+            }
+            offset += read;
+        }
+        return new String(bytes, 0, length, "UTF-8");
+    }
+
     private byte[] parseRawDeltaProperties(FSRepresentation txtRep, StringBuilder outputChecksum) throws SVNException {
         FSFile revisionFile = null;
         revisionFile = openAndSeekRepresentation(txtRep);
@@ -1266,14 +1472,31 @@ public class FSFS {
         revProps.setPropertyValue(name, propertyValue);
     }
 
+    public void setTransactionProperties(String txnID, SVNProperties properties) throws SVNException {
+        for (String name : properties.nameSet()) {
+            FSRepositoryUtil.validateProperty(name, properties.getSVNPropertyValue(name));
+        }
+        final File txnPropsFile = getTransactionPropertiesFile(txnID);
+        final File tmpFile = SVNFileUtil.createUniqueFile(txnPropsFile.getParentFile(), txnPropsFile.getName(), ".tmp", true);
+        SVNWCProperties.setProperties(properties, txnPropsFile, tmpFile, SVNWCProperties.SVN_HASH_TERMINATOR);
+    }
+
     public void setRevisionProperty(long revision, String propertyName, SVNPropertyValue propertyValue) throws SVNException {
         ensureRevisionsExists(revision);
 
             FSWriteLock writeLock = FSWriteLock.getWriteLockForDB(this);
             synchronized (writeLock) {
+                long generation = -1;
                 try {
                     writeLock.lock();
 
+                    if (FSRevisionPropertiesCache.isEnabled()) {
+                        // an odd generation tells readers a change is in progress, a leftover
+                        // odd value means an earlier writer failed and is simply moved past.
+                        generation = FSRevisionPropertiesCache.getGeneration(getRevisionPropertiesGenerationFile());
+                        generation += generation % 2 == 0 ? 1 : 2;
+                        setRevisionPropertiesGeneration(generation);
+                    }
                     if (!isPackedRevisionProperties(revision)) {
                         SVNWCProperties revProps = new SVNWCProperties(getRevisionPropertiesFile(revision, false), null);
                         revProps.setPropertyValue(propertyName, propertyValue);
@@ -1316,8 +1539,14 @@ public class FSFS {
                         }
                     }
                 } finally {
-                    writeLock.unlock();
-                    FSWriteLock.release(writeLock);
+                    try {
+                        if (generation >= 0) {
+                            setRevisionPropertiesGeneration(generation + 1);
+                        }
+                    } finally {
+                        writeLock.unlock();
+                        FSWriteLock.release(writeLock);
+                    }
                 }
             }
     }
@@ -1484,7 +1713,8 @@ public class FSFS {
     public SVNLock getLock(String repositoryPath, boolean haveWriteLock, boolean throwError) throws SVNException {
         repositoryPath = SVNPathUtil.canonicalizeAbsolutePath(repositoryPath);
 
-        SVNLock lock = fetchLockFromDigestFile(null, repositoryPath, null);
+        FSLockIndex lockIndex = getLockIndex();
+        SVNLock lock = lockIndex != null ? lockIndex.getLock(repositoryPath, this) : fetchLockFromDigestFile(null, repositoryPath, null);
 
         if (lock == null) {
             if (!throwError) {
@@ -1508,34 +1738,125 @@ public class FSFS {
     }
 
     public void deleteLock(SVNLock lock) throws SVNException {
-        String reposPath = lock.getPath();
-        String childToKill = null;
-        Collection<String> children = new ArrayList<String>();
-        while (true) {
-            fetchLockFromDigestFile(null, reposPath, children);
-            if (childToKill != null) {
-                children.remove(childToKill);
-            }
+        deleteLocks(Collections.singletonList(lock));
+    }
 
-            if (children.size() == 0) {
-                childToKill = getDigestFromRepositoryPath(reposPath);
-                File digestFile = getDigestFileFromRepositoryPath(reposPath);
-                SVNFileUtil.deleteFile(digestFile);
+    public void deleteLocks(Collection<SVNLock> locks) throws SVNException {
+        FSLockIndex lockIndex = getLockIndex();
+        if (lockIndex != null) {
+            Collection<String> paths = new ArrayList<String>();
+            for (SVNLock lock : locks) {
+                paths.add(lock.getPath());
+            }
+            lockIndex.deleteLocks(paths, this);
+            return;
+        }
+        // every parent digest file lists the digests of all locked paths below it.
+        Map<String, Collection<String>> removedChildren = new LinkedHashMap<String, Collection<String>>();
+        for (SVNLock lock : locks) {
+            String path = lock.getPath();
+            Collection<String> children = new ArrayList<String>();
+            fetchLockFromDigestFile(null, path, children);
+            if (children.isEmpty()) {
+                SVNFileUtil.deleteFile(getDigestFileFromRepositoryPath(path));
             } else {
-                writeDigestLockFile(null, children, reposPath, false);
-                childToKill = null;
+                writeDigestLockFile(null, children, path, false);
             }
+            addToParentDigests(removedChildren, path);
+        }
+        for (Map.Entry<String, Collection<String>> entry : removedChildren.entrySet()) {
+            String path = entry.getKey();
+            Collection<String> children = new ArrayList<String>();
+            SVNLock lock = fetchLockFromDigestFile(null, path, children);
+            if (!children.removeAll(entry.getValue())) {
+                continue;
+            }
+            if (lock == null && children.isEmpty()) {
+                SVNFileUtil.deleteFile(getDigestFileFromRepositoryPath(path));
+            } else {
+                writeDigestLockFile(lock, children, path, isDAVComment(lock));
+            }
+        }
+    }
 
-            if ("/".equals(reposPath)) {
-                break;
+    public void walkLocks(String repositoryPath, ISVNLockHandler getLocksHandler, boolean haveWriteLock) throws SVNException {
+        repositoryPath = SVNPathUtil.canonicalizeAbsolutePath(repositoryPath);
+        FSLockIndex lockIndex = getLockIndex();
+        if (lockIndex == null) {
+            walkDigestFiles(getDigestFileFromRepositoryPath(repositoryPath), getLocksHandler, haveWriteLock);
+            return;
+        }
+        Date current = new Date(System.currentTimeMillis());
+        if (haveWriteLock) {
+            for (SVNLock expiredLock : lockIndex.getExpiredLocks(current, this)) {
+                deleteLock(expiredLock);
             }
+        }
+        for (SVNLock lock : lockIndex.getLocks(repositoryPath, this)) {
+            if (lock.getExpirationDate() == null || current.compareTo(lock.getExpirationDate()) < 0) {
+                getLocksHandler.handleLock(lock.getPath(), lock, null);
+            }
+        }
+    }
+
+    public boolean isLockIndexEnabled() {
+        return getLockIndexFile().isFile();
+    }
+
+    public void migrateLocksToIndex() throws SVNException {
+        FSWriteLock writeLock = FSWriteLock.getWriteLockForDB(this);
+        synchronized (writeLock) {
+            try {
+                writeLock.lock();
+                if (isLockIndexEnabled()) {
+                    return;
+                }
+                final Collection<SVNLock> locks = new ArrayList<SVNLock>();
+                walkDigestFiles(getDigestFileFromRepositoryPath("/"), new ISVNLockHandler() {
+                    public void handleLock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
+                        locks.add(lock);
+                    }
+                    public void handleUnlock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
+                    }
+                }, true);
+                FSLockIndex.createLockIndex(getLockIndexFile(), locks);
 
-            reposPath = SVNPathUtil.removeTail(reposPath);
+                File[] children = SVNFileListUtil.listFiles(getDBLocksDir());
+                for (int i = 0; children != null && i < children.length; i++) {
+                    if (children[i].isDirectory() && children[i].getName().length() == DIGEST_SUBDIR_LEN) {
+                        SVNFileUtil.deleteAll(children[i], true);
+                    }
+                }
+            } finally {
+                writeLock.unlock();
+                FSWriteLock.release(writeLock);
+            }
+        }
+    }
 
-            if ("".equals(reposPath)) {
-                reposPath = "/";
+    public void migrateLocksToDigestFiles() throws SVNException {
+        FSWriteLock writeLock = FSWriteLock.getWriteLockForDB(this);
+        synchronized (writeLock) {
+            try {
+                writeLock.lock();
+                FSLockIndex lockIndex = getLockIndex();
+                if (lockIndex == null) {
+                    return;
+                }
+                Date current = new Date(System.currentTimeMillis());
+                Collection<SVNLock> locks = new ArrayList<SVNLock>();
+                for (SVNLock lock : lockIndex.getLocks("/", this)) {
+                    if (lock.getExpirationDate() == null || current.compareTo(lock.getExpirationDate()) <= 0) {
+                        locks.add(lock);
+                    }
+                }
+                writeLocksToDigestFiles(locks);
+                releaseLockIndex();
+                FSLockIndex.removeLockIndex(getLockIndexFile());
+            } finally {
+                writeLock.unlock();
+                FSWriteLock.release(writeLock);
             }
-            children.clear();
         }
     }
 
@@ -1595,24 +1916,36 @@ public class FSFS {
             lockProps = new SVNProperties();
         }
 
-        SVNLock lock = null;
+        SVNLock lock = createLock(lockProps, this);
+
+        String childEntries = SVNPropertyValue.getPropertyAsString(lockProps.getSVNPropertyValue(FSFS.CHILDREN_LOCK_KEY));
+        if (children != null && childEntries != null) {
+            String[] digests = childEntries.split("\n");
+            for (int i = 0; i < digests.length; i++) {
+                children.add(digests[i]);
+            }
+        }
+        return lock;
+    }
+
+    static SVNLock createLock(SVNProperties lockProps, FSFS owner) throws SVNException {
         String lockPath = SVNPropertyValue.getPropertyAsString(lockProps.getSVNPropertyValue(FSFS.PATH_LOCK_KEY));
         if (lockPath != null) {
             String lockToken = SVNPropertyValue.getPropertyAsString(lockProps.getSVNPropertyValue(FSFS.TOKEN_LOCK_KEY));
             if (lockToken == null) {
-                SVNErrorManager.error(FSErrors.errorCorruptLockFile(lockPath, this), SVNLogType.FSFS);
+                SVNErrorManager.error(FSErrors.errorCorruptLockFile(lockPath, owner), SVNLogType.FSFS);
             }
             String lockOwner = SVNPropertyValue.getPropertyAsString(lockProps.getSVNPropertyValue(FSFS.OWNER_LOCK_KEY));
             if (lockOwner == null) {
-                SVNErrorManager.error(FSErrors.errorCorruptLockFile(lockPath, this), SVNLogType.FSFS);
+                SVNErrorManager.error(FSErrors.errorCorruptLockFile(lockPath, owner), SVNLogType.FSFS);
             }
             String davComment = SVNPropertyValue.getPropertyAsString(lockProps.getSVNPropertyValue(FSFS.IS_DAV_COMMENT_LOCK_KEY));
             if (davComment == null) {
-                SVNErrorManager.error(FSErrors.errorCorruptLockFile(lockPath, this), SVNLogType.FSFS);
+                SVNErrorManager.error(FSErrors.errorCorruptLockFile(lockPath, owner), SVNLogType.FSFS);
             }
             String creationTime = SVNPropertyValue.getPropertyAsString(lockProps.getSVNPropertyValue(FSFS.CREATION_DATE_LOCK_KEY));
             if (creationTime == null) {
-                SVNErrorManager.error(FSErrors.errorCorruptLockFile(lockPath, this), SVNLogType.FSFS);
+                SVNErrorManager.error(FSErrors.errorCorruptLockFile(lockPath, owner), SVNLogType.FSFS);
             }
             Date creationDate = SVNDate.parseDateString(creationTime);
             String expirationTime = SVNPropertyValue.getPropertyAsString(lockProps.getSVNPropertyValue(FSFS.EXPIRATION_DATE_LOCK_KEY));
@@ -1621,17 +1954,9 @@ public class FSFS {
                 expirationDate = SVNDate.parseDateString(expirationTime);
             }
             String comment = SVNPropertyValue.getPropertyAsString(lockProps.getSVNPropertyValue(FSFS.COMMENT_LOCK_KEY));
-            lock = new FSLock(lockPath, lockToken, lockOwner, comment, creationDate, expirationDate, "1".equals(davComment));
-        }
-
-        String childEntries = SVNPropertyValue.getPropertyAsString(lockProps.getSVNPropertyValue(FSFS.CHILDREN_LOCK_KEY));
-        if (children != null && childEntries != null) {
-            String[] digests = childEntries.split("\n");
-            for (int i = 0; i < digests.length; i++) {
-                children.add(digests[i]);
-            }
+            return new FSLock(lockPath, lockToken, lockOwner, comment, creationDate, expirationDate, "1".equals(davComment));
         }
-        return lock;
+        return null;
     }
 
     public File getDigestFileFromRepositoryPath(String repositoryPath) throws SVNException {
@@ -1737,6 +2062,138 @@ public class FSFS {
         return lock;
     }
 
+    public void lockPaths(Map<String, Long> pathsToRevisions, String username, String comment, Date expirationDate,
+            boolean stealLock, boolean isDAVComment, ISVNLockHandler handler) throws SVNException {
+        if (username == null) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.FS_NO_USER,
+                    "Cannot lock paths, no authenticated username available.");
+            SVNErrorManager.error(err, SVNLogType.FSFS);
+        }
+
+        Map<String, Long> revisions = new LinkedHashMap<String, Long>();
+        Map<String, String> tokens = new HashMap<String, String>();
+        Map<String, SVNErrorMessage> errors = new HashMap<String, SVNErrorMessage>();
+        for (Map.Entry<String, Long> entry : pathsToRevisions.entrySet()) {
+            String path = SVNPathUtil.canonicalizeAbsolutePath(entry.getKey());
+            revisions.put(path, entry.getValue());
+            if (isHooksEnabled()) {
+                try {
+                    tokens.put(path, FSHooks.runPreLockHook(myRepositoryRoot, path, username, comment, stealLock));
+                } catch (SVNException svne) {
+                    errors.put(path, svne.getErrorMessage());
+                }
+            }
+        }
+
+        Map<String, SVNLock> locks = new LinkedHashMap<String, SVNLock>();
+        if (errors.size() < revisions.size()) {
+            FSWriteLock writeLock = FSWriteLock.getWriteLockForDB(this);
+            synchronized (writeLock) {
+                try {
+                    writeLock.lock();
+                    FSRevisionRoot root = createRevisionRoot(getYoungestRevision());
+                    for (Map.Entry<String, Long> entry : revisions.entrySet()) {
+                        String path = entry.getKey();
+                        if (errors.containsKey(path)) {
+                            continue;
+                        }
+                        long currentRevision = entry.getValue() != null ? entry.getValue().longValue() : SVNRepository.INVALID_REVISION;
+                        try {
+                            locks.put(path, prepareLock(root, path, tokens.get(path), username, comment, expirationDate, currentRevision,
+                                    stealLock, isDAVComment));
+                        } catch (SVNException svne) {
+                            errors.put(path, svne.getErrorMessage());
+                        }
+                    }
+                    setLocks(locks.values());
+                } finally {
+                    writeLock.unlock();
+                    FSWriteLock.release(writeLock);
+                }
+            }
+        }
+
+        if (handler != null) {
+            for (String path : revisions.keySet()) {
+                handler.handleLock(path, locks.get(path), errors.get(path));
+            }
+        }
+
+        if (!locks.isEmpty() && isHooksEnabled()) {
+            try {
+                FSHooks.runPostLockHook(myRepositoryRoot, locks.keySet().toArray(new String[locks.size()]), username);
+            } catch (SVNException svne) {
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.REPOS_POST_LOCK_HOOK_FAILED, "Lock succeeded, but post-lock hook failed");
+                err.setChildErrorMessage(svne.getErrorMessage());
+                SVNErrorManager.error(err, svne, SVNLogType.FSFS);
+            }
+        }
+    }
+
+    public void unlockPaths(Map<String, String> pathsToTokens, String username, boolean breakLock, boolean enableHooks,
+            ISVNLockHandler handler) throws SVNException {
+        if (!breakLock && username == null) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.FS_NO_USER, "Cannot unlock paths, no authenticated username available");
+            SVNErrorManager.error(err, SVNLogType.FSFS);
+        }
+
+        Map<String, String> tokens = new LinkedHashMap<String, String>();
+        Map<String, SVNErrorMessage> errors = new HashMap<String, SVNErrorMessage>();
+        for (Map.Entry<String, String> entry : pathsToTokens.entrySet()) {
+            String path = SVNPathUtil.canonicalizeAbsolutePath(entry.getKey());
+            tokens.put(path, entry.getValue());
+            if (enableHooks && isHooksEnabled()) {
+                try {
+                    FSHooks.runPreUnlockHook(myRepositoryRoot, path, username);
+                } catch (SVNException svne) {
+                    errors.put(path, svne.getErrorMessage());
+                }
+            }
+        }
+
+        Map<String, SVNLock> locks = new LinkedHashMap<String, SVNLock>();
+        if (errors.size() < tokens.size()) {
+            FSWriteLock writeLock = FSWriteLock.getWriteLockForDB(this);
+            synchronized (writeLock) {
+                try {
+                    writeLock.lock();
+                    for (Map.Entry<String, String> entry : tokens.entrySet()) {
+                        String path = entry.getKey();
+                        if (errors.containsKey(path)) {
+                            continue;
+                        }
+                        try {
+                            locks.put(path, prepareUnlock(path, entry.getValue(), username, breakLock));
+                        } catch (SVNException svne) {
+                            errors.put(path, svne.getErrorMessage());
+                        }
+                    }
+                    deleteLocks(locks.values());
+                } finally {
+                    writeLock.unlock();
+                    FSWriteLock.release(writeLock);
+                }
+            }
+        }
+
+        if (handler != null) {
+            for (Map.Entry<String, String> entry : tokens.entrySet()) {
+                String path = entry.getKey();
+                handler.handleUnlock(path, new SVNLock(path, entry.getValue(), null, null, null, null), errors.get(path));
+            }
+        }
+
+        if (!locks.isEmpty() && enableHooks && isHooksEnabled()) {
+            try {
+                FSHooks.runPostUnlockHook(myRepositoryRoot, locks.keySet().toArray(new String[locks.size()]), username);
+            } catch (SVNException svne) {
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.REPOS_POST_UNLOCK_HOOK_FAILED, "Unlock succeeded, but post-unlock hook failed");
+                err.setChildErrorMessage(svne.getErrorMessage());
+                SVNErrorManager.error(err, svne, SVNLogType.FSFS);
+            }
+        }
+    }
+
     public SVNProperties compoundMetaProperties(long revision) throws SVNException {
         SVNProperties metaProperties = new SVNProperties();
         SVNProperties revProps = getRevisionProperties(revision);
@@ -1959,6 +2416,19 @@ public class FSFS {
         return myReposCacheManager;
     }
 
+    /**
+     * Sets the map, keyed by SHA-1, that collects representations of committed revisions
+     * instead of the rep-cache. Rep-sharing looks representations up in this map before the
+     * rep-cache, so contents repeated before the map is written out are still shared.
+     */
+    public void setDeferredRepresentations(Map<String, FSRepresentation> representations) {
+        myDeferredRepresentations = representations;
+    }
+
+    public Map<String, FSRepresentation> getDeferredRepresentations() {
+        return myDeferredRepresentations;
+    }
+
     public static File findRepositoryRoot(File path) {
         if (path == null) {
             path = new File("");
@@ -2230,6 +2700,10 @@ public class FSFS {
     }
 
     private void unlock(String path, String token, String username, boolean breakLock) throws SVNException {
+        deleteLock(prepareUnlock(path, token, username, breakLock));
+    }
+
+    private SVNLock prepareUnlock(String path, String token, String username, boolean breakLock) throws SVNException {
         SVNLock lock = getLock(path, true, true);
         if (!breakLock) {
             if (token == null || !token.equals(lock.getID())) {
@@ -2242,13 +2716,36 @@ public class FSFS {
                 SVNErrorManager.error(FSErrors.errorLockOwnerMismatch(username, lock.getOwner(), this), SVNLogType.FSFS);
             }
         }
-        deleteLock(lock);
+        return lock;
+    }
+
+    private FSLockIndex getLockIndex() {
+        File lockIndexFile = getLockIndexFile();
+        if (!lockIndexFile.isFile()) {
+            releaseLockIndex();
+            return null;
+        }
+        if (myLockIndex == null) {
+            myLockIndex = FSLockIndex.getLockIndex(lockIndexFile);
+        }
+        return myLockIndex;
+    }
+
+    private void releaseLockIndex() {
+        FSLockIndex.release(myLockIndex);
+        myLockIndex = null;
     }
 
     private SVNLock lock(String path, String token, String username, String comment, Date expirationDate, long currentRevision,
             boolean stealLock, boolean isDAVComment) throws SVNException {
-        long youngestRev = getYoungestRevision();
-        FSRevisionRoot root = createRevisionRoot(youngestRev);
+        FSRevisionRoot root = createRevisionRoot(getYoungestRevision());
+        SVNLock lock = prepareLock(root, path, token, username, comment, expirationDate, currentRevision, stealLock, isDAVComment);
+        setLock(lock, isDAVComment);
+        return lock;
+    }
+
+    private SVNLock prepareLock(FSRevisionRoot root, String path, String token, String username, String comment, Date expirationDate,
+            long currentRevision, boolean stealLock, boolean isDAVComment) throws SVNException {
         SVNNodeKind kind = root.checkNodeKind(path);
         
         if (token != null) {
@@ -2317,8 +2814,6 @@ public class FSFS {
         } else {
             lock = new FSLock(path, token, username, comment, new Date(System.currentTimeMillis()), expirationDate, isDAVComment);
         }
-
-        setLock(lock, isDAVComment);
         return lock;
     }
 
@@ -2327,38 +2822,62 @@ public class FSFS {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.UNKNOWN, "FATAL error: attempted to set a null lock");
             SVNErrorManager.error(err, SVNLogType.FSFS);
         }
-        String lastChild = "";
-        String path = lock.getPath();
-        Collection children = new ArrayList();
-        while (true) {
-            String digestFileName = getDigestFromRepositoryPath(path);
-            SVNLock fetchedLock = fetchLockFromDigestFile(null, path, children);
-
-            if (lock != null) {
-                fetchedLock = lock;
-                lock = null;
-                lastChild = digestFileName;
-            } else {
-                if (!children.isEmpty() && children.contains(lastChild)) {
-                    break;
-                }
-                children.add(lastChild);
-            }
+        if (isDAVComment(lock) != isDAVComment) {
+            lock = new FSLock(lock.getPath(), lock.getID(), lock.getOwner(), lock.getComment(), lock.getCreationDate(),
+                    lock.getExpirationDate(), isDAVComment);
+        }
+        setLocks(Collections.singletonList(lock));
+    }
 
-            writeDigestLockFile(fetchedLock, children, path, isDAVComment);
+    private void setLocks(Collection<SVNLock> locks) throws SVNException {
+        FSLockIndex lockIndex = getLockIndex();
+        if (lockIndex != null) {
+            lockIndex.setLocks(locks, this);
+            return;
+        }
+        writeLocksToDigestFiles(locks);
+    }
 
-            if ("/".equals(path)) {
-                break;
+    private void writeLocksToDigestFiles(Collection<SVNLock> locks) throws SVNException {
+        Map<String, Collection<String>> addedChildren = new LinkedHashMap<String, Collection<String>>();
+        for (SVNLock lock : locks) {
+            String path = lock.getPath();
+            Collection<String> children = new ArrayList<String>();
+            fetchLockFromDigestFile(null, path, children);
+            writeDigestLockFile(lock, children, path, isDAVComment(lock));
+            addToParentDigests(addedChildren, path);
+        }
+        for (Map.Entry<String, Collection<String>> entry : addedChildren.entrySet()) {
+            String path = entry.getKey();
+            Collection<String> children = new LinkedHashSet<String>();
+            SVNLock lock = fetchLockFromDigestFile(null, path, children);
+            if (!children.addAll(entry.getValue())) {
+                continue;
             }
-            path = SVNPathUtil.removeTail(path);
+            writeDigestLockFile(lock, children, path, isDAVComment(lock));
+        }
+    }
 
+    private void addToParentDigests(Map<String, Collection<String>> parentsToDigests, String path) throws SVNException {
+        String digest = getDigestFromRepositoryPath(path);
+        while (!"/".equals(path)) {
+            path = SVNPathUtil.removeTail(path);
             if ("".equals(path)) {
                 path = "/";
             }
-            children.clear();
+            Collection<String> digests = parentsToDigests.get(path);
+            if (digests == null) {
+                digests = new HashSet<String>();
+                parentsToDigests.put(path, digests);
+            }
+            digests.add(digest);
         }
     }
 
+    private static boolean isDAVComment(SVNLock lock) {
+        return lock instanceof FSLock && ((FSLock) lock).isDAVComment();
+    }
+
     private boolean ensureDirExists(File dir, boolean create) {
         if (!dir.exists() && create) {
             return dir.mkdirs();
@@ -2368,6 +2887,25 @@ public class FSFS {
         return true;
     }
 
+    static SVNProperties createLockProperties(SVNLock lock, boolean isDAVComment) {
+        SVNProperties props = new SVNProperties();
+        props.put(FSFS.PATH_LOCK_KEY, lock.getPath());
+        props.put(FSFS.OWNER_LOCK_KEY, lock.getOwner());
+        props.put(FSFS.TOKEN_LOCK_KEY, lock.getID());
+        String isDAVCommentValue = isDAVComment ? "1" : "0";
+        props.put(FSFS.IS_DAV_COMMENT_LOCK_KEY, isDAVCommentValue);
+        if (lock.getComment() != null) {
+            props.put(FSFS.COMMENT_LOCK_KEY, lock.getComment());
+        }
+        if (lock.getCreationDate() != null) {
+            props.put(FSFS.CREATION_DATE_LOCK_KEY, SVNDate.formatDate(lock.getCreationDate()));
+        }
+        if (lock.getExpirationDate() != null) {
+            props.put(FSFS.EXPIRATION_DATE_LOCK_KEY, SVNDate.formatDate(lock.getExpirationDate()));
+        }
+        return props;
+    }
+
     private void writeDigestLockFile(SVNLock lock, Collection children, String repositoryPath, boolean isDAVComment) throws SVNException {
         if (!ensureDirExists(getDBLocksDir(), true)) {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.UNKNOWN,
@@ -2384,24 +2922,7 @@ public class FSFS {
             SVNErrorManager.error(err, SVNLogType.FSFS);
         }
 
-        SVNProperties props = new SVNProperties();
-
-        if (lock != null) {
-            props.put(FSFS.PATH_LOCK_KEY, lock.getPath());
-            props.put(FSFS.OWNER_LOCK_KEY, lock.getOwner());
-            props.put(FSFS.TOKEN_LOCK_KEY, lock.getID());
-            String isDAVCommentValue = isDAVComment ? "1" : "0";
-            props.put(FSFS.IS_DAV_COMMENT_LOCK_KEY, isDAVCommentValue);
-            if (lock.getComment() != null) {
-                props.put(FSFS.COMMENT_LOCK_KEY, lock.getComment());
-            }
-            if (lock.getCreationDate() != null) {
-                props.put(FSFS.CREATION_DATE_LOCK_KEY, SVNDate.formatDate(lock.getCreationDate()));
-            }
-            if (lock.getExpirationDate() != null) {
-                props.put(FSFS.EXPIRATION_DATE_LOCK_KEY, SVNDate.formatDate(lock.getExpirationDate()));
-            }
-        }
+        SVNProperties props = lock != null ? createLockProperties(lock, isDAVComment) : new SVNProperties();
         if (children != null && children.size() > 0) {
             Object[] digests = children.toArray();
             StringBuffer value = new StringBuffer();
@@ -16,9 +16,9 @@ import org.tmatesoft.svn.core.internal.util.SVNHashMap;
 import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
 import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.internal.wc.SVNMergeInfoManager;
-import org.tmatesoft.svn.core.io.SVNRepository;
 import org.tmatesoft.svn.util.SVNDebugLog;
 import org.tmatesoft.svn.util.SVNLogType;
+import org.tmatesoft.svn.util.SVNMetrics;
 
 import java.io.*;
 import java.nio.ByteBuffer;
@@ -461,7 +461,9 @@ public class FSFile {
             myBufferPosition = myPosition;
             getChannel().position(myBufferPosition);
             myBuffer.clear();
+            final long startTime = SVNMetrics.start(SVNLogType.FSFS);
             int read = getChannel().read(myBuffer);
+            SVNMetrics.time(SVNLogType.FSFS, "read", startTime, Math.max(read, 0));
             myBuffer.position(0);
             myBuffer.limit(read >= 0 ? read : 0);
             return read;
@@ -486,67 +488,6 @@ public class FSFile {
         return myChannel;
     }
     
-    public PathInfo readPathInfoFromReportFile() throws IOException, SVNException {
-        int firstByte = read();
-        if (firstByte == -1 || firstByte == '-') {
-            return null;
-        }
-        String path = readStringFromReportFile();
-        String linkPath = read() == '+' ? readStringFromReportFile() : null;
-        long revision = readRevisionFromReportFile();
-        SVNDepth depth = SVNDepth.INFINITY;
-        if (read() == '+') {
-            int id = read();
-            switch(id) {
-                case 'X':
-                    depth = SVNDepth.EXCLUDE;
-                    break;
-                case 'E':
-                    depth = SVNDepth.EMPTY;
-                    break;
-                case 'F':
-                    depth = SVNDepth.FILES;
-                    break;
-                case 'M':
-                    depth = SVNDepth.IMMEDIATES;
-                    break;
-                default: {
-                    SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.REPOS_BAD_REVISION_REPORT, "Invalid depth ({0}) for path ''{1}''", new Object[]{new Integer(id), path});
-                    SVNErrorManager.error(err, SVNLogType.WC);
-                }
-            }
-        }
-        boolean startEmpty = read() == '+';
-        String lockToken = read() == '+' ? readStringFromReportFile() : null;
-        return new PathInfo(path, linkPath, lockToken, revision, depth, startEmpty);
-    }
-
-    private String readStringFromReportFile() throws IOException {
-        int length = readNumberFromReportFile();
-        if (length == 0) {
-            return "";
-        }
-        byte[] buffer = new byte[length];
-        read(buffer, 0, length);
-        return new String(buffer, "UTF-8");
-    }
-
-    private int readNumberFromReportFile() throws IOException {
-        int b;
-        ByteArrayOutputStream resultStream = new ByteArrayOutputStream();
-        while ((b = read()) != ':') {
-            resultStream.write(b);
-        }
-        return Integer.parseInt(new String(resultStream.toByteArray(), "UTF-8"), 10);
-    }
-
-    private long readRevisionFromReportFile() throws IOException {
-        if (read() == '+') {
-            return readNumberFromReportFile();
-        }
-        return SVNRepository.INVALID_REVISION;
-    }
-
     private void parseFooter(String footerString) throws SVNException {
         String[] fields = footerString.split(" ");
         if (fields.length != 4) {
@@ -19,6 +19,7 @@ import java.util.LinkedList;
 import java.util.Map;
 import java.util.TreeMap;
 
+import org.tmatesoft.svn.core.SVNAnnotationGenerator;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
@@ -55,6 +56,21 @@ public class FSFileRevisionsFinder {
 
     public int getFileRevisions(String path, long startRevision, long endRevision, 
             boolean includeMergedRevisions, ISVNFileRevisionHandler handler) throws SVNException {
+        return sendFileRevisions(path, startRevision, endRevision, includeMergedRevisions, handler, null);
+    }
+
+    /**
+     * Feeds the file revisions to <code>generator</code>. Unlike {@link #getFileRevisions(String, long, long, boolean, ISVNFileRevisionHandler)},
+     * no deltas are produced: the full text of every changed revision is reconstructed 
+     * once and passed to the generator, which keeps the previous text itself. 
+     */
+    public int annotate(String path, long startRevision, long endRevision, 
+            boolean includeMergedRevisions, SVNAnnotationGenerator generator) throws SVNException {
+        return sendFileRevisions(path, startRevision, endRevision, includeMergedRevisions, generator, generator);
+    }
+
+    private int sendFileRevisions(String path, long startRevision, long endRevision, 
+            boolean includeMergedRevisions, ISVNFileRevisionHandler handler, SVNAnnotationGenerator generator) throws SVNException {
         Map duplicatePathRevs = new SVNHashMap();
         LinkedList mainLinePathRevisions = findInterestingRevisions(null, path, startRevision, endRevision, 
                 includeMergedRevisions, false, duplicatePathRevs);
@@ -77,10 +93,10 @@ public class FSFileRevisionsFinder {
             SVNLocationEntry mainPathRev = (SVNLocationEntry) mainLinePathRevisions.get(mainLinePos);
             SVNLocationEntry mergedPathRev = (SVNLocationEntry) mergedPathRevisions.get(mergedPos);
             if (mainPathRev.getRevision() <= mergedPathRev.getRevision()) {
-                sendPathRevision(mainPathRev, sb, handler);
+                sendPathRevision(mainPathRev, sb, handler, generator);
                 mainLinePos--;
             } else {
-                sendPathRevision(mergedPathRev, sb, handler);
+                sendPathRevision(mergedPathRev, sb, handler, generator);
                 mergedPos--;
             }
             i++;
@@ -88,7 +104,7 @@ public class FSFileRevisionsFinder {
         
         for (; mainLinePos >= 0; mainLinePos--) {
             SVNLocationEntry mainPathRev = (SVNLocationEntry) mainLinePathRevisions.get(mainLinePos);
-            sendPathRevision(mainPathRev, sb, handler);
+            sendPathRevision(mainPathRev, sb, handler, generator);
             i++;
         }
         
@@ -96,7 +112,7 @@ public class FSFileRevisionsFinder {
     }
     
     private void sendPathRevision(SVNLocationEntry pathRevision, SendBaton sendBaton, 
-            ISVNFileRevisionHandler handler) throws SVNException {
+            ISVNFileRevisionHandler handler, SVNAnnotationGenerator generator) throws SVNException {
         SVNProperties revProps = myFSFS.getRevisionProperties(pathRevision.getRevision());
         FSRevisionRoot root = myFSFS.createRevisionRoot(pathRevision.getRevision());
         FSRevisionNode fileNode = root.getRevisionNode(pathRevision.getPath());
@@ -113,7 +129,16 @@ public class FSFileRevisionsFinder {
         if (handler != null) {
             handler.openRevision(new SVNFileRevision(pathRevision.getPath(), pathRevision.getRevision(), 
                     revProps, propDiffs, pathRevision.isResultOfMerge()));
-            if (contentsChanged) {
+            if (contentsChanged && generator != null) {
+                InputStream targetStream = null;
+                try {
+                    targetStream = root.getFileStreamForPath(new SVNDeltaCombiner(), pathRevision.getPath());
+                    generator.applyText(pathRevision.getPath(), targetStream);
+                } finally {
+                    SVNFileUtil.closeFile(targetStream);
+                }
+                handler.closeRevision(pathRevision.getPath());
+            } else if (contentsChanged) {
                 SVNDeltaCombiner sourceCombiner = new SVNDeltaCombiner();
                 SVNDeltaCombiner targetCombiner = new SVNDeltaCombiner();
                 handler.applyTextDelta(pathRevision.getPath(), null);
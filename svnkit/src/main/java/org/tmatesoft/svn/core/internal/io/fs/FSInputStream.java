@@ -29,6 +29,7 @@ import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
 import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
 import org.tmatesoft.svn.util.SVNLogType;
+import org.tmatesoft.svn.util.SVNMetrics;
 
 /**
  * @version 1.3
@@ -154,6 +155,7 @@ public class FSInputStream extends InputStream {
                     }
                     break;
                 }
+                final long startTime = SVNMetrics.start(SVNLogType.FSFS);
                 myCombiner.reset();
                 for (ListIterator states = myRepStateList.listIterator(); states.hasNext();) {
                     FSRepresentationState curState = (FSRepresentationState) states.next();
@@ -177,6 +179,7 @@ public class FSInputStream extends InputStream {
                         break;
                     }
                 }
+                SVNMetrics.time(SVNLogType.FSFS, "delta-combine", startTime, myBuffer != null ? myBuffer.remaining() : 0);
             }
         }
         return read;
@@ -0,0 +1,437 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.io.fs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNLock;
+import org.tmatesoft.svn.core.SVNProperties;
+import org.tmatesoft.svn.core.internal.util.SVNUUIDGenerator;
+import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.internal.wc.SVNWCProperties;
+import org.tmatesoft.svn.util.SVNDebugLog;
+import org.tmatesoft.svn.util.SVNLogType;
+
+/**
+ * Indexed storage of repository locks, used instead of the digest files tree
+ * when <code>db/locks/index</code> exists.
+ *
+ * <p/>
+ * The index file is an append-only log of hash records in the digest file format:
+ * a header record with the format and the generation of the file, followed by
+ * lock records (all lock keys present) and unlock records (only the path key present).
+ * The log is replayed into a path-sorted map shared by all {@link FSFS} instances of the
+ * process, so that lookups, prefix queries and expiry scans never touch the disk
+ * beyond reading records appended since the last access. Once the log holds
+ * noticeably more records than there are live locks it is rewritten with a new generation.
+ * A record that cannot be read is accepted only at the end of the log, where an append may
+ * still be in progress or may have been interrupted; such a tail is dropped by the next append.
+ *
+ * <p/>
+ * Each {@link FSFS} instance acquires the shared index with {@link #getLockIndex(File)} and
+ * gives it back with {@link #release(FSLockIndex)} when it is closed. Since a repository is
+ * opened and closed around every operation, a few released indexes are kept for the next
+ * operation; older ones and those whose file was deleted are forgotten.
+ *
+ * <p/>
+ * Modifications must be made under the repository write lock. Locks stored in the
+ * index are not visible to the native Subversion tools, use {@link FSFS#migrateLocksToDigestFiles()}
+ * to convert the repository back.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+public class FSLockIndex {
+
+    public static final String LOCK_INDEX_FILE = "index";
+
+    private static final String FORMAT_KEY = "format";
+    private static final String GENERATION_KEY = "generation";
+    private static final int FORMAT = 1;
+    private static final int COMPACTION_THRESHOLD = 1024;
+    private static final int RELEASED_INDEXES_LIMIT = 16;
+    private static final byte[] RECORD_TERMINATOR = {'E', 'N', 'D', '\n'};
+
+    private static final Map<File, FSLockIndex> ourIndexes = new HashMap<File, FSLockIndex>();
+    private static final Map<File, FSLockIndex> ourReleasedIndexes = new LinkedHashMap<File, FSLockIndex>();
+
+    private final File myFile;
+    private final SortedMap<String, SVNLock> myLocks;
+    private final TreeSet<SVNLock> myExpiringLocks;
+
+    private String myGeneration;
+    private long myOffset;
+    private int myRecordsCount;
+    private int myReferencesCount;
+
+    public static FSLockIndex getLockIndex(File file) {
+        file = file.getAbsoluteFile();
+        synchronized (ourIndexes) {
+            FSLockIndex index = ourIndexes.get(file);
+            if (index == null) {
+                index = new FSLockIndex(file);
+                ourIndexes.put(file, index);
+            }
+            ourReleasedIndexes.remove(file);
+            index.myReferencesCount++;
+            return index;
+        }
+    }
+
+    public static void release(FSLockIndex index) {
+        if (index == null) {
+            return;
+        }
+        synchronized (ourIndexes) {
+            if (--index.myReferencesCount > 0 || ourIndexes.get(index.myFile) != index) {
+                return;
+            }
+            ourReleasedIndexes.put(index.myFile, index);
+            for (Iterator<FSLockIndex> indexes = ourReleasedIndexes.values().iterator(); indexes.hasNext();) {
+                FSLockIndex released = indexes.next();
+                if (!released.myFile.isFile() || ourReleasedIndexes.size() > RELEASED_INDEXES_LIMIT) {
+                    indexes.remove();
+                    ourIndexes.remove(released.myFile);
+                }
+            }
+        }
+    }
+
+    public static void createLockIndex(File file, Collection<SVNLock> locks) throws SVNException {
+        FSLockIndex index = getLockIndex(file);
+        try {
+            synchronized (index) {
+                index.reset();
+                index.writeAll(locks);
+            }
+        } finally {
+            release(index);
+        }
+    }
+
+    public static void removeLockIndex(File file) throws SVNException {
+        FSLockIndex index = getLockIndex(file);
+        try {
+            synchronized (index) {
+                SVNFileUtil.deleteFile(index.myFile);
+                index.reset();
+            }
+        } finally {
+            synchronized (ourIndexes) {
+                index.myReferencesCount--;
+                if (ourIndexes.get(index.myFile) == index) {
+                    ourIndexes.remove(index.myFile);
+                    ourReleasedIndexes.remove(index.myFile);
+                }
+            }
+        }
+    }
+
+    private FSLockIndex(File file) {
+        myFile = file;
+        myLocks = new TreeMap<String, SVNLock>();
+        myExpiringLocks = new TreeSet<SVNLock>(new Comparator<SVNLock>() {
+            public int compare(SVNLock lock1, SVNLock lock2) {
+                int result = lock1.getExpirationDate().compareTo(lock2.getExpirationDate());
+                return result != 0 ? result : lock1.getPath().compareTo(lock2.getPath());
+            }
+        });
+    }
+
+    public synchronized SVNLock getLock(String path, FSFS owner) throws SVNException {
+        refresh(owner);
+        return myLocks.get(path);
+    }
+
+    public synchronized List<SVNLock> getLocks(String path, FSFS owner) throws SVNException {
+        refresh(owner);
+        List<SVNLock> locks = new ArrayList<SVNLock>();
+        if ("/".equals(path)) {
+            locks.addAll(myLocks.values());
+            return locks;
+        }
+        SVNLock lock = myLocks.get(path);
+        if (lock != null) {
+            locks.add(lock);
+        }
+        // '0' follows '/', so the range holds exactly the paths below the given one.
+        locks.addAll(myLocks.subMap(path + "/", path + "0").values());
+        return locks;
+    }
+
+    public synchronized List<SVNLock> getExpiredLocks(Date now, FSFS owner) throws SVNException {
+        refresh(owner);
+        List<SVNLock> locks = new ArrayList<SVNLock>();
+        for (Iterator<SVNLock> expiringLocks = myExpiringLocks.iterator(); expiringLocks.hasNext();) {
+            SVNLock lock = expiringLocks.next();
+            if (now.compareTo(lock.getExpirationDate()) <= 0) {
+                break;
+            }
+            locks.add(lock);
+        }
+        return locks;
+    }
+
+    public synchronized void setLocks(Collection<SVNLock> locks, FSFS owner) throws SVNException {
+        refresh(owner);
+        List<SVNProperties> records = new ArrayList<SVNProperties>();
+        for (SVNLock lock : locks) {
+            records.add(FSFS.createLockProperties(lock, isDAVComment(lock)));
+        }
+        append(records);
+        for (SVNLock lock : locks) {
+            putLock(lock);
+        }
+        compactIfNeeded();
+    }
+
+    public synchronized void deleteLocks(Collection<String> paths, FSFS owner) throws SVNException {
+        refresh(owner);
+        List<SVNProperties> records = new ArrayList<SVNProperties>();
+        for (String path : paths) {
+            if (myLocks.containsKey(path)) {
+                SVNProperties record = new SVNProperties();
+                record.put(FSFS.PATH_LOCK_KEY, path);
+                records.add(record);
+            }
+        }
+        append(records);
+        for (String path : paths) {
+            removeLock(path);
+        }
+        compactIfNeeded();
+    }
+
+    private void refresh(FSFS owner) throws SVNException {
+        if (!myFile.isFile()) {
+            reset();
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.FS_CORRUPT, "Lock index ''{0}'' does not exist", myFile);
+            SVNErrorManager.error(err, SVNLogType.FSFS);
+        }
+        FSFile file = new FSFile(myFile);
+        try {
+            SVNProperties header = readRecord(file);
+            String generation = header != null ? header.getStringValue(GENERATION_KEY) : null;
+            if (generation == null) {
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.FS_CORRUPT, "Lock index ''{0}'' has no header", myFile);
+                SVNErrorManager.error(err, SVNLogType.FSFS);
+            }
+            String format = header.getStringValue(FORMAT_KEY);
+            if (!String.valueOf(FORMAT).equals(format)) {
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.FS_UNSUPPORTED_FORMAT,
+                        "Unsupported lock index format ''{0}'' in ''{1}''", new Object[] {format, myFile});
+                SVNErrorManager.error(err, SVNLogType.FSFS);
+            }
+            if (!generation.equals(myGeneration)) {
+                reset();
+                myGeneration = generation;
+                myOffset = file.position();
+            }
+            if (file.size() == myOffset) {
+                return;
+            }
+            file.seek(myOffset);
+            while (file.position() < file.size()) {
+                SVNProperties record = readRecord(file);
+                if (record == null) {
+                    if (endsWithRecord(file)) {
+                        SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.FS_CORRUPT,
+                                "Lock index ''{0}'' has a corrupt record at offset {1}", new Object[] {myFile, new Long(myOffset)});
+                        SVNErrorManager.error(err, SVNLogType.FSFS);
+                    }
+                    // the last record is still being written or its append was interrupted.
+                    break;
+                }
+                myOffset = file.position();
+                myRecordsCount++;
+                String path = record.getStringValue(FSFS.PATH_LOCK_KEY);
+                if (path != null && record.getStringValue(FSFS.TOKEN_LOCK_KEY) == null) {
+                    removeLock(path);
+                    continue;
+                }
+                SVNLock lock = FSFS.createLock(record, owner);
+                if (lock != null) {
+                    putLock(lock);
+                }
+            }
+        } finally {
+            file.close();
+        }
+    }
+
+    private SVNProperties readRecord(FSFile file) throws SVNException {
+        long position = file.position();
+        try {
+            return file.readProperties(false, true);
+        } catch (SVNException e) {
+            SVNDebugLog.getDefaultLog().logFine(SVNLogType.FSFS, e);
+            file.seek(position);
+            return null;
+        }
+    }
+
+    private static boolean endsWithRecord(FSFile file) throws SVNException {
+        long size = file.size();
+        if (size < RECORD_TERMINATOR.length) {
+            return false;
+        }
+        long position = file.position();
+        try {
+            file.seek(size - RECORD_TERMINATOR.length);
+            for (int i = 0; i < RECORD_TERMINATOR.length; i++) {
+                if (file.read() != RECORD_TERMINATOR[i]) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, "Cannot read lock index ''{0}'': {1}",
+                    new Object[] {file.getFile(), e.getLocalizedMessage()});
+            SVNErrorManager.error(err, e, SVNLogType.FSFS);
+            return false;
+        } finally {
+            file.seek(position);
+        }
+    }
+
+    private static boolean isDAVComment(SVNLock lock) {
+        return lock instanceof FSLock && ((FSLock) lock).isDAVComment();
+    }
+
+    private void putLock(SVNLock lock) {
+        removeLock(lock.getPath());
+        myLocks.put(lock.getPath(), lock);
+        if (lock.getExpirationDate() != null) {
+            myExpiringLocks.add(lock);
+        }
+    }
+
+    private void removeLock(String path) {
+        SVNLock lock = myLocks.remove(path);
+        if (lock != null && lock.getExpirationDate() != null) {
+            myExpiringLocks.remove(lock);
+        }
+    }
+
+    private void reset() {
+        myLocks.clear();
+        myExpiringLocks.clear();
+        myGeneration = null;
+        myOffset = 0;
+        myRecordsCount = 0;
+    }
+
+    private void append(List<SVNProperties> records) throws SVNException {
+        if (records.isEmpty()) {
+            return;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (SVNProperties record : records) {
+            SVNWCProperties.setProperties(record, bytes, SVNWCProperties.SVN_HASH_TERMINATOR);
+        }
+        RandomAccessFile file = null;
+        try {
+            file = new RandomAccessFile(myFile, "rw");
+            long length = file.length();
+            if (length < myOffset) {
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.FS_CORRUPT,
+                        "Lock index ''{0}'' is shorter than its last read record", myFile);
+                SVNErrorManager.error(err, SVNLogType.FSFS);
+            } else if (length > myOffset) {
+                // refresh() has read all complete records, the rest is left by an interrupted append.
+                SVNDebugLog.getDefaultLog().logFine(SVNLogType.FSFS, "Dropping incomplete tail of lock index " + myFile);
+                file.setLength(myOffset);
+            }
+            file.seek(file.length());
+            file.write(bytes.toByteArray());
+            myOffset = file.getFilePointer();
+        } catch (IOException e) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, "Cannot write lock index ''{0}'': {1}",
+                    new Object[] {myFile, e.getLocalizedMessage()});
+            SVNErrorManager.error(err, e, SVNLogType.FSFS);
+        } finally {
+            SVNFileUtil.closeFile(file);
+        }
+        myRecordsCount += records.size();
+    }
+
+    private void compactIfNeeded() throws SVNException {
+        if (myRecordsCount > 2 * myLocks.size() + COMPACTION_THRESHOLD) {
+            List<SVNLock> locks = new ArrayList<SVNLock>(myLocks.values());
+            reset();
+            writeAll(locks);
+        }
+    }
+
+    private void writeAll(Collection<SVNLock> locks) throws SVNException {
+        String generation = SVNUUIDGenerator.generateUUIDString();
+        SVNProperties header = new SVNProperties();
+        header.put(FORMAT_KEY, String.valueOf(FORMAT));
+        header.put(GENERATION_KEY, generation);
+
+        myFile.getParentFile().mkdirs();
+        File tmpFile = SVNFileUtil.createUniqueFile(myFile.getParentFile(), myFile.getName(), ".tmp", false);
+        OutputStream os = null;
+        long offset = 0;
+        try {
+            os = SVNFileUtil.openFileForWriting(tmpFile);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            SVNWCProperties.setProperties(header, bytes, SVNWCProperties.SVN_HASH_TERMINATOR);
+            for (SVNLock lock : locks) {
+                SVNWCProperties.setProperties(FSFS.createLockProperties(lock, isDAVComment(lock)), bytes, SVNWCProperties.SVN_HASH_TERMINATOR);
+                if (bytes.size() > 0x10000) {
+                    offset += bytes.size();
+                    bytes.writeTo(os);
+                    bytes.reset();
+                }
+            }
+            offset += bytes.size();
+            bytes.writeTo(os);
+        } catch (IOException e) {
+            SVNFileUtil.closeFile(os);
+            SVNFileUtil.deleteFile(tmpFile);
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, "Cannot write lock index ''{0}'': {1}",
+                    new Object[] {myFile, e.getLocalizedMessage()});
+            SVNErrorManager.error(err, e, SVNLogType.FSFS);
+        } finally {
+            SVNFileUtil.closeFile(os);
+        }
+        SVNFileUtil.rename(tmpFile, myFile);
+
+        myGeneration = generation;
+        for (SVNLock lock : locks) {
+            putLock(lock);
+        }
+        myRecordsCount = myLocks.size();
+        myOffset = offset;
+    }
+}
@@ -322,6 +322,12 @@ public class FSOutputStream extends OutputStream implements ISVNDeltaConsumer {
         if (representationsMap != null) {
             oldRepresentation = representationsMap.get(representation.getSHA1HexDigest());
         }
+        if (oldRepresentation == null && fsfs.getDeferredRepresentations() != null) {
+            final FSRepresentation deferredRepresentation = fsfs.getDeferredRepresentations().get(representation.getSHA1HexDigest());
+            if (deferredRepresentation != null) {
+                oldRepresentation = new FSRepresentation(deferredRepresentation);
+            }
+        }
         if (oldRepresentation == null) {
             final IFSRepresentationCacheManager reposCacheManager = fsfs.getRepositoryCacheManager();
             if (reposCacheManager != null) {
@@ -18,12 +18,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Date;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.Map;
 import java.util.Set;
 
 import org.tmatesoft.svn.core.ISVNDirEntryHandler;
 import org.tmatesoft.svn.core.ISVNLogEntryHandler;
+import org.tmatesoft.svn.core.SVNAnnotationGenerator;
 import org.tmatesoft.svn.core.SVNAuthenticationException;
 import org.tmatesoft.svn.core.SVNCancelException;
 import org.tmatesoft.svn.core.SVNDepth;
@@ -63,6 +65,8 @@ import org.tmatesoft.svn.core.io.ISVNSession;
 import org.tmatesoft.svn.core.io.ISVNWorkspaceMediator;
 import org.tmatesoft.svn.core.io.SVNCapability;
 import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.wc.ISVNAnnotateHandler;
+import org.tmatesoft.svn.core.wc.SVNDiffOptions;
 import org.tmatesoft.svn.util.SVNLogType;
 import org.tmatesoft.svn.util.Version;
 
@@ -284,7 +288,7 @@ public class FSRepository extends SVNRepository implements ISVNReporter {
         }
     }
 
-    public long getDir(String path, long revision, SVNProperties properties, int entryFields, ISVNDirEntryHandler handler) throws SVNException {
+    public long getDir(String path, long revision, SVNProperties properties, final int entryFields, final ISVNDirEntryHandler handler) throws SVNException {
         try {
             openRepository();
             if (!SVNRepository.isValidRevision(revision)) {
@@ -295,13 +299,12 @@ public class FSRepository extends SVNRepository implements ISVNReporter {
 
             FSRevisionNode parent = root.getRevisionNode(repositoryPath);
             if (handler != null) {
-                SVNURL parentURL = getLocation().appendPath(path, false);
-                Collection entriesCollection = getDirEntries(parent, parentURL, entryFields);
-                Iterator entries = entriesCollection.iterator();
-                while (entries.hasNext()) {
-                    SVNDirEntry entry = (SVNDirEntry) entries.next();
-                    handler.handleDirEntry(entry);
-                }
+                final SVNURL parentURL = getLocation().appendPath(path, false);
+                myFSFS.walkSortedDirEntries(parent, new IFSDirEntryHandler() {
+                    public void handleDirEntry(FSEntry repEntry) throws SVNException {
+                        handler.handleDirEntry(buildDirEntry(repEntry, parentURL, null, entryFields));
+                    }
+                });
             }
             if (properties != null) {
                 properties.putAll(collectProperties(parent));
@@ -338,6 +341,43 @@ public class FSRepository extends SVNRepository implements ISVNReporter {
         }
     }
 
+    protected void getAnnotationsImpl(String path, long startRevision, long endRevision, boolean includeMergedRevisions, 
+            boolean force, SVNDiffOptions diffOptions, String inputEncoding, ISVNAnnotateHandler handler) throws SVNException {
+        if (isValidRevision(startRevision) && isValidRevision(endRevision) && startRevision > endRevision) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_NOT_IMPLEMENTED, "Backwards annotation is computed from file revisions");
+            SVNErrorManager.error(err, SVNLogType.FSFS);
+        }
+        File tmpDirectory = null;
+        SVNAnnotationGenerator generator = null;
+        try {
+            openRepository();
+            path = getRepositoryPath(path);
+            if (isInvalidRevision(endRevision)) {
+                endRevision = myFSFS.getYoungestRevision();
+            }
+            if (isInvalidRevision(startRevision)) {
+                startRevision = endRevision;
+            }
+
+            tmpDirectory = SVNFileUtil.createTempDirectory("annotate");
+            generator = new SVNAnnotationGenerator(path, tmpDirectory, startRevision, force, 
+                    includeMergedRevisions, diffOptions, inputEncoding, null, null);
+            generator.setEndRevision(endRevision);
+            FSFileRevisionsFinder finder = new FSFileRevisionsFinder(myFSFS);
+            finder.annotate(path, startRevision > 0 ? startRevision - 1 : startRevision, endRevision, 
+                    includeMergedRevisions, generator);
+            generator.reportAnnotations(handler, inputEncoding);
+        } finally {
+            if (generator != null) {
+                generator.dispose();
+            }
+            if (tmpDirectory != null) {
+                SVNFileUtil.deleteAll(tmpDirectory, true);
+            }
+            closeRepository();
+        }
+    }
+
     protected long logImpl(String[] targetPaths, long startRevision, long endRevision, boolean
                     discoverChangedPaths, boolean strictNode, long limit,
                     boolean includeMergedRevisions, String[] revPropNames,
@@ -479,7 +519,6 @@ public class FSRepository extends SVNRepository implements ISVNReporter {
             openRepository();
             path = getRepositoryPath(path);
 
-            File digestFile = myFSFS.getDigestFileFromRepositoryPath(path);
             final ArrayList locks = new ArrayList();
             ISVNLockHandler handler = new ISVNLockHandler() {
 
@@ -491,7 +530,7 @@ public class FSRepository extends SVNRepository implements ISVNReporter {
                 }
             };
 
-            myFSFS.walkDigestFiles(digestFile, handler, false);
+            myFSFS.walkLocks(path, handler, false);
 
             return (SVNLock[]) locks.toArray(new SVNLock[locks.size()]);
         } finally {
@@ -503,52 +542,65 @@ public class FSRepository extends SVNRepository implements ISVNReporter {
         lock(pathsToRevisions, comment, force, false, handler);
     }
 
-    public void lock(Map pathsToRevisions, String comment, boolean force, boolean isDAVComment, ISVNLockHandler handler) throws SVNException {
+    public void lock(Map pathsToRevisions, String comment, boolean force, boolean isDAVComment, final ISVNLockHandler handler) throws SVNException {
         try {
             openRepository();
+            long youngestRevision = myFSFS.getYoungestRevision();
+            Map<String, Long> reposPathsToRevisions = new LinkedHashMap<String, Long>();
             for (Iterator paths = pathsToRevisions.keySet().iterator(); paths.hasNext();) {
                 String path = (String) paths.next();
                 Long revision = (Long) pathsToRevisions.get(path);
-                String reposPath = getRepositoryPath(path);
-                long curRevision = (revision == null || isInvalidRevision(revision.longValue())) ? myFSFS.getYoungestRevision() : revision.longValue();
-                SVNLock lock = null;
-                SVNErrorMessage error = null;
-                try {
-                    lock = myFSFS.lockPath(reposPath, null, getUserName(), comment, null, curRevision, force, isDAVComment);
-                } catch (SVNException svne) {
-                    error = svne.getErrorMessage();
-                    if (!FSErrors.isLockError(error)) {
-                        throw svne;
+                long curRevision = (revision == null || isInvalidRevision(revision.longValue())) ? youngestRevision : revision.longValue();
+                reposPathsToRevisions.put(getRepositoryPath(path), Long.valueOf(curRevision));
+            }
+            final SVNErrorMessage[] failure = new SVNErrorMessage[1];
+            myFSFS.lockPaths(reposPathsToRevisions, getUserName(), comment, null, force, isDAVComment, new ISVNLockHandler() {
+                public void handleLock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
+                    if (error != null && !FSErrors.isLockError(error)) {
+                        if (failure[0] == null) {
+                            failure[0] = error;
+                        }
+                    } else if (handler != null) {
+                        handler.handleLock(path, lock, error);
                     }
                 }
-                if (handler != null) {
-                    handler.handleLock(reposPath, lock, error);
+
+                public void handleUnlock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
                 }
+            });
+            if (failure[0] != null) {
+                SVNErrorManager.error(failure[0], SVNLogType.FSFS);
             }
         } finally {
             closeRepository();
         }
     }
 
-    public void unlock(Map pathToTokens, boolean force, ISVNLockHandler handler) throws SVNException {
+    public void unlock(Map pathToTokens, boolean force, final ISVNLockHandler handler) throws SVNException {
         try {
             openRepository();
+            Map<String, String> reposPathsToTokens = new LinkedHashMap<String, String>();
             for (Iterator paths = pathToTokens.keySet().iterator(); paths.hasNext();) {
                 String path = (String) paths.next();
-                String token = (String) pathToTokens.get(path);
-                String reposPath = getRepositoryPath(path);
-                SVNErrorMessage error = null;
-                try {
-                    myFSFS.unlockPath(reposPath, token, getUserName(), force, true);
-                } catch (SVNException svne) {
-                    error = svne.getErrorMessage();
-                    if (!FSErrors.isUnlockError(error)) {
-                        throw svne;
-                    }
+                reposPathsToTokens.put(getRepositoryPath(path), (String) pathToTokens.get(path));
+            }
+            final SVNErrorMessage[] failure = new SVNErrorMessage[1];
+            myFSFS.unlockPaths(reposPathsToTokens, getUserName(), force, true, new ISVNLockHandler() {
+                public void handleLock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
                 }
-                if (handler != null) {
-                    handler.handleUnlock(reposPath, new SVNLock(reposPath, token, null, null, null, null), error);
+
+                public void handleUnlock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
+                    if (error != null && !FSErrors.isUnlockError(error)) {
+                        if (failure[0] == null) {
+                            failure[0] = error;
+                        }
+                    } else if (handler != null) {
+                        handler.handleUnlock(path, lock, error);
+                    }
                 }
+            });
+            if (failure[0] != null) {
+                SVNErrorManager.error(failure[0], SVNLogType.FSFS);
             }
         } finally {
             closeRepository();
@@ -830,16 +882,9 @@ public class FSRepository extends SVNRepository implements ISVNReporter {
     }
 
     private Collection getDirEntries(FSRevisionNode parent, SVNURL parentURL, int entryFields) throws SVNException {
-        Map entries = parent.getDirEntries(myFSFS);
-        Set keys = entries.keySet();
-        Iterator dirEntries = keys.iterator();
-        Collection dirEntriesList = new LinkedList();
-        while (dirEntries.hasNext()) {
-            String name = (String) dirEntries.next();
-            FSEntry repEntry = (FSEntry) entries.get(name);
-            if (repEntry != null) {
-                dirEntriesList.add(buildDirEntry(repEntry, parentURL, null, entryFields));
-            }
+        final Collection dirEntriesList = new LinkedList();
+        for (FSEntry repEntry : myFSFS.getSortedDirEntries(parent)) {
+            dirEntriesList.add(buildDirEntry(repEntry, parentURL, null, entryFields));
         }
         return dirEntriesList;
     }
@@ -863,7 +908,9 @@ public class FSRepository extends SVNRepository implements ISVNReporter {
     }
 
     private SVNDirEntry buildDirEntry(FSEntry repEntry, SVNURL parentURL, FSRevisionNode entryNode, int entryFields) throws SVNException {
-        entryNode = entryNode == null ? myFSFS.getRevisionNode(repEntry.getId()) : entryNode;
+        if (entryNode == null && (entryFields & (SVNDirEntry.DIRENT_SIZE | SVNDirEntry.DIRENT_HAS_PROPERTIES)) != 0) {
+            entryNode = myFSFS.getRevisionNode(repEntry.getId());
+        }
 
         SVNNodeKind kind = null;
         if ((entryFields & SVNDirEntry.DIRENT_KIND) != 0) {
@@ -945,13 +992,12 @@ public class FSRepository extends SVNRepository implements ISVNReporter {
 
         if (myReporterContext == null) {
             myReporterContext = new FSUpdateContext(this, myFSFS, targetRevision,
-                                                    SVNFileUtil.createTempFile("report", ".tmp"),
                                                     target, fullTargetPath,
                                                     switchURL == null ? false : true,
                                                     depth, ignoreAncestry, textDeltas,
                                                     sendCopyFromArgs, editor);
         } else {
-            myReporterContext.reset(this, myFSFS, targetRevision, SVNFileUtil.createTempFile("report", ".tmp"),
+            myReporterContext.reset(this, myFSFS, targetRevision,
                                     target, fullTargetPath, switchURL == null ? false : true, depth,
                                     ignoreAncestry, textDeltas, sendCopyFromArgs, editor);
         }
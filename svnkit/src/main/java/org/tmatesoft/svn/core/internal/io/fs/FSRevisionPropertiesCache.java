@@ -0,0 +1,209 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.io.fs;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNProperties;
+import org.tmatesoft.svn.core.internal.io.fs.revprop.SVNFSFSPackedRevProps;
+import org.tmatesoft.svn.core.internal.io.fs.revprop.SVNFSFSPackedRevPropsManifest;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+
+/**
+ * Process-wide cache of revision properties, decoded revision properties packs
+ * and pack manifests of FSFS repositories.
+ *
+ * <p/>
+ * Every entry is bound to the value of the repository's <code>db/revprop-generation</code>
+ * file at the time it was read, and to the modification time and length of the file it was
+ * read from. Writers make the generation odd while they change revision properties and even
+ * again when done, so that readers of all processes sharing the repository bypass and then
+ * drop outdated entries. Files modified within the timestamp granularity window of their
+ * last read are always re-read.
+ *
+ * <p/>
+ * The number of cached revisions is set with the <code>svnkit.fsfs.revprops.cache</code>
+ * system property, <code>0</code> disables the cache.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+public class FSRevisionPropertiesCache {
+
+    private static final int CACHE_SIZE = Integer.getInteger("svnkit.fsfs.revprops.cache", 16384).intValue();
+    private static final int PACKS_CACHE_SIZE = 64;
+    private static final long RACY_INTERVAL = 2000;
+
+    private static final Map<Object, CachedValue> ourProperties = createMap(CACHE_SIZE);
+    private static final Map<Object, CachedValue> ourPacks = createMap(PACKS_CACHE_SIZE);
+    private static final Map<Object, CachedValue> ourGenerations = createMap(PACKS_CACHE_SIZE);
+
+    public static boolean isEnabled() {
+        return CACHE_SIZE > 0;
+    }
+
+    public static long getGeneration(File generationFile) throws SVNException {
+        final long lastModified = generationFile.lastModified();
+        if (lastModified == 0) {
+            return 0;
+        }
+        final long length = generationFile.length();
+        final CachedValue entry = getEntry(ourGenerations, generationFile);
+        if (entry != null && entry.isValid(lastModified, length)) {
+            return ((Long) entry.myValue).longValue();
+        }
+        final long readTime = System.currentTimeMillis();
+        long generation = 0;
+        final String contents = SVNFileUtil.readFile(generationFile).trim();
+        if (contents.length() > 0) {
+            try {
+                generation = Long.parseLong(contents);
+            } catch (NumberFormatException e) {
+                // a partially written file, treat as a change in progress.
+                generation = 1;
+            }
+        }
+        putEntry(ourGenerations, generationFile, new CachedValue(Long.valueOf(generation), 0, lastModified, length, readTime));
+        return generation;
+    }
+
+    public static SVNProperties getProperties(File file, long revision, long generation) {
+        final CachedValue entry = getValidEntry(ourProperties, new RevisionKey(file, revision), file, generation);
+        return entry != null ? new SVNProperties((SVNProperties) entry.myValue) : null;
+    }
+
+    public static void putProperties(File file, long revision, long generation, SVNProperties properties) {
+        putValidEntry(ourProperties, new RevisionKey(file, revision), file, generation, new SVNProperties(properties));
+    }
+
+    public static SVNFSFSPackedRevProps getPack(File packFile, long generation) {
+        final CachedValue entry = getValidEntry(ourPacks, packFile, packFile, generation);
+        return entry != null ? (SVNFSFSPackedRevProps) entry.myValue : null;
+    }
+
+    public static void putPack(File packFile, long generation, SVNFSFSPackedRevProps pack) {
+        putValidEntry(ourPacks, packFile, packFile, generation, pack);
+    }
+
+    public static SVNFSFSPackedRevPropsManifest getManifest(File manifestFile, long generation) {
+        final CachedValue entry = getValidEntry(ourPacks, manifestFile, manifestFile, generation);
+        return entry != null ? (SVNFSFSPackedRevPropsManifest) entry.myValue : null;
+    }
+
+    public static void putManifest(File manifestFile, long generation, SVNFSFSPackedRevPropsManifest manifest) {
+        putValidEntry(ourPacks, manifestFile, manifestFile, generation, manifest);
+    }
+
+    public static void clear() {
+        synchronized (ourProperties) {
+            ourProperties.clear();
+        }
+        synchronized (ourPacks) {
+            ourPacks.clear();
+        }
+        synchronized (ourGenerations) {
+            ourGenerations.clear();
+        }
+    }
+
+    private static CachedValue getValidEntry(Map<Object, CachedValue> map, Object key, File file, long generation) {
+        if (!isEnabled() || generation % 2 != 0) {
+            return null;
+        }
+        final CachedValue entry = getEntry(map, key);
+        if (entry == null || entry.myGeneration != generation || !entry.isValid(file.lastModified(), file.length())) {
+            return null;
+        }
+        return entry;
+    }
+
+    private static void putValidEntry(Map<Object, CachedValue> map, Object key, File file, long generation, Object value) {
+        if (!isEnabled() || generation % 2 != 0) {
+            return;
+        }
+        final long readTime = System.currentTimeMillis();
+        final long lastModified = file.lastModified();
+        if (lastModified == 0) {
+            return;
+        }
+        putEntry(map, key, new CachedValue(value, generation, lastModified, file.length(), readTime));
+    }
+
+    private static CachedValue getEntry(Map<Object, CachedValue> map, Object key) {
+        synchronized (map) {
+            return map.get(key);
+        }
+    }
+
+    private static void putEntry(Map<Object, CachedValue> map, Object key, CachedValue entry) {
+        synchronized (map) {
+            map.put(key, entry);
+        }
+    }
+
+    private static Map<Object, CachedValue> createMap(final int size) {
+        return new LinkedHashMap<Object, CachedValue>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            protected boolean removeEldestEntry(Map.Entry<Object, CachedValue> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    private static class RevisionKey {
+
+        private final File myFile;
+        private final long myRevision;
+
+        public RevisionKey(File file, long revision) {
+            myFile = file;
+            myRevision = revision;
+        }
+
+        public boolean equals(Object o) {
+            if (!(o instanceof RevisionKey)) {
+                return false;
+            }
+            final RevisionKey key = (RevisionKey) o;
+            return myRevision == key.myRevision && myFile.equals(key.myFile);
+        }
+
+        public int hashCode() {
+            return 31 * myFile.hashCode() + (int) (myRevision ^ (myRevision >>> 32));
+        }
+    }
+
+    private static class CachedValue {
+
+        private final Object myValue;
+        private final long myGeneration;
+        private final long myLastModified;
+        private final long myLength;
+        private final boolean myIsRacy;
+
+        public CachedValue(Object value, long generation, long lastModified, long length, long readTime) {
+            myValue = value;
+            myGeneration = generation;
+            myLastModified = lastModified;
+            myLength = length;
+            myIsRacy = readTime - lastModified < RACY_INTERVAL;
+        }
+
+        public boolean isValid(long lastModified, long length) {
+            return !myIsRacy && myLastModified == lastModified && myLength == length;
+        }
+    }
+}
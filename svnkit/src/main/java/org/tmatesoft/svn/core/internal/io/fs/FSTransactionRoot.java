@@ -55,6 +55,8 @@ public class FSTransactionRoot extends FSRoot {
     private File myTxnChangesFile;
     private File myTxnRevFile;
     private long myBaseRevision;
+    private boolean myIsCacheNextIDs;
+    private String[] myNextIDs;
     
     public FSTransactionRoot(FSFS owner, String txnID, long baseRevision, int flags) {
         super(owner);
@@ -497,7 +499,28 @@ public class FSTransactionRoot extends FSRoot {
         }
     }
 
+    // keeps next-ids in memory instead of rewriting the file for every new id;
+    // only valid while this root is the only one modifying the transaction.
+    public void setCacheNextIDs(boolean cache) throws SVNException {
+        if (!cache && myNextIDs != null) {
+            getOwner().writeNextIDs(myTxnID, myNextIDs[0], myNextIDs[1]);
+            myNextIDs = null;
+        }
+        myIsCacheNextIDs = cache;
+    }
+
+    public void writeNextIDs(String nodeID, String copyID) throws SVNException {
+        if (myIsCacheNextIDs) {
+            myNextIDs = new String[] {nodeID, copyID};
+            return;
+        }
+        getOwner().writeNextIDs(myTxnID, nodeID, copyID);
+    }
+
     public String[] readNextIDs() throws SVNException {
+        if (myNextIDs != null) {
+            return new String[] {myNextIDs[0], myNextIDs[1]};
+        }
         String[] ids = new String[2];
         String idsToParse = null;
         FSFile idsFile = new FSFile(getOwner().getNextIDsFile(myTxnID));
@@ -517,6 +540,9 @@ public class FSTransactionRoot extends FSRoot {
 
         ids[0] = idsToParse.substring(0, delimiterInd);
         ids[1] = idsToParse.substring(delimiterInd + 1);
+        if (myIsCacheNextIDs) {
+            myNextIDs = new String[] {ids[0], ids[1]};
+        }
         return ids;
     }
 
@@ -751,7 +777,7 @@ public class FSTransactionRoot extends FSRoot {
         String curNodeId = curIds[0];
         String curCopyId = curIds[1];
         String nextNodeId = FSRepositoryUtil.generateNextKey(curNodeId);
-        getOwner().writeNextIDs(getTxnID(), nextNodeId, curCopyId);
+        writeNextIDs(nextNodeId, curCopyId);
         return "_" + curNodeId;
     }
 
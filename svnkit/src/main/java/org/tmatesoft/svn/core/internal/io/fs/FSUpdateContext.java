@@ -12,8 +12,8 @@
 package org.tmatesoft.svn.core.internal.io.fs;
 
 import java.io.ByteArrayOutputStream;
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
@@ -33,8 +33,8 @@ import org.tmatesoft.svn.core.SVNRevisionProperty;
 import org.tmatesoft.svn.core.internal.delta.SVNDeltaCombiner;
 import org.tmatesoft.svn.core.internal.util.SVNHashMap;
 import org.tmatesoft.svn.core.internal.util.SVNPathUtil;
+import org.tmatesoft.svn.core.internal.util.SVNSpillBuffer;
 import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
-import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.io.ISVNEditor;
 import org.tmatesoft.svn.core.io.SVNLocationEntry;
 import org.tmatesoft.svn.core.io.SVNRepository;
@@ -49,10 +49,13 @@ import org.tmatesoft.svn.util.SVNLogType;
  */
 public class FSUpdateContext {
 
-    private File myReportFile;
+    private static final int REPORT_BLOCK_SIZE = 16 * 1024;
+    private static final long REPORT_MEMORY_SIZE = Long.getLong("svnkit.fsfs.report.memory", 1024 * 1024).longValue();
+
+    private SVNSpillBuffer myReportBuffer;
+    private ByteArrayOutputStream myReportOS;
+    private InputStream myReportIS;
     private String myTarget;
-    private OutputStream myReportOS;
-    private FSFile myReportIS;
     private ISVNEditor myEditor;
     private long myTargetRevision;
     private SVNDepth myDepth;
@@ -69,14 +72,13 @@ public class FSUpdateContext {
     private SVNDeltaGenerator myDeltaGenerator;
     private SVNDeltaCombiner myDeltaCombiner;
 
-    public FSUpdateContext(FSRepository repository, FSFS owner, long revision, File reportFile, 
+    public FSUpdateContext(FSRepository repository, FSFS owner, long revision, 
             String target, String targetPath, boolean isSwitch, SVNDepth depth, 
             boolean ignoreAncestry, boolean textDeltas, boolean sendCopyFromArgs, 
             ISVNEditor editor) {
         myRepository = repository;
         myFSFS = owner;
         myTargetRevision = revision;
-        myReportFile = reportFile;
         myTarget = target;
         myEditor = editor;
         myDepth = depth;
@@ -87,13 +89,12 @@ public class FSUpdateContext {
         mySendCopyFromArgs = sendCopyFromArgs;
     }
 
-    public void reset(FSRepository repository, FSFS owner, long revision, File reportFile, String target, String targetPath, boolean isSwitch, SVNDepth depth, boolean ignoreAncestry,
+    public void reset(FSRepository repository, FSFS owner, long revision, String target, String targetPath, boolean isSwitch, SVNDepth depth, boolean ignoreAncestry,
             boolean textDeltas, boolean sendCopyFrom, ISVNEditor editor) throws SVNException {
         dispose();
         myRepository = repository;
         myFSFS = owner;
         myTargetRevision = revision;
-        myReportFile = reportFile;
         myTarget = target;
         myEditor = editor;
         myDepth = depth;
@@ -108,13 +109,24 @@ public class FSUpdateContext {
         myTargetRoot = root;
     }
 
-    public OutputStream getReportFileForWriting() throws SVNException {
+    private ByteArrayOutputStream getReportForWriting() {
         if (myReportOS == null) {
-            myReportOS = SVNFileUtil.openFileForWriting(myReportFile);
+            myReportOS = new ByteArrayOutputStream();
         }
         return myReportOS;
     }
 
+    private void flushReport() throws SVNException {
+        if (myReportOS == null || myReportOS.size() == 0) {
+            return;
+        }
+        if (myReportBuffer == null) {
+            myReportBuffer = new SVNSpillBuffer(REPORT_BLOCK_SIZE, REPORT_MEMORY_SIZE);
+        }
+        myReportBuffer.write(myReportOS.toByteArray(), 0, myReportOS.size());
+        myReportOS.reset();
+    }
+
     private boolean isIgnoreAncestry() {
         return ignoreAncestry;
     }
@@ -136,17 +148,12 @@ public class FSUpdateContext {
     }
 
     public void dispose() throws SVNException {
-        SVNFileUtil.closeFile(myReportOS);
         myReportOS = null;
+        myReportIS = null;
 
-        if (myReportIS != null) {
-            myReportIS.close();
-            myReportIS = null;
-        }
-
-        if (myReportFile != null) {
-            SVNFileUtil.deleteFile(myReportFile);
-            myReportFile = null;
+        if (myReportBuffer != null) {
+            myReportBuffer.close();
+            myReportBuffer = null;
         }
 
         if (myDeltaCombiner != null) {
@@ -167,12 +174,92 @@ public class FSUpdateContext {
 
     private PathInfo getNextPathInfo() throws IOException, SVNException {
         if (myReportIS == null) {
-            myReportIS = new FSFile(myReportFile);
+            myReportIS = myReportBuffer.createInputStream();
         }
-        myCurrentPathInfo = myReportIS.readPathInfoFromReportFile();
+        myCurrentPathInfo = readPathInfo(myReportIS);
         return myCurrentPathInfo;
     }
 
+    private static PathInfo readPathInfo(InputStream report) throws IOException, SVNException {
+        if (!readFlag(report)) {
+            return null;
+        }
+        String path = readString(report);
+        String linkPath = readFlag(report) ? readString(report) : null;
+        long revision = readFlag(report) ? readNumber(report) : SVNRepository.INVALID_REVISION;
+        SVNDepth depth = SVNDepth.INFINITY;
+        if (readFlag(report)) {
+            int id = report.read();
+            if (id < 0) {
+                throw new IOException("Unexpected end of report");
+            }
+            switch(id) {
+                case 'X':
+                    depth = SVNDepth.EXCLUDE;
+                    break;
+                case 'E':
+                    depth = SVNDepth.EMPTY;
+                    break;
+                case 'F':
+                    depth = SVNDepth.FILES;
+                    break;
+                case 'M':
+                    depth = SVNDepth.IMMEDIATES;
+                    break;
+                default: {
+                    SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.REPOS_BAD_REVISION_REPORT, "Invalid depth ({0}) for path ''{1}''", new Object[]{new Integer(id), path});
+                    SVNErrorManager.error(err, SVNLogType.WC);
+                }
+            }
+        }
+        boolean startEmpty = readFlag(report);
+        String lockToken = readFlag(report) ? readString(report) : null;
+        return new PathInfo(path, linkPath, lockToken, revision, depth, startEmpty);
+    }
+
+    private static boolean readFlag(InputStream report) throws IOException {
+        int b = report.read();
+        if (b == '+') {
+            return true;
+        } else if (b == '-') {
+            return false;
+        } else if (b < 0) {
+            throw new IOException("Unexpected end of report");
+        }
+        throw new IOException("Malformed report");
+    }
+
+    private static String readString(InputStream report) throws IOException {
+        int length = (int) readNumber(report);
+        if (length == 0) {
+            return "";
+        }
+        byte[] buffer = new byte[length];
+        int offset = 0;
+        while (offset < length) {
+            int read = report.read(buffer, offset, length - offset);
+            if (read < 0) {
+                throw new IOException("Unexpected end of report");
+            }
+            offset += read;
+        }
+        return new String(buffer, "UTF-8");
+    }
+
+    private static long readNumber(InputStream report) throws IOException {
+        long number = 0;
+        int b;
+        while ((b = report.read()) != ':') {
+            if (b < 0) {
+                throw new IOException("Unexpected end of report");
+            } else if (b < '0' || b > '9') {
+                throw new IOException("Malformed number in report");
+            }
+            number = number * 10 + (b - '0');
+        }
+        return number;
+    }
+
     private PathInfo getCurrentPathInfo() {
         return myCurrentPathInfo;
     }
@@ -220,16 +307,9 @@ public class FSUpdateContext {
     }
 
     public void drive() throws SVNException {
-        OutputStream reportOS = getReportFileForWriting();
-        try {
-            reportOS.write('-');
-        } catch (IOException ioe) {
-            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, ioe.getLocalizedMessage());
-            SVNErrorManager.error(err, ioe, SVNLogType.FSFS);
-        } finally {
-            SVNFileUtil.closeFile(reportOS);
-            myReportOS = null;
-        }
+        getReportForWriting().write('-');
+        flushReport();
+        myReportOS = null;
 
         PathInfo info = null;
 
@@ -747,15 +827,16 @@ public class FSUpdateContext {
             depthRep = "+" + getDepthLetter(depth);
         } 
         try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            writeSingleString(anchorRelativePath, baos);
-            writeSingleString(linkPath, baos);
-            baos.write(revisionRep.getBytes("UTF-8"));
-            baos.write(depthRep.getBytes("UTF-8"));
-            baos.write(startEmpty ? '+' : '-');
-            writeSingleString(lockToken, baos);
-            OutputStream reportOS = getReportFileForWriting();
-            reportOS.write(baos.toByteArray());
+            ByteArrayOutputStream reportOS = getReportForWriting();
+            writeSingleString(anchorRelativePath, reportOS);
+            writeSingleString(linkPath, reportOS);
+            reportOS.write(revisionRep.getBytes("UTF-8"));
+            reportOS.write(depthRep.getBytes("UTF-8"));
+            reportOS.write(startEmpty ? '+' : '-');
+            writeSingleString(lockToken, reportOS);
+            if (reportOS.size() >= REPORT_BLOCK_SIZE) {
+                flushReport();
+            }
         } catch (IOException ioe) {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, ioe.getLocalizedMessage());
             SVNErrorManager.error(err, ioe, SVNLogType.FSFS);
@@ -0,0 +1,25 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.io.fs;
+
+import org.tmatesoft.svn.core.SVNException;
+
+
+/**
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+public interface IFSDirEntryHandler {
+
+    public void handleDirEntry(FSEntry entry) throws SVNException;
+
+}
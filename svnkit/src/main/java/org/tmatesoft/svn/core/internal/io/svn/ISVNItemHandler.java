@@ -0,0 +1,26 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.io.svn;
+
+import org.tmatesoft.svn.core.SVNException;
+
+/**
+ * Receives the items of a protocol list one by one, as they are read.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+public interface ISVNItemHandler {
+
+    public void handleItem(SVNItem item) throws SVNException;
+
+}
@@ -32,6 +32,8 @@ import org.tmatesoft.svn.core.auth.SVNAuthentication;
 import org.tmatesoft.svn.core.internal.util.SVNHashSet;
 import org.tmatesoft.svn.core.internal.wc.SVNClassLoader;
 import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.util.ISVNDebugLog;
+import org.tmatesoft.svn.util.SVNDebugLog;
 import org.tmatesoft.svn.util.SVNLogType;
 
 /**
@@ -133,7 +135,7 @@ public class SVNConnection {
         try {
             items = SVNReader.parse(is, "nnll", null);
         } finally {
-            myRepository.getDebugLog().flushStream(myLoggingInputStream);
+            getDebugLog().flushStream(myLoggingInputStream);
         }
         Long minVer = (Long) items.get(0);
         Long maxVer = (Long) items.get(1);
@@ -278,7 +280,19 @@ public class SVNConnection {
             handleIOError(e, readMalformedData);
             return null;
         } finally {
-            myRepository.getDebugLog().flushStream(myLoggingInputStream);
+            getDebugLog().flushStream(myLoggingInputStream);
+        }
+    }
+
+    public List readStreaming(String template, ISVNItemHandler handler, boolean readMalformedData) throws SVNException {
+        try {
+            checkConnection();
+            return SVNReader.parseStreaming(getInputStream(), template, handler);
+        } catch (SVNException e) {
+            handleIOError(e, readMalformedData);
+            return null;
+        } finally {
+            getDebugLog().flushStream(myLoggingInputStream);
         }
     }
 
@@ -290,7 +304,7 @@ public class SVNConnection {
             handleIOError(e, readMalformedData);
             return null;
         } finally {
-            myRepository.getDebugLog().flushStream(myLoggingInputStream);
+            getDebugLog().flushStream(myLoggingInputStream);
         }        
     }
 
@@ -302,7 +316,7 @@ public class SVNConnection {
             handleIOError(e, readMalformedData);
             return null;
         } finally {
-            myRepository.getDebugLog().flushStream(myLoggingInputStream);
+            getDebugLog().flushStream(myLoggingInputStream);
         }
     }
 
@@ -326,7 +340,7 @@ public class SVNConnection {
             buffer = new Object[]{new Long(error.getErrorCode().getCode()), message, "", new Integer(0)};
             write("(nssn)", buffer);
         }
-        write(")", null);
+        write("))", null);
     }
     
     public void write(String template, Object[] items) throws SVNException {
@@ -340,7 +354,7 @@ public class SVNConnection {
             } catch (SVNException e) {
                 //
             }
-            myRepository.getDebugLog().flushStream(getOutputStream());
+            getDebugLog().flushStream(getOutputStream());
         }
     }
     
@@ -390,7 +404,7 @@ public class SVNConnection {
     OutputStream getOutputStream() throws SVNException {
         if (myOutputStream == null) {
             try {
-                myOutputStream = myRepository.getDebugLog().createLogStream(SVNLogType.NETWORK, myConnector.getOutputStream());
+                myOutputStream = getDebugLog().createLogStream(SVNLogType.NETWORK, myConnector.getOutputStream());
             } catch (IOException e) {
                 SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_SVN_IO_ERROR, e.getMessage()), e, SVNLogType.NETWORK);
             }
@@ -402,7 +416,7 @@ public class SVNConnection {
         if (myInputStream == null) {
             try {
                 InputStream is = myConnector.getInputStream();
-                myInputStream = myRepository.getDebugLog().createLogStream(SVNLogType.NETWORK, is); 
+                myInputStream = getDebugLog().createLogStream(SVNLogType.NETWORK, is); 
                 myLoggingInputStream = myInputStream;
             } catch (IOException e) {
                 SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_SVN_IO_ERROR, e.getMessage()), e, SVNLogType.NETWORK);
@@ -413,14 +427,14 @@ public class SVNConnection {
     
     void setOutputStream(OutputStream os) {
         if (myOutputStream != null) {
-            myRepository.getDebugLog().flushStream(myOutputStream);
+            getDebugLog().flushStream(myOutputStream);
         }
         myOutputStream = os;
     }
 
     void setInputStream(InputStream is) {
         if (myLoggingInputStream != null) {            
-            myRepository.getDebugLog().flushStream(myLoggingInputStream);
+            getDebugLog().flushStream(myLoggingInputStream);
         }
         myInputStream = is;
         myLoggingInputStream = is;
@@ -429,4 +443,9 @@ public class SVNConnection {
     ISVNConnector getConnector() {
         return myConnector;
     }
+
+    private ISVNDebugLog getDebugLog() {
+        // server side connections are not bound to a repository.
+        return myRepository != null ? myRepository.getDebugLog() : SVNDebugLog.getDefaultLog();
+    }
 }
\ No newline at end of file
@@ -253,6 +253,76 @@ public class SVNReader {
         return null;
     }
 
+    /**
+     * Parses a command response whose parameters are the items described by the flat
+     * <code>template</code> followed by a list. Items of that list are passed to
+     * <code>handler</code> as soon as each of them is read, instead of being collected.
+     */
+    public static List parseStreaming(InputStream is, String template, ISVNItemHandler handler) throws SVNException {
+        readListStart(is);
+        final SVNItem status = readItem(is);
+        if (status.getKind() != SVNItem.WORD) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA);
+            SVNErrorManager.error(err, SVNLogType.NETWORK);
+        }
+        if (!"success".equals(status.getWord())) {
+            final SVNItem parameters = readItem(is);
+            readListEnd(is);
+            if ("failure".equals(status.getWord()) && parameters.getKind() == SVNItem.LIST) {
+                handleFailureStatus(new ArrayList(parameters.getItems()));
+            }
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA, "Unknown status ''{0}'' in command response", status.getWord());
+            SVNErrorManager.error(err, SVNLogType.NETWORK);
+        }
+        readListStart(is);
+        final List leadingItems = new ArrayList();
+        for (int i = 0; i < template.length(); i++) {
+            if (template.charAt(i) == '?') {
+                continue;
+            }
+            final char ch = skipWhiteSpace(is);
+            if (ch == ')') {
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA);
+                SVNErrorManager.error(err, SVNLogType.NETWORK);
+            }
+            leadingItems.add(readItem(is, null, ch));
+        }
+        readListStart(is);
+        for (char ch = skipWhiteSpace(is); ch != ')'; ch = skipWhiteSpace(is)) {
+            handler.handleItem(readItem(is, null, ch));
+        }
+        readWhiteSpace(is);
+        for (char ch = skipWhiteSpace(is); ch != ')'; ch = skipWhiteSpace(is)) {
+            // parameters this client does not know about.
+            readItem(is, null, ch);
+        }
+        readWhiteSpace(is);
+        readListEnd(is);
+        return parseTuple(template, leadingItems, null);
+    }
+
+    private static void readListStart(InputStream is) throws SVNException {
+        if (skipWhiteSpace(is) != '(') {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA);
+            SVNErrorManager.error(err, SVNLogType.NETWORK);
+        }
+    }
+
+    private static void readListEnd(InputStream is) throws SVNException {
+        if (skipWhiteSpace(is) != ')') {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA);
+            SVNErrorManager.error(err, SVNLogType.NETWORK);
+        }
+        readWhiteSpace(is);
+    }
+
+    private static void readWhiteSpace(InputStream is) throws SVNException {
+        if (!Character.isWhitespace(readChar(is))) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA);
+            SVNErrorManager.error(err, SVNLogType.NETWORK);
+        }
+    }
+
     public static void handleFailureStatus(List list) throws SVNException {
         if (list.size() == 0) {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA, "Empty error list");
@@ -454,18 +454,13 @@ public class SVNRepositoryImpl extends SVNRepository implements ISVNReporter {
                             null};
             write("(w(s(n)ww(*w)))", buffer);
             authenticate();
-            List values = read("rll", null, false);
-            revision = values.get(0) != null ? SVNReader.getLong(values, 0) : revision;
-
-            if (properties != null) {
-                SVNReader.getProperties(values, 1, properties);
-            }
-
-            if (handler != null) {
-                SVNURL repositoryRoot = getRepositoryRoot(false);
-                List dirents = (List) values.get(2);
-                for (Iterator iterator = dirents.iterator(); iterator.hasNext();) {
-                    SVNItem item = (SVNItem) iterator.next();
+            final SVNURL repositoryRoot = handler != null ? getRepositoryRoot(false) : null;
+            // dirents are passed to the handler as they are read, the listing is never held in memory.
+            List values = readStreaming("rl", new ISVNItemHandler() {
+                public void handleItem(SVNItem item) throws SVNException {
+                    if (handler == null) {
+                        return;
+                    }
                     if (item.getKind() != SVNItem.LIST) {
                         SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA, "Dirlist element not a list");
                         SVNErrorManager.error(err, SVNLogType.NETWORK);
@@ -481,6 +476,11 @@ public class SVNRepositoryImpl extends SVNRepository implements ISVNReporter {
                     handler.handleDirEntry(new SVNDirEntry(url.appendPath(name, false), repositoryRoot,
                             "".equals(name) ? SVNPathUtil.tail(url.getPath()) : name, kind, size, hasProps, createdRevision, createdDate, lastAuthor));
                 }
+            }, false);
+            revision = values.get(0) != null ? SVNReader.getLong(values, 0) : revision;
+
+            if (properties != null) {
+                SVNReader.getProperties(values, 1, properties);
             }
         } catch (SVNException e) {
             closeSession();
@@ -1311,6 +1311,13 @@ public class SVNRepositoryImpl extends SVNRepository implements ISVNReporter {
         return myConnection.read(template, values, readMalformedData);
     }
 
+    private List readStreaming(String template, ISVNItemHandler handler, boolean readMalformedData) throws SVNException {
+        if (myConnection == null) {
+            SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_SVN_CONNECTION_CLOSED), SVNLogType.NETWORK);
+        }
+        return myConnection.readStreaming(template, handler, readMalformedData);
+    }
+
     private SVNItem readItem(boolean readMalformedData) throws SVNException {
         if (myConnection == null) {
             SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_SVN_CONNECTION_CLOSED), SVNLogType.NETWORK);
@@ -1679,7 +1686,7 @@ public class SVNRepositoryImpl extends SVNRepository implements ISVNReporter {
             Object[] buffer = new Object[] { "get-deleted-rev", path, srev, erev };
             write("(w(snn))", buffer);
             authenticate();
-            List<?> values = read("r", null, false);
+            List<?> values = read("?r", null, false);
             return SVNReader.getLong(values, 0);
         } catch (SVNException e) {
             closeSession();
@@ -0,0 +1,440 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.server.svn;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.io.fs.FSRepositoryFactory;
+import org.tmatesoft.svn.core.internal.util.SVNHashMap;
+import org.tmatesoft.svn.core.internal.util.SVNHashSet;
+import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.util.SVNDebugLog;
+import org.tmatesoft.svn.util.SVNLogType;
+import org.tmatesoft.svn.util.SVNMetrics;
+
+/**
+ * Serves FSFS repositories under a root directory over the <code>svn://</code> protocol.
+ *
+ * <p/>
+ * Connections are accepted and watched by a single selector thread. When a client sends
+ * a command, its connection is handed to a fixed pool of worker threads which runs the
+ * command against the repository and returns the connection to the selector once the
+ * client has nothing more pending, so idle connections do not hold threads. Repositories
+ * are opened per connection, revision property caches of FSFS are shared by all of them.
+ *
+ * <p/>
+ * A server is configured with setters and then started with {@link #start()}:
+ * <pre class="javacode">
+ *     SVNServer server = new SVNServer(new File("/var/svn"));
+ *     server.setPort(3690);
+ *     server.setAnonymousAccess(SVNServer.ACCESS_READ);
+ *     server.start();
+ * </pre>
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ * @since   1.9
+ */
+public class SVNServer {
+
+    public static final int DEFAULT_PORT = 3690;
+
+    public static final int ACCESS_NONE = 0;
+    public static final int ACCESS_READ = 1;
+    public static final int ACCESS_WRITE = 2;
+
+    private static final long IDLE_CHECK_INTERVAL = 1000;
+
+    private final File myRoot;
+    private String myHost;
+    private int myPort = DEFAULT_PORT;
+    private int myMaxConnections = 256;
+    private int myWorkerThreads = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private long myIdleTimeout = 10 * 60 * 1000;
+    private int myReadTimeout = 60 * 1000;
+    private int myWriteTimeout = 60 * 1000;
+    private int myAnonymousAccess = ACCESS_NONE;
+    private int myAuthenticatedAccess = ACCESS_WRITE;
+    private Map myUsers = Collections.EMPTY_MAP;
+    private String myRealm;
+
+    private ServerSocketChannel myServerChannel;
+    private Selector mySelector;
+    private ExecutorService myWorkers;
+    private Thread mySelectorThread;
+    private final Queue<SVNServerSession> myReleasedSessions = new ConcurrentLinkedQueue<SVNServerSession>();
+    private final Set mySessions = Collections.synchronizedSet(new SVNHashSet());
+    private final AtomicInteger myConnectionsCount = new AtomicInteger();
+    private volatile boolean myIsRunning;
+
+    public SVNServer(File root) {
+        myRoot = root.getAbsoluteFile();
+    }
+
+    public static int parseAccess(String access) throws SVNException {
+        if ("none".equals(access)) {
+            return ACCESS_NONE;
+        } else if ("read".equals(access)) {
+            return ACCESS_READ;
+        } else if ("write".equals(access)) {
+            return ACCESS_WRITE;
+        }
+        SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.BAD_CONFIG_VALUE, "Invalid access value ''{0}'', expected one of ''none'', ''read'' or ''write''", access);
+        SVNErrorManager.error(err, SVNLogType.NETWORK);
+        return ACCESS_NONE;
+    }
+
+    public File getRoot() {
+        return myRoot;
+    }
+
+    /**
+     * Sets the address to listen on, <code>null</code> to listen on all interfaces.
+     */
+    public void setHost(String host) {
+        myHost = host;
+    }
+
+    /**
+     * Sets the port to listen on, <code>0</code> to let the system choose one; the actual
+     * port is returned by {@link #getPort()} once the server is started.
+     */
+    public void setPort(int port) {
+        myPort = port;
+    }
+
+    public int getPort() {
+        if (myServerChannel != null) {
+            return myServerChannel.socket().getLocalPort();
+        }
+        return myPort;
+    }
+
+    /**
+     * Sets the number of connections served at once, further connections are closed
+     * as soon as they are accepted.
+     */
+    public void setMaxConnections(int maxConnections) {
+        myMaxConnections = maxConnections;
+    }
+
+    /**
+     * Sets the number of threads that run client commands.
+     */
+    public void setWorkerThreads(int workerThreads) {
+        myWorkerThreads = workerThreads;
+    }
+
+    /**
+     * Sets the time in milliseconds after which connections without commands are closed,
+     * <code>0</code> to keep them open.
+     */
+    public void setIdleTimeout(long idleTimeout) {
+        myIdleTimeout = idleTimeout;
+    }
+
+    /**
+     * Sets the time in milliseconds a worker waits for the rest of a started command or
+     * report before the connection is closed. A command has to be read completely within
+     * this time, however slowly its bytes arrive.
+     */
+    public void setReadTimeout(int readTimeout) {
+        myReadTimeout = readTimeout;
+    }
+
+    /**
+     * Sets the time in milliseconds a worker may be blocked writing a response to a client
+     * that does not read it before the connection is closed, <code>0</code> to wait forever.
+     */
+    public void setWriteTimeout(int writeTimeout) {
+        myWriteTimeout = writeTimeout;
+    }
+
+    /**
+     * Sets the access of clients that do not authenticate, {@link #ACCESS_NONE} by default.
+     */
+    public void setAnonymousAccess(int access) {
+        myAnonymousAccess = access;
+    }
+
+    public void setAuthenticatedAccess(int access) {
+        myAuthenticatedAccess = access;
+    }
+
+    /**
+     * Sets users allowed to authenticate with <code>CRAM-MD5</code>, maps user names to passwords.
+     */
+    public void setUsers(Map users) {
+        myUsers = users == null ? Collections.EMPTY_MAP : new SVNHashMap(users);
+    }
+
+    public void setRealm(String realm) {
+        myRealm = realm;
+    }
+
+    public String getRealm() {
+        return myRealm;
+    }
+
+    public int getConnectionsCount() {
+        return myConnectionsCount.get();
+    }
+
+    public boolean isRunning() {
+        return myIsRunning;
+    }
+
+    public synchronized void start() throws SVNException {
+        if (myIsRunning) {
+            return;
+        }
+        FSRepositoryFactory.setup();
+        try {
+            mySelector = Selector.open();
+            myServerChannel = ServerSocketChannel.open();
+            myServerChannel.socket().setReuseAddress(true);
+            InetSocketAddress address = myHost != null ? new InetSocketAddress(myHost, myPort) : new InetSocketAddress(myPort);
+            myServerChannel.socket().bind(address);
+            myServerChannel.configureBlocking(false);
+            myServerChannel.register(mySelector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            closeChannels();
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_IO_ERROR, "Can not listen on port {0}: {1}",
+                    new Object[] {String.valueOf(myPort), e.getMessage()});
+            SVNErrorManager.error(err, e, SVNLogType.NETWORK);
+        }
+        myWorkers = Executors.newFixedThreadPool(Math.max(1, myWorkerThreads), new ThreadFactory() {
+            private final AtomicInteger myCount = new AtomicInteger();
+
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "svnserve-worker-" + myCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        myIsRunning = true;
+        mySelectorThread = new Thread(new Runnable() {
+            public void run() {
+                select();
+            }
+        }, "svnserve-selector-" + getPort());
+        mySelectorThread.setDaemon(true);
+        mySelectorThread.start();
+    }
+
+    public void stop() {
+        synchronized (this) {
+            if (!myIsRunning) {
+                return;
+            }
+            myIsRunning = false;
+        }
+        mySelector.wakeup();
+        try {
+            mySelectorThread.join(IDLE_CHECK_INTERVAL * 5);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        myWorkers.shutdownNow();
+        List sessions;
+        synchronized (mySessions) {
+            sessions = new ArrayList(mySessions);
+        }
+        for (Iterator iterator = sessions.iterator(); iterator.hasNext();) {
+            closeSession((SVNServerSession) iterator.next());
+        }
+        try {
+            myWorkers.awaitTermination(IDLE_CHECK_INTERVAL * 5, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        closeChannels();
+    }
+
+    int getAccess(String userName) {
+        return userName == null ? myAnonymousAccess : myAuthenticatedAccess;
+    }
+
+    boolean hasUsers() {
+        return !myUsers.isEmpty() && myAuthenticatedAccess > ACCESS_NONE;
+    }
+
+    String getPassword(String userName) {
+        return (String) myUsers.get(userName);
+    }
+
+    void releaseSession(SVNServerSession session) {
+        if (!myIsRunning) {
+            closeSession(session);
+            return;
+        }
+        myReleasedSessions.add(session);
+        mySelector.wakeup();
+    }
+
+    void closeSession(SVNServerSession session) {
+        if (mySessions.remove(session)) {
+            myConnectionsCount.decrementAndGet();
+            SVNMetrics.count(SVNLogType.NETWORK, "svnserve.connections", -1);
+        }
+        session.close();
+    }
+
+    private void select() {
+        long lastIdleCheck = System.currentTimeMillis();
+        try {
+            while (myIsRunning) {
+                mySelector.select(IDLE_CHECK_INTERVAL);
+                for (Iterator keys = mySelector.selectedKeys().iterator(); keys.hasNext();) {
+                    SelectionKey key = (SelectionKey) keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else if (key.isReadable()) {
+                        dispatch(key);
+                    }
+                }
+                for (SVNServerSession session = myReleasedSessions.poll(); session != null; session = myReleasedSessions.poll()) {
+                    register(session);
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastIdleCheck >= IDLE_CHECK_INTERVAL) {
+                    lastIdleCheck = now;
+                    if (myIdleTimeout > 0) {
+                        closeIdleSessions(now);
+                    }
+                    closeStalledSessions(now);
+                }
+            }
+        } catch (IOException e) {
+            SVNDebugLog.getDefaultLog().logError(SVNLogType.NETWORK, e);
+        } catch (ClosedSelectorException e) {
+            //
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = myServerChannel.accept();
+        if (channel == null) {
+            return;
+        }
+        if (myConnectionsCount.get() >= myMaxConnections) {
+            SVNDebugLog.getDefaultLog().logFine(SVNLogType.NETWORK, "svnserve: too many connections, closing " + channel.socket().getRemoteSocketAddress());
+            channel.close();
+            return;
+        }
+        channel.socket().setTcpNoDelay(true);
+        channel.socket().setSoTimeout(myReadTimeout);
+        SVNServerSession session = new SVNServerSession(this, channel);
+        mySessions.add(session);
+        myConnectionsCount.incrementAndGet();
+        SVNMetrics.count(SVNLogType.NETWORK, "svnserve.connections", 1);
+        // the server speaks first, so the session goes to a worker right away.
+        submit(session);
+    }
+
+    private void dispatch(SelectionKey key) throws IOException {
+        SVNServerSession session = (SVNServerSession) key.attachment();
+        // a channel has to be deregistered before it can be switched to blocking mode.
+        key.cancel();
+        mySelector.selectNow();
+        submit(session);
+    }
+
+    private void register(SVNServerSession session) {
+        SocketChannel channel = session.getChannel();
+        try {
+            channel.configureBlocking(false);
+            channel.register(mySelector, SelectionKey.OP_READ, session);
+        } catch (IOException e) {
+            closeSession(session);
+        }
+    }
+
+    private void submit(SVNServerSession session) {
+        try {
+            myWorkers.execute(session);
+        } catch (RejectedExecutionException e) {
+            closeSession(session);
+        }
+    }
+
+    private void closeIdleSessions(long now) {
+        for (Iterator keys = mySelector.keys().iterator(); keys.hasNext();) {
+            SelectionKey key = (SelectionKey) keys.next();
+            SVNServerSession session = (SVNServerSession) key.attachment();
+            if (session != null && key.isValid() && now - session.getLastActivity() > myIdleTimeout) {
+                key.cancel();
+                closeSession(session);
+            }
+        }
+    }
+
+    private void closeStalledSessions(long now) {
+        List sessions;
+        synchronized (mySessions) {
+            sessions = new ArrayList(mySessions);
+        }
+        for (Iterator iterator = sessions.iterator(); iterator.hasNext();) {
+            SVNServerSession session = (SVNServerSession) iterator.next();
+            if (session.isStalled(now, myReadTimeout, myWriteTimeout)) {
+                // closing the channel wakes up the worker blocked on it.
+                SVNDebugLog.getDefaultLog().logFine(SVNLogType.NETWORK, "svnserve: closing stalled connection " + session.getChannel().socket().getRemoteSocketAddress());
+                closeSession(session);
+            }
+        }
+    }
+
+    private void closeChannels() {
+        try {
+            if (myServerChannel != null) {
+                myServerChannel.close();
+            }
+        } catch (IOException e) {
+            //
+        }
+        try {
+            if (mySelector != null) {
+                mySelector.close();
+            }
+        } catch (IOException e) {
+            //
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.server.svn;
+
+import java.io.OutputStream;
+
+import org.tmatesoft.svn.core.SVNCommitInfo;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNPropertyValue;
+import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+
+/**
+ * Drives a repository commit editor with the edit commands of the client and keeps
+ * the result of <code>closeEdit()</code>, which <code>SVNEditModeReader</code> does not return.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+class SVNServerCommitEditor implements ISVNEditor {
+
+    private final ISVNEditor myDelegate;
+    private SVNCommitInfo myCommitInfo;
+
+    public SVNServerCommitEditor(ISVNEditor delegate) {
+        myDelegate = delegate;
+    }
+
+    public SVNCommitInfo getCommitInfo() {
+        return myCommitInfo;
+    }
+
+    public void targetRevision(long revision) throws SVNException {
+        myDelegate.targetRevision(revision);
+    }
+
+    public void openRoot(long revision) throws SVNException {
+        myDelegate.openRoot(revision);
+    }
+
+    public void deleteEntry(String path, long revision) throws SVNException {
+        myDelegate.deleteEntry(path, revision);
+    }
+
+    public void absentDir(String path) throws SVNException {
+        myDelegate.absentDir(path);
+    }
+
+    public void absentFile(String path) throws SVNException {
+        myDelegate.absentFile(path);
+    }
+
+    public void addDir(String path, String copyFromPath, long copyFromRevision) throws SVNException {
+        myDelegate.addDir(path, copyFromPath, copyFromRevision);
+    }
+
+    public void openDir(String path, long revision) throws SVNException {
+        myDelegate.openDir(path, revision);
+    }
+
+    public void changeDirProperty(String name, SVNPropertyValue value) throws SVNException {
+        myDelegate.changeDirProperty(name, value);
+    }
+
+    public void closeDir() throws SVNException {
+        myDelegate.closeDir();
+    }
+
+    public void addFile(String path, String copyFromPath, long copyFromRevision) throws SVNException {
+        myDelegate.addFile(path, copyFromPath, copyFromRevision);
+    }
+
+    public void openFile(String path, long revision) throws SVNException {
+        myDelegate.openFile(path, revision);
+    }
+
+    public void changeFileProperty(String path, String propertyName, SVNPropertyValue propertyValue) throws SVNException {
+        myDelegate.changeFileProperty(path, propertyName, propertyValue);
+    }
+
+    public void closeFile(String path, String textChecksum) throws SVNException {
+        myDelegate.closeFile(path, textChecksum);
+    }
+
+    public void applyTextDelta(String path, String baseChecksum) throws SVNException {
+        myDelegate.applyTextDelta(path, baseChecksum);
+    }
+
+    public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+        return myDelegate.textDeltaChunk(path, diffWindow);
+    }
+
+    public void textDeltaEnd(String path) throws SVNException {
+        myDelegate.textDeltaEnd(path);
+    }
+
+    public SVNCommitInfo closeEdit() throws SVNException {
+        myCommitInfo = myDelegate.closeEdit();
+        return myCommitInfo;
+    }
+
+    public void abortEdit() throws SVNException {
+        myDelegate.abortEdit();
+    }
+}
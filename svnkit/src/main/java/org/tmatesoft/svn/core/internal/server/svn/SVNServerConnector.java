@@ -0,0 +1,193 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.server.svn;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.SocketChannel;
+
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.io.svn.ISVNConnector;
+import org.tmatesoft.svn.core.internal.io.svn.SVNRepositoryImpl;
+
+/**
+ * Server side end of an ra_svn connection.
+ *
+ * <p/>
+ * <code>SVNConnection</code> flushes its output after every tuple. Here that flush
+ * only marks the data as ready, and the buffer is written to the socket when the
+ * connection is about to wait for input or when a command is complete, so that
+ * pipelined responses are sent with a few writes.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+class SVNServerConnector implements ISVNConnector {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final SocketChannel myChannel;
+    private BufferedOutputStream myOutputStream;
+    private ServerInputStream myInputStream;
+    private volatile long myCommandStarted;
+    private volatile long myWriteStarted;
+
+    public SVNServerConnector(SocketChannel channel) {
+        myChannel = channel;
+    }
+
+    public SocketChannel getChannel() {
+        return myChannel;
+    }
+
+    public void open(SVNRepositoryImpl repository) throws SVNException {
+    }
+
+    public void handleExceptionOnOpen(SVNRepositoryImpl repository, SVNException exception) throws SVNException {
+        throw exception;
+    }
+
+    public boolean isConnected(SVNRepositoryImpl repository) throws SVNException {
+        return true;
+    }
+
+    public void close(SVNRepositoryImpl repository) throws SVNException {
+        try {
+            myChannel.close();
+        } catch (IOException e) {
+            //
+        }
+    }
+
+    public boolean isStale() {
+        return false;
+    }
+
+    public OutputStream getOutputStream() throws IOException {
+        if (myOutputStream == null) {
+            // socket streams of a channel honour SO_TIMEOUT, channel streams do not.
+            myOutputStream = new BufferedOutputStream(new TimedOutputStream(myChannel.socket().getOutputStream()), BUFFER_SIZE);
+        }
+        return new OutputStream() {
+            public void write(int b) throws IOException {
+                myOutputStream.write(b);
+            }
+
+            public void write(byte[] b, int off, int len) throws IOException {
+                myOutputStream.write(b, off, len);
+            }
+
+            public void flush() {
+            }
+        };
+    }
+
+    public InputStream getInputStream() throws IOException {
+        if (myInputStream == null) {
+            myInputStream = new ServerInputStream(myChannel.socket().getInputStream());
+        }
+        return myInputStream;
+    }
+
+    public void flush() throws IOException {
+        if (myOutputStream != null) {
+            myOutputStream.flush();
+        }
+    }
+
+    public boolean hasBufferedInput() {
+        return myInputStream != null && myInputStream.hasBufferedInput();
+    }
+
+    /**
+     * Marks the start of reading a command, the mark is cleared with {@link #commandRead()}.
+     */
+    public void startCommand() {
+        myCommandStarted = System.currentTimeMillis();
+    }
+
+    public void commandRead() {
+        myCommandStarted = 0;
+    }
+
+    /**
+     * Tells whether a command has been read for longer than <code>readTimeout</code>, or a
+     * write has been blocked for longer than <code>writeTimeout</code>. The read timeout of
+     * the socket bounds a single read only, so a client sending a command byte by byte
+     * could otherwise hold a worker for good.
+     */
+    public boolean isStalled(long now, long readTimeout, long writeTimeout) {
+        final long commandStarted = myCommandStarted;
+        final long writeStarted = myWriteStarted;
+        return (readTimeout > 0 && commandStarted > 0 && now - commandStarted > readTimeout) ||
+                (writeTimeout > 0 && writeStarted > 0 && now - writeStarted > writeTimeout);
+    }
+
+    private class TimedOutputStream extends OutputStream {
+
+        private final OutputStream myDelegate;
+
+        public TimedOutputStream(OutputStream delegate) {
+            myDelegate = delegate;
+        }
+
+        public void write(int b) throws IOException {
+            myWriteStarted = System.currentTimeMillis();
+            try {
+                myDelegate.write(b);
+            } finally {
+                myWriteStarted = 0;
+            }
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException {
+            myWriteStarted = System.currentTimeMillis();
+            try {
+                myDelegate.write(b, off, len);
+            } finally {
+                myWriteStarted = 0;
+            }
+        }
+
+        public void flush() throws IOException {
+            myDelegate.flush();
+        }
+    }
+
+    private class ServerInputStream extends BufferedInputStream {
+
+        public ServerInputStream(InputStream in) {
+            super(in, BUFFER_SIZE);
+        }
+
+        public synchronized int read() throws IOException {
+            if (pos >= count) {
+                flush();
+            }
+            return super.read();
+        }
+
+        public synchronized int read(byte[] b, int off, int len) throws IOException {
+            if (pos >= count) {
+                flush();
+            }
+            return super.read(b, off, len);
+        }
+
+        public synchronized boolean hasBufferedInput() {
+            return pos < count;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.server.svn;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.Stack;
+
+import org.tmatesoft.svn.core.SVNCommitInfo;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNPropertyValue;
+import org.tmatesoft.svn.core.internal.io.svn.SVNConnection;
+import org.tmatesoft.svn.core.internal.util.SVNHashMap;
+import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+import org.tmatesoft.svn.util.SVNLogType;
+
+/**
+ * Sends editor calls of update, switch, status, diff and replay reports to
+ * the client as ra_svn edit commands; the client applies them with
+ * <code>SVNEditModeReader</code>.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+class SVNServerEditor implements ISVNEditor {
+
+    private final SVNConnection myConnection;
+    private final boolean myIsSVNDiff1;
+    private final boolean myIsForReplay;
+    private final Stack myDirTokens;
+    private final Map myFileTokens;
+    private int myNextToken;
+    private int myDiffWindowCount;
+
+    public SVNServerEditor(SVNConnection connection, boolean svnDiff1, boolean forReplay) {
+        myConnection = connection;
+        myIsSVNDiff1 = svnDiff1;
+        myIsForReplay = forReplay;
+        myDirTokens = new Stack();
+        myFileTokens = new SVNHashMap();
+    }
+
+    public void targetRevision(long revision) throws SVNException {
+        myConnection.write("(w(n))", new Object[] {"target-rev", new Long(revision)});
+    }
+
+    public void openRoot(long revision) throws SVNException {
+        String token = "d" + myNextToken++;
+        myConnection.write("(w((n)s))", new Object[] {"open-root", getRevisionObject(revision), token});
+        myDirTokens.push(token);
+    }
+
+    public void deleteEntry(String path, long revision) throws SVNException {
+        myConnection.write("(w(s(n)s))", new Object[] {"delete-entry", path, getRevisionObject(revision), myDirTokens.peek()});
+    }
+
+    public void absentDir(String path) throws SVNException {
+        myConnection.write("(w(ss))", new Object[] {"absent-dir", path, myDirTokens.peek()});
+    }
+
+    public void absentFile(String path) throws SVNException {
+        myConnection.write("(w(ss))", new Object[] {"absent-file", path, myDirTokens.peek()});
+    }
+
+    public void addDir(String path, String copyFromPath, long copyFromRevision) throws SVNException {
+        String token = "d" + myNextToken++;
+        myConnection.write("(w(sss(sn)))", new Object[] {"add-dir", path, myDirTokens.peek(), token,
+                copyFromPath, copyFromPath != null ? getRevisionObject(copyFromRevision) : null});
+        myDirTokens.push(token);
+    }
+
+    public void openDir(String path, long revision) throws SVNException {
+        String token = "d" + myNextToken++;
+        myConnection.write("(w(sss(n)))", new Object[] {"open-dir", path, myDirTokens.peek(), token, getRevisionObject(revision)});
+        myDirTokens.push(token);
+    }
+
+    public void changeDirProperty(String name, SVNPropertyValue value) throws SVNException {
+        myConnection.write("(w(ss(b)))", new Object[] {"change-dir-prop", myDirTokens.peek(), name,
+                SVNPropertyValue.getPropertyAsBytes(value)});
+    }
+
+    public void closeDir() throws SVNException {
+        myConnection.write("(w(s))", new Object[] {"close-dir", myDirTokens.pop()});
+    }
+
+    public void addFile(String path, String copyFromPath, long copyFromRevision) throws SVNException {
+        String token = "c" + myNextToken++;
+        myConnection.write("(w(sss(sn)))", new Object[] {"add-file", path, myDirTokens.peek(), token,
+                copyFromPath, copyFromPath != null ? getRevisionObject(copyFromRevision) : null});
+        myFileTokens.put(path, token);
+    }
+
+    public void openFile(String path, long revision) throws SVNException {
+        String token = "c" + myNextToken++;
+        myConnection.write("(w(sss(n)))", new Object[] {"open-file", path, myDirTokens.peek(), token, getRevisionObject(revision)});
+        myFileTokens.put(path, token);
+    }
+
+    public void applyTextDelta(String path, String baseChecksum) throws SVNException {
+        myDiffWindowCount = 0;
+        myConnection.write("(w(s(s)))", new Object[] {"apply-textdelta", getFileToken(path), baseChecksum});
+    }
+
+    public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+        try {
+            diffWindow.writeTo(myConnection.getDeltaStream(getFileToken(path)), myDiffWindowCount == 0, myIsSVNDiff1);
+            myDiffWindowCount++;
+        } catch (IOException e) {
+            SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_SVN_IO_ERROR, e.getMessage()), e, SVNLogType.NETWORK);
+        }
+        return SVNFileUtil.DUMMY_OUT;
+    }
+
+    public void textDeltaEnd(String path) throws SVNException {
+        myDiffWindowCount = 0;
+        myConnection.write("(w(s))", new Object[] {"textdelta-end", getFileToken(path)});
+    }
+
+    public void changeFileProperty(String path, String propertyName, SVNPropertyValue propertyValue) throws SVNException {
+        myConnection.write("(w(ss(b)))", new Object[] {"change-file-prop", getFileToken(path), propertyName,
+                SVNPropertyValue.getPropertyAsBytes(propertyValue)});
+    }
+
+    public void closeFile(String path, String textChecksum) throws SVNException {
+        String token = getFileToken(path);
+        myFileTokens.remove(path);
+        myConnection.write("(w(s(s)))", new Object[] {"close-file", token, textChecksum});
+    }
+
+    public SVNCommitInfo closeEdit() throws SVNException {
+        // a replay is finished with 'finish-replay' by the caller.
+        if (!myIsForReplay) {
+            myConnection.write("(w())", new Object[] {"close-edit"});
+        }
+        return null;
+    }
+
+    public void abortEdit() throws SVNException {
+        // failures are sent to the client as a 'failure' edit command by the session.
+    }
+
+    private String getFileToken(String path) throws SVNException {
+        String token = (String) myFileTokens.get(path);
+        if (token == null) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA, "No open file ''{0}''", path);
+            SVNErrorManager.error(err, SVNLogType.NETWORK);
+        }
+        return token;
+    }
+
+    private static Long getRevisionObject(long revision) {
+        return revision >= 0 ? new Long(revision) : null;
+    }
+}
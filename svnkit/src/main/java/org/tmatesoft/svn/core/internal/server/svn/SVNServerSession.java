@@ -0,0 +1,1095 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.server.svn;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.channels.SocketChannel;
+import java.security.SecureRandom;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.tmatesoft.svn.core.ISVNDirEntryHandler;
+import org.tmatesoft.svn.core.ISVNLogEntryHandler;
+import org.tmatesoft.svn.core.SVNCancelException;
+import org.tmatesoft.svn.core.SVNCommitInfo;
+import org.tmatesoft.svn.core.SVNDepth;
+import org.tmatesoft.svn.core.SVNDirEntry;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNLock;
+import org.tmatesoft.svn.core.SVNLogEntry;
+import org.tmatesoft.svn.core.SVNLogEntryPath;
+import org.tmatesoft.svn.core.SVNMergeInfo;
+import org.tmatesoft.svn.core.SVNMergeInfoInheritance;
+import org.tmatesoft.svn.core.SVNNodeKind;
+import org.tmatesoft.svn.core.SVNProperties;
+import org.tmatesoft.svn.core.SVNProperty;
+import org.tmatesoft.svn.core.SVNPropertyValue;
+import org.tmatesoft.svn.core.SVNRevisionProperty;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.auth.BasicAuthenticationManager;
+import org.tmatesoft.svn.core.auth.SVNPasswordAuthentication;
+import org.tmatesoft.svn.core.internal.io.fs.FSRepository;
+import org.tmatesoft.svn.core.internal.io.svn.CramMD5;
+import org.tmatesoft.svn.core.internal.io.svn.SVNConnection;
+import org.tmatesoft.svn.core.internal.io.svn.SVNEditModeReader;
+import org.tmatesoft.svn.core.internal.io.svn.SVNItem;
+import org.tmatesoft.svn.core.internal.io.svn.SVNReader;
+import org.tmatesoft.svn.core.internal.util.SVNDate;
+import org.tmatesoft.svn.core.internal.util.SVNHashMap;
+import org.tmatesoft.svn.core.internal.util.SVNMergeInfoUtil;
+import org.tmatesoft.svn.core.internal.util.SVNPathUtil;
+import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.ISVNFileRevisionHandler;
+import org.tmatesoft.svn.core.io.ISVNLocationEntryHandler;
+import org.tmatesoft.svn.core.io.ISVNLocationSegmentHandler;
+import org.tmatesoft.svn.core.io.ISVNLockHandler;
+import org.tmatesoft.svn.core.io.ISVNReporter;
+import org.tmatesoft.svn.core.io.ISVNReporterBaton;
+import org.tmatesoft.svn.core.io.SVNFileRevision;
+import org.tmatesoft.svn.core.io.SVNLocationEntry;
+import org.tmatesoft.svn.core.io.SVNLocationSegment;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+import org.tmatesoft.svn.util.SVNDebugLog;
+import org.tmatesoft.svn.util.SVNLogType;
+import org.tmatesoft.svn.util.SVNMetrics;
+
+/**
+ * Serves one ra_svn connection over a {@link FSRepository} opened for the lifetime of the
+ * connection. Commands are read and answered in the same format {@link org.tmatesoft.svn.core.internal.io.svn.SVNRepositoryImpl}
+ * uses on the client side.
+ *
+ * <p/>
+ * A session runs on a worker thread of {@link SVNServer} only while the client has a
+ * command pending; between commands the connection is watched by the server selector.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+class SVNServerSession implements Runnable {
+
+    private static final String[] CAPABILITIES = {"edit-pipeline", "svndiff1", "absent-entries", "commit-revprops",
+            "depth", "log-revprops", "mergeinfo", "partial-replay"};
+    private static final String[] REPOSITORY_CAPABILITIES = {"mergeinfo"};
+
+    private static final String ANONYMOUS = "ANONYMOUS";
+    private static final String CRAM_MD5 = "CRAM-MD5";
+
+    private static final Map COMMANDS_MAP = new SVNHashMap();
+    private static final SecureRandom ourRandom = new SecureRandom();
+
+    static {
+        COMMANDS_MAP.put("reparent", "s");
+        COMMANDS_MAP.put("get-latest-rev", "");
+        COMMANDS_MAP.put("get-dated-rev", "s");
+        COMMANDS_MAP.put("rev-proplist", "n");
+        COMMANDS_MAP.put("rev-prop", "ns");
+        COMMANDS_MAP.put("change-rev-prop", "ns?b");
+        COMMANDS_MAP.put("check-path", "s(?n)");
+        COMMANDS_MAP.put("stat", "s(?n)");
+        COMMANDS_MAP.put("get-file", "s(?n)ww");
+        COMMANDS_MAP.put("get-dir", "s(?n)ww?l");
+        COMMANDS_MAP.put("log", "l(?n)(?n)ww?n?w?w?l");
+        COMMANDS_MAP.put("get-locations", "snl");
+        COMMANDS_MAP.put("get-location-segments", "s(?n)(?n)(?n)");
+        COMMANDS_MAP.put("get-file-revs", "s(?n)(?n)?w");
+        COMMANDS_MAP.put("get-deleted-rev", "snn");
+        COMMANDS_MAP.put("get-mergeinfo", "l(?n)w?w");
+        COMMANDS_MAP.put("update", "(?n)sw?w?w");
+        COMMANDS_MAP.put("switch", "(?n)sws?w");
+        COMMANDS_MAP.put("status", "sw(?n)?w");
+        COMMANDS_MAP.put("diff", "(?n)swws?w?w");
+        COMMANDS_MAP.put("replay", "nnw");
+        COMMANDS_MAP.put("commit", "s?l?w?l");
+        COMMANDS_MAP.put("get-lock", "s");
+        COMMANDS_MAP.put("get-locks", "s?w");
+        COMMANDS_MAP.put("lock-many", "(?s)wl");
+        COMMANDS_MAP.put("unlock-many", "wl");
+    }
+
+    private final SVNServer myServer;
+    private final SVNServerConnector myConnector;
+    private final SVNConnection myConnection;
+
+    private FSRepository myRepository;
+    private SVNURL myRootURL;
+    private SVNURL myRepositoryRootURL;
+    private String myRealm;
+    private String myUserName;
+    private boolean myIsSVNDiff1;
+    private boolean myIsOpened;
+    private boolean myIsResponseStarted;
+    private volatile long myLastActivity;
+
+    public SVNServerSession(SVNServer server, SocketChannel channel) {
+        myServer = server;
+        myConnector = new SVNServerConnector(channel);
+        myConnection = new SVNConnection(myConnector, null);
+        myLastActivity = System.currentTimeMillis();
+    }
+
+    public SocketChannel getChannel() {
+        return myConnector.getChannel();
+    }
+
+    public long getLastActivity() {
+        return myLastActivity;
+    }
+
+    public boolean isStalled(long now, long readTimeout, long writeTimeout) {
+        return myConnector.isStalled(now, readTimeout, writeTimeout);
+    }
+
+    public void run() {
+        try {
+            getChannel().configureBlocking(true);
+            if (!myIsOpened) {
+                myConnector.startCommand();
+                myIsOpened = open();
+                myConnector.commandRead();
+                if (!myIsOpened) {
+                    myConnector.flush();
+                    myServer.closeSession(this);
+                    return;
+                }
+            }
+            do {
+                if (!processCommand()) {
+                    myConnector.flush();
+                    myServer.closeSession(this);
+                    return;
+                }
+            } while (myConnector.hasBufferedInput());
+            myConnector.flush();
+            myLastActivity = System.currentTimeMillis();
+            myServer.releaseSession(this);
+        } catch (SVNException e) {
+            SVNDebugLog.getDefaultLog().logFinest(SVNLogType.NETWORK, e);
+            myServer.closeSession(this);
+        } catch (IOException e) {
+            SVNDebugLog.getDefaultLog().logFinest(SVNLogType.NETWORK, e);
+            myServer.closeSession(this);
+        } catch (RuntimeException e) {
+            SVNDebugLog.getDefaultLog().logError(SVNLogType.NETWORK, e);
+            myServer.closeSession(this);
+        }
+    }
+
+    public void close() {
+        try {
+            myConnection.close();
+        } catch (SVNException e) {
+            //
+        }
+        if (myRepository != null) {
+            myRepository.closeSession();
+            myRepository = null;
+        }
+    }
+
+    private boolean open() throws SVNException {
+        myConnection.write("(w(nn()(*w)))", new Object[] {"success", new Long(2), new Long(2), CAPABILITIES});
+        List items = myConnection.readTuple("nls", false);
+        if (SVNReader.getLong(items, 0) != 2) {
+            writeError(SVNErrorMessage.create(SVNErrorCode.RA_SVN_BAD_VERSION, "Unsupported ra_svn protocol version"));
+            return false;
+        }
+        List capabilities = (List) items.get(1);
+        boolean hasEditPipeline = false;
+        for (Iterator caps = capabilities.iterator(); caps.hasNext();) {
+            SVNItem item = (SVNItem) caps.next();
+            if (item.getKind() == SVNItem.WORD && "svndiff1".equals(item.getWord())) {
+                myIsSVNDiff1 = true;
+            } else if (item.getKind() == SVNItem.WORD && "edit-pipeline".equals(item.getWord())) {
+                hasEditPipeline = true;
+            }
+        }
+        if (!hasEditPipeline) {
+            writeError(SVNErrorMessage.create(SVNErrorCode.RA_SVN_BAD_VERSION, "Client does not support edit pipelining"));
+            return false;
+        }
+        SVNURL url = SVNURL.parseURIEncoded(SVNReader.getString(items, 2));
+        try {
+            openRepository(url);
+        } catch (SVNException e) {
+            writeError(e.getErrorMessage());
+            return false;
+        }
+        String[] mechanisms = getMechanisms();
+        if (mechanisms.length == 0) {
+            writeError(SVNErrorMessage.create(SVNErrorCode.RA_NOT_AUTHORIZED, "Not authorized for access"));
+            return false;
+        }
+        if (!authenticate(SVNServer.ACCESS_READ, mechanisms)) {
+            return false;
+        }
+        myConnection.write("(w(ss(*w)))", new Object[] {"success", myRepository.getRepositoryUUID(false),
+                myRootURL.toString(), REPOSITORY_CAPABILITIES});
+        return true;
+    }
+
+    private void openRepository(SVNURL url) throws SVNException {
+        String path = SVNPathUtil.canonicalizePath(url.getPath());
+        path = path.startsWith("/") ? path.substring(1) : path;
+        if (path.equals("..") || path.startsWith("../") || path.indexOf("/../") >= 0 || path.endsWith("/..")) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.BAD_URL, "Path ''{0}'' is outside of the served root", url.getPath());
+            SVNErrorManager.error(err, SVNLogType.NETWORK);
+        }
+        File root = myServer.getRoot();
+        File location = path.length() == 0 ? root : new File(root, path);
+        try {
+            myRepository = (FSRepository) SVNRepositoryFactory.create(SVNURL.fromFile(location));
+            myRepositoryRootURL = myRepository.getRepositoryRoot(true);
+        } catch (SVNException e) {
+            myRepository = null;
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, "No repository found in ''{0}''", url);
+            SVNErrorManager.error(err, e, SVNLogType.NETWORK);
+        }
+        String rootPath = getServedPath(root, new File(myRepositoryRootURL.getPath()));
+        if (rootPath == null) {
+            // the repository was found above the served root or through a link leading out of it.
+            myRepository = null;
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, "No repository found in ''{0}''", url);
+            SVNErrorManager.error(err, SVNLogType.NETWORK);
+        }
+        myRootURL = url.setPath("/" + rootPath, false);
+        myRealm = myServer.getRealm() != null ? myServer.getRealm() : myRepository.getRepositoryUUID(false);
+        myRepository.setLocation(toRepositoryURL(url), false);
+    }
+
+    private static String getServedPath(File root, File repositoryRoot) throws SVNException {
+        String canonicalRoot;
+        String canonicalRepositoryRoot;
+        try {
+            canonicalRoot = SVNPathUtil.canonicalizePath(root.getCanonicalPath().replace(File.separatorChar, '/'));
+            canonicalRepositoryRoot = SVNPathUtil.canonicalizePath(repositoryRoot.getCanonicalPath().replace(File.separatorChar, '/'));
+        } catch (IOException e) {
+            return null;
+        }
+        if (!SVNPathUtil.isAncestor(canonicalRoot, canonicalRepositoryRoot)) {
+            return null;
+        }
+        String rootPath = SVNURL.fromFile(root).getPath();
+        String repositoryRootPath = SVNURL.fromFile(repositoryRoot).getPath();
+        if (SVNPathUtil.isAncestor(rootPath, repositoryRootPath)) {
+            return SVNPathUtil.getRelativePath(rootPath, repositoryRootPath);
+        }
+        return SVNPathUtil.getRelativePath(canonicalRoot, canonicalRepositoryRoot);
+    }
+
+    private boolean processCommand() throws SVNException {
+        myConnector.startCommand();
+        List items = myConnection.readTuple("wl", false);
+        myConnector.commandRead();
+        String commandName = SVNReader.getString(items, 0);
+        String template = (String) COMMANDS_MAP.get(commandName);
+        if (template == null || !(items.get(1) instanceof List)) {
+            writeError(SVNErrorMessage.create(SVNErrorCode.RA_SVN_UNKNOWN_CMD, "Unknown command ''{0}''", commandName));
+            return true;
+        }
+        List parameters = SVNReader.parseTuple(template, (List) items.get(1), null);
+        myIsResponseStarted = false;
+        SVNException failure = null;
+        long start = SVNMetrics.startSpan(SVNLogType.NETWORK, "svnserve." + commandName);
+        try {
+            processCommand(commandName, parameters);
+        } catch (SVNException e) {
+            failure = e;
+            if (myIsResponseStarted || e instanceof SVNCancelException) {
+                // the client can not resynchronize with a partially sent response.
+                if (!(e instanceof SVNCancelException)) {
+                    writeError(e.getErrorMessage());
+                }
+                return false;
+            }
+            writeError(e.getErrorMessage());
+        } finally {
+            SVNMetrics.finishSpan(SVNLogType.NETWORK, "svnserve." + commandName, start, 0, failure);
+        }
+        return true;
+    }
+
+    private void processCommand(String commandName, List params) throws SVNException {
+        if ("reparent".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                myRepository.setLocation(toRepositoryURL(SVNReader.getString(params, 0)), false);
+                writeSuccess();
+            }
+        } else if ("get-latest-rev".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                myConnection.write("(w(n))", new Object[] {"success", new Long(myRepository.getLatestRevision())});
+            }
+        } else if ("get-dated-rev".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                Date date = SVNDate.parseDate(SVNReader.getString(params, 0));
+                myConnection.write("(w(n))", new Object[] {"success", new Long(myRepository.getDatedRevision(date))});
+            }
+        } else if ("rev-proplist".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                SVNProperties properties = myRepository.getRevisionProperties(SVNReader.getLong(params, 0), null);
+                myConnection.write("(w((*l)))", new Object[] {"success", properties});
+            }
+        } else if ("rev-prop".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                SVNPropertyValue value = myRepository.getRevisionPropertyValue(SVNReader.getLong(params, 0), SVNReader.getString(params, 1));
+                myConnection.write("(w((b)))", new Object[] {"success", SVNPropertyValue.getPropertyAsBytes(value)});
+            }
+        } else if ("change-rev-prop".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_WRITE)) {
+                String name = SVNReader.getString(params, 1);
+                myRepository.setRevisionPropertyValue(SVNReader.getLong(params, 0), name,
+                        SVNPropertyValue.create(name, SVNReader.getBytes(params, 2)));
+                writeSuccess();
+            }
+        } else if ("check-path".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                SVNNodeKind kind = myRepository.checkPath(SVNReader.getString(params, 0), SVNReader.getLong(params, 1));
+                myConnection.write("(w(w))", new Object[] {"success", kind.toString()});
+            }
+        } else if ("stat".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                stat(params);
+            }
+        } else if ("get-file".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                getFile(params);
+            }
+        } else if ("get-dir".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                getDir(params);
+            }
+        } else if ("log".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                log(params);
+            }
+        } else if ("get-locations".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                getLocations(params);
+            }
+        } else if ("get-location-segments".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                getLocationSegments(params);
+            }
+        } else if ("get-file-revs".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                getFileRevisions(params);
+            }
+        } else if ("get-deleted-rev".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                long revision = myRepository.getDeletedRevision(SVNReader.getString(params, 0),
+                        SVNReader.getLong(params, 1), SVNReader.getLong(params, 2));
+                myConnection.write("(w(n))", new Object[] {"success", getRevisionObject(revision)});
+            }
+        } else if ("get-mergeinfo".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                getMergeInfo(params);
+            }
+        } else if ("update".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                SVNDepth depth = getDepth(params, 3, SVNReader.getBoolean(params, 2));
+                myRepository.update(SVNReader.getLong(params, 0), SVNReader.getString(params, 1), depth,
+                        SVNReader.getBoolean(params, 4), createReporterBaton(), createEditor(false));
+                finishEdit();
+            }
+        } else if ("switch".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                SVNDepth depth = getDepth(params, 4, SVNReader.getBoolean(params, 2));
+                myRepository.update(toRepositoryURL(SVNReader.getString(params, 3)), SVNReader.getLong(params, 0),
+                        SVNReader.getString(params, 1), depth, createReporterBaton(), createEditor(false));
+                finishEdit();
+            }
+        } else if ("status".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                SVNDepth depth = getDepth(params, 3, SVNReader.getBoolean(params, 1));
+                myRepository.status(SVNReader.getLong(params, 2), SVNReader.getString(params, 0), depth,
+                        createReporterBaton(), createEditor(false));
+                finishEdit();
+            }
+        } else if ("diff".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                SVNDepth depth = getDepth(params, 6, SVNReader.getBoolean(params, 2));
+                boolean textDeltas = params.get(5) == null || SVNReader.getBoolean(params, 5);
+                long revision = SVNReader.getLong(params, 0);
+                myRepository.diff(toRepositoryURL(SVNReader.getString(params, 4)), revision, revision,
+                        SVNReader.getString(params, 1), SVNReader.getBoolean(params, 3), depth, textDeltas,
+                        createReporterBaton(), createEditor(false));
+                finishEdit();
+            }
+        } else if ("replay".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                myIsResponseStarted = true;
+                myRepository.replay(SVNReader.getLong(params, 1), SVNReader.getLong(params, 0),
+                        SVNReader.getBoolean(params, 2), createEditor(true));
+                myConnection.write("(w())", new Object[] {"finish-replay"});
+                writeSuccess();
+            }
+        } else if ("commit".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_WRITE)) {
+                commit(params);
+            }
+        } else if ("get-lock".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                SVNLock lock = myRepository.getLock(SVNReader.getString(params, 0));
+                if (lock == null) {
+                    myConnection.write("(w(()))", new Object[] {"success"});
+                } else {
+                    myConnection.write("(w((", new Object[] {"success"});
+                    writeLock(lock);
+                    myConnection.write(")))", null);
+                }
+            }
+        } else if ("get-locks".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_READ)) {
+                SVNLock[] locks = myRepository.getLocks(SVNReader.getString(params, 0));
+                myConnection.write("(w((", new Object[] {"success"});
+                for (int i = 0; locks != null && i < locks.length; i++) {
+                    myConnection.write("(", null);
+                    writeLock(locks[i]);
+                    myConnection.write(")", null);
+                }
+                myConnection.write(")))", null);
+            }
+        } else if ("lock-many".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_WRITE)) {
+                lock(params);
+            }
+        } else if ("unlock-many".equals(commandName)) {
+            if (authorize(SVNServer.ACCESS_WRITE)) {
+                unlock(params);
+            }
+        }
+    }
+
+    private void stat(List params) throws SVNException {
+        SVNDirEntry entry = myRepository.info(SVNReader.getString(params, 0), SVNReader.getLong(params, 1));
+        if (entry == null) {
+            myConnection.write("(w(()))", new Object[] {"success"});
+            return;
+        }
+        myConnection.write("(w((wnwn(s)(s))))", new Object[] {"success", entry.getKind().toString(),
+                new Long(entry.getSize()), Boolean.valueOf(entry.hasProperties()), new Long(entry.getRevision()),
+                entry.getDate(), entry.getAuthor()});
+    }
+
+    private void getFile(List params) throws SVNException {
+        String path = SVNReader.getString(params, 0);
+        long revision = getRevision(SVNReader.getLong(params, 1));
+        boolean wantProperties = SVNReader.getBoolean(params, 2);
+        boolean wantContents = SVNReader.getBoolean(params, 3);
+
+        SVNProperties properties = new SVNProperties();
+        myRepository.getFile(path, revision, properties, null);
+        String checksum = properties.getStringValue(SVNProperty.CHECKSUM);
+        properties.remove(SVNProperty.CHECKSUM);
+        properties.remove(SVNProperty.REVISION);
+        myConnection.write("(w((s)n(*l)))", new Object[] {"success", checksum, new Long(revision),
+                wantProperties ? properties : new SVNProperties()});
+        if (wantContents) {
+            myIsResponseStarted = true;
+            OutputStream contents = new ChunkOutputStream();
+            myRepository.getFile(path, revision, null, contents);
+            try {
+                contents.close();
+            } catch (IOException e) {
+                SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.RA_SVN_IO_ERROR, e.getMessage()), e, SVNLogType.NETWORK);
+            }
+            myConnection.write("b", new Object[] {new byte[0]});
+            writeSuccess();
+        }
+    }
+
+    private void getDir(List params) throws SVNException {
+        String path = SVNReader.getString(params, 0);
+        long revision = getRevision(SVNReader.getLong(params, 1));
+        boolean wantProperties = SVNReader.getBoolean(params, 2);
+        boolean wantContents = SVNReader.getBoolean(params, 3);
+
+        SVNProperties properties = new SVNProperties();
+        myRepository.getDir(path, revision, properties, 0, (ISVNDirEntryHandler) null);
+        myConnection.write("(w(n(*l)(", new Object[] {"success", new Long(revision),
+                wantProperties ? properties : new SVNProperties()});
+        if (wantContents) {
+            myIsResponseStarted = true;
+            // entries are written as they are read from the revision.
+            myRepository.getDir(path, revision, null, SVNDirEntry.DIRENT_ALL, new ISVNDirEntryHandler() {
+                public void handleDirEntry(SVNDirEntry entry) throws SVNException {
+                    myConnection.write("(swnwn(s)(s))", new Object[] {entry.getName(), entry.getKind().toString(),
+                            new Long(entry.getSize()), Boolean.valueOf(entry.hasProperties()),
+                            new Long(entry.getRevision()), entry.getDate(), entry.getAuthor()});
+                }
+            });
+        }
+        myConnection.write(")))", null);
+    }
+
+    private void log(List params) throws SVNException {
+        List pathItems = SVNReader.getList(params, 0);
+        String[] paths = new String[pathItems.size()];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = SVNReader.getString(pathItems, i);
+        }
+        long startRevision = SVNReader.getLong(params, 1);
+        long endRevision = SVNReader.getLong(params, 2);
+        boolean changedPaths = SVNReader.getBoolean(params, 3);
+        boolean strictNode = SVNReader.getBoolean(params, 4);
+        long limit = SVNReader.getLong(params, 5);
+        boolean includeMergedRevisions = SVNReader.getBoolean(params, 6);
+        String[] revisionPropertyNames = null;
+        if ("revprops".equals(SVNReader.getString(params, 7))) {
+            List names = SVNReader.getList(params, 8);
+            revisionPropertyNames = new String[names.size()];
+            for (int i = 0; i < revisionPropertyNames.length; i++) {
+                revisionPropertyNames[i] = SVNReader.getString(names, i);
+            }
+        }
+        try {
+            myRepository.log(paths, startRevision, endRevision, changedPaths, strictNode, limit > 0 ? limit : 0,
+                    includeMergedRevisions, revisionPropertyNames, new ISVNLogEntryHandler() {
+                public void handleLogEntry(SVNLogEntry logEntry) throws SVNException {
+                    writeLogEntry(logEntry);
+                }
+            });
+        } catch (SVNException e) {
+            writeDone(e.getErrorMessage());
+            return;
+        }
+        writeDone(null);
+    }
+
+    private void writeLogEntry(SVNLogEntry logEntry) throws SVNException {
+        myConnection.write("((", null);
+        Map changedPaths = logEntry.getChangedPaths();
+        if (changedPaths != null) {
+            for (Iterator paths = changedPaths.values().iterator(); paths.hasNext();) {
+                SVNLogEntryPath path = (SVNLogEntryPath) paths.next();
+                String copyPath = path.getCopyPath();
+                SVNNodeKind kind = path.getKind();
+                myConnection.write("(sw(sn)(w))", new Object[] {path.getPath(), String.valueOf(path.getType()),
+                        copyPath, copyPath != null ? getRevisionObject(path.getCopyRevision()) : null,
+                        kind != null && kind != SVNNodeKind.UNKNOWN ? kind.toString() : null});
+            }
+        }
+        SVNProperties revisionProperties = logEntry.getRevisionProperties();
+        if (revisionProperties == null) {
+            revisionProperties = new SVNProperties();
+        }
+        long revision = logEntry.getRevision();
+        myConnection.write(")n(s)(s)(s)wwn(*l)w)", new Object[] {new Long(revision >= 0 ? revision : 0),
+                revisionProperties.getStringValue(SVNRevisionProperty.AUTHOR),
+                revisionProperties.getStringValue(SVNRevisionProperty.DATE),
+                revisionProperties.getStringValue(SVNRevisionProperty.LOG),
+                Boolean.valueOf(logEntry.hasChildren()), Boolean.valueOf(revision < 0),
+                new Long(revisionProperties.size()), revisionProperties,
+                Boolean.valueOf(logEntry.isSubtractiveMerge())});
+    }
+
+    private void getLocations(List params) throws SVNException {
+        List revisionItems = SVNReader.getList(params, 2);
+        long[] revisions = new long[revisionItems.size()];
+        for (int i = 0; i < revisions.length; i++) {
+            revisions[i] = SVNReader.getLong(revisionItems, i);
+        }
+        try {
+            myRepository.getLocations(SVNReader.getString(params, 0), SVNReader.getLong(params, 1), revisions,
+                    new ISVNLocationEntryHandler() {
+                public void handleLocationEntry(SVNLocationEntry locationEntry) throws SVNException {
+                    myConnection.write("(ns)", new Object[] {new Long(locationEntry.getRevision()), locationEntry.getPath()});
+                }
+            });
+        } catch (SVNException e) {
+            writeDone(e.getErrorMessage());
+            return;
+        }
+        writeDone(null);
+    }
+
+    private void getLocationSegments(List params) throws SVNException {
+        try {
+            myRepository.getLocationSegments(SVNReader.getString(params, 0), SVNReader.getLong(params, 1),
+                    SVNReader.getLong(params, 2), SVNReader.getLong(params, 3), new ISVNLocationSegmentHandler() {
+                public void handleLocationSegment(SVNLocationSegment locationSegment) throws SVNException {
+                    myConnection.write("(nn(s))", new Object[] {new Long(locationSegment.getStartRevision()),
+                            new Long(locationSegment.getEndRevision()), locationSegment.getPath()});
+                }
+            });
+        } catch (SVNException e) {
+            writeDone(e.getErrorMessage());
+            return;
+        }
+        writeDone(null);
+    }
+
+    private void getFileRevisions(List params) throws SVNException {
+        final boolean includeMergedRevisions = "true".equals(SVNReader.getString(params, 3));
+        try {
+            myRepository.getFileRevisions(SVNReader.getString(params, 0), SVNReader.getLong(params, 1),
+                    SVNReader.getLong(params, 2), includeMergedRevisions, new ISVNFileRevisionHandler() {
+                private boolean myIsFirstWindow;
+
+                public void openRevision(SVNFileRevision fileRevision) throws SVNException {
+                    SVNProperties revisionProperties = fileRevision.getRevisionProperties();
+                    myConnection.write("(sn(*l)(", new Object[] {fileRevision.getPath(), new Long(fileRevision.getRevision()),
+                            revisionProperties != null ? revisionProperties : new SVNProperties()});
+                    SVNProperties propertiesDelta = fileRevision.getPropertiesDelta();
+                    if (propertiesDelta != null) {
+                        for (Iterator names = propertiesDelta.nameSet().iterator(); names.hasNext();) {
+                            String name = (String) names.next();
+                            myConnection.write("(s(b))", new Object[] {name,
+                                    SVNPropertyValue.getPropertyAsBytes(propertiesDelta.getSVNPropertyValue(name))});
+                        }
+                    }
+                    myConnection.write(")w)", new Object[] {Boolean.valueOf(fileRevision.isResultOfMerge())});
+                }
+
+                public void applyTextDelta(String path, String baseChecksum) throws SVNException {
+                    myIsFirstWindow = true;
+                }
+
+                public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+                    ByteArrayOutputStream window = new ByteArrayOutputStream();
+                    try {
+                        diffWindow.writeTo(window, myIsFirstWindow, myIsSVNDiff1);
+                    } catch (IOException e) {
+                        SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e.getMessage()), e, SVNLogType.NETWORK);
+                    }
+                    myIsFirstWindow = false;
+                    myConnection.write("b", new Object[] {window.toByteArray()});
+                    return null;
+                }
+
+                public void textDeltaEnd(String path) throws SVNException {
+                }
+
+                public void closeRevision(String token) throws SVNException {
+                    myConnection.write("b", new Object[] {new byte[0]});
+                }
+            });
+        } catch (SVNException e) {
+            // the error may come in the middle of a revision's text.
+            myIsResponseStarted = true;
+            throw e;
+        }
+        writeDone(null);
+    }
+
+    private void getMergeInfo(List params) throws SVNException {
+        List pathItems = SVNReader.getList(params, 0);
+        String[] paths = new String[pathItems.size()];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = SVNReader.getString(pathItems, i);
+        }
+        SVNMergeInfoInheritance inheritance = SVNMergeInfoInheritance.EXPLICIT;
+        String inherit = SVNReader.getString(params, 2);
+        if (SVNMergeInfoInheritance.INHERITED.toString().equals(inherit)) {
+            inheritance = SVNMergeInfoInheritance.INHERITED;
+        } else if (SVNMergeInfoInheritance.NEAREST_ANCESTOR.toString().equals(inherit)) {
+            inheritance = SVNMergeInfoInheritance.NEAREST_ANCESTOR;
+        }
+        Map mergeInfo = myRepository.getMergeInfo(paths, SVNReader.getLong(params, 1), inheritance, SVNReader.getBoolean(params, 3));
+        String basePath = myRepository.getRepositoryPath("");
+        myConnection.write("(w((", new Object[] {"success"});
+        if (mergeInfo != null) {
+            for (Iterator entries = mergeInfo.values().iterator(); entries.hasNext();) {
+                SVNMergeInfo info = (SVNMergeInfo) entries.next();
+                String path = info.getPath();
+                String relativePath = SVNPathUtil.getPathAsChild(basePath, path);
+                myConnection.write("(ss)", new Object[] {relativePath != null ? relativePath : "",
+                        SVNMergeInfoUtil.formatMergeInfoToString(info.getMergeSourcesToMergeLists(), null)});
+            }
+        }
+        myConnection.write(")))", null);
+    }
+
+    private void commit(List params) throws SVNException {
+        Map locks = new SVNHashMap();
+        List lockItems = SVNReader.getList(params, 1);
+        for (Iterator items = lockItems.iterator(); items.hasNext();) {
+            Object item = items.next();
+            if (item instanceof SVNItem && ((SVNItem) item).getKind() == SVNItem.LIST) {
+                List values = SVNReader.parseTuple("ss", ((SVNItem) item).getItems(), null);
+                locks.put(SVNReader.getString(values, 0), SVNReader.getString(values, 1));
+            }
+        }
+        boolean keepLocks = SVNReader.getBoolean(params, 2);
+        SVNProperties revisionProperties = SVNReader.getProperties(params, 3, null);
+
+        ISVNEditor commitEditor = myRepository.getCommitEditor(SVNReader.getString(params, 0), locks,
+                keepLocks, revisionProperties, null);
+        writeSuccess();
+
+        myIsResponseStarted = true;
+        SVNServerCommitEditor serverEditor = new SVNServerCommitEditor(commitEditor);
+        SVNEditModeReader editReader = new SVNEditModeReader(myConnection, serverEditor, false);
+        try {
+            editReader.driveEditor();
+        } catch (SVNException e) {
+            try {
+                commitEditor.abortEdit();
+            } catch (SVNException inner) {
+                //
+            }
+            writeError(e.getErrorMessage());
+            // the client sends 'abort-edit' once it reads the error.
+            while (true) {
+                List items = myConnection.readTuple("wl", false);
+                if ("abort-edit".equals(SVNReader.getString(items, 0))) {
+                    break;
+                }
+            }
+            return;
+        }
+        SVNCommitInfo commitInfo = serverEditor.getCommitInfo();
+        if (editReader.isAborted() || commitInfo == null) {
+            return;
+        }
+        writeAuthenticationRequest();
+        SVNErrorMessage postCommitError = commitInfo.getErrorMessage();
+        myConnection.write("(n(s)(s)(s))", new Object[] {new Long(commitInfo.getNewRevision()),
+                commitInfo.getDate(), commitInfo.getAuthor(),
+                postCommitError != null ? postCommitError.getMessage() : null});
+    }
+
+    private void lock(List params) throws SVNException {
+        Map pathsToRevisions = new LinkedHashMap();
+        List pathItems = SVNReader.getList(params, 2);
+        for (Iterator items = pathItems.iterator(); items.hasNext();) {
+            Object item = items.next();
+            if (item instanceof SVNItem && ((SVNItem) item).getKind() == SVNItem.LIST) {
+                List values = SVNReader.parseTuple("s(?n)", ((SVNItem) item).getItems(), null);
+                pathsToRevisions.put(SVNReader.getString(values, 0), getRevisionObject(SVNReader.getLong(values, 1)));
+            }
+        }
+        myIsResponseStarted = true;
+        try {
+            myRepository.lock(pathsToRevisions, SVNReader.getString(params, 0), SVNReader.getBoolean(params, 1), new ISVNLockHandler() {
+                public void handleLock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
+                    if (error != null || lock == null) {
+                        writeError(error != null ? error : SVNErrorMessage.create(SVNErrorCode.FS_NO_SUCH_LOCK, "No lock on path ''{0}''", path));
+                    } else {
+                        myConnection.write("(w(", new Object[] {"success"});
+                        writeLock(lock);
+                        myConnection.write("))", null);
+                    }
+                }
+
+                public void handleUnlock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
+                }
+            });
+        } catch (SVNException e) {
+            writeDone(e.getErrorMessage());
+            return;
+        }
+        writeDone(null);
+    }
+
+    private void unlock(List params) throws SVNException {
+        Map pathsToTokens = new LinkedHashMap();
+        List pathItems = SVNReader.getList(params, 1);
+        for (Iterator items = pathItems.iterator(); items.hasNext();) {
+            Object item = items.next();
+            if (item instanceof SVNItem && ((SVNItem) item).getKind() == SVNItem.LIST) {
+                List values = SVNReader.parseTuple("s(?s)", ((SVNItem) item).getItems(), null);
+                pathsToTokens.put(SVNReader.getString(values, 0), SVNReader.getString(values, 1));
+            }
+        }
+        final String basePath = myRepository.getRepositoryPath("");
+        myIsResponseStarted = true;
+        try {
+            myRepository.unlock(pathsToTokens, SVNReader.getBoolean(params, 0), new ISVNLockHandler() {
+                public void handleLock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
+                }
+
+                public void handleUnlock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
+                    if (error != null) {
+                        writeError(error);
+                    } else {
+                        String relativePath = SVNPathUtil.getPathAsChild(basePath, path);
+                        myConnection.write("(w(s))", new Object[] {"success", relativePath != null ? relativePath : path});
+                    }
+                }
+            });
+        } catch (SVNException e) {
+            writeDone(e.getErrorMessage());
+            return;
+        }
+        writeDone(null);
+    }
+
+    private void writeLock(SVNLock lock) throws SVNException {
+        myConnection.write("sss(s)s(s)", new Object[] {lock.getPath(), lock.getID(), lock.getOwner(), lock.getComment(),
+                lock.getCreationDate(), lock.getExpirationDate()});
+    }
+
+    private ISVNEditor createEditor(boolean forReplay) {
+        myIsResponseStarted = true;
+        return new SVNServerEditor(myConnection, myIsSVNDiff1, forReplay);
+    }
+
+    private void finishEdit() throws SVNException {
+        // the client confirms 'close-edit' before the command response.
+        myConnection.read("", null, false);
+        writeSuccess();
+    }
+
+    private ISVNReporterBaton createReporterBaton() {
+        return new ISVNReporterBaton() {
+            public void report(ISVNReporter reporter) throws SVNException {
+                while (true) {
+                    List items = myConnection.readTuple("wl", false);
+                    String commandName = SVNReader.getString(items, 0);
+                    List params = (List) items.get(1);
+                    if ("set-path".equals(commandName)) {
+                        List values = SVNReader.parseTuple("snw(?s)?w", params, null);
+                        reporter.setPath(SVNReader.getString(values, 0), SVNReader.getString(values, 3),
+                                SVNReader.getLong(values, 1), getDepth(values, 4, true), SVNReader.getBoolean(values, 2));
+                    } else if ("delete-path".equals(commandName)) {
+                        List values = SVNReader.parseTuple("s", params, null);
+                        reporter.deletePath(SVNReader.getString(values, 0));
+                    } else if ("link-path".equals(commandName)) {
+                        List values = SVNReader.parseTuple("ssnw(?s)?w", params, null);
+                        reporter.linkPath(toRepositoryURL(SVNReader.getString(values, 1)), SVNReader.getString(values, 0),
+                                SVNReader.getString(values, 4), SVNReader.getLong(values, 2), getDepth(values, 5, true),
+                                SVNReader.getBoolean(values, 3));
+                    } else if ("finish-report".equals(commandName)) {
+                        writeAuthenticationRequest();
+                        reporter.finishReport();
+                        return;
+                    } else if ("abort-report".equals(commandName)) {
+                        reporter.abortReport();
+                        // the client does not expect a response.
+                        SVNErrorManager.cancel("Report aborted by the client", SVNLogType.NETWORK);
+                    } else {
+                        SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_UNKNOWN_CMD, "Unknown command ''{0}''", commandName);
+                        SVNErrorManager.error(err, SVNLogType.NETWORK);
+                    }
+                }
+            }
+        };
+    }
+
+    private boolean authorize(int requiredAccess) throws SVNException {
+        if (myServer.getAccess(myUserName) >= requiredAccess) {
+            writeAuthenticationRequest();
+            return true;
+        }
+        if (myUserName == null && myServer.hasUsers()) {
+            return authenticate(requiredAccess, new String[] {CRAM_MD5});
+        }
+        writeError(SVNErrorMessage.create(SVNErrorCode.RA_NOT_AUTHORIZED, "Not authorized for access"));
+        return false;
+    }
+
+    private boolean authenticate(int requiredAccess, String[] mechanisms) throws SVNException {
+        myConnection.write("(w((*w)s))", new Object[] {"success", mechanisms, myRealm});
+        while (true) {
+            List items = myConnection.readTuple("w(?s)", false);
+            String mechanism = SVNReader.getString(items, 0);
+            if (ANONYMOUS.equals(mechanism) && contains(mechanisms, ANONYMOUS)) {
+                myUserName = null;
+                myConnection.write("(w())", new Object[] {"success"});
+            } else if (CRAM_MD5.equals(mechanism) && contains(mechanisms, CRAM_MD5)) {
+                if (!authenticateCramMD5()) {
+                    continue;
+                }
+            } else {
+                myConnection.write("(w(s))", new Object[] {"failure", "Must authenticate with listed mechanism"});
+                continue;
+            }
+            if (myServer.getAccess(myUserName) < requiredAccess) {
+                writeError(SVNErrorMessage.create(SVNErrorCode.RA_NOT_AUTHORIZED, "Not authorized for access"));
+                return false;
+            }
+            myRepository.setAuthenticationManager(myUserName != null ?
+                    BasicAuthenticationManager.newInstance(myUserName, new char[0]) : null);
+            return true;
+        }
+    }
+
+    private boolean authenticateCramMD5() throws SVNException {
+        String challenge = "<" + Math.abs(ourRandom.nextLong()) + "." + System.currentTimeMillis() + "@" +
+                getChannel().socket().getLocalAddress().getHostAddress() + ">";
+        myConnection.write("(w(s))", new Object[] {"step", challenge});
+        SVNItem item = myConnection.readItem(false);
+        if (item.getKind() != SVNItem.BYTES) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_SVN_MALFORMED_DATA, "Malformed CRAM-MD5 response");
+            SVNErrorManager.error(err, SVNLogType.NETWORK);
+        }
+        String response = toString(item.getBytes());
+        int space = response.lastIndexOf(' ');
+        String userName = space > 0 ? response.substring(0, space) : null;
+        String password = userName != null ? myServer.getPassword(userName) : null;
+        if (password == null) {
+            myConnection.write("(w(s))", new Object[] {"failure", "Username not found"});
+            return false;
+        }
+        CramMD5 authenticator = new CramMD5();
+        authenticator.setUserCredentials(new SVNPasswordAuthentication(userName, password, false, null, false));
+        String expected;
+        try {
+            expected = toString(authenticator.buildChallengeResponse(challenge.getBytes("UTF-8")));
+        } catch (IOException e) {
+            SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e.getMessage()), e, SVNLogType.NETWORK);
+            return false;
+        }
+        // the expected value is formatted as a string item, "length:user digest ".
+        expected = expected.substring(expected.indexOf(':') + 1).trim();
+        if (!expected.equals(response)) {
+            myConnection.write("(w(s))", new Object[] {"failure", "Password incorrect"});
+            return false;
+        }
+        myUserName = userName;
+        myConnection.write("(w())", new Object[] {"success"});
+        return true;
+    }
+
+    private String[] getMechanisms() {
+        boolean anonymous = myServer.getAccess(null) > SVNServer.ACCESS_NONE;
+        boolean users = myServer.hasUsers();
+        if (anonymous && users) {
+            return new String[] {ANONYMOUS, CRAM_MD5};
+        } else if (anonymous) {
+            return new String[] {ANONYMOUS};
+        } else if (users) {
+            return new String[] {CRAM_MD5};
+        }
+        return new String[0];
+    }
+
+    private void writeAuthenticationRequest() throws SVNException {
+        myConnection.write("(w(()s))", new Object[] {"success", ""});
+    }
+
+    private void writeSuccess() throws SVNException {
+        myConnection.write("(w())", new Object[] {"success"});
+    }
+
+    private void writeDone(SVNErrorMessage error) throws SVNException {
+        myConnection.write("w", new Object[] {"done"});
+        if (error != null) {
+            writeError(error);
+        } else {
+            writeSuccess();
+        }
+    }
+
+    private void writeError(SVNErrorMessage error) throws SVNException {
+        if (error == null) {
+            error = SVNErrorMessage.create(SVNErrorCode.UNKNOWN);
+        }
+        myConnection.writeError(error);
+    }
+
+    private SVNURL toRepositoryURL(String url) throws SVNException {
+        return toRepositoryURL(SVNURL.parseURIEncoded(url));
+    }
+
+    private SVNURL toRepositoryURL(SVNURL url) throws SVNException {
+        String rootPath = myRootURL.getPath();
+        String path = url.getPath();
+        String relativePath = path.equals(rootPath) ? "" : SVNPathUtil.getPathAsChild(rootPath, path);
+        if (relativePath == null || !url.getProtocol().equals(myRootURL.getProtocol())) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_ILLEGAL_URL,
+                    "''{0}''\nis not the same repository as\n''{1}''", new Object[] {url, myRootURL});
+            SVNErrorManager.error(err, SVNLogType.NETWORK);
+        }
+        return relativePath.length() == 0 ? myRepositoryRootURL : myRepositoryRootURL.appendPath(relativePath, false);
+    }
+
+    private long getRevision(long revision) throws SVNException {
+        return SVNRevision.isValidRevisionNumber(revision) ? revision : myRepository.getLatestRevision();
+    }
+
+    private static SVNDepth getDepth(List values, int index, boolean recurse) {
+        String depth = SVNReader.getString(values, index);
+        if (depth == null) {
+            return SVNDepth.fromRecurse(recurse);
+        }
+        return SVNDepth.fromString(depth);
+    }
+
+    private static Long getRevisionObject(long revision) {
+        return revision >= 0 ? new Long(revision) : null;
+    }
+
+    private static boolean contains(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String toString(byte[] bytes) {
+        try {
+            return new String(bytes, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            return new String(bytes);
+        }
+    }
+
+    private class ChunkOutputStream extends OutputStream {
+
+        private final byte[] myBuffer = new byte[16 * 1024];
+        private int myLength;
+
+        public void write(int b) throws IOException {
+            if (myLength == myBuffer.length) {
+                flushChunk();
+            }
+            myBuffer[myLength++] = (byte) b;
+        }
+
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (myLength == myBuffer.length) {
+                    flushChunk();
+                }
+                int count = Math.min(len, myBuffer.length - myLength);
+                System.arraycopy(b, off, myBuffer, myLength, count);
+                myLength += count;
+                off += count;
+                len -= count;
+            }
+        }
+
+        public void close() throws IOException {
+            flushChunk();
+        }
+
+        private void flushChunk() throws IOException {
+            if (myLength == 0) {
+                return;
+            }
+            byte[] chunk = new byte[myLength];
+            System.arraycopy(myBuffer, 0, chunk, 0, myLength);
+            myLength = 0;
+            try {
+                myConnection.write("b", new Object[] {chunk});
+            } catch (SVNException e) {
+                throw new IOException(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.util;
+
+import java.util.List;
+
+import de.regnis.q.sequence.QSequenceDifference;
+import de.regnis.q.sequence.QSequenceDifferenceBlockShifter;
+import de.regnis.q.sequence.core.QSequenceDummyCanceller;
+import de.regnis.q.sequence.core.QSequenceException;
+import de.regnis.q.sequence.line.QSequenceLineMedia;
+import de.regnis.q.sequence.line.simplifier.QSequenceLineSimplifier;
+import de.regnis.q.sequence.media.QSequenceDiscardingMedia;
+import de.regnis.q.sequence.media.QSequenceDiscardingMediaNoConfusionDectector;
+import de.regnis.q.sequence.media.QSequenceIntMedia;
+
+/**
+ * Splits texts into lines and maps every distinct line to an integer, so that
+ * texts may be kept and compared as arrays of line numbers.
+ *
+ * <p/>
+ * Lines are split the same way {@link QSequenceLineMedia} does: a line ends with
+ * <code>LF</code>, <code>CR</code> or <code>CRLF</code>, which is part of the line.
+ * Two lines get the same number when their simplified bytes are equal. Numbers are
+ * stable for the lifetime of the interner, so line arrays of different texts
+ * produced by the same interner may be compared with {@link #getBlocks(int[], int[])}.
+ *
+ * @author TMate Software Ltd.
+ * @version 1.9
+ */
+public class SVNLineInterner {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final QSequenceLineSimplifier mySimplifier;
+
+    private byte[][] myLines;
+    private int[] myHashes;
+    private int[] myTable;
+    private int myCount;
+
+    /**
+     * @param simplifier simplifier to apply to lines before comparing them, or <code>null</code>
+     *                   to compare lines byte by byte
+     */
+    public SVNLineInterner(QSequenceLineSimplifier simplifier) {
+        mySimplifier = simplifier;
+        myLines = new byte[INITIAL_CAPACITY][];
+        myHashes = new int[INITIAL_CAPACITY];
+        myTable = new int[INITIAL_CAPACITY * 2];
+    }
+
+    public int getLinesCount() {
+        return myCount;
+    }
+
+    public int[] split(byte[] data, int length) {
+        int[] lines = new int[Math.max(16, length / 32)];
+        int count = 0;
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            final byte b = data[i];
+            if (b != '\n' && b != '\r') {
+                continue;
+            }
+            if (b == '\r' && i + 1 < length && data[i + 1] == '\n') {
+                i++;
+            }
+            if (count == lines.length) {
+                lines = grow(lines, count * 2);
+            }
+            lines[count++] = intern(data, start, i + 1 - start);
+            start = i + 1;
+        }
+        if (start < length) {
+            if (count == lines.length) {
+                lines = grow(lines, count + 1);
+            }
+            lines[count++] = intern(data, start, length - start);
+        }
+        return count == lines.length ? lines : grow(lines, count);
+    }
+
+    /**
+     * Computes the differences between two texts split by this interner.
+     *
+     * @return list of {@link de.regnis.q.sequence.QSequenceDifferenceBlock} objects,
+     *         the same as {@link QSequenceLineMedia#createBlocks} would produce for the texts
+     */
+    public List getBlocks(int[] left, int[] right) throws QSequenceException {
+        final LinesMedia media = new LinesMedia(left, right, myCount);
+        final QSequenceDiscardingMedia discardingMedia = new QSequenceDiscardingMedia(media,
+                new QSequenceDiscardingMediaNoConfusionDectector(true), new QSequenceDummyCanceller());
+        final List blocks = new QSequenceDifference(discardingMedia, discardingMedia,
+                getSearchDepth(left.length + right.length)).getBlocks();
+        new QSequenceDifferenceBlockShifter(media, media).shiftBlocks(blocks);
+        return blocks;
+    }
+
+    private int intern(byte[] data, int offset, int length) {
+        if (mySimplifier != null) {
+            final byte[] line = new byte[length];
+            System.arraycopy(data, offset, line, 0, length);
+            final byte[] key = mySimplifier.simplify(line);
+            return intern(key, 0, key.length, true);
+        }
+        return intern(data, offset, length, false);
+    }
+
+    private int intern(byte[] data, int offset, int length, boolean isOwned) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + data[i];
+        }
+        final int mask = myTable.length - 1;
+        int slot = mix(hash) & mask;
+        while (myTable[slot] != 0) {
+            final int id = myTable[slot] - 1;
+            if (myHashes[id] == hash && equals(myLines[id], data, offset, length)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        byte[] line = data;
+        if (!isOwned || offset != 0 || length != data.length) {
+            line = new byte[length];
+            System.arraycopy(data, offset, line, 0, length);
+        }
+        if (myCount == myLines.length) {
+            final byte[][] lines = new byte[myCount * 2][];
+            System.arraycopy(myLines, 0, lines, 0, myCount);
+            myLines = lines;
+            myHashes = grow(myHashes, myCount * 2);
+        }
+        final int id = myCount++;
+        myLines[id] = line;
+        myHashes[id] = hash;
+        myTable[slot] = id + 1;
+        if (myCount * 2 > myTable.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        final int[] table = new int[myTable.length * 2];
+        final int mask = table.length - 1;
+        for (int id = 0; id < myCount; id++) {
+            int slot = mix(myHashes[id]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+        myTable = table;
+    }
+
+    private static boolean equals(byte[] line, byte[] data, int offset, int length) {
+        if (line.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (line[i] != data[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int mix(int hash) {
+        hash ^= (hash >>> 20) ^ (hash >>> 12);
+        return hash ^ (hash >>> 7) ^ (hash >>> 4);
+    }
+
+    private static int[] grow(int[] array, int size) {
+        final int[] result = new int[size];
+        System.arraycopy(array, 0, result, 0, Math.min(array.length, size));
+        return result;
+    }
+
+    private static int getSearchDepth(int length) {
+        if (QSequenceLineMedia.SEARCH_DEPTH_EXPONENT == 1.0) {
+            return Integer.MAX_VALUE;
+        }
+        return Math.max(256, (int) Math.pow(length, QSequenceLineMedia.SEARCH_DEPTH_EXPONENT));
+    }
+
+    private static class LinesMedia extends QSequenceIntMedia {
+
+        private final int[] myLeft;
+        private final int[] myRight;
+        private final int mySymbolCount;
+
+        public LinesMedia(int[] left, int[] right, int symbolCount) {
+            super(new QSequenceDummyCanceller());
+            myLeft = left;
+            myRight = right;
+            mySymbolCount = symbolCount;
+        }
+
+        public int getLeftLength() {
+            return myLeft.length;
+        }
+
+        public int getRightLength() {
+            return myRight.length;
+        }
+
+        public boolean equals(int leftIndex, int rightIndex) {
+            return myLeft[leftIndex] == myRight[rightIndex];
+        }
+
+        public int getSymbolCount() {
+            return mySymbolCount;
+        }
+
+        public int[] getLeftSymbols() {
+            return myLeft;
+        }
+
+        public int[] getRightSymbols() {
+            return myRight;
+        }
+    }
+}
@@ -65,6 +65,10 @@ public class SVNSpillBuffer implements Closeable {
         return new SVNSpillBufferInputStream(this);
     }
 
+    public SVNSpillBufferOutputStream createOutputStream() {
+        return new SVNSpillBufferOutputStream(this);
+    }
+
     public void write(byte[] data, int offset, int length) throws SVNException {
         try {
             MemoryBlock block = null;
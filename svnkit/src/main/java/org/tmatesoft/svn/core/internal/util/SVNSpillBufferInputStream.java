@@ -17,7 +17,7 @@ public class SVNSpillBufferInputStream extends InputStream {
         if (bytesRead < 0) {
             return bytesRead;
         }
-        return byteBuffer[0];
+        return byteBuffer[0] & 0xFF;
     }
 
     public int read(byte[] bytes) throws IOException {
@@ -25,6 +25,9 @@ public class SVNSpillBufferInputStream extends InputStream {
     }
 
     public int read(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return 0;
+        }
         return reader.read(bytes, offset, length);
     }
 
@@ -0,0 +1,33 @@
+package org.tmatesoft.svn.core.internal.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.wc.IOExceptionWrapper;
+
+public class SVNSpillBufferOutputStream extends OutputStream {
+    private final SVNSpillBuffer buffer;
+    private final byte[] byteBuffer;
+
+    public SVNSpillBufferOutputStream(SVNSpillBuffer buffer) {
+        this.buffer = buffer;
+        this.byteBuffer = new byte[1];
+    }
+
+    public void write(int b) throws IOException {
+        byteBuffer[0] = (byte) b;
+        write(byteBuffer, 0, 1);
+    }
+
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        try {
+            buffer.write(bytes, offset, length);
+        } catch (SVNException e) {
+            throw new IOExceptionWrapper(e);
+        }
+    }
+}
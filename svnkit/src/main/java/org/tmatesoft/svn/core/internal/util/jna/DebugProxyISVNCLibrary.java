@@ -5,6 +5,7 @@ import java.util.logging.Level;
 import org.tmatesoft.svn.util.ISVNDebugLog;
 import org.tmatesoft.svn.util.SVNLogType;
 
+import com.sun.jna.NativeLong;
 import com.sun.jna.Pointer;
 
 public class DebugProxyISVNCLibrary implements ISVNCLibrary {
@@ -84,6 +85,24 @@ public class DebugProxyISVNCLibrary implements ISVNCLibrary {
         return symlink;
     }
 
+    public int open(String path, int flags, int mode) {
+        int open = myLibrary.open(path, flags, mode);
+        myDebugLog.log(SVNLogType.NATIVE_CALL, "CALLED ISVNCLibrary#open(" + path + ", " + flags + ", " + mode + ") = " + open, Level.INFO);
+        return open;
+    }
+
+    public int close(int fd) {
+        int close = myLibrary.close(fd);
+        myDebugLog.log(SVNLogType.NATIVE_CALL, "CALLED ISVNCLibrary#close(" + fd + ") = " + close, Level.INFO);
+        return close;
+    }
+
+    public int ioctl(int fd, NativeLong request, int arg) {
+        int ioctl = myLibrary.ioctl(fd, request, arg);
+        myDebugLog.log(SVNLogType.NATIVE_CALL, "CALLED ISVNCLibrary#ioctl(" + fd + ", " + request + ", " + arg + ") = " + ioctl, Level.INFO);
+        return ioctl;
+    }
+
     public int getuid() {
         int getuid = myLibrary.getuid();
         myDebugLog.log(SVNLogType.NATIVE_CALL, "CALLED ISVNCLibrary#getuid() = " + getuid, Level.INFO);
@@ -1,5 +1,6 @@
 package org.tmatesoft.svn.core.internal.util.jna;
 import com.sun.jna.Library;
+import com.sun.jna.NativeLong;
 import com.sun.jna.Pointer;
 
 
@@ -40,6 +41,12 @@ interface ISVNCLibrary extends Library {
     public int stat(String path, Pointer stat);
 
     public int symlink(String targetPath, String linkPath);
+
+    public int open(String path, int flags, int mode);
+
+    public int close(int fd);
+
+    public int ioctl(int fd, NativeLong request, int arg);
     
     public int getuid();
     
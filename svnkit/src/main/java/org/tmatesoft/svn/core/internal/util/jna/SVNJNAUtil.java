@@ -105,6 +105,13 @@ public class SVNJNAUtil {
         return false;
     }
 
+    public static boolean cloneFile(File src, File dst) {
+        if (isJNAPresent()) {
+            return SVNLinuxUtil.cloneFile(src, dst);
+        }
+        return false;
+    }
+
     public static Long getSymlinkLastModified(File file) {
         if (isJNAPresent()) {
             return SVNLinuxUtil.getSymlinkLastModified(file);
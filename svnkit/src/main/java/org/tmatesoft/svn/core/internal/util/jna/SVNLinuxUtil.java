@@ -12,6 +12,7 @@
 package org.tmatesoft.svn.core.internal.util.jna;
 
 import com.sun.jna.Memory;
+import com.sun.jna.NativeLong;
 import org.tmatesoft.svn.core.internal.wc.SVNFileType;
 import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.util.SVNDebugLog;
@@ -28,6 +29,12 @@ public class SVNLinuxUtil {
     private static Memory ourSharedMemory;
     private static final boolean ourIsDashStat = Boolean.getBoolean("svnkit.jna.dash_stat");
 
+    private static final int O_RDONLY = 0;
+    private static final int O_WRONLY = 01;
+    private static final int O_CREAT = 0100;
+    private static final int O_EXCL = 0200;
+    private static final NativeLong FICLONE = new NativeLong(0x40049409L);
+
     static {
         try {
             ourSharedMemory = new Memory(1024);
@@ -421,6 +428,49 @@ public class SVNLinuxUtil {
         return false;
     }
 
+    /**
+     * Creates <code>dst</code> as a copy-on-write clone of <code>src</code> (FICLONE ioctl).
+     * Only Linux file systems with reflink support (btrfs, xfs) can do this,
+     * <code>false</code> is returned in all other cases and <code>dst</code> is left absent.
+     */
+    public static boolean cloneFile(File src, File dst) {
+        if (src == null || dst == null || ourSharedMemory == null || !SVNFileUtil.isLinux) {
+            return false;
+        }
+        try {
+            ISVNCLibrary cLibrary = JNALibraryLoader.getCLibrary();
+            if (cLibrary == null) {
+                return false;
+            }
+            final String dstPath = dst.getAbsolutePath();
+            int srcFd = cLibrary.open(src.getAbsolutePath(), O_RDONLY, 0);
+            if (srcFd < 0) {
+                return false;
+            }
+            boolean cloned = false;
+            try {
+                int dstFd = cLibrary.open(dstPath, O_WRONLY | O_CREAT | O_EXCL, 0666);
+                if (dstFd < 0) {
+                    return false;
+                }
+                try {
+                    cloned = cLibrary.ioctl(dstFd, FICLONE, srcFd) == 0;
+                } finally {
+                    cLibrary.close(dstFd);
+                }
+            } finally {
+                cLibrary.close(srcFd);
+                if (!cloned) {
+                    dst.delete();
+                }
+            }
+            return cloned;
+        } catch (Throwable th) {
+            //
+        }
+        return false;
+    }
+
     private static int getFileModeOffset() {
         if (SVNFileUtil.isLinux && SVNFileUtil.is64Bit) {
             return 24;
@@ -17,6 +17,7 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -34,6 +35,7 @@ import org.tmatesoft.svn.core.internal.delta.SVNDeltaReader;
 import org.tmatesoft.svn.core.internal.io.fs.FSCommitter;
 import org.tmatesoft.svn.core.internal.io.fs.FSDeltaConsumer;
 import org.tmatesoft.svn.core.internal.io.fs.FSFS;
+import org.tmatesoft.svn.core.internal.io.fs.FSRepresentation;
 import org.tmatesoft.svn.core.internal.io.fs.FSRevisionNode;
 import org.tmatesoft.svn.core.internal.io.fs.FSRevisionRoot;
 import org.tmatesoft.svn.core.internal.io.fs.FSTransactionInfo;
@@ -58,6 +60,8 @@ import org.tmatesoft.svn.util.SVNLogType;
  */
 public class DefaultLoadHandler implements ISVNLoadHandler {
     
+    private static final int REPRESENTATION_CACHE_BATCH_SIZE = 4096;
+
     private FSFS myFSFS;
     private RevisionBaton myCurrentRevisionBaton;
     private NodeBaton myCurrentNodeBaton;
@@ -69,6 +73,8 @@ public class DefaultLoadHandler implements ISVNLoadHandler {
     private SVNDeltaReader myDeltaReader;
     private SVNDeltaGenerator myDeltaGenerator;
     private ISVNAdminEventHandler myProgressHandler;
+    private boolean myIsBulkLoad;
+    private Map<String, FSRepresentation> myDeferredRepresentations;
     
     public DefaultLoadHandler(boolean usePreCommitHook, boolean usePostCommitHook, SVNUUIDAction uuidAction, 
             String parentDir, ISVNAdminEventHandler progressHandler) {
@@ -83,6 +89,30 @@ public class DefaultLoadHandler implements ISVNLoadHandler {
     public void setFSFS(FSFS fsfs) {
         myFSFS = fsfs;
     }
+
+    /**
+     * In bulk mode hooks are never run, transaction ids and revision properties are kept in
+     * memory until the revision is committed, and rep-cache entries are inserted in batches
+     * spanning many revisions. {@link #flush()} must be called once the dump stream is parsed.
+     */
+    public void setBulkLoad(boolean bulkLoad) {
+        myIsBulkLoad = bulkLoad;
+        myDeferredRepresentations = bulkLoad ? new LinkedHashMap<String, FSRepresentation>() : null;
+    }
+
+    public boolean isBulkLoad() {
+        return myIsBulkLoad;
+    }
+
+    public void flush() {
+        if (myDeferredRepresentations != null && !myDeferredRepresentations.isEmpty()) {
+            FSCommitter.insertRepresentations(myFSFS, myDeferredRepresentations.values());
+            myDeferredRepresentations.clear();
+        }
+        if (myFSFS != null) {
+            myFSFS.setDeferredRepresentations(null);
+        }
+    }
     
     public void closeRevision() throws SVNException {
         if (myCurrentRevisionBaton != null) {
@@ -98,7 +128,22 @@ public class DefaultLoadHandler implements ISVNLoadHandler {
             long oldRevision = baton.myRevision;
             long newRevision = -1;
             try {
-                newRevision = baton.getCommitter().commitTxn(myIsUsePreCommitHook, myIsUsePostCommitHook, null, null);
+                if (myIsBulkLoad) {
+                    SVNProperties txnProperties = myFSFS.getTransactionProperties(baton.myTxn.getTxnId());
+                    for (Iterator names = baton.myRevisionProperties.nameSet().iterator(); names.hasNext();) {
+                        String name = (String) names.next();
+                        SVNPropertyValue value = baton.myRevisionProperties.getSVNPropertyValue(name);
+                        if (value == null) {
+                            txnProperties.remove(name);
+                        } else {
+                            txnProperties.put(name, value);
+                        }
+                    }
+                    myFSFS.setTransactionProperties(baton.myTxn.getTxnId(), txnProperties);
+                    newRevision = baton.getCommitter().commitTxn(false, false, null, null);
+                } else {
+                    newRevision = baton.getCommitter().commitTxn(myIsUsePreCommitHook, myIsUsePostCommitHook, null, null);
+                }
             } catch (SVNException svne) {
                 try {
                     FSCommitter.abortTransaction(myFSFS, baton.myTxn.getTxnId());
@@ -122,7 +167,10 @@ public class DefaultLoadHandler implements ISVNLoadHandler {
             }
 
             myRevisionsMap.put(new Long(oldRevision), new Long(newRevision));
-            if (baton.myDatestamp != null) {
+            if (myIsBulkLoad && myDeferredRepresentations.size() >= REPRESENTATION_CACHE_BATCH_SIZE) {
+                flush();
+            }
+            if (baton.myDatestamp != null && !myIsBulkLoad) {
                 myFSFS.setRevisionProperty(newRevision, SVNRevisionProperty.DATE, baton.myDatestamp);
             }
             
@@ -158,6 +206,11 @@ public class DefaultLoadHandler implements ISVNLoadHandler {
         if (revision > 0) {
             myCurrentRevisionBaton.myTxn = FSTransactionRoot.beginTransaction(headRevision, 0, myFSFS);
             myCurrentRevisionBaton.myTxnRoot = myFSFS.createTransactionRoot(myCurrentRevisionBaton.myTxn);
+            if (myIsBulkLoad) {
+                myCurrentRevisionBaton.myTxnRoot.setCacheNextIDs(true);
+                myFSFS.setDeferredRepresentations(myDeferredRepresentations);
+                myCurrentRevisionBaton.myRevisionProperties = new SVNProperties();
+            }
             String message = "<<< Started new transaction, based on original revision " + revision;
             if (myProgressHandler != null) {
                 SVNAdminEvent event = new SVNAdminEvent(revision, SVNAdminEventAction.REVISION_LOAD, message); 
@@ -322,7 +375,11 @@ public class DefaultLoadHandler implements ISVNLoadHandler {
 
     public void setRevisionProperty(String propertyName, SVNPropertyValue propertyValue) throws SVNException {
         if (myCurrentRevisionBaton.myRevision > 0) {
-            myFSFS.setTransactionProperty(myCurrentRevisionBaton.myTxn.getTxnId(), propertyName, propertyValue);
+            if (myIsBulkLoad) {
+                myCurrentRevisionBaton.myRevisionProperties.put(propertyName, propertyValue);
+            } else {
+                myFSFS.setTransactionProperty(myCurrentRevisionBaton.myTxn.getTxnId(), propertyName, propertyValue);
+            }
             if (SVNRevisionProperty.DATE.equals(propertyName)) {
                 myCurrentRevisionBaton.myDatestamp = propertyValue;
             }
@@ -532,6 +589,7 @@ public class DefaultLoadHandler implements ISVNLoadHandler {
         long myRevision;
         long myRevisionOffset;
         SVNPropertyValue myDatestamp;
+        SVNProperties myRevisionProperties;
         
         private FSCommitter myCommitter;
         private FSDeltaConsumer myDeltaConsumer;
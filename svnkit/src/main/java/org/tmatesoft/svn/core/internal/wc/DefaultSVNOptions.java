@@ -54,6 +54,8 @@ public class DefaultSVNOptions implements ISVNOptions, ISVNMergerFactory {
     private static final String HELPERS_GROUP = "helpers";
 
     private static final String HTTP_SPOOL_DIRECTORY = "http-spool-directory";
+    private static final String PRISTINE_INSTALL = "pristine-install";
+    private static final String SHARED_PRISTINES_DIRECTORY = "shared-pristines-directory";
 
     private static final String USE_COMMIT_TIMES = "use-commit-times";
     private static final String GLOBAL_IGNORES = "global-ignores";
@@ -75,6 +77,9 @@ public class DefaultSVNOptions implements ISVNOptions, ISVNMergerFactory {
     private static final String YES = "yes";
 
     private static final String NO = "no";
+
+    public static final String PRISTINE_INSTALL_COPY = "copy";
+    public static final String PRISTINE_INSTALL_CLONE = "clone";
     private static final String DEFAULT_LOCALE = Locale.getDefault().toString();
 
     private static final String DEFAULT_TIMEZONE = TimeZone.getDefault().getID();
@@ -539,6 +544,47 @@ public class DefaultSVNOptions implements ISVNOptions, ISVNMergerFactory {
         return null;
     }
 
+    /**
+     * Returns the way untranslated files are installed from the pristine store
+     * into the working copy, as set by the <i>pristine-install</i> property of
+     * the <i>[svnkit]</i> section.
+     *
+     * @return {@link #PRISTINE_INSTALL_CLONE} to create copy-on-write clones where
+     *         the file system supports them, {@link #PRISTINE_INSTALL_COPY} otherwise
+     */
+    public String getPristineInstallMode() {
+        final String mode = getPropertyValue(PRISTINE_INSTALL);
+        if (PRISTINE_INSTALL_CLONE.equalsIgnoreCase(mode)) {
+            return PRISTINE_INSTALL_CLONE;
+        }
+        return PRISTINE_INSTALL_COPY;
+    }
+
+    public void setPristineInstallMode(String mode) {
+        setPropertyValue(PRISTINE_INSTALL, mode);
+    }
+
+    /**
+     * Returns the directory of the pristine store shared by working copies, as set
+     * by the <i>shared-pristines-directory</i> property of the <i>[svnkit]</i> section.
+     * Pristine texts of working copies are hard links to files of this store, so it
+     * should be on the same file system as the working copies.
+     *
+     * @return shared pristine store directory or <code>null</code> if every working
+     *         copy keeps pristine texts of its own
+     */
+    public File getSharedPristinesDirectory() {
+        final String directory = getPropertyValue(SHARED_PRISTINES_DIRECTORY);
+        if (directory != null && directory.trim().length() > 0) {
+            return new File(directory.trim());
+        }
+        return null;
+    }
+
+    public void setSharedPristinesDirectory(File directory) {
+        setPropertyValue(SHARED_PRISTINES_DIRECTORY, directory != null ? directory.getAbsolutePath() : null);
+    }
+
     /**
      * Sets the value of a property from the <i>[svnkit]</i> section
      * of the <i>config</i> file.
@@ -62,7 +62,17 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
         myAuthOptions = authOptions;
         myDefaultOptions = defaultOptions;
         myHostOptionsProvider = hostOptionsProvider;
-        myPasswordStorages = createPasswordStorages(defaultOptions);
+    }
+
+    /**
+     * Password storages are created on first use: checking whether the platform ones are
+     * enabled loads native libraries through JNA, which most commands never need.
+     */
+    private synchronized IPasswordStorage[] getPasswordStorages() {
+        if (myPasswordStorages == null) {
+            myPasswordStorages = createPasswordStorages(myDefaultOptions);
+        }
+        return myPasswordStorages;
     }
 
     protected IPasswordStorage[] createPasswordStorages(DefaultSVNOptions options) {
@@ -88,8 +98,9 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
         if (passType == null) {
             return null;
         }
-        for (int i = 0; i < myPasswordStorages.length; i++) {
-            IPasswordStorage passwordStorage = myPasswordStorages[i];
+        IPasswordStorage[] passwordStorages = getPasswordStorages();
+        for (int i = 0; i < passwordStorages.length; i++) {
+            IPasswordStorage passwordStorage = passwordStorages[i];
             if (passwordStorage.getPassType().equals(passType)) {
                 return passwordStorage;
             }
@@ -108,9 +119,8 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
         for (int i = 0; files != null && i < files.length; i++) {
             File authFile = files[i];
             if (authFile.isFile()) {
-                SVNWCProperties props = new SVNWCProperties(authFile, "");
                 try {
-                    SVNPasswordAuthentication auth = readSSLPassphrase(realm, props);
+                    SVNPasswordAuthentication auth = readSSLPassphrase(realm, SVNConfigCache.getProperties(authFile));
                     if (auth != null) {
                         matchedAuths.put(auth.getUserName(), auth);
                     }
@@ -133,8 +143,7 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
         return null;
     }
 
-    private SVNPasswordAuthentication readSSLPassphrase(String expectedCertificatePath, SVNWCProperties props) throws SVNException {
-        SVNProperties values = props.asMap();
+    private SVNPasswordAuthentication readSSLPassphrase(String expectedCertificatePath, SVNProperties values) throws SVNException {
         try {
             String storedRealm = values.getStringValue("svn:realmstring");
             if (storedRealm == null || !SVNSSLAuthentication.isCertificatePath(storedRealm)) {
@@ -220,10 +229,9 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
         String fileName = getAuthFileName(realm);
         File authFile = new File(dir, fileName);
         if (authFile.exists()) {
-            SVNWCProperties props = new SVNWCProperties(authFile, "");
             SVNProperties values = null;
             try {
-                values = props.asMap();
+                values = SVNConfigCache.getProperties(authFile);
                 String storedRealm = values.getStringValue("svn:realmstring");
                 String passType = SVNPropertyValue.getPropertyAsString(values.getSVNPropertyValue("passtype"));
                 IPasswordStorage passwordStorage = getPasswordStorage(passType);
@@ -343,9 +351,8 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
         File authFile = new File(dir, fileName);
 
         if (authFile.isFile()) {
-            SVNWCProperties props = new SVNWCProperties(authFile, "");
             try {
-                if (!shouldSaveCredentials(kind, values, props.asMap())) {
+                if (!shouldSaveCredentials(kind, values, SVNConfigCache.getProperties(authFile))) {
                     return;
                 }
             } catch (SVNException e) {
@@ -356,6 +363,7 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
         try {
             SVNWCProperties.setProperties(values, authFile, tmpFile, SVNWCProperties.SVN_HASH_TERMINATOR);
         } finally {
+            SVNConfigCache.invalidate(authFile);
             SVNFileUtil.deleteFile(tmpFile);
         }
     }
@@ -419,8 +427,9 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
         if (storePasswords) {
             SVNPasswordAuthentication passwordAuth = (SVNPasswordAuthentication) auth;
 
-            for (int i = 0; i < myPasswordStorages.length; i++) {
-                IPasswordStorage passwordStorage = myPasswordStorages[i];
+            IPasswordStorage[] passwordStorages = getPasswordStorages();
+            for (int i = 0; i < passwordStorages.length; i++) {
+                IPasswordStorage passwordStorage = passwordStorages[i];
                 boolean saved = passwordStorage.savePassword(realm, passwordAuth.getPasswordValue(), passwordAuth, values);
                 if (saved) {
                     values.put("passtype", passwordStorage.getPassType());
@@ -438,8 +447,9 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
 
         IPasswordStorage storage = null;
         if (storePasswords) {
-            for (int i = 0; i < myPasswordStorages.length; i++) {
-                IPasswordStorage passwordStorage = myPasswordStorages[i];
+            IPasswordStorage[] passwordStorages = getPasswordStorages();
+            for (int i = 0; i < passwordStorages.length; i++) {
+                IPasswordStorage passwordStorage = passwordStorages[i];
                 final char[] password = sshAuth.getPasswordValue();
                 
                 boolean saved = passwordStorage.savePassword(realm, password, auth, values);
@@ -463,8 +473,9 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
                 // Pass 'force == true' not to ask user for plain text storage.
                 storage.savePassphrase(realm, sshAuth.getPassphraseValue(), sshAuth, values, true);
             } else {
-                for (int i = 0; i < myPasswordStorages.length; i++) {
-                    IPasswordStorage passwordStorage = myPasswordStorages[i];
+                IPasswordStorage[] passwordStorages = getPasswordStorages();
+                for (int i = 0; i < passwordStorages.length; i++) {
+                    IPasswordStorage passwordStorage = passwordStorages[i];
                     boolean saved = passwordStorage.savePassphrase(realm, sshAuth.getPassphraseValue(), sshAuth, values, false);
                     if (saved) {
                         values.put("passtype", passwordStorage.getPassType());
@@ -497,8 +508,9 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
         }
         if (storePassphrases && passphrase != null) {
 
-            for (int i = 0; i < myPasswordStorages.length; i++) {
-                IPasswordStorage passwordStorage = myPasswordStorages[i];
+            IPasswordStorage[] passwordStorages = getPasswordStorages();
+            for (int i = 0; i < passwordStorages.length; i++) {
+                IPasswordStorage passwordStorage = passwordStorages[i];
                 boolean saved = passwordStorage.savePassphrase(realm, passphrase, auth, values, false);
                 if (saved) {
                     values.put("passtype", passwordStorage.getPassType());
@@ -536,10 +548,9 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
         if (!file.isFile()) {
             return null;
         }
-        SVNWCProperties props = new SVNWCProperties(file, "");
         SVNProperties values;
         try {
-            values = props.asMap();
+            values = SVNConfigCache.getProperties(file);
             String storedRealm = values.getStringValue("svn:realmstring");
             if (!realm.equals(storedRealm)) {
                 return null;
@@ -563,6 +574,8 @@ public class DefaultSVNPersistentAuthenticationProvider implements ISVNAuthentic
         try {
             SVNWCProperties.setProperties(values, file, null, SVNWCProperties.SVN_HASH_TERMINATOR);
         } catch (SVNException e) {
+        } finally {
+            SVNConfigCache.invalidate(file);
         }
     }
 
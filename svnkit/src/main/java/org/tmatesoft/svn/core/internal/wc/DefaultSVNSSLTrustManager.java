@@ -20,6 +20,7 @@ import java.util.logging.Level;
 
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNProperties;
+import org.tmatesoft.svn.core.SVNPropertyValue;
 import org.tmatesoft.svn.core.SVNURL;
 import org.tmatesoft.svn.core.auth.ISVNAuthenticationProvider;
 import org.tmatesoft.svn.core.internal.util.SVNBase64;
@@ -190,13 +191,13 @@ public class DefaultSVNSSLTrustManager implements X509TrustManager {
 		if (!file.isFile()) {
 			return null;
 		}
-		SVNWCProperties props = new SVNWCProperties(file, "");
 		try {
-			String storedRealm = props.getPropertyValue("svn:realmstring");
+			SVNProperties props = SVNConfigCache.getProperties(file);
+			String storedRealm = props.getStringValue("svn:realmstring");
 			if (!realm.equals(storedRealm)) {
 				return null;
 			}
-			return props.getPropertyValue("ascii_cert");
+			return SVNPropertyValue.getPropertyAsString(props.getSVNPropertyValue("ascii_cert"));
 		}
 		catch (SVNException e) {
 		}
@@ -218,6 +219,7 @@ public class DefaultSVNSSLTrustManager implements X509TrustManager {
         try {
             SVNWCProperties.setProperties(SVNProperties.wrap(map), file, tmpFile, SVNWCProperties.SVN_HASH_TERMINATOR);
         } finally {
+            SVNConfigCache.invalidate(file);
             SVNFileUtil.deleteFile(tmpFile);
         }
 	}
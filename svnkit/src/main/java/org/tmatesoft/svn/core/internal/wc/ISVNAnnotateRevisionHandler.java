@@ -0,0 +1,32 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.wc;
+
+import java.util.Date;
+
+import org.tmatesoft.svn.core.SVNAnnotationGenerator;
+import org.tmatesoft.svn.core.SVNException;
+
+
+/**
+ * Annotate handler that takes the contents of a revision from the generator
+ * only when it needs them, see {@link SVNAnnotationGenerator#getRevisionContents()}.
+ * Revisions kept in memory are then not written to temporary files.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+public interface ISVNAnnotateRevisionHandler {
+
+    public boolean handleRevision(Date date, long revision, String author, SVNAnnotationGenerator generator) throws SVNException;
+
+}
@@ -0,0 +1,162 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.wc;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNProperties;
+
+/**
+ * Process-wide cache of parsed configuration (<code>config</code>, <code>servers</code>)
+ * and credential cache files, shared by all options and authentication manager instances.
+ *
+ * <p/>
+ * An entry is reused as long as the file's modification time and length are unchanged.
+ * Files modified within the timestamp granularity window of their last read are
+ * always re-read, so that quick successive rewrites of the same length are not missed.
+ * Callers always receive copies and may modify them freely.
+ *
+ * <p/>
+ * The cache may be disabled with the <code>svnkit.config.cache=false</code> system property.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+public class SVNConfigCache {
+
+    private static final boolean ourIsEnabled = !"false".equalsIgnoreCase(System.getProperty("svnkit.config.cache", "true"));
+    private static final int CACHE_SIZE = Integer.getInteger("svnkit.config.cache.size", 512).intValue();
+    private static final long RACY_INTERVAL = 2000;
+
+    private static final Map<File, CachedConfig> ourEntries = new LinkedHashMap<File, CachedConfig>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        protected boolean removeEldestEntry(Map.Entry<File, CachedConfig> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    public static String[] getLines(File file) {
+        file = file.getAbsoluteFile();
+        if (!file.isFile() || !file.canRead()) {
+            invalidate(file);
+            return new String[0];
+        }
+        if (!ourIsEnabled) {
+            return readLines(file);
+        }
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        CachedConfig entry = getEntry(file);
+        if (entry != null && entry.isValid(lastModified, length) && entry.myLines != null) {
+            return (String[]) entry.myLines.clone();
+        }
+        final long readTime = System.currentTimeMillis();
+        final String[] lines = readLines(file);
+        entry = new CachedConfig(lastModified, length, readTime);
+        entry.myLines = lines;
+        putEntry(file, entry);
+        return (String[]) lines.clone();
+    }
+
+    public static SVNProperties getProperties(File file) throws SVNException {
+        file = file.getAbsoluteFile();
+        if (!ourIsEnabled) {
+            return new SVNWCProperties(file, "").asMap();
+        }
+        final long lastModified = file.lastModified();
+        final long length = file.length();
+        CachedConfig entry = getEntry(file);
+        if (entry != null && entry.isValid(lastModified, length) && entry.myProperties != null) {
+            return new SVNProperties(entry.myProperties);
+        }
+        final long readTime = System.currentTimeMillis();
+        final SVNProperties properties = new SVNWCProperties(file, "").asMap();
+        if (lastModified == 0) {
+            invalidate(file);
+            return properties;
+        }
+        entry = new CachedConfig(lastModified, length, readTime);
+        entry.myProperties = properties;
+        putEntry(file, entry);
+        return new SVNProperties(properties);
+    }
+
+    public static void invalidate(File file) {
+        synchronized (ourEntries) {
+            ourEntries.remove(file.getAbsoluteFile());
+        }
+    }
+
+    public static void clear() {
+        synchronized (ourEntries) {
+            ourEntries.clear();
+        }
+    }
+
+    private static CachedConfig getEntry(File file) {
+        synchronized (ourEntries) {
+            return ourEntries.get(file);
+        }
+    }
+
+    private static void putEntry(File file, CachedConfig entry) {
+        synchronized (ourEntries) {
+            ourEntries.put(file, entry);
+        }
+    }
+
+    private static String[] readLines(File file) {
+        BufferedReader reader = null;
+        List<String> lines = new ArrayList<String>();
+        try {
+            reader = new BufferedReader(new FileReader(file));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines.add(line);
+            }
+        } catch (IOException e) {
+            lines.clear();
+        } finally {
+            SVNFileUtil.closeFile(reader);
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    private static class CachedConfig {
+
+        private final long myLastModified;
+        private final long myLength;
+        private final boolean myIsRacy;
+
+        private String[] myLines;
+        private SVNProperties myProperties;
+
+        public CachedConfig(long lastModified, long length, long readTime) {
+            myLastModified = lastModified;
+            myLength = length;
+            myIsRacy = readTime - lastModified < RACY_INTERVAL;
+        }
+
+        public boolean isValid(long lastModified, long length) {
+            return !myIsRacy && myLastModified == lastModified && myLength == length;
+        }
+    }
+}
@@ -14,7 +14,6 @@ package org.tmatesoft.svn.core.internal.wc;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
@@ -269,6 +268,7 @@ public class SVNConfigFile {
         } finally {
             SVNFileUtil.closeFile(writer);
         }
+        SVNConfigCache.invalidate(myFile);
         myLastModified = myFile.lastModified();
         myLines = doLoad(myFile);
     }
@@ -303,23 +303,7 @@ public class SVNConfigFile {
     }
 
     private String[] doLoad(File file) {
-        if (!file.isFile() || !file.canRead()) {
-            return new String[0];
-        }
-        BufferedReader reader = null;
-        Collection lines = new ArrayList();
-        try {
-            reader = new BufferedReader(new FileReader(myFile));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                lines.add(line);
-            }
-        } catch (IOException e) {
-            lines.clear();
-        } finally {
-            SVNFileUtil.closeFile(reader);
-        }
-        return (String[]) lines.toArray(new String[lines.size()]);
+        return SVNConfigCache.getLines(file);
     }
     
     public static void createDefaultConfiguration(File configDir) {
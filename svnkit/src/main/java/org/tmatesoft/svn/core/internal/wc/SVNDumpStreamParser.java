@@ -14,15 +14,19 @@ package org.tmatesoft.svn.core.internal.wc;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.CharsetDecoder;
+import java.util.LinkedList;
 import java.util.Map;
 
 import org.tmatesoft.svn.core.ISVNCanceller;
+import org.tmatesoft.svn.core.SVNCancelException;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
 import org.tmatesoft.svn.core.SVNNodeKind;
 import org.tmatesoft.svn.core.SVNPropertyValue;
 import org.tmatesoft.svn.core.internal.util.SVNHashMap;
+import org.tmatesoft.svn.core.internal.util.SVNSpillBuffer;
+import org.tmatesoft.svn.util.SVNDebugLog;
 import org.tmatesoft.svn.util.SVNLogType;
 
 
@@ -31,13 +35,92 @@ import org.tmatesoft.svn.util.SVNLogType;
  * @author  TMate Software Ltd.
  */
 public class SVNDumpStreamParser {
+
+    private static final int READ_AHEAD_BLOCK_SIZE = 64 * 1024;
+    private static final long READ_AHEAD_TEXT_MEMORY_SIZE = 1024 * 1024;
+    private static final long READ_AHEAD_MEMORY_SIZE = 16 * 1024 * 1024;
+    private static final long READER_STOP_TIMEOUT = 30 * 1000;
+
     private ISVNCanceller myCanceller;
+    private int myReadAheadDepth;
     
     public SVNDumpStreamParser(ISVNCanceller canceller) {
         myCanceller = canceller;
     }
+
+    /**
+     * Sets how many records (handler calls) may be parsed ahead of the handler. When positive,
+     * the dump stream is read and parsed on a separate thread and text blocks are buffered
+     * (spilled to temporary files above 1M each, at most 16M kept in memory overall) until the
+     * handler, called on the calling thread, gets to them. <code>0</code> parses and handles
+     * records on the calling thread.
+     */
+    public void setReadAheadDepth(int depth) {
+        myReadAheadDepth = Math.max(0, depth);
+    }
+
+    public int getReadAheadDepth() {
+        return myReadAheadDepth;
+    }
     
     public void parseDumpStream(InputStream dumpStream, ISVNLoadHandler handler, CharsetDecoder decoder) throws SVNException {
+        if (myReadAheadDepth > 0) {
+            parseWithReadAhead(dumpStream, handler, decoder);
+        } else {
+            parseDumpStream(dumpStream, handler, decoder, myCanceller);
+        }
+    }
+
+    private void parseWithReadAhead(final InputStream dumpStream, ISVNLoadHandler handler, final CharsetDecoder decoder) throws SVNException {
+        final ReadAheadQueue queue = new ReadAheadQueue(myReadAheadDepth);
+        final Thread reader = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    parseDumpStream(dumpStream, queue, decoder, queue);
+                    queue.finish(null);
+                } catch (SVNException e) {
+                    queue.finish(e);
+                } catch (Throwable th) {
+                    queue.finish(new SVNException(SVNErrorMessage.create(SVNErrorCode.UNKNOWN, th), th));
+                }
+            }
+        }, "svnkit-dump-reader");
+        reader.setDaemon(true);
+        reader.start();
+        try {
+            ReadAheadRecord record;
+            while ((record = queue.take()) != null) {
+                try {
+                    myCanceller.checkCancelled();
+                    record.replay(handler);
+                } finally {
+                    record.dispose();
+                }
+            }
+        } finally {
+            queue.stop();
+            stopReader(reader);
+        }
+    }
+
+    /**
+     * Waits until the reader thread no longer uses the caller's stream. The reader notices the
+     * stopped queue before reading the next chunk. It is not interrupted, as that would close a
+     * caller's stream backed by an interruptible channel; a reader blocked in <code>read()</code>
+     * is left behind after a while.
+     */
+    private static void stopReader(Thread reader) {
+        try {
+            reader.join(READER_STOP_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (reader.isAlive()) {
+            SVNDebugLog.getDefaultLog().logFine(SVNLogType.FSFS, "Dump stream reader has not stopped, it is left blocked in read");
+        }
+    }
+
+    private void parseDumpStream(InputStream dumpStream, ISVNLoadHandler handler, CharsetDecoder decoder, ISVNCanceller canceller) throws SVNException {
         String line = null;
         int version = -1;
         StringBuffer buffer = new StringBuffer();
@@ -70,7 +153,7 @@ public class SVNDumpStreamParser {
             }
         
             while (true) {
-                myCanceller.checkCancelled();
+                canceller.checkCancelled();
                 boolean foundNode = false;
             
                 //skip empty lines
@@ -380,4 +463,227 @@ public class SVNDumpStreamParser {
         return headers;
     }
     
+    private static abstract class ReadAheadRecord {
+
+        public abstract void replay(ISVNLoadHandler handler) throws SVNException;
+
+        public long getMemorySize() {
+            return 0;
+        }
+
+        public void dispose() {
+        }
+    }
+
+    private static class TextBlockRecord extends ReadAheadRecord {
+
+        private final SVNSpillBuffer myBuffer;
+        private final long myLength;
+        private final boolean myIsDelta;
+
+        public TextBlockRecord(SVNSpillBuffer buffer, long length, boolean isDelta) {
+            myBuffer = buffer;
+            myLength = length;
+            myIsDelta = isDelta;
+        }
+
+        public void replay(ISVNLoadHandler handler) throws SVNException {
+            handler.parseTextBlock(myBuffer.createInputStream(), myLength, myIsDelta);
+        }
+
+        public long getMemorySize() {
+            return myBuffer.getMemorySize();
+        }
+
+        public void dispose() {
+            myBuffer.close();
+        }
+    }
+
+    private static class ReadAheadQueue implements ISVNLoadHandler, ISVNCanceller {
+
+        private final LinkedList<ReadAheadRecord> myRecords = new LinkedList<ReadAheadRecord>();
+        private final int myDepth;
+        private long myMemorySize;
+        private boolean myIsFinished;
+        private boolean myIsStopped;
+        private SVNException myError;
+
+        public ReadAheadQueue(int depth) {
+            myDepth = depth;
+        }
+
+        public synchronized ReadAheadRecord take() throws SVNException {
+            while (myRecords.isEmpty() && !myIsFinished) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    SVNErrorManager.cancel("Operation cancelled", SVNLogType.FSFS);
+                }
+            }
+            if (myRecords.isEmpty()) {
+                if (myError != null) {
+                    throw myError;
+                }
+                return null;
+            }
+            final ReadAheadRecord record = myRecords.removeFirst();
+            myMemorySize -= record.getMemorySize();
+            notifyAll();
+            return record;
+        }
+
+        public synchronized void finish(SVNException error) {
+            myIsFinished = true;
+            myError = error;
+            notifyAll();
+        }
+
+        public synchronized void stop() {
+            myIsStopped = true;
+            while (!myRecords.isEmpty()) {
+                myRecords.removeFirst().dispose();
+            }
+            notifyAll();
+        }
+
+        public synchronized void checkCancelled() throws SVNCancelException {
+            if (myIsStopped || Thread.currentThread().isInterrupted()) {
+                SVNErrorManager.cancel("Operation cancelled", SVNLogType.FSFS);
+            }
+        }
+
+        private synchronized void put(ReadAheadRecord record) throws SVNException {
+            final long memorySize = record.getMemorySize();
+            while (!myIsStopped && !myRecords.isEmpty() &&
+                    (myRecords.size() >= myDepth || myMemorySize + memorySize > READ_AHEAD_MEMORY_SIZE)) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    myIsStopped = true;
+                }
+            }
+            if (myIsStopped) {
+                record.dispose();
+                checkCancelled();
+            }
+            myRecords.addLast(record);
+            myMemorySize += memorySize;
+            notifyAll();
+        }
+
+        public void closeRevision() throws SVNException {
+            put(new ReadAheadRecord() {
+                public void replay(ISVNLoadHandler handler) throws SVNException {
+                    handler.closeRevision();
+                }
+            });
+        }
+
+        public void openRevision(final Map headers) throws SVNException {
+            put(new ReadAheadRecord() {
+                public void replay(ISVNLoadHandler handler) throws SVNException {
+                    handler.openRevision(headers);
+                }
+            });
+        }
+
+        public void openNode(final Map headers) throws SVNException {
+            put(new ReadAheadRecord() {
+                public void replay(ISVNLoadHandler handler) throws SVNException {
+                    handler.openNode(headers);
+                }
+            });
+        }
+
+        public void closeNode() throws SVNException {
+            put(new ReadAheadRecord() {
+                public void replay(ISVNLoadHandler handler) throws SVNException {
+                    handler.closeNode();
+                }
+            });
+        }
+
+        public void parseUUID(final String uuid) throws SVNException {
+            put(new ReadAheadRecord() {
+                public void replay(ISVNLoadHandler handler) throws SVNException {
+                    handler.parseUUID(uuid);
+                }
+            });
+        }
+
+        public void removeNodeProperties() throws SVNException {
+            put(new ReadAheadRecord() {
+                public void replay(ISVNLoadHandler handler) throws SVNException {
+                    handler.removeNodeProperties();
+                }
+            });
+        }
+
+        public void setRevisionProperty(final String propertyName, final SVNPropertyValue propertyValue) throws SVNException {
+            put(new ReadAheadRecord() {
+                public void replay(ISVNLoadHandler handler) throws SVNException {
+                    handler.setRevisionProperty(propertyName, propertyValue);
+                }
+            });
+        }
+
+        public void applyTextDelta() throws SVNException {
+            put(new ReadAheadRecord() {
+                public void replay(ISVNLoadHandler handler) throws SVNException {
+                    handler.applyTextDelta();
+                }
+            });
+        }
+
+        public void setFullText() throws SVNException {
+            put(new ReadAheadRecord() {
+                public void replay(ISVNLoadHandler handler) throws SVNException {
+                    handler.setFullText();
+                }
+            });
+        }
+
+        public void parseTextBlock(InputStream dumpStream, long contentLength, boolean isDelta) throws SVNException {
+            final SVNSpillBuffer buffer = new SVNSpillBuffer(READ_AHEAD_BLOCK_SIZE, READ_AHEAD_TEXT_MEMORY_SIZE);
+            try {
+                final byte[] chunk = new byte[SVNFileUtil.STREAM_CHUNK_SIZE];
+                long remaining = contentLength;
+                while (remaining > 0) {
+                    checkCancelled();
+                    final int read = dumpStream.read(chunk, 0, (int) Math.min(chunk.length, remaining));
+                    if (read < 0) {
+                        SVNAdminHelper.generateIncompleteDataError();
+                    }
+                    buffer.write(chunk, 0, read);
+                    remaining -= read;
+                }
+            } catch (IOException e) {
+                buffer.close();
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e.getLocalizedMessage());
+                SVNErrorManager.error(err, e, SVNLogType.FSFS);
+            } catch (SVNException e) {
+                buffer.close();
+                throw e;
+            }
+            put(new TextBlockRecord(buffer, contentLength, isDelta));
+        }
+
+        public void deleteNodeProperty(final String propertyName) throws SVNException {
+            put(new ReadAheadRecord() {
+                public void replay(ISVNLoadHandler handler) throws SVNException {
+                    handler.deleteNodeProperty(propertyName);
+                }
+            });
+        }
+
+        public void setNodeProperty(final String propertyName, final SVNPropertyValue propertyValue) throws SVNException {
+            put(new ReadAheadRecord() {
+                public void replay(ISVNLoadHandler handler) throws SVNException {
+                    handler.setNodeProperty(propertyName, propertyValue);
+                }
+            });
+        }
+    }
 }
@@ -978,7 +978,7 @@ public class SVNFileUtil {
                 long totalSize = srcChannel.size();
                 long toCopy = totalSize;
                 while (toCopy > 0) {
-                    toCopy -= dstChannel.transferFrom(srcChannel, totalSize - toCopy, toCopy);
+                    toCopy -= srcChannel.transferTo(totalSize - toCopy, toCopy, dstChannel);
                 }
             } catch (IOException e) {
                 error = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, "Cannot copy file ''{0}'' to ''{1}'': {2}", new Object[] {
@@ -1035,6 +1035,23 @@ public class SVNFileUtil {
         }
     }
     
+    /**
+     * Replaces <code>dst</code> with a copy-on-write clone of <code>src</code>,
+     * when the platform and the file system support it.
+     *
+     * @return <code>true</code> if the clone was created, <code>false</code> if
+     *         the caller should fall back to a regular copy
+     */
+    public static boolean cloneFile(File src, File dst) throws SVNException {
+        if (src == null || dst == null || src.equals(dst) || isWindows || !src.exists()) {
+            return false;
+        }
+        if (SVNFileType.getType(dst) != SVNFileType.NONE) {
+            deleteFile(dst);
+        }
+        return SVNJNAUtil.cloneFile(src, dst);
+    }
+
     public static boolean setLastModified(File file, long timestamp) {
         if (file != null && timestamp >= 0) {
             return file.setLastModified(timestamp);
@@ -1979,7 +1996,22 @@ public class SVNFileUtil {
         return ourSystemAppDataPath;
     }
 
+    private static volatile Map ourEnvironment = null;
+
+    /**
+     * Replaces the process environment as seen by {@link #getEnvironmentVariable(String)},
+     * <code>null</code> restores the process environment. Used when commands are run on behalf
+     * of another process.
+     */
+    public static void setEnvironment(Map environment) {
+        ourEnvironment = environment;
+    }
+
     public static String getEnvironmentVariable(String name) {
+        Map environment = ourEnvironment;
+        if (environment != null) {
+            return (String) environment.get(name);
+        }
         try {
             // pre-Java 1.5 this throws an Error. On Java 1.5 it
             // returns the environment variable
@@ -2400,4 +2432,67 @@ public class SVNFileUtil {
         }
         return getFileLastModified(file) * 1000;
     }
+
+    private static Method java7createLinkMethod = null;
+    private static Method java7getAttributeMethod = null;
+
+    static {
+        if (java7BasciFileAttributesClazz != null) {
+            final ClassLoader loader = SVNFileUtil.class.getClassLoader();
+            try {
+                final Class<?> filesClazz = loader.loadClass("java.nio.file.Files");
+                final Class<?> pathClazz = loader.loadClass("java.nio.file.Path");
+                java7createLinkMethod = filesClazz.getMethod("createLink", pathClazz, pathClazz);
+                java7getAttributeMethod = filesClazz.getMethod("getAttribute", pathClazz, String.class, java7noFollowLinksParam.getClass());
+            } catch (ClassNotFoundException e) {
+                java7createLinkMethod = null;
+            } catch (NoSuchMethodException e) {
+                java7createLinkMethod = null;
+            } catch (SecurityException e) {
+                java7createLinkMethod = null;
+            }
+        }
+    }
+
+    /**
+     * Creates a hard link <code>link</code> to an existing file.
+     *
+     * @return <code>true</code> if the link was created, <code>false</code> if
+     *         links are not supported or <code>link</code> could not be created
+     */
+    public static boolean createHardLink(File existing, File link) {
+        if (java7createLinkMethod == null || existing == null || link == null) {
+            return false;
+        }
+        try {
+            java7createLinkMethod.invoke(null, java7toPathMethod.invoke(link), java7toPathMethod.invoke(existing));
+            return true;
+        } catch (SecurityException e) {
+        } catch (IllegalAccessException e) {
+        } catch (IllegalArgumentException e) {
+        } catch (InvocationTargetException e) {
+            SVNDebugLog.getDefaultLog().logFinest(SVNLogType.DEFAULT, e.getTargetException());
+        }
+        return false;
+    }
+
+    /**
+     * @return number of hard links to <code>file</code>, or <code>-1</code> if it is not known
+     */
+    public static int getHardLinkCount(File file) {
+        if (java7getAttributeMethod == null || isWindows || file == null) {
+            return -1;
+        }
+        try {
+            final Object count = java7getAttributeMethod.invoke(null, java7toPathMethod.invoke(file), "unix:nlink", java7noFollowLinksParam);
+            if (count instanceof Number) {
+                return ((Number) count).intValue();
+            }
+        } catch (SecurityException e) {
+        } catch (IllegalAccessException e) {
+        } catch (IllegalArgumentException e) {
+        } catch (InvocationTargetException e) {
+        }
+        return -1;
+    }
 }
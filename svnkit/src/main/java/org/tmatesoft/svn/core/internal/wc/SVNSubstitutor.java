@@ -11,9 +11,11 @@
  */
 package org.tmatesoft.svn.core.internal.wc;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.nio.ByteBuffer;
-import java.util.Arrays;
+import java.nio.ByteOrder;
 import java.util.Map;
 
 import org.tmatesoft.svn.core.SVNErrorCode;
@@ -23,144 +25,262 @@ import org.tmatesoft.svn.util.SVNLogType;
 
 
 /**
+ * Translates EOLs and keywords of a byte stream.
+ * <p/>
+ * Input is scanned eight bytes at a time for the bytes that may need
+ * translation (<code>'$'</code>, <code>'\r'</code>, <code>'\n'</code>); runs of
+ * other bytes are copied as is, and blocks without such bytes are passed to
+ * the target stream without copying. Output is collected in a fixed size buffer.
+ *
  * @version 1.3
  * @author  TMate Software Ltd.
  */
 public class SVNSubstitutor {
     
-    private static final byte[] ALL = new byte[] {'$', '\r', '\n'};
-    private static final byte[] EOLS = new byte[] {'\r', '\n'};
-    private static final byte[] KEYWORDS = new byte[] {'$'};
     private static final int KEYWORD_MAX_LENGTH = 255;
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long DOLLARS = 0x2424242424242424L;
+    private static final long CRS = 0x0D0D0D0D0D0D0D0DL;
+    private static final long LFS = 0x0A0A0A0A0A0A0A0AL;
     
     private boolean myIsRepair;
     private boolean myIsExpand;
     private Map myKeywords;
+    private boolean myIsScanKeywords;
+    private boolean myIsScanEOLs;
     
     private byte[] myEOL;
     private byte[] myLastEOL;
-    private byte[] myInteresting;
     private byte[] myEOLBuffer;
     private byte[] myKeywordBuffer;
     
-    private int[] myLastEOLLength = new int[] {0};
+    private int myLastEOLLength;
     private int myKeywordBufferLength;
     private int myEOLBufferLength;
+    private int myNextSignOff;
+    private byte[][] myRescanBuffers = new byte[0][];
+    private int myRescanDepth;
+
+    private byte[] myOutputBuffer;
+    private int myOutputLength;
+    private OutputStream myOutput;
+    private ByteBuffer myScanView;
+    private ByteBufferOutputStream myByteBufferOutput;
 
     public SVNSubstitutor(byte[] eol, boolean repair, Map keywords, boolean expand) {
         myEOL = eol;
         myKeywords = keywords;
         myIsExpand = expand;
         myIsRepair = repair;
-        myInteresting = eol != null && keywords != null ? ALL : (eol != null ? EOLS : KEYWORDS);
+        myIsScanEOLs = eol != null;
+        myIsScanKeywords = keywords != null;
         
         myEOLBuffer = new byte[2];
         myLastEOL = new byte[2];
         myKeywordBuffer = new byte[KEYWORD_MAX_LENGTH];
-        
-        myEOLBufferLength = 0;
-        myKeywordBufferLength = 0;
+        myOutputBuffer = new byte[OUTPUT_BUFFER_SIZE];
+    }
+
+    /**
+     * Translates <code>length</code> bytes of <code>src</code> and writes the result to <code>dst</code>.
+     * Part of the result may be kept buffered until the next call or {@link #flush(OutputStream)}.
+     */
+    public void translateChunk(byte[] src, int offset, int length, OutputStream dst) throws IOException {
+        myOutput = dst;
+        try {
+            if (!myIsScanEOLs && !myIsScanKeywords) {
+                write(src, offset, length);
+            } else {
+                translate(src, offset, offset + length);
+            }
+        } finally {
+            myOutput = null;
+        }
+    }
+
+    /**
+     * Writes out everything kept buffered, including an incomplete keyword or EOL.
+     */
+    public void flush(OutputStream dst) throws IOException {
+        myOutput = dst;
+        try {
+            if (myEOLBufferLength > 0) {
+                substituteEOL();
+                myEOLBufferLength = 0;
+            }
+            if (myKeywordBufferLength > 0) {
+                write(myKeywordBuffer, 0, myKeywordBufferLength);
+                myKeywordBufferLength = 0;
+                myNextSignOff = 0;
+            }
+            flushOutput();
+        } finally {
+            myOutput = null;
+        }
     }
     
     public ByteBuffer translateChunk(ByteBuffer src, ByteBuffer dst) throws SVNException {
-        if (src != null) {
-            int nextSignOff = 0;            
-            while(src.hasRemaining()) {
-                byte p = src.get(src.position());
-                if (myEOLBufferLength > 0) {
-                    if (p == '\n') {
-                        myEOLBuffer[myEOLBufferLength++] = src.get();
-                    }
-                    dst = substituteEOL(dst, myEOL, myEOL.length, 
-                            myLastEOL, myLastEOLLength, 
-                            myEOLBuffer, myEOLBufferLength, myIsRepair);
-                    myEOLBufferLength = 0;
-                } else if (myKeywordBufferLength > 0 && p == '$') {
-                    myKeywordBuffer[myKeywordBufferLength++] = src.get();                    
+        if (myByteBufferOutput == null) {
+            myByteBufferOutput = new ByteBufferOutputStream();
+        }
+        myByteBufferOutput.myBuffer = dst;
+        try {
+            if (src != null) {
+                translateChunk(src.array(), src.arrayOffset() + src.position(), src.remaining(), myByteBufferOutput);
+                src.position(src.limit());
+                myOutput = myByteBufferOutput;
+                try {
+                    flushOutput();
+                } finally {
+                    myOutput = null;
+                }
+            } else {
+                flush(myByteBufferOutput);
+            }
+        } catch (IOExceptionWrapper e) {
+            throw e.getOriginalException();
+        } catch (IOException e) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e.getLocalizedMessage());
+            SVNErrorManager.error(err, e, SVNLogType.DEFAULT);
+        }
+        dst = myByteBufferOutput.myBuffer;
+        myByteBufferOutput.myBuffer = null;
+        return dst;
+    }
+
+    private void translate(byte[] src, int offset, int end) throws IOException {
+        int i = offset;
+        while (i < end) {
+            if (myEOLBufferLength > 0) {
+                if (src[i] == '\n') {
+                    myEOLBuffer[myEOLBufferLength++] = src[i++];
+                }
+                substituteEOL();
+                myEOLBufferLength = 0;
+                continue;
+            }
+            if (myKeywordBufferLength > 0) {
+                final byte p = src[i];
+                if (p == '$') {
+                    myKeywordBuffer[myKeywordBufferLength++] = src[i++];
                     byte[] keywordName = matchKeyword(myKeywordBuffer, 0, myKeywordBufferLength);
                     if (keywordName == null) {
                         myKeywordBufferLength--;
-                        unread(src, 1);
+                        i--;
                     }
                     int newLength = -1;
                     if (keywordName == null || (newLength = translateKeyword(myKeywordBuffer, 0, myKeywordBufferLength, keywordName)) >= 0 || myKeywordBufferLength >= KEYWORD_MAX_LENGTH) {
                         if (newLength >= 0) {
                             myKeywordBufferLength = newLength;
                         }
-                        dst = write(dst, myKeywordBuffer, 0, myKeywordBufferLength);
-                        nextSignOff = 0;
-                        myKeywordBufferLength = 0;                        
-                    } else {
-                        if (nextSignOff == 0) {
-                            nextSignOff = myKeywordBufferLength - 1;
-                        }
-                        continue;
+                        write(myKeywordBuffer, 0, myKeywordBufferLength);
+                        myNextSignOff = 0;
+                        myKeywordBufferLength = 0;
+                    } else if (myNextSignOff == 0) {
+                        myNextSignOff = myKeywordBufferLength - 1;
                     }
-                } else if (myKeywordBufferLength == KEYWORD_MAX_LENGTH - 1 || (myKeywordBufferLength > 0 && (p == '\r' || p == '\n'))) {
-                    if (nextSignOff > 0) {
-                        unread(src, myKeywordBufferLength - nextSignOff);
-                        myKeywordBufferLength = nextSignOff;
-                        nextSignOff = 0;
+                } else if (myKeywordBufferLength == KEYWORD_MAX_LENGTH - 1 || p == '\r' || p == '\n') {
+                    if (myNextSignOff > 0) {
+                        // not a keyword; what follows the second '$' has to be scanned again.
+                        // rescans nest, each level gets its own buffer.
+                        if (myRescanDepth == myRescanBuffers.length) {
+                            final byte[][] buffers = new byte[myRescanDepth + 1][];
+                            System.arraycopy(myRescanBuffers, 0, buffers, 0, myRescanDepth);
+                            buffers[myRescanDepth] = new byte[KEYWORD_MAX_LENGTH];
+                            myRescanBuffers = buffers;
+                        }
+                        final byte[] rescan = myRescanBuffers[myRescanDepth];
+                        final int rescanLength = myKeywordBufferLength - myNextSignOff;
+                        System.arraycopy(myKeywordBuffer, myNextSignOff, rescan, 0, rescanLength);
+                        myKeywordBufferLength = myNextSignOff;
+                        myNextSignOff = 0;
+                        write(myKeywordBuffer, 0, myKeywordBufferLength);
+                        myKeywordBufferLength = 0;
+                        myRescanDepth++;
+                        try {
+                            translate(rescan, 0, rescanLength);
+                        } finally {
+                            myRescanDepth--;
+                        }
+                    } else {
+                        write(myKeywordBuffer, 0, myKeywordBufferLength);
+                        myKeywordBufferLength = 0;
                     }
-                    dst = write(dst, myKeywordBuffer, 0, myKeywordBufferLength);
-                    myKeywordBufferLength = 0;
-                } else if (myKeywordBufferLength > 0) {
-                    myKeywordBuffer[myKeywordBufferLength++] = src.get();
-                    continue;
-                }
-                int len = 0;
-                while(src.position() + len < src.limit() && !isInteresting(src.get(src.position() + len))) {
-                    len++;
-                }
-                if (len > 0) {
-                    dst = write(dst, src.array(), src.arrayOffset() + src.position(), len);
+                } else {
+                    myKeywordBuffer[myKeywordBufferLength++] = src[i++];
                 }
-                src.position(src.position() + len);
-                if (src.hasRemaining()) {
-                    // setup interesting.
-                    p = src.get();
-                    switch (p) {
-                        case '$':
-                            myKeywordBuffer[myKeywordBufferLength++] = p;
-                            break;
-                        case '\r':
-                            myEOLBuffer[myEOLBufferLength++] = p;
-                            break;
-                        case '\n':
-                            myEOLBuffer[myEOLBufferLength++] = p;
-                            dst = substituteEOL(dst, 
-                                    myEOL, myEOL.length, 
-                                    myLastEOL, myLastEOLLength, 
-                                    myEOLBuffer, myEOLBufferLength, myIsRepair);
-                            myEOLBufferLength = 0;
-                            break;
-                    }
-                }                
+                continue;
             }
-        } else {
-            // flush buffers if any.
-            if (myEOLBufferLength > 0) {
-                dst = substituteEOL(dst, 
-                        myEOL, myEOL.length, 
-                        myLastEOL, myLastEOLLength, 
-                        myEOLBuffer, myEOLBufferLength, myIsRepair);
-                myEOLBufferLength = 0;
+            final int next = findInteresting(src, i, end);
+            if (next > i) {
+                write(src, i, next - i);
+                i = next;
             }
-            if (myKeywordBufferLength > 0) {
-                dst = write(dst, myKeywordBuffer, 0, myKeywordBufferLength);
-                myKeywordBufferLength = 0;
+            if (i < end) {
+                final byte p = src[i++];
+                switch (p) {
+                    case '$':
+                        myKeywordBuffer[myKeywordBufferLength++] = p;
+                        break;
+                    case '\r':
+                        myEOLBuffer[myEOLBufferLength++] = p;
+                        break;
+                    case '\n':
+                        myEOLBuffer[myEOLBufferLength++] = p;
+                        substituteEOL();
+                        myEOLBufferLength = 0;
+                        break;
+                }
             }
         }
-        return dst;
     }
-    
-    private boolean isInteresting(byte p) {
-        for(int i = 0; i < myInteresting.length; i++) {
-            if (p == myInteresting[i]) {
-                return true;
+
+    /**
+     * Returns the index of the first byte in <code>[from, to)</code> that may need translation,
+     * or <code>to</code>. Whole words are tested at once with the "has zero byte" bit trick
+     * applied to the word XORed with a repeated pattern byte.
+     */
+    private int findInteresting(byte[] src, int from, int to) {
+        int i = from;
+        if (to - i >= 8) {
+            final ByteBuffer view = getScanView(src);
+            final int last = to - 8;
+            while (i <= last) {
+                final long word = view.getLong(i);
+                long found = 0;
+                if (myIsScanKeywords) {
+                    found |= zeroBytes(word ^ DOLLARS);
+                }
+                if (myIsScanEOLs) {
+                    found |= zeroBytes(word ^ CRS) | zeroBytes(word ^ LFS);
+                }
+                if (found != 0) {
+                    return i + (Long.numberOfTrailingZeros(found) >>> 3);
+                }
+                i += 8;
+            }
+        }
+        for (; i < to; i++) {
+            final byte p = src[i];
+            if ((myIsScanKeywords && p == '$') || (myIsScanEOLs && (p == '\r' || p == '\n'))) {
+                return i;
             }
         }
-        return false;
+        return to;
+    }
+
+    private static long zeroBytes(long word) {
+        final long t = (word & LOW_BITS) + LOW_BITS;
+        return ~(t | word | LOW_BITS);
+    }
+
+    private ByteBuffer getScanView(byte[] src) {
+        if (myScanView == null || myScanView.array() != src) {
+            myScanView = ByteBuffer.wrap(src).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return myScanView;
     }
     
     private byte[] matchKeyword(byte[] src, int offset, int length) { 
@@ -208,10 +328,6 @@ public class SVNSubstitutor {
         return -1;
     }
     
-    private static void unread(ByteBuffer buffer, int length) {
-        buffer.position(buffer.position() - length);
-    }
-    
     private static int substituteKeyword(byte[] src, int offset, int length, byte[] keyword, byte[] value) {
         int pointer;
         if (length < keyword.length + 2) {
@@ -293,29 +409,65 @@ public class SVNSubstitutor {
         return -1;
     }
     
-    private static ByteBuffer substituteEOL(ByteBuffer dst, 
-            byte[] eol, int eolLength, byte[] lastEOL, int[] lastEOLLength, byte[] nextEOL, int nextEOLLength, 
-            boolean repair) throws SVNException {
-        if (lastEOLLength[0] > 0) {
-            if (!repair && (lastEOLLength[0] != nextEOLLength || !Arrays.equals(lastEOL, nextEOL))) {
+    private void substituteEOL() throws IOException {
+        if (myLastEOLLength > 0) {
+            if (!myIsRepair && (myLastEOLLength != myEOLBufferLength || myLastEOL[0] != myEOLBuffer[0] || 
+                    (myEOLBufferLength > 1 && myLastEOL[1] != myEOLBuffer[1]))) {
                 // inconsistent EOLs.
                 SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_INCONSISTENT_EOL);
-                SVNErrorManager.error(err, SVNLogType.DEFAULT);
+                try {
+                    SVNErrorManager.error(err, SVNLogType.DEFAULT);
+                } catch (SVNException e) {
+                    throw new IOExceptionWrapper(e);
+                }
             }
         } else {
-            lastEOLLength[0] = nextEOLLength;
-            lastEOL[0] = nextEOL[0];
-            lastEOL[1] = nextEOL[1];
+            myLastEOLLength = myEOLBufferLength;
+            myLastEOL[0] = myEOLBuffer[0];
+            myLastEOL[1] = myEOLBuffer[1];
         }
-        return write(dst, eol, 0, eolLength);
+        write(myEOL, 0, myEOL.length);
     }
     
-    private static ByteBuffer write(ByteBuffer dst, byte[] bytes, int offset, int length) {
-        if (dst.remaining() < length) {
-            ByteBuffer newDst = ByteBuffer.allocate((dst.position() + length)*3/2);
-            dst.flip();
-            dst = newDst.put(dst);
+    private void write(byte[] bytes, int offset, int length) throws IOException {
+        if (myOutputLength + length > myOutputBuffer.length) {
+            flushOutput();
+            if (length >= myOutputBuffer.length) {
+                myOutput.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, myOutputBuffer, myOutputLength, length);
+        myOutputLength += length;
+    }
+
+    private void flushOutput() throws IOException {
+        if (myOutputLength > 0) {
+            myOutput.write(myOutputBuffer, 0, myOutputLength);
+            myOutputLength = 0;
+        }
+    }
+
+    private static class ByteBufferOutputStream extends OutputStream {
+
+        private ByteBuffer myBuffer;
+
+        public void write(int b) throws IOException {
+            ensureRemaining(1);
+            myBuffer.put((byte) (b & 0xFF));
+        }
+
+        public void write(byte[] bytes, int offset, int length) {
+            ensureRemaining(length);
+            myBuffer.put(bytes, offset, length);
+        }
+
+        private void ensureRemaining(int length) {
+            if (myBuffer.remaining() < length) {
+                ByteBuffer newBuffer = ByteBuffer.allocate((myBuffer.position() + length)*3/2);
+                myBuffer.flip();
+                myBuffer = newBuffer.put(myBuffer);
+            }
         }
-        return dst.put(bytes, offset, length);
     }
 }
@@ -13,11 +13,9 @@ package org.tmatesoft.svn.core.internal.wc.admin;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.ByteBuffer;
+import java.io.OutputStream;
 import java.util.Map;
 
-import org.tmatesoft.svn.core.SVNException;
-import org.tmatesoft.svn.core.internal.wc.IOExceptionWrapper;
 import org.tmatesoft.svn.core.internal.wc.SVNSubstitutor;
 
 
@@ -28,25 +26,26 @@ import org.tmatesoft.svn.core.internal.wc.SVNSubstitutor;
 public class SVNTranslatorInputStream extends InputStream {
     
     private InputStream mySource;
-    private ByteBuffer myTranslatedBuffer;
     private SVNSubstitutor mySubstitutor;
     private byte[] mySourceBuffer;
+    private TranslatedBuffer myTranslatedBuffer;
+    private byte[] mySingleByte;
 
 
     public SVNTranslatorInputStream(InputStream source, byte[] eols, boolean repair, Map keywords, boolean expand) {
         mySource = source;
         mySubstitutor = new SVNSubstitutor(eols, repair, keywords, expand);
-        myTranslatedBuffer = ByteBuffer.allocate(2048);
-        mySourceBuffer = new byte[2048];
+        myTranslatedBuffer = new TranslatedBuffer();
+        mySourceBuffer = new byte[8192];
+        mySingleByte = new byte[1];
     }
 
     public int read() throws IOException {
-        byte[] b = new byte[1];
-        int r = read(b);
+        int r = read(mySingleByte);
         if (r <= 0) {
             return -1;
         }
-        return b[0] & 0xFF;
+        return mySingleByte[0] & 0xFF;
     }
 
     public int read(byte[] b) throws IOException {
@@ -55,32 +54,16 @@ public class SVNTranslatorInputStream extends InputStream {
 
     public int read(byte[] b, int off, int len) throws IOException {
         boolean isEOF = false;
-        int available = myTranslatedBuffer.position();
-        while(available < len) {
+        while(myTranslatedBuffer.available() < len) {
             int read = mySource.read(mySourceBuffer, 0, mySourceBuffer.length);
             if (read < 0) {
                 isEOF = true;
-                try {
-                    myTranslatedBuffer = mySubstitutor.translateChunk(null, myTranslatedBuffer);
-                } catch (SVNException svne) {
-                    IOExceptionWrapper wrappedException = new IOExceptionWrapper(svne);
-                    throw wrappedException;
-                }
+                mySubstitutor.flush(myTranslatedBuffer);
                 break;
             }
-            
-            try {
-                myTranslatedBuffer = mySubstitutor.translateChunk(ByteBuffer.wrap(mySourceBuffer, 0, read), myTranslatedBuffer);
-            } catch (SVNException svne) {
-                IOExceptionWrapper wrappedException = new IOExceptionWrapper(svne);
-                throw wrappedException;
-            }
-            available = myTranslatedBuffer.position();
+            mySubstitutor.translateChunk(mySourceBuffer, 0, read, myTranslatedBuffer);
         }
-        myTranslatedBuffer.flip();
-        len = Math.min(myTranslatedBuffer.remaining(), len);
-        myTranslatedBuffer.get(b, off, len);
-        myTranslatedBuffer.compact();
+        len = myTranslatedBuffer.read(b, off, len);
         if (isEOF && len == 0) {
             return -1;
         }
@@ -90,4 +73,52 @@ public class SVNTranslatorInputStream extends InputStream {
     public void close() throws IOException {
         mySource.close();
     }
+
+    private static class TranslatedBuffer extends OutputStream {
+
+        private byte[] myBuffer = new byte[16384];
+        private int myStart;
+        private int myEnd;
+
+        public int available() {
+            return myEnd - myStart;
+        }
+
+        public int read(byte[] b, int off, int len) {
+            len = Math.min(len, available());
+            System.arraycopy(myBuffer, myStart, b, off, len);
+            myStart += len;
+            if (myStart == myEnd) {
+                myStart = 0;
+                myEnd = 0;
+            }
+            return len;
+        }
+
+        public void write(int b) {
+            ensureCapacity(1);
+            myBuffer[myEnd++] = (byte) (b & 0xFF);
+        }
+
+        public void write(byte[] b, int off, int len) {
+            ensureCapacity(len);
+            System.arraycopy(b, off, myBuffer, myEnd, len);
+            myEnd += len;
+        }
+
+        private void ensureCapacity(int len) {
+            if (myEnd + len > myBuffer.length) {
+                final int available = available();
+                if (available + len > myBuffer.length) {
+                    byte[] buffer = new byte[Math.max(myBuffer.length * 2, available + len)];
+                    System.arraycopy(myBuffer, myStart, buffer, 0, available);
+                    myBuffer = buffer;
+                } else {
+                    System.arraycopy(myBuffer, myStart, myBuffer, 0, available);
+                }
+                myStart = 0;
+                myEnd = available;
+            }
+        }
+    }
 }
@@ -4010,7 +4010,7 @@ public class SVNWCClient16 extends SVNBasicDelegate {
                     : dst;
             try {
                 SVNTranslator.copy(input, new SVNCancellableOutputStream(translatingStream, getEventDispatcher()));
-                dst.flush();
+                translatingStream.flush();
             } catch (IOExceptionWrapper ioew) {
                 throw ioew.getOriginalException();
             } catch (IOException e) {
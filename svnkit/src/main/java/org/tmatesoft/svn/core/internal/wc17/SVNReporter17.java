@@ -41,6 +41,7 @@ import org.tmatesoft.svn.core.internal.wc17.db.SVNWCDb.DirParsedInfo;
 import org.tmatesoft.svn.core.internal.wc17.db.SVNWCDbRoot;
 import org.tmatesoft.svn.core.internal.wc17.db.Structure;
 import org.tmatesoft.svn.core.internal.wc17.db.StructureFields.AdditionInfo;
+import org.tmatesoft.svn.core.internal.wc17.db.SvnWcDbReader;
 import org.tmatesoft.svn.core.internal.wc17.db.SvnWcDbShared;
 import org.tmatesoft.svn.core.io.ISVNReporter;
 import org.tmatesoft.svn.core.io.ISVNReporterBaton;
@@ -64,6 +65,7 @@ public class SVNReporter17 implements ISVNReporterBaton {
     private boolean isUseCommitTimes;
     private int reportedFilesCount;
     private int totalFilesCount;
+    private Set<String> uniformDirectories;
 
     public SVNReporter17(File path, SVNWCContext wcContext, boolean restoreFiles, boolean useDepthCompatibilityTrick, SVNDepth depth, boolean lockOnDemand, boolean isStatus,
             boolean isHonorDepthExclude, boolean isUseCommitTimes, ISVNDebugLog log) {
@@ -178,6 +180,10 @@ public class SVNReporter17 implements ISVNReporterBaton {
             if (target_kind == SVNWCDbKind.Dir) {
                 if (depth != SVNDepth.EMPTY) {
                     DirParsedInfo rootInfo = ((SVNWCDb) wcContext.getDb()).obtainWcRoot(path);
+                    if (!start_empty && depth.isRecursive() && reportDepth == SVNDepth.INFINITY) {
+                        uniformDirectories = SvnWcDbReader.getUniformRevisionDirectories((SVNWCDb) wcContext.getDb(), path, 
+                                target_rev, repos_relpath, isRestoreFiles);
+                    }
                     reportRevisionsAndDepths(rootInfo.wcDbDir.getWCRoot(), path, rootInfo.localRelPath, 
                             SVNFileUtil.createFilePath(""), 
                             target_rev, repos_relpath, repos_root, reportDepth, reporter, isRestoreFiles, depth, start_empty);
@@ -352,6 +358,10 @@ public class SVNReporter17 implements ISVNReporterBaton {
                         && depth.compareTo(ths.depth) > 0) {
                     startEmpty = true;
                 }
+                if (!reportEverything && !thisSwitched && isUniformSubtree(dirLocalRelPath, child, ths, dirRev, dirDepth)) {
+                    // neither this directory nor anything below it differs from what its parent reports.
+                    continue;
+                }
                 if (reportEverything) {
                     if (thisSwitched) {
                         SVNURL url = SVNWCUtils.join(dirReposRoot, ths.reposRelPath);
@@ -390,6 +400,16 @@ public class SVNReporter17 implements ISVNReporterBaton {
         }
     }
 
+    private boolean isUniformSubtree(File dirLocalRelPath, String child, WCDbBaseInfo ths, long dirRev, SVNDepth dirDepth) {
+        return uniformDirectories != null
+                && ths.status == SVNWCDbStatus.Normal
+                && ths.lock == null
+                && ths.revision == dirRev
+                && ths.depth == SVNDepth.INFINITY
+                && dirDepth == SVNDepth.INFINITY
+                && uniformDirectories.contains(SVNFileUtil.getFilePath(SVNFileUtil.createFilePath(dirLocalRelPath, child)));
+    }
+
     private static void restoreFile(SVNWCContext context, File localAbsPath, boolean useCommitTimes, boolean removeTextConflicts) throws SVNException {
         SVNSkel workItem = context.wqBuildFileInstall(localAbsPath, null, useCommitTimes, true);
         context.getDb().addWorkQueue(localAbsPath, workItem);
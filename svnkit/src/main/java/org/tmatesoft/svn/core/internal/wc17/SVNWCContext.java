@@ -110,6 +110,7 @@ import java.io.RandomAccessFile;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -119,6 +120,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 import java.util.logging.Level;
 
 import static org.tmatesoft.svn.core.internal.wc17.db.SVNWCDb.isAbsolute;
@@ -177,6 +184,11 @@ public class SVNWCContext {
 
     private static final String WC17_SUPPORT_ENABLED_PROPERTY = "svnkit.wc.17.enabled";
 
+    private static final int WQ_FETCH_LIMIT = 256;
+    private static final int WQ_INSTALL_THREADS = Integer.getInteger("svnkit.wc.wq.installThreads", Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static volatile ExecutorService ourFileInstallExecutor;
+
     public TreeLocalModsInfo hasLocalMods(File localAbspath, File anchorAbspath) throws SVNException {
         final TreeLocalModsInfo modsInfo = new TreeLocalModsInfo();
         SVNStatusEditor17 statusEditor = new SVNStatusEditor17(anchorAbspath, this, getOptions(), false, false, SVNDepth.INFINITY, new ISvnObjectReceiver<SvnStatus>() {
@@ -328,6 +340,7 @@ public class SVNWCContext {
     private boolean closeDb;
     private Stack<ISVNEventHandler> eventHandler;
     private List<CleanupHandler> cleanupHandlers = new LinkedList<CleanupHandler>();
+    private final Set<File> cloneUnsupportedRoots = Collections.synchronizedSet(new HashSet<File>());
     private SvnOperation<?> operation;
 
     public SVNWCContext(ISVNOptions config, ISVNEventHandler eventHandler) {
@@ -3953,12 +3966,16 @@ public class SVNWCContext {
         try {
             while (true) {
                 checkCancelled();
-                WCDbWorkQueueInfo fetchWorkQueue = db.fetchWorkQueue(dirAbspath);
-                if (fetchWorkQueue.workItem == null) {
+                List<WCDbWorkQueueInfo> workItems = db.fetchWorkQueue(dirAbspath, WQ_FETCH_LIMIT);
+                if (workItems.isEmpty()) {
                     break;
                 }
-                dispatchWorkItem(wcRootAbspath, fetchWorkQueue.workItem);
-                db.completedWorkQueue(dirAbspath, fetchWorkQueue.id);
+                runWorkItems(wcRootAbspath, workItems);
+                long[] ids = new long[workItems.size()];
+                for (int i = 0; i < ids.length; i++) {
+                    ids[i] = workItems.get(i).id;
+                }
+                db.completedWorkQueue(dirAbspath, ids);
             }
             sDb.commit();
         } catch(SVNException e) {
@@ -3967,6 +3984,117 @@ public class SVNWCContext {
         }
     }
 
+    /**
+     * Runs work items in queue order. Consecutive file-install items that do not
+     * touch the same paths are grouped; their database reads and writes are done
+     * on this thread, while the files themselves are installed concurrently.
+     */
+    private void runWorkItems(File wcRootAbspath, List<WCDbWorkQueueInfo> workItems) throws SVNException {
+        final List<SVNSkel> installs = new ArrayList<SVNSkel>();
+        final Set<File> installPaths = new HashSet<File>();
+        for (WCDbWorkQueueInfo info : workItems) {
+            final SVNSkel workItem = info.workItem;
+            if (WQ_INSTALL_THREADS > 1 && isFileInstallWorkItem(workItem)) {
+                final File localAbspath = SVNFileUtil.createFilePath(wcRootAbspath, workItem.getChild(1).getValue());
+                final File sourceAbspath = workItem.getListSize() >= 5 ? SVNFileUtil.createFilePath(wcRootAbspath, workItem.getChild(4).getValue()) : null;
+                if (installPaths.contains(localAbspath) || (sourceAbspath != null && installPaths.contains(sourceAbspath))) {
+                    runFileInstalls(wcRootAbspath, installs);
+                    installs.clear();
+                    installPaths.clear();
+                }
+                installs.add(workItem);
+                installPaths.add(localAbspath);
+                if (sourceAbspath != null) {
+                    installPaths.add(sourceAbspath);
+                }
+                continue;
+            }
+            runFileInstalls(wcRootAbspath, installs);
+            installs.clear();
+            installPaths.clear();
+
+            checkCancelled();
+            dispatchWorkItem(wcRootAbspath, workItem);
+        }
+        runFileInstalls(wcRootAbspath, installs);
+    }
+
+    private void runFileInstalls(File wcRootAbspath, List<SVNSkel> workItems) throws SVNException {
+        if (workItems.isEmpty()) {
+            return;
+        }
+        if (workItems.size() == 1) {
+            checkCancelled();
+            dispatchWorkItem(wcRootAbspath, workItems.get(0));
+            return;
+        }
+        final List<RunFileInstall.FileInstall> fileInstalls = new ArrayList<RunFileInstall.FileInstall>(workItems.size());
+        for (SVNSkel workItem : workItems) {
+            checkCancelled();
+            fileInstalls.add(RunFileInstall.prepare(this, wcRootAbspath, workItem));
+        }
+
+        final List<Future<?>> futures = new ArrayList<Future<?>>(fileInstalls.size());
+        for (final RunFileInstall.FileInstall fileInstall : fileInstalls) {
+            futures.add(getFileInstallExecutor().submit(new Callable<Object>() {
+                public Object call() throws SVNException {
+                    fileInstall.install();
+                    return null;
+                }
+            }));
+        }
+        SVNException error = null;
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (error == null) {
+                    error = new SVNCancelException();
+                }
+                break;
+            } catch (ExecutionException e) {
+                if (error == null) {
+                    final Throwable cause = e.getCause();
+                    if (cause instanceof SVNException) {
+                        error = (SVNException) cause;
+                    } else {
+                        SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, cause != null ? cause.getMessage() : e.getMessage());
+                        error = new SVNException(err, cause);
+                    }
+                }
+            }
+        }
+        if (error != null) {
+            throw error;
+        }
+
+        for (RunFileInstall.FileInstall fileInstall : fileInstalls) {
+            fileInstall.complete(this);
+        }
+    }
+
+    private static boolean isFileInstallWorkItem(SVNSkel workItem) throws SVNException {
+        return !workItem.isAtom() && WorkQueueOperation.FILE_INSTALL.getOpName().equals(workItem.getChild(0).getValue());
+    }
+
+    private static ExecutorService getFileInstallExecutor() {
+        if (ourFileInstallExecutor == null) {
+            synchronized (SVNWCContext.class) {
+                if (ourFileInstallExecutor == null) {
+                    ourFileInstallExecutor = Executors.newFixedThreadPool(WQ_INSTALL_THREADS, new ThreadFactory() {
+                        public Thread newThread(Runnable r) {
+                            final Thread t = new Thread(r, "SVNKit work queue installer");
+                            t.setDaemon(true);
+                            return t;
+                        }
+                    });
+                }
+            }
+        }
+        return ourFileInstallExecutor;
+    }
+
     private void dispatchWorkItem(File wcRootAbspath, SVNSkel workItem) throws SVNException {
         if (!workItem.isAtom()) {
             for (WorkQueueOperation scan : WorkQueueOperation.values()) {
@@ -4030,6 +4158,12 @@ public class SVNWCContext {
     public static class RunFileInstall implements RunWorkQueueOperation {
 
         public void runOperation(SVNWCContext ctx, File wcRootAbspath, SVNSkel workItem) throws SVNException {
+            final FileInstall fileInstall = prepare(ctx, wcRootAbspath, workItem);
+            fileInstall.install();
+            fileInstall.complete(ctx);
+        }
+
+        static FileInstall prepare(SVNWCContext ctx, File wcRootAbspath, SVNSkel workItem) throws SVNException {
             File localAbspath = SVNFileUtil.createFilePath(wcRootAbspath, workItem.getChild(1).getValue());
             boolean useCommitTimes = "1".equals(workItem.getChild(2).getValue());
             boolean recordFileInfo = "1".equals(workItem.getChild(3).getValue());
@@ -4048,28 +4182,96 @@ public class SVNWCContext {
                 sourceAbsPath = SvnWcDbPristines.getPristineFuturePath(nodeInstallInfo.wcRoot, nodeInstallInfo.checksum);
             }
 
-            TranslateInfo tinfo = ctx.getTranslateInfo(localAbspath, true, true, true, true);
-            SVNTranslator.translate(sourceAbsPath, localAbspath, tinfo.charset, tinfo.eolStyleInfo.eolStr, tinfo.keywords, tinfo.special, true);
-            if (tinfo.special) {
-                return;
+            final FileInstall fileInstall = new FileInstall();
+            fileInstall.localAbspath = localAbspath;
+            fileInstall.sourceAbspath = sourceAbsPath;
+            fileInstall.recordFileInfo = recordFileInfo;
+            fileInstall.translateInfo = ctx.getTranslateInfo(localAbspath, true, true, true, true);
+            if (fileInstall.translateInfo.special) {
+                return fileInstall;
+            }
+            if (ctx.getOptions() instanceof DefaultSVNOptions &&
+                    DefaultSVNOptions.PRISTINE_INSTALL_CLONE.equals(((DefaultSVNOptions) ctx.getOptions()).getPristineInstallMode()) &&
+                    !ctx.cloneUnsupportedRoots.contains(wcRootAbspath)) {
+                fileInstall.wcRootAbspath = wcRootAbspath;
+                fileInstall.cloneUnsupportedRoots = ctx.cloneUnsupportedRoots;
             }
 
             final Structure<InstallInfo> installInfo = SvnWcDbReader.readNodeInstallInfo((SVNWCDb) ctx.getDb(),
                     localAbspath, InstallInfo.changedDate, InstallInfo.pristineProps);
             final SVNProperties props = installInfo.get(InstallInfo.pristineProps);
-            if (props != null &&
+            fileInstall.syncFileFlags = props != null &&
                     (props.containsName(SVNProperty.EXECUTABLE) ||
-                     props.containsName(SVNProperty.NEEDS_LOCK))) {
-                ctx.syncFileFlags(localAbspath);
-            }
+                     props.containsName(SVNProperty.NEEDS_LOCK));
             if (useCommitTimes) {
-                final SVNDate changedDate = installInfo.get(InstallInfo.changedDate);
+                fileInstall.changedDate = installInfo.get(InstallInfo.changedDate);
+            }
+            return fileInstall;
+        }
+
+        /**
+         * A file install split into the part that only touches the file system
+         * ({@link #install()}), which is safe to run off the thread that owns
+         * the working copy database, and the part that records the result
+         * ({@link #complete(SVNWCContext)}).
+         */
+        static class FileInstall {
+
+            private File localAbspath;
+            private File sourceAbspath;
+            private TranslateInfo translateInfo;
+            private boolean syncFileFlags;
+            private boolean recordFileInfo;
+            private File wcRootAbspath;
+            private Set<File> cloneUnsupportedRoots;
+            private SVNDate changedDate;
+
+            public void install() throws SVNException {
+                TranslateInfo tinfo = translateInfo;
+                if (isTranslationRequired(tinfo) || !cloneUntranslated()) {
+                    SVNTranslator.translate(sourceAbspath, localAbspath, tinfo.charset, tinfo.eolStyleInfo.eolStr, tinfo.keywords, tinfo.special, true);
+                }
+                if (tinfo.special) {
+                    return;
+                }
                 if (changedDate != null) {
                     SVNFileUtil.setFileLastModifiedMicros(localAbspath, changedDate.getTimeInMicros());
                 }
             }
-            if (recordFileInfo) {
-                ctx.getAndRecordFileInfo(localAbspath, false);
+
+            /**
+             * Working copy roots where cloning failed once are remembered for the
+             * lifetime of the context, so that a file system without reflink support
+             * costs a single failed attempt instead of one per installed file.
+             */
+            private boolean cloneUntranslated() throws SVNException {
+                if (cloneUnsupportedRoots == null || cloneUnsupportedRoots.contains(wcRootAbspath)) {
+                    return false;
+                }
+                if (SVNFileUtil.cloneFile(sourceAbspath, localAbspath)) {
+                    return true;
+                }
+                cloneUnsupportedRoots.add(wcRootAbspath);
+                return false;
+            }
+
+            private static boolean isTranslationRequired(TranslateInfo tinfo) {
+                return tinfo.special ||
+                        (tinfo.charset != null && !SVNProperty.isUTF8(tinfo.charset)) ||
+                        tinfo.eolStyleInfo.eolStr != null ||
+                        (tinfo.keywords != null && !tinfo.keywords.isEmpty());
+            }
+
+            public void complete(SVNWCContext ctx) throws SVNException {
+                if (translateInfo.special) {
+                    return;
+                }
+                if (syncFileFlags) {
+                    ctx.syncFileFlags(localAbspath);
+                }
+                if (recordFileInfo) {
+                    ctx.getAndRecordFileInfo(localAbspath, false);
+                }
             }
         }
     }
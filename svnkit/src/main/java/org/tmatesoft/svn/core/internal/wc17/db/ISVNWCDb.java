@@ -1590,6 +1590,14 @@ public interface ISVNWCDb {
      */
     WCDbWorkQueueInfo fetchWorkQueue(File wcRootAbsPath) throws SVNException;
 
+    /**
+     * In the WCROOT associated with DB and WRI_ABSPATH, fetch up to LIMIT work
+     * items that need to be completed, in the same order they were queued.
+     * <p>
+     * If there are no work items to be completed, an empty list is returned.
+     */
+    List<WCDbWorkQueueInfo> fetchWorkQueue(File wcRootAbsPath, int limit) throws SVNException;
+
     class WCDbWorkQueueInfo {
 
         public long id;
@@ -1603,6 +1611,12 @@ public interface ISVNWCDb {
      */
     void completedWorkQueue(File wcRootAbsPath, long id) throws SVNException;
 
+    /**
+     * In the WCROOT associated with DB and WRI_ABSPATH, mark all work items
+     * from IDS as completed.
+     */
+    void completedWorkQueue(File wcRootAbsPath, long[] ids) throws SVNException;
+
     boolean isWCLocked(File localAbspath) throws SVNException;
 
     boolean isWCRoot(File localAbspath) throws SVNException;
@@ -1423,6 +1423,43 @@ public class SVNWCDb implements ISVNWCDb {
         }
     }
 
+    public void completedWorkQueue(File wcRootAbsPath, long[] ids) throws SVNException {
+        assert (SVNFileUtil.isAbsolute(wcRootAbsPath));
+        DirParsedInfo parseDir = parseDir(wcRootAbsPath, Mode.ReadWrite);
+        SVNWCDbDir pdh = parseDir.wcDbDir;
+        verifyDirUsable(pdh);
+        SVNSqlJetStatement stmt = pdh.getWCRoot().getSDb().getStatement(SVNWCDbStatements.DELETE_WORK_ITEM);
+        for (int i = 0; i < ids.length; i++) {
+            assert (ids[i] != 0);
+            try {
+                stmt.bindLong(1, ids[i]);
+                stmt.done();
+            } finally {
+                stmt.reset();
+            }
+        }
+    }
+
+    public List<WCDbWorkQueueInfo> fetchWorkQueue(File wcRootAbsPath, int limit) throws SVNException {
+        assert (SVNFileUtil.isAbsolute(wcRootAbsPath));
+        List<WCDbWorkQueueInfo> items = new ArrayList<WCDbWorkQueueInfo>();
+        DirParsedInfo parseDir = parseDir(wcRootAbsPath, Mode.ReadOnly);
+        SVNWCDbDir pdh = parseDir.wcDbDir;
+        verifyDirUsable(pdh);
+        SVNSqlJetStatement stmt = pdh.getWCRoot().getSDb().getStatement(SVNWCDbStatements.SELECT_WORK_ITEM);
+        try {
+            while (items.size() < limit && stmt.next()) {
+                WCDbWorkQueueInfo info = new WCDbWorkQueueInfo();
+                info.id = stmt.getColumnLong(SVNWCDbSchema.WORK_QUEUE__Fields.id);
+                info.workItem = SVNSkel.parse(stmt.getColumnBlob(SVNWCDbSchema.WORK_QUEUE__Fields.work));
+                items.add(info);
+            }
+            return items;
+        } finally {
+            stmt.reset();
+        }
+    }
+
     public WCDbWorkQueueInfo fetchWorkQueue(File wcRootAbsPath) throws SVNException {
         assert (SVNFileUtil.isAbsolute(wcRootAbsPath));
         WCDbWorkQueueInfo info = new WCDbWorkQueueInfo();
@@ -1796,7 +1833,8 @@ public class SVNWCDb implements ISVNWCDb {
         SVNWCDbDir pdh = parsed.wcDbDir;
         verifyDirUsable(pdh);
 
-        SvnWcDbPristines.installPristine(pdh.getWCRoot(), tempfileAbspath, sha1Checksum, md5Checksum);
+        SvnWcDbPristines.installPristine(pdh.getWCRoot(), tempfileAbspath, sha1Checksum, md5Checksum, 
+                SvnWcDbSharedPristines.getSharedPristinesDirectory(getConfig()));
     }
 
     public boolean isNodeHidden(File localAbsPath) throws SVNException {
@@ -4971,6 +5009,11 @@ public class SVNWCDb implements ISVNWCDb {
         verifyDirUsable(pdh);
 
         SvnWcDbPristines.cleanupPristine(pdh.getWCRoot(), localAbsPath);
+
+        File sharedPristinesDirectory = SvnWcDbSharedPristines.getSharedPristinesDirectory(getConfig());
+        if (sharedPristinesDirectory != null) {
+            SvnWcDbSharedPristines.collectGarbage(sharedPristinesDirectory);
+        }
     }
 
     private long fetchWCId(SVNSqlJetDb sDb) throws SVNException {
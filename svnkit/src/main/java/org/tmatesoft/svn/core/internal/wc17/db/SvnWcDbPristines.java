@@ -218,12 +218,20 @@ public class SvnWcDbPristines extends SvnWcDbShared {
     }
 
     public static void installPristine(SVNWCDbRoot root, File tempfileAbspath, SvnChecksum sha1Checksum, SvnChecksum md5Checksum) throws SVNException {
+        installPristine(root, tempfileAbspath, sha1Checksum, md5Checksum, null);
+    }
+
+    public static void installPristine(SVNWCDbRoot root, File tempfileAbspath, SvnChecksum sha1Checksum, SvnChecksum md5Checksum, File sharedPristinesDirectory) throws SVNException {
         File pristineAbspath = getPristineFileName(root, sha1Checksum, true);
         if (pristineAbspath.isFile()) {
             SVNFileUtil.deleteFile(tempfileAbspath);
             return;
         }
-        SVNFileUtil.rename(tempfileAbspath, pristineAbspath);
+        if (sharedPristinesDirectory != null) {
+            SvnWcDbSharedPristines.install(sharedPristinesDirectory, tempfileAbspath, pristineAbspath, sha1Checksum);
+        } else {
+            SVNFileUtil.rename(tempfileAbspath, pristineAbspath);
+        }
         long size = pristineAbspath.length();
         SVNSqlJetStatement stmt = root.getSDb().getStatement(SVNWCDbStatements.INSERT_PRISTINE);
         try {
@@ -14,7 +14,9 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Set;
 
 import org.tmatesoft.sqljet.core.SqlJetException;
 import org.tmatesoft.sqljet.core.SqlJetTransactionMode;
@@ -34,6 +36,7 @@ import org.tmatesoft.svn.core.internal.wc.SVNFileType;
 import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.internal.wc17.SVNWCContext;
 import org.tmatesoft.svn.core.internal.wc17.SVNWCUtils;
+import org.tmatesoft.svn.core.internal.wc17.db.ISVNWCDb.SVNWCDbKind;
 import org.tmatesoft.svn.core.internal.wc17.db.ISVNWCDb.SVNWCDbStatus;
 import org.tmatesoft.svn.core.internal.wc17.db.SVNWCDb.DirParsedInfo;
 import org.tmatesoft.svn.core.internal.wc17.db.StructureFields.WalkerChildInfo;
@@ -281,6 +284,88 @@ public class SvnWcDbReader extends SvnWcDbShared {
         return revs;
     }
     
+    /**
+     * Finds directories below <code>localAbsPath</code> whose whole BASE subtree is at the
+     * revision of the directory itself: every node is present, not switched, not locked, and
+     * every directory has infinite depth. An update report has nothing to say about such a
+     * subtree beyond the revision of its root.
+     *
+     * <p/>
+     * All BASE nodes of the subtree are read in one pass, so the summary is cheaper than a
+     * walk with a query per directory; it is computed for each report and is never stored,
+     * since working copies are also changed by clients that would not keep it up to date.
+     *
+     * @param revision        BASE revision of <code>localAbsPath</code>
+     * @param reposRelPath    repository path of <code>localAbsPath</code>
+     * @param checkMissing    whether nodes missing on disk make their parent directories non-uniform
+     * @return working copy root relative paths of uniform directories
+     */
+    public static Set<String> getUniformRevisionDirectories(SVNWCDb db, File localAbsPath, long revision, File reposRelPath, boolean checkMissing) throws SVNException {
+        DirParsedInfo dirInfo = db.obtainWcRoot(localAbsPath);
+        SVNWCDbRoot root = dirInfo.wcDbDir.getWCRoot();
+        String localRelPathStr = SVNFileUtil.getFilePath(dirInfo.localRelPath);
+
+        Map<String, Long> revisions = new HashMap<String, Long>();
+        Map<String, String> reposPaths = new HashMap<String, String>();
+        Set<String> nonUniform = new HashSet<String>();
+        Collection<String> directories = new ArrayList<String>();
+        revisions.put(localRelPathStr, revision);
+        reposPaths.put(localRelPathStr, SVNFileUtil.getFilePath(reposRelPath));
+
+        SVNSqlJetStatement stmt = root.getSDb().getStatement(SVNWCDbStatements.SELECT_BASE_NODE_LOCK_TOKENS_RECURSIVE);
+        try {
+            stmt.bindf("is", root.getWcId(), dirInfo.localRelPath);
+            while (stmt.next()) {
+                if (stmt.getColumnBoolean(NODES__Fields.file_external)) {
+                    continue;
+                }
+                String relPath = getColumnText(stmt, NODES__Fields.local_relpath);
+                String parentRelPath = getColumnText(stmt, NODES__Fields.parent_relpath);
+                SVNWCDbStatus presence = getColumnPresence(stmt);
+                SVNWCDbKind kind = getColumnKind(stmt, NODES__Fields.kind);
+                long nodeRevision = getColumnInt64(stmt, NODES__Fields.revision);
+                String nodeReposPath = getColumnText(stmt, NODES__Fields.repos_path);
+
+                Long parentRevision = revisions.get(parentRelPath);
+                String parentReposPath = reposPaths.get(parentRelPath);
+                boolean irregular = parentRevision == null
+                        || presence != SVNWCDbStatus.Normal
+                        || nodeRevision != parentRevision.longValue()
+                        || nodeReposPath == null
+                        || !nodeReposPath.equals(SVNPathUtil.append(parentReposPath, SVNPathUtil.tail(relPath)))
+                        || stmt.getJoinedStatement(SVNWCDbSchema.LOCK).getColumnString(SVNWCDbSchema.LOCK__Fields.lock_token) != null;
+                if (kind == SVNWCDbKind.Dir) {
+                    SVNDepth depth = SvnWcDbStatementUtil.parseDepth(getColumnText(stmt, NODES__Fields.depth));
+                    irregular |= depth != SVNDepth.INFINITY && depth != SVNDepth.UNKNOWN;
+                    if (presence == SVNWCDbStatus.Normal) {
+                        revisions.put(relPath, nodeRevision);
+                        reposPaths.put(relPath, nodeReposPath);
+                        directories.add(relPath);
+                    }
+                }
+                if (!irregular && checkMissing && SVNFileType.getType(root.getAbsPath(SVNFileUtil.createFilePath(relPath))) == SVNFileType.NONE) {
+                    irregular = true;
+                }
+                if (irregular) {
+                    String path = kind == SVNWCDbKind.Dir ? relPath : parentRelPath;
+                    while (path != null && nonUniform.add(path) && !path.equals(localRelPathStr)) {
+                        path = "".equals(path) ? null : SVNPathUtil.removeTail(path);
+                    }
+                }
+            }
+        } finally {
+            reset(stmt);
+        }
+
+        Set<String> uniform = new HashSet<String>();
+        for (String directory : directories) {
+            if (!nonUniform.contains(directory)) {
+                uniform.add(directory);
+            }
+        }
+        return uniform;
+    }
+
     public static Map<String, Structure<WalkerChildInfo>> readWalkerChildrenInfo(SVNWCDb db, File localAbspath, Map<String, Structure<WalkerChildInfo>> children) throws SVNException {
         
         DirParsedInfo dirInfo = db.obtainWcRoot(localAbspath);
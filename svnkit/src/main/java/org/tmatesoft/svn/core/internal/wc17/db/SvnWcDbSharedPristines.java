@@ -0,0 +1,153 @@
+package org.tmatesoft.svn.core.internal.wc17.db;
+
+import java.io.File;
+import java.io.InputStream;
+
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.wc.DefaultSVNOptions;
+import org.tmatesoft.svn.core.internal.wc.SVNFileListUtil;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.io.ISVNWorkingCopyContentMediator;
+import org.tmatesoft.svn.core.wc.ISVNOptions;
+import org.tmatesoft.svn.core.wc2.SvnChecksum;
+import org.tmatesoft.svn.util.SVNDebugLog;
+import org.tmatesoft.svn.util.SVNLogType;
+
+/**
+ * Pristine store shared by working copies, laid out like the pristine store of a working
+ * copy: <code>DIR/XX/XXYYZZ....svn-base</code>, keyed by SHA-1 of the pristine text.
+ *
+ * Pristine texts are never modified once installed, so a working copy keeps its pristine
+ * texts as hard links to files of the shared store. Working copies still own their
+ * <code>PRISTINE</code> table rows and links, so they keep working if the store is removed
+ * or is not configured for some client. The number of links to a store file is its
+ * reference count: files linked from no working copy are removed by
+ * {@link #collectGarbage(File)}.
+ *
+ * The store also serves as a local cache of file contents for checkouts, updates and
+ * exports, see {@link #createContentMediator(File)}.
+ */
+public class SvnWcDbSharedPristines {
+
+    private static final String PRISTINE_STORAGE_EXT = ".svn-base";
+
+    public static File getSharedPristinesDirectory(ISVNOptions options) {
+        if (options instanceof DefaultSVNOptions) {
+            return ((DefaultSVNOptions) options).getSharedPristinesDirectory();
+        }
+        return null;
+    }
+
+    public static File getStoreFile(File storeDirectory, SvnChecksum sha1Checksum) {
+        assert (sha1Checksum.getKind() == SvnChecksum.Kind.sha1);
+        String hexdigest = sha1Checksum.getDigest();
+        return SVNFileUtil.createFilePath(SVNFileUtil.createFilePath(storeDirectory, hexdigest.substring(0, 2)), hexdigest + PRISTINE_STORAGE_EXT);
+    }
+
+    /**
+     * Creates a source of file contents for {@link org.tmatesoft.svn.core.io.SVNRepository#setWorkingCopyContentMediator(ISVNWorkingCopyContentMediator)}
+     * which reads texts from the store. A text read from the store is still verified by the
+     * MD5 checksum the server sends for the file.
+     */
+    public static ISVNWorkingCopyContentMediator createContentMediator(final File storeDirectory) {
+        return new ISVNWorkingCopyContentMediator() {
+            public InputStream getContentAsStream(SvnChecksum checksum) {
+                if (checksum == null || checksum.getKind() != SvnChecksum.Kind.sha1
+                        || checksum.getDigest() == null || checksum.getDigest().length() != 40) {
+                    return null;
+                }
+                File storeFile = getStoreFile(storeDirectory, checksum);
+                if (!storeFile.isFile()) {
+                    return null;
+                }
+                try {
+                    return SVNFileUtil.openFileForReading(storeFile);
+                } catch (SVNException e) {
+                    // removed by garbage collection meanwhile, fetch it from the repository.
+                    return null;
+                }
+            }
+        };
+    }
+
+    /**
+     * Installs the pristine text from <code>tempAbsPath</code> at <code>pristineAbsPath</code>.
+     * When the store already has this text, the pristine becomes a link to it and the
+     * temporary file is removed; otherwise the temporary file is moved into place and
+     * linked into the store. A store file that differs from the text it is named after
+     * is replaced.
+     */
+    public static void install(File storeDirectory, File tempAbsPath, File pristineAbsPath, SvnChecksum sha1Checksum) throws SVNException {
+        File storeFile = getStoreFile(storeDirectory, sha1Checksum);
+        boolean isCorrupt = false;
+        if (storeFile.isFile()) {
+            if (isSameText(storeFile, tempAbsPath)) {
+                if (SVNFileUtil.createHardLink(storeFile, pristineAbsPath)) {
+                    SVNFileUtil.deleteFile(tempAbsPath);
+                    return;
+                }
+            } else {
+                SVNDebugLog.getDefaultLog().logFine(SVNLogType.WC, "Shared pristine " + storeFile + " does not match its checksum, replacing it");
+                isCorrupt = true;
+            }
+        }
+        SVNFileUtil.rename(tempAbsPath, pristineAbsPath);
+        if (isCorrupt) {
+            try {
+                SVNFileUtil.deleteFile(storeFile);
+            } catch (SVNException e) {
+                SVNDebugLog.getDefaultLog().logFine(SVNLogType.WC, e);
+                return;
+            }
+        }
+        if (!storeFile.isFile()) {
+            storeFile.getParentFile().mkdirs();
+            // another working copy may publish the same text at the same time, either link will do.
+            SVNFileUtil.createHardLink(pristineAbsPath, storeFile);
+        }
+    }
+
+    private static boolean isSameText(File storeFile, File tempAbsPath) {
+        // the temporary file has the checksum the store file is named after.
+        try {
+            return SVNFileUtil.compareFiles(storeFile, tempAbsPath, null);
+        } catch (SVNException e) {
+            // removed by garbage collection meanwhile.
+            SVNDebugLog.getDefaultLog().logFine(SVNLogType.WC, e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes files of the store which are no longer linked from any working copy.
+     * Does nothing where the number of links to a file can not be determined.
+     *
+     * @return number of removed files
+     */
+    public static int collectGarbage(File storeDirectory) {
+        int removed = 0;
+        File[] subdirs = SVNFileListUtil.listFiles(storeDirectory);
+        if (subdirs == null) {
+            return removed;
+        }
+        for (File subdir : subdirs) {
+            File[] files = subdir.isDirectory() ? SVNFileListUtil.listFiles(subdir) : null;
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                if (!file.getName().endsWith(PRISTINE_STORAGE_EXT) || SVNFileUtil.getHardLinkCount(file) != 1) {
+                    continue;
+                }
+                // a working copy that links the file after this check keeps its own link intact.
+                try {
+                    SVNFileUtil.deleteFile(file);
+                    removed++;
+                } catch (SVNException e) {
+                    SVNDebugLog.getDefaultLog().logFine(SVNLogType.WC, e);
+                }
+            }
+        }
+        return removed;
+    }
+}
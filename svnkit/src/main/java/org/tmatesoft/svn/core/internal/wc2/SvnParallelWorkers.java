@@ -0,0 +1,165 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.core.internal.wc2;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.tmatesoft.svn.core.ISVNCanceller;
+import org.tmatesoft.svn.core.SVNCancelException;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.core.wc.ISVNEventHandler;
+import org.tmatesoft.svn.core.wc.SVNEvent;
+import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
+import org.tmatesoft.svn.util.SVNDebugLog;
+import org.tmatesoft.svn.util.SVNLogType;
+
+/**
+ * Fixed number of daemon worker threads that run nested operations of one operation.
+ *
+ * Workers use operation factories created by {@link #createFactory()}, which share
+ * authentication manager and options with the calling factory. Events of the workers are
+ * collected in {@link EventsBuffer}s and replayed on the calling thread. {@link #dispose()}
+ * stops the workers and disposes the factories once no worker uses them.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ */
+public class SvnParallelWorkers {
+
+    private static final long WORKERS_TERMINATION_TIMEOUT = 30 * 1000;
+
+    private final String name;
+    private final SvnOperationFactory callerFactory;
+    private final ExecutorService executor;
+    private final List<SvnOperationFactory> factories;
+
+    public SvnParallelWorkers(final String name, int parallelism, SvnOperationFactory callerFactory) {
+        this.name = name;
+        this.callerFactory = callerFactory;
+        this.factories = new ArrayList<SvnOperationFactory>();
+        this.executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public <V> Future<V> submit(Callable<V> task) {
+        return executor.submit(task);
+    }
+
+    /**
+     * Creates a factory for a worker, it is disposed by {@link #dispose()}.
+     */
+    public SvnOperationFactory createFactory() {
+        SvnOperationFactory factory = new SvnOperationFactory();
+        factory.setAuthenticationManager(callerFactory.getAuthenticationManager());
+        factory.setOptions(callerFactory.getOptions());
+        factory.setPrimaryWcGeneration(callerFactory.getPrimaryWcGeneration());
+        synchronized (factories) {
+            factories.add(factory);
+        }
+        return factory;
+    }
+
+    /**
+     * Waits for a worker's result. An {@link SVNException} of the worker is rethrown as is,
+     * other exceptions are wrapped and interruption of the calling thread cancels the operation.
+     */
+    public static <V> V getResult(Future<V> future) throws SVNException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            SVNErrorManager.cancel("Operation cancelled", SVNLogType.WC);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            } else if (cause instanceof SVNException) {
+                throw (SVNException) cause;
+            }
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.UNKNOWN, cause != null ? cause.getMessage() : e.getMessage());
+            SVNErrorManager.error(err, cause, SVNLogType.WC);
+        }
+        return null;
+    }
+
+    public void dispose() {
+        executor.shutdownNow();
+        if (!awaitWorkers()) {
+            // a factory still in use by a worker is not disposed under it.
+            SVNDebugLog.getDefaultLog().logFine(SVNLogType.WC, "Workers '" + name + "' have not stopped, operation factories are left open");
+            return;
+        }
+        synchronized (factories) {
+            for (SvnOperationFactory factory : factories) {
+                factory.dispose();
+            }
+            factories.clear();
+        }
+    }
+
+    private boolean awaitWorkers() {
+        try {
+            return executor.awaitTermination(WORKERS_TERMINATION_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Keeps events of a worker until they are replayed to the caller's handler.
+     * Cancellation is checked with the caller's canceller.
+     */
+    public static class EventsBuffer implements ISVNEventHandler {
+
+        private final ISVNCanceller canceller;
+        private final List<SVNEvent> events = new ArrayList<SVNEvent>();
+        private final List<Double> progress = new ArrayList<Double>();
+
+        public EventsBuffer(ISVNCanceller canceller) {
+            this.canceller = canceller;
+        }
+
+        public synchronized void handleEvent(SVNEvent event, double p) throws SVNException {
+            events.add(event);
+            progress.add(Double.valueOf(p));
+        }
+
+        public void checkCancelled() throws SVNCancelException {
+            if (canceller != null) {
+                canceller.checkCancelled();
+            }
+        }
+
+        public synchronized void replay(ISVNEventHandler handler) throws SVNException {
+            for (int i = 0; i < events.size(); i++) {
+                handler.handleEvent(events.get(i), progress.get(i).doubleValue());
+            }
+        }
+    }
+}
@@ -13,6 +13,7 @@ public class SvnRepositoryDumpImpl extends SvnRepositoryOperationRunner<SVNAdmin
     protected SVNAdminEvent run() throws SVNException {
         SVNAdminClient ac = new SVNAdminClient(getOperation().getAuthenticationManager(), getOperation().getOptions());
         ac.setEventHandler(this);
+        ac.setDumpThreadCount(getOperation().getThreadCount());
                 
         ac.doDump(getOperation().getRepositoryRoot(), 
                 getOperation().getOut(), 
@@ -13,6 +13,8 @@ public class SvnRepositoryLoadImpl extends SvnRepositoryOperationRunner<SVNAdmin
     protected SVNAdminEvent run() throws SVNException {
         SVNAdminClient ac = new SVNAdminClient(getOperation().getAuthenticationManager(), getOperation().getOptions());
         ac.setEventHandler(this);
+        ac.setBulkLoad(getOperation().isBulkLoad());
+        ac.setLoadReadAheadDepth(getOperation().getReadAheadDepth());
                 
         ac.doLoad(
         		getOperation().getRepositoryRoot(), 
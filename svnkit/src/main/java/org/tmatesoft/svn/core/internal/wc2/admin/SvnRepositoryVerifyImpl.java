@@ -14,6 +14,8 @@ public class SvnRepositoryVerifyImpl extends SvnRepositoryOperationRunner<SVNAdm
     protected SVNAdminEvent run() throws SVNException {
         SVNAdminClient ac = new SVNAdminClient(getOperation().getAuthenticationManager(), getOperation().getOptions());
         ac.setEventHandler(this);
+        ac.setVerifyThreadCount(getOperation().getThreadCount());
+        ac.setVerifyCheckpointFile(getOperation().getCheckpointFile());
                 
         ac.doVerify(getOperation().getRepositoryRoot(), getOperation().getStartRevision(), getOperation().getEndRevision());
         
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Future;
 
 import org.tmatesoft.sqljet.core.SqlJetException;
 import org.tmatesoft.sqljet.core.SqlJetTransactionMode;
@@ -43,6 +44,7 @@ import org.tmatesoft.svn.core.internal.wc17.db.StructureFields.NodeInfo;
 import org.tmatesoft.svn.core.internal.wc17.db.SvnExternalFileReporter;
 import org.tmatesoft.svn.core.internal.wc17.db.SvnExternalUpdateEditor;
 import org.tmatesoft.svn.core.internal.wc17.db.SvnWcDbExternals;
+import org.tmatesoft.svn.core.internal.wc17.db.SvnWcDbSharedPristines;
 import org.tmatesoft.svn.core.internal.wc2.SvnRepositoryAccess.RepositoryInfo;
 import org.tmatesoft.svn.core.io.SVNCapability;
 import org.tmatesoft.svn.core.io.SVNLocationSegment;
@@ -243,12 +245,17 @@ public abstract class SvnNgAbstractUpdate<V, T extends AbstractSvnUpdate<V>> ext
                 preservedExts,
                 conflictHandler);
                 
+        File sharedPristinesDirectory = SvnWcDbSharedPristines.getSharedPristinesDirectory(getOperation().getOptions());
+        if (sharedPristinesDirectory != null) {
+            repos.setWorkingCopyContentMediator(SvnWcDbSharedPristines.createContentMediator(sharedPristinesDirectory));
+        }
         try {
             repos.update(revNumber, target, depthIsSticky ? depth : SVNDepth.UNKNOWN, false, reporter, editor);
         } catch(SVNException e) {
             sleepForTimestamp();
             throw e;
         } finally {
+            repos.setWorkingCopyContentMediator(null);
             ensureNodesMovedToIndex(wcContext.getDb().getSDb(anchorAbspath));
             if (repos2[0] != null) {
                 repos2[0].closeSession();
@@ -290,13 +297,17 @@ public abstract class SvnNgAbstractUpdate<V, T extends AbstractSvnUpdate<V>> ext
     protected void handleExternals(Map<File, String> newExternals, Map<File, SVNDepth> ambientDepths, SVNURL anchorUrl, File targetAbspath, SVNURL reposRoot, SVNDepth requestedDepth, boolean sleepForTimestamp) throws SVNException {
         Map<File, File> oldExternals = getWcContext().getDb().getExternalsDefinedBelow(targetAbspath);
         
-        for (File externalPath : newExternals.keySet()) {
-            String externalDefinition = newExternals.get(externalPath);
-            SVNDepth ambientDepth = SVNDepth.INFINITY;
-            if (ambientDepths != null) {
-                ambientDepth = ambientDepths.get(externalPath);
+        if (getOperation().getExternalsParallelism() > 1) {
+            handleExternalsChangesInParallel(reposRoot, newExternals, ambientDepths, oldExternals, requestedDepth);
+        } else {
+            for (File externalPath : newExternals.keySet()) {
+                String externalDefinition = newExternals.get(externalPath);
+                SVNDepth ambientDepth = SVNDepth.INFINITY;
+                if (ambientDepths != null) {
+                    ambientDepth = ambientDepths.get(externalPath);
+                }
+                handleExternalsChange(reposRoot, externalPath, externalDefinition, oldExternals, ambientDepth, requestedDepth);
             }
-            handleExternalsChange(reposRoot, externalPath, externalDefinition, oldExternals, ambientDepth, requestedDepth);
         }
         
         for(File oldExternalPath : oldExternals.keySet()) {
@@ -348,9 +359,13 @@ public abstract class SvnNgAbstractUpdate<V, T extends AbstractSvnUpdate<V>> ext
         }
     }
 
+    private static boolean isExternalsDepthExcluded(SVNDepth ambientDepth, SVNDepth requestedDepth) {
+        return (requestedDepth.compareTo(SVNDepth.INFINITY) < 0 && requestedDepth != SVNDepth.UNKNOWN) ||
+                ambientDepth.compareTo(SVNDepth.INFINITY) < 0 && requestedDepth.compareTo(SVNDepth.INFINITY) < 0;
+    }
+
     private void handleExternalsChange(SVNURL reposRoot, File externalPath, String externalDefinition, Map<File, File> oldExternals, SVNDepth ambientDepth, SVNDepth requestedDepth) throws SVNException {
-        if ((requestedDepth.compareTo(SVNDepth.INFINITY) < 0 && requestedDepth != SVNDepth.UNKNOWN) ||
-                ambientDepth.compareTo(SVNDepth.INFINITY) < 0 && requestedDepth.compareTo(SVNDepth.INFINITY) < 0) {
+        if (isExternalsDepthExcluded(ambientDepth, requestedDepth)) {
             return;
         }
         if (externalDefinition != null) {
@@ -374,6 +389,133 @@ public abstract class SvnNgAbstractUpdate<V, T extends AbstractSvnUpdate<V>> ext
         }
     }
 
+    private void handleExternalsChangesInParallel(SVNURL reposRoot, Map<File, String> newExternals, Map<File, SVNDepth> ambientDepths, Map<File, File> oldExternals, SVNDepth requestedDepth) throws SVNException {
+        List<ExternalItem> items = new ArrayList<ExternalItem>();
+        for (File externalPath : newExternals.keySet()) {
+            String externalDefinition = newExternals.get(externalPath);
+            SVNDepth ambientDepth = SVNDepth.INFINITY;
+            if (ambientDepths != null) {
+                ambientDepth = ambientDepths.get(externalPath);
+            }
+            if (externalDefinition == null || isExternalsDepthExcluded(ambientDepth, requestedDepth)) {
+                continue;
+            }
+            SVNExternal[] externals = SVNExternal.parseExternals(externalPath, externalDefinition);
+            SVNURL url = getWcContext().getNodeUrl(externalPath);
+            for (int i = 0; i < externals.length; i++) {
+                ExternalItem item = new ExternalItem();
+                item.definingPath = externalPath;
+                item.external = externals[i];
+                item.localAbsPath = SVNFileUtil.createFilePath(externalPath, externals[i].getPath());
+                item.oldDefiningPath = oldExternals.remove(item.localAbsPath);
+                try {
+                    item.url = SvnTarget.fromURL(externals[i].resolveURL(reposRoot, url)).getURL();
+                    item.revisions = getExternalRevisions(item.localAbsPath, item.url, externals[i]);
+                } catch (SVNException e) {
+                    item.error = e;
+                }
+                items.add(item);
+            }
+        }
+
+        SvnNgExternalsFetcher fetcher = new SvnNgExternalsFetcher(getOperation(), this, getOperation().getExternalsParallelism());
+        try {
+            for (ExternalItem item : items) {
+                if (item.error != null || item.revisions == null || isNestedExternal(item, items)) {
+                    continue;
+                }
+                SVNFileType fileType = SVNFileType.getType(item.localAbsPath);
+                if (fileType == SVNFileType.NONE) {
+                    SVNWCDb.DirParsedInfo parsed = ((SVNWCDb) getWcContext().getDb()).parseDir(item.definingPath, SVNSqlJetDb.Mode.ReadOnly);
+                    int workingCopyFormat = parsed.wcDbDir.getWCRoot().getFormat();
+                    item.fetch = fetcher.checkout(item.localAbsPath, item.url, item.revisions[0], item.revisions[1], workingCopyFormat);
+                } else if (fileType == SVNFileType.DIRECTORY && isExternalWorkingCopy(item.localAbsPath, item.url)) {
+                    item.fetch = fetcher.update(item.localAbsPath, item.url, item.revisions[0], item.revisions[1]);
+                }
+            }
+            List<SvnNgExternalsFetcher.Result> results = new ArrayList<SvnNgExternalsFetcher.Result>();
+            for (ExternalItem item : items) {
+                SvnNgExternalsFetcher.Result result = null;
+                if (item.fetch != null) {
+                    try {
+                        result = fetcher.getResult(item.fetch);
+                    } catch (SVNCancelException cancel) {
+                        throw cancel;
+                    } catch (SVNException e) {
+                        // reported as a failure of this external only.
+                        item.error = e;
+                    }
+                }
+                results.add(result);
+            }
+            // working copies are changed by this thread only when all fetches are over.
+            for (int i = 0; i < items.size(); i++) {
+                ExternalItem item = items.get(i);
+                SvnNgExternalsFetcher.Result result = results.get(i);
+                try {
+                    if (item.error != null) {
+                        throw item.error;
+                    } else if (item.revisions == null) {
+                        handleEvent(SVNEventFactory.createSVNEvent(item.localAbsPath, SVNNodeKind.DIR, null, SVNRepository.INVALID_REVISION, SVNEventAction.SKIP, SVNEventAction.UPDATE_EXTERNAL, null, null));
+                        continue;
+                    }
+                    if (result != null) {
+                        result.replay(this);
+                        if (result.getError() != null) {
+                            throw result.getError();
+                        } else if (result.getKind() == SVNNodeKind.DIR) {
+                            if (result.isCheckedOut()) {
+                                registerDirExternal(item.definingPath, item.localAbsPath, item.url, result.getRepositoryRoot(), result.getRepositoryUuid());
+                            }
+                            continue;
+                        }
+                    }
+                    switchExternalItem(reposRoot, item.definingPath, item.localAbsPath, item.oldDefiningPath, item.external, item.url, item.revisions[0], item.revisions[1]);
+                } catch (SVNCancelException cancel) {
+                    throw cancel;
+                } catch (SVNException e) {
+                    handleEvent(SVNEventFactory.createSVNEvent(item.localAbsPath, SVNNodeKind.NONE, null, -1, SVNEventAction.FAILED_EXTERNAL, SVNEventAction.UPDATE_EXTERNAL, 
+                            e.getErrorMessage(), null));
+                }
+            }
+        } finally {
+            fetcher.dispose();
+        }
+    }
+
+    private static boolean isNestedExternal(ExternalItem item, List<ExternalItem> items) {
+        String path = item.localAbsPath.getAbsolutePath().replace(File.separatorChar, '/');
+        for (ExternalItem other : items) {
+            if (other == item) {
+                continue;
+            }
+            String otherPath = other.localAbsPath.getAbsolutePath().replace(File.separatorChar, '/');
+            if (SVNPathUtil.isAncestor(path, otherPath) || SVNPathUtil.isAncestor(otherPath, path)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isExternalWorkingCopy(File localAbsPath, SVNURL url) {
+        try {
+            return getWcContext().getDb().isWCRoot(localAbsPath) && url.equals(getWcContext().getNodeUrl(localAbsPath));
+        } catch (SVNException e) {
+            return false;
+        }
+    }
+
+    private static class ExternalItem {
+        private File definingPath;
+        private File localAbsPath;
+        private File oldDefiningPath;
+        private SVNExternal external;
+        private SVNURL url;
+        private SVNRevision[] revisions;
+        private SVNException error;
+        private Future<SvnNgExternalsFetcher.Result> fetch;
+    }
+
     private void handleExternalItemChange(SVNURL rootUrl, File parentPath, SVNURL parentUrl, File localAbsPath, File oldDefiningPath, SVNExternal newItem) throws SVNException {
         assert newItem != null;
         assert rootUrl != null && parentUrl != null;
@@ -381,6 +523,15 @@ public abstract class SvnNgAbstractUpdate<V, T extends AbstractSvnUpdate<V>> ext
         SVNURL newUrl = newItem.resolveURL(rootUrl, parentUrl);
         newUrl = SvnTarget.fromURL(newUrl).getURL();
 
+        SVNRevision[] revisions = getExternalRevisions(localAbsPath, newUrl, newItem);
+        if (revisions == null) {
+            handleEvent(SVNEventFactory.createSVNEvent(localAbsPath, SVNNodeKind.DIR, null, SVNRepository.INVALID_REVISION, SVNEventAction.SKIP, SVNEventAction.UPDATE_EXTERNAL, null, null));
+            return;
+        }
+        switchExternalItem(rootUrl, parentPath, localAbsPath, oldDefiningPath, newItem, newUrl, revisions[0], revisions[1]);
+    }
+
+    private SVNRevision[] getExternalRevisions(File localAbsPath, SVNURL newUrl, SVNExternal newItem) {
         SVNRevision externalRevision  = newItem.getRevision();
         SVNRevision externalPegRevision = newItem.getPegRevision();
 
@@ -390,22 +541,15 @@ public abstract class SvnNgAbstractUpdate<V, T extends AbstractSvnUpdate<V>> ext
                     SVNRevision.UNDEFINED);
             
             if (revs == null) {
-                handleEvent(SVNEventFactory.createSVNEvent(localAbsPath, SVNNodeKind.DIR, null, SVNRepository.INVALID_REVISION, SVNEventAction.SKIP, SVNEventAction.UPDATE_EXTERNAL, null, null));
-                return;
+                return null;
             }
             externalRevision = revs.length > 0 && revs[0] != null ? revs[0] : externalRevision;
             externalPegRevision = revs.length > 1 && revs[1] != null ? revs[1] : externalPegRevision;
         }
+        return new SVNRevision[] {externalRevision, externalPegRevision};
+    }
 
-        Structure<RepositoryInfo> repositoryInfo = getRepositoryAccess().createRepositoryFor(SvnTarget.fromURL(newUrl), externalRevision, externalPegRevision, null);
-        SVNRepository repository = repositoryInfo.<SVNRepository>get(RepositoryInfo.repository);
-        long externalRevnum = repositoryInfo.lng(RepositoryInfo.revision);
-        repositoryInfo.release();
-
-        String repositoryUUID = repository.getRepositoryUUID(true);
-        SVNURL repositoryRoot = repository.getRepositoryRoot(true);
-        SVNNodeKind externalKind = repository.checkPath("", externalRevnum);
-        
+    static void checkExternalKind(SVNRepository repository, long externalRevnum, SVNNodeKind externalKind) throws SVNException {
         if (externalKind == SVNNodeKind.NONE) {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_ILLEGAL_URL, "URL ''{0}'' at revision {1} doesn''t exist",
                     repository.getLocation(), externalRevnum);
@@ -416,6 +560,18 @@ public abstract class SvnNgAbstractUpdate<V, T extends AbstractSvnUpdate<V>> ext
                     repository.getLocation(), externalRevnum);
             SVNErrorManager.error(err, SVNLogType.WC);
         }
+    }
+
+    private void switchExternalItem(SVNURL rootUrl, File parentPath, File localAbsPath, File oldDefiningPath, SVNExternal newItem, SVNURL newUrl, SVNRevision externalRevision, SVNRevision externalPegRevision) throws SVNException {
+        Structure<RepositoryInfo> repositoryInfo = getRepositoryAccess().createRepositoryFor(SvnTarget.fromURL(newUrl), externalRevision, externalPegRevision, null);
+        SVNRepository repository = repositoryInfo.<SVNRepository>get(RepositoryInfo.repository);
+        long externalRevnum = repositoryInfo.lng(RepositoryInfo.revision);
+        repositoryInfo.release();
+
+        String repositoryUUID = repository.getRepositoryUUID(true);
+        SVNURL repositoryRoot = repository.getRepositoryRoot(true);
+        SVNNodeKind externalKind = repository.checkPath("", externalRevnum);
+        checkExternalKind(repository, externalRevnum, externalKind);
 
         SVNNodeKind localKind = externalKind;
 
@@ -521,14 +677,17 @@ public abstract class SvnNgAbstractUpdate<V, T extends AbstractSvnUpdate<V>> ext
         checkout(url, localAbsPath, pegRevision, revision, SVNDepth.INFINITY, false, false, false, targetWorkingCopyFormat);
         
         SVNWCNodeReposInfo nodeRepositoryInfo = getWcContext().getNodeReposInfo(localAbsPath);
+        registerDirExternal(definingPath, localAbsPath, url, nodeRepositoryInfo.reposRootUrl, nodeRepositoryInfo.reposUuid);
+    }
 
+    private void registerDirExternal(File definingPath, File localAbsPath, SVNURL url, SVNURL reposRootUrl, String reposUuid) throws SVNException {
         // To fix error 'Field 'def_repos_relpath' must be not NULL' when connecting an external which points to an external repository root
-        String pathAsChild = SVNPathUtil.getPathAsChild(nodeRepositoryInfo.reposRootUrl.getPath(), url.getPath());
+        String pathAsChild = SVNPathUtil.getPathAsChild(reposRootUrl.getPath(), url.getPath());
         if (pathAsChild == null) {
             pathAsChild = "";
         }
         getWcContext().getDb().registerExternal(definingPath, localAbsPath, SVNNodeKind.DIR,
-                nodeRepositoryInfo.reposRootUrl, nodeRepositoryInfo.reposUuid, 
+                reposRootUrl, reposUuid, 
                 SVNFileUtil.createFilePath(pathAsChild),
                 SVNWCContext.INVALID_REVNUM, 
                 SVNWCContext.INVALID_REVNUM);
@@ -0,0 +1,183 @@
+package org.tmatesoft.svn.core.internal.wc2.ng;
+
+import java.io.File;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.tmatesoft.svn.core.SVNDepth;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNNodeKind;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.internal.wc.SVNEventFactory;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.internal.wc17.db.Structure;
+import org.tmatesoft.svn.core.internal.wc2.SvnParallelWorkers;
+import org.tmatesoft.svn.core.internal.wc2.SvnRepositoryAccess.RepositoryInfo;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.wc.ISVNEventHandler;
+import org.tmatesoft.svn.core.wc.SVNEventAction;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+import org.tmatesoft.svn.core.wc2.AbstractSvnUpdate;
+import org.tmatesoft.svn.core.wc2.SvnCheckout;
+import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
+import org.tmatesoft.svn.core.wc2.SvnTarget;
+import org.tmatesoft.svn.core.wc2.SvnUpdate;
+
+/**
+ * Checks out and updates directory externals on a fixed number of worker threads.
+ *
+ * Each worker runs a nested checkout or update through its own {@link SvnOperationFactory},
+ * so it has its own working copy context and repository sessions; factories are pooled
+ * between externals, which lets externals from the same server reuse connections. Events
+ * are buffered per external and replayed by the caller in definition order.
+ */
+class SvnNgExternalsFetcher {
+
+    private final AbstractSvnUpdate<?> operation;
+    private final ISVNEventHandler caller;
+    private final SvnParallelWorkers workers;
+    private final BlockingQueue<SvnOperationFactory> factories;
+
+    public SvnNgExternalsFetcher(AbstractSvnUpdate<?> operation, ISVNEventHandler caller, int parallelism) {
+        this.operation = operation;
+        this.caller = caller;
+        this.factories = new LinkedBlockingQueue<SvnOperationFactory>();
+        this.workers = new SvnParallelWorkers("svnkit-externals", parallelism, operation.getOperationFactory());
+    }
+
+    public Future<Result> checkout(final File localAbsPath, final SVNURL url, final SVNRevision revision, final SVNRevision pegRevision, final int workingCopyFormat) {
+        return workers.submit(new Callable<Result>() {
+            public Result call() throws Exception {
+                return fetch(localAbsPath, url, revision, pegRevision, true, workingCopyFormat);
+            }
+        });
+    }
+
+    public Future<Result> update(final File localAbsPath, final SVNURL url, final SVNRevision revision, final SVNRevision pegRevision) {
+        return workers.submit(new Callable<Result>() {
+            public Result call() throws Exception {
+                return fetch(localAbsPath, url, revision, pegRevision, false, -1);
+            }
+        });
+    }
+
+    public Result getResult(Future<Result> future) throws SVNException {
+        return SvnParallelWorkers.getResult(future);
+    }
+
+    public void dispose() {
+        workers.dispose();
+        factories.clear();
+    }
+
+    private Result fetch(File localAbsPath, SVNURL url, SVNRevision revision, SVNRevision pegRevision, boolean checkout, int workingCopyFormat) {
+        Result result = new Result();
+        SvnOperationFactory factory = obtainFactory();
+        try {
+            factory.setEventHandler(result);
+
+            SvnNgRepositoryAccess repositoryAccess = new SvnNgRepositoryAccess(factory.createUpdate(), null);
+            Structure<RepositoryInfo> repositoryInfo = repositoryAccess.createRepositoryFor(SvnTarget.fromURL(url), revision, pegRevision, null);
+            SVNRepository repository = repositoryInfo.<SVNRepository>get(RepositoryInfo.repository);
+            long revnum = repositoryInfo.lng(RepositoryInfo.revision);
+            repositoryInfo.release();
+
+            result.kind = repository.checkPath("", revnum);
+            SvnNgAbstractUpdate.checkExternalKind(repository, revnum, result.kind);
+            if (result.kind != SVNNodeKind.DIR) {
+                // file externals live in the defining working copy, the caller installs them.
+                return result;
+            }
+            result.repositoryRoot = repository.getRepositoryRoot(true);
+            result.repositoryUuid = repository.getRepositoryUUID(true);
+
+            result.handleEvent(SVNEventFactory.createSVNEvent(localAbsPath, SVNNodeKind.DIR, null, -1, SVNEventAction.UPDATE_EXTERNAL, null, null, null, 0, 0), -1);
+            SVNFileUtil.ensureDirectoryExists(SVNFileUtil.getParentFile(localAbsPath));
+            if (checkout) {
+                SVNFileUtil.ensureDirectoryExists(localAbsPath);
+                SvnCheckout co = factory.createCheckout();
+                co.setSource(SvnTarget.fromURL(url, pegRevision));
+                co.setSingleTarget(SvnTarget.fromFile(localAbsPath));
+                co.setRevision(revision);
+                co.setDepth(SVNDepth.INFINITY);
+                co.setTargetWorkingCopyFormat(workingCopyFormat);
+                copySettings(co);
+                co.run();
+                result.checkedOut = true;
+            } else {
+                SvnUpdate up = factory.createUpdate();
+                up.setSingleTarget(SvnTarget.fromFile(localAbsPath));
+                up.setRevision(revision);
+                up.setDepth(SVNDepth.UNKNOWN);
+                up.setTreatAddsAsModifications(true);
+                copySettings(up);
+                up.run();
+            }
+        } catch (SVNException e) {
+            result.error = e;
+        } catch (RuntimeException e) {
+            SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.UNKNOWN, e.getMessage());
+            result.error = new SVNException(err, e);
+        } finally {
+            factory.setEventHandler(null);
+            factories.offer(factory);
+        }
+        return result;
+    }
+
+    /**
+     * Copies settings of the operation that apply to a nested checkout or update. Like in the
+     * sequential case obstructions are not allowed and externals of externals are processed
+     * by the nested operation's thread.
+     */
+    private void copySettings(AbstractSvnUpdate<?> nested) {
+        nested.setIgnoreExternals(operation.isIgnoreExternals());
+        nested.setUpdateLocksOnDemand(operation.isUpdateLocksOnDemand());
+        nested.setExternalsHandler(operation.getExternalsHandler());
+        nested.setSqliteJournalMode(operation.getSqliteJournalMode());
+        nested.setSleepForTimestamp(false);
+        nested.setExternalsParallelism(1);
+    }
+
+    private SvnOperationFactory obtainFactory() {
+        SvnOperationFactory factory = factories.poll();
+        return factory != null ? factory : workers.createFactory();
+    }
+
+    public class Result extends SvnParallelWorkers.EventsBuffer {
+
+        private SVNNodeKind kind;
+        private boolean checkedOut;
+        private SVNURL repositoryRoot;
+        private String repositoryUuid;
+        private SVNException error;
+
+        public Result() {
+            super(caller);
+        }
+
+        public SVNNodeKind getKind() {
+            return kind;
+        }
+
+        public boolean isCheckedOut() {
+            return checkedOut;
+        }
+
+        public SVNURL getRepositoryRoot() {
+            return repositoryRoot;
+        }
+
+        public String getRepositoryUuid() {
+            return repositoryUuid;
+        }
+
+        public SVNException getError() {
+            return error;
+        }
+    }
+}
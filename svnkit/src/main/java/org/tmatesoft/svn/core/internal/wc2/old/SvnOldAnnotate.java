@@ -3,9 +3,11 @@ package org.tmatesoft.svn.core.internal.wc2.old;
 import java.io.File;
 import java.util.Date;
 
+import org.tmatesoft.svn.core.SVNAnnotationGenerator;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
 import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.wc.ISVNAnnotateRevisionHandler;
 import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
 import org.tmatesoft.svn.core.internal.wc16.SVNLogClient16;
 import org.tmatesoft.svn.core.wc.ISVNAnnotateHandler;
@@ -14,7 +16,7 @@ import org.tmatesoft.svn.core.wc2.SvnAnnotate;
 import org.tmatesoft.svn.core.wc2.SvnAnnotateItem;
 import org.tmatesoft.svn.util.SVNLogType;
 
-public class SvnOldAnnotate extends SvnOldRunner<SvnAnnotateItem, SvnAnnotate> implements ISVNAnnotateHandler { 
+public class SvnOldAnnotate extends SvnOldRunner<SvnAnnotateItem, SvnAnnotate> implements ISVNAnnotateHandler, ISVNAnnotateRevisionHandler { 
 	
 	@Override
     protected SvnAnnotateItem run() throws SVNException {
@@ -62,6 +64,12 @@ public class SvnOldAnnotate extends SvnOldRunner<SvnAnnotateItem, SvnAnnotate> i
     	getOperation().receive(getOperation().getFirstTarget(), item);
     	return item.getReturnResult();
     }
+
+    public boolean handleRevision(Date date, long revision, String author, SVNAnnotationGenerator generator) throws SVNException {
+    	SvnAnnotateItem item = new SvnAnnotateItem(date, revision, author, generator);
+    	getOperation().receive(getOperation().getFirstTarget(), item);
+    	return item.getReturnResult();
+    }
     
     public void handleLine(Date date, long revision, String author, String line) throws SVNException {
     }
@@ -8,6 +8,7 @@ import java.util.Date;
 import java.util.Map;
 
 import org.tmatesoft.svn.core.*;
+import org.tmatesoft.svn.core.internal.wc.ISVNAnnotateRevisionHandler;
 import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
 import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.internal.wc.admin.SVNTranslator;
@@ -27,7 +28,7 @@ import org.tmatesoft.svn.core.wc.SVNStatusType;
 import org.tmatesoft.svn.core.wc2.*;
 import org.tmatesoft.svn.util.SVNLogType;
 
-public class SvnRemoteAnnotate extends SvnRemoteOperationRunner<SvnAnnotateItem, SvnAnnotate> implements ISVNAnnotateHandler { 
+public class SvnRemoteAnnotate extends SvnRemoteOperationRunner<SvnAnnotateItem, SvnAnnotate> implements ISVNAnnotateHandler, ISVNAnnotateRevisionHandler { 
 	
 	@Override
     public boolean isApplicable(SvnAnnotate operation, SvnWcGeneration wcGeneration) throws SVNException {
@@ -158,6 +159,12 @@ public class SvnRemoteAnnotate extends SvnRemoteOperationRunner<SvnAnnotateItem,
     	getOperation().receive(getOperation().getFirstTarget(), item);
     	return item.getReturnResult();
     }
+
+    public boolean handleRevision(Date date, long revision, String author, SVNAnnotationGenerator generator) throws SVNException {
+    	SvnAnnotateItem item = new SvnAnnotateItem(date, revision, author, generator);
+    	getOperation().receive(getOperation().getFirstTarget(), item);
+    	return item.getReturnResult();
+    }
     
     public void handleLine(Date date, long revision, String author, String line) throws SVNException {
     }
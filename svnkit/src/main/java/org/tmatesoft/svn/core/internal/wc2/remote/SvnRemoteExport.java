@@ -25,6 +25,7 @@ import org.tmatesoft.svn.core.internal.wc.SVNFileType;
 import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.internal.wc.admin.SVNTranslator;
 import org.tmatesoft.svn.core.internal.wc17.db.Structure;
+import org.tmatesoft.svn.core.internal.wc17.db.SvnWcDbSharedPristines;
 import org.tmatesoft.svn.core.internal.wc2.SvnRemoteOperationRunner;
 import org.tmatesoft.svn.core.internal.wc2.SvnRepositoryAccess.RepositoryInfo;
 import org.tmatesoft.svn.core.internal.wc2.SvnWcGeneration;
@@ -57,7 +58,19 @@ public class SvnRemoteExport extends SvnRemoteOperationRunner<Long, SvnExport> {
         final long revNumber = repositoryInfo.lng(RepositoryInfo.revision);
         SVNRepository repository = repositoryInfo.<SVNRepository>get(RepositoryInfo.repository);
         repositoryInfo.release();
-        
+
+        File sharedPristinesDirectory = SvnWcDbSharedPristines.getSharedPristinesDirectory(getOperation().getOptions());
+        if (sharedPristinesDirectory != null) {
+            repository.setWorkingCopyContentMediator(SvnWcDbSharedPristines.createContentMediator(sharedPristinesDirectory));
+        }
+        try {
+            return export(repository, revNumber);
+        } finally {
+            repository.setWorkingCopyContentMediator(null);
+        }
+    }
+
+    private Long export(SVNRepository repository, final long revNumber) throws SVNException {
         File dstPath = getOperation().getFirstTarget().getFile();
         SVNDepth depth = getOperation().getDepth();
         boolean force = getOperation().isForce();
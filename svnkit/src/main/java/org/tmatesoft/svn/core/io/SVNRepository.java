@@ -21,10 +21,13 @@ import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
 import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
 import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+import org.tmatesoft.svn.core.wc.ISVNAnnotateHandler;
 import org.tmatesoft.svn.core.wc.ISVNEventHandler;
+import org.tmatesoft.svn.core.wc.SVNDiffOptions;
 import org.tmatesoft.svn.util.ISVNDebugLog;
 import org.tmatesoft.svn.util.SVNDebugLog;
 import org.tmatesoft.svn.util.SVNLogType;
+import org.tmatesoft.svn.util.SVNMetrics;
 
 import java.io.File;
 import java.io.InputStream;
@@ -132,12 +135,15 @@ public abstract class SVNRepository {
     
     private int myLockCount;
     private Thread myLocker;
+    private String myCommandName;
+    private long myCommandStartTime;
     private ISVNAuthenticationManager myAuthManager;
     private ISVNSession myOptions;
     private ISVNTunnelProvider myTunnelProvider;
     private ISVNDebugLog myDebugLog;
     private ISVNCanceller myCanceller;
     private ISVNEventHandler myEventHandler;
+    private ISVNWorkingCopyContentMediator myWorkingCopyContentMediator;
     private Collection myConnectionListeners;
 
     protected SVNRepository(SVNURL location, ISVNSession options) {
@@ -398,6 +404,34 @@ public abstract class SVNRepository {
         return myEventHandler;
     }
 
+    /**
+     * Sets a local source of file contents, looked up by SHA-1 checksum.
+     *
+     * <p/>
+     * Drivers whose protocol lets the client fetch file contents itself
+     * (<code>http://</code> and <code>https://</code>) take contents of files, whose checksums
+     * the server reports, from the mediator instead of the network during updates, checkouts
+     * and {@link #getFile(String, long, SVNProperties, OutputStream) getFile}.
+     * Other drivers ignore it, their servers always send contents.
+     *
+     * @param mediator  content mediator or <code>null</code> to always fetch contents from the repository
+     * @since 1.9
+     */
+    public void setWorkingCopyContentMediator(ISVNWorkingCopyContentMediator mediator) {
+        myWorkingCopyContentMediator = mediator;
+    }
+
+    /**
+     * Returns the local source of file contents set to this object.
+     *
+     * @return content mediator or <code>null</code>
+     * @see    #setWorkingCopyContentMediator(ISVNWorkingCopyContentMediator)
+     * @since  1.9
+     */
+    public ISVNWorkingCopyContentMediator getWorkingCopyContentMediator() {
+        return myWorkingCopyContentMediator;
+    }
+
     /**
      * Caches identification parameters (UUID, rood directory location) 
      * of the repository with which this driver is working.
@@ -762,6 +796,63 @@ public abstract class SVNRepository {
         }
     }
 
+    /**
+     * Annotates the specified file, that is, reports every line of the file at <code>endRevision</code> 
+     * along with the revision, author and date of the change that last touched it.
+     * 
+     * <p>
+     * Unlike {@link #getFileRevisions(String, long, long, boolean, ISVNFileRevisionHandler) getFileRevisions()}, 
+     * which sends every file revision to the client, this method lets the repository compute 
+     * annotations where the file contents are: for <code>file://</code> repositories and servers 
+     * that support it only the annotated lines are transferred. With other servers annotations 
+     * are computed locally from the file revisions.
+     * 
+     * <p>
+     * Lines changed before <code>startRevision</code> are reported with an invalid revision and 
+     * without author and date. If <code>startRevision</code> is greater than <code>endRevision</code>, 
+     * annotation is computed backwards, the same as {@link SVNAnnotationGenerator#setBackwards(boolean)} does.
+     * 
+     * <p>
+     * The <code>path</code> arg can be both relative to the location of 
+     * this driver and absolute to the repository root (starts with <code>"/"</code>).
+     * 
+     * <p>
+     * <b>NOTE:</b> you may not invoke methods of this <b>SVNRepository</b>
+     * object from within the provided <code>handler</code>.
+     * 
+     * @param  path                     a file path 
+     * @param  startRevision            a revision to start annotation from 
+     * @param  endRevision              a revision to annotate
+     * @param  includeMergedRevisions   if is <code>true</code>, merged revisions will be reported as well
+     * @param  force                    annotate the file even if it has binary mime type
+     * @param  diffOptions              options to compare lines with 
+     * @param  inputEncoding            charset name to decode lines with, if <code>null</code>, 
+     *                                  <span class="javastring">"file.encoding"</span> system property is used
+     * @param  handler                  a handler that receives annotated lines
+     * @throws SVNException             if a failure occured while connecting to a repository 
+     *                                  or the user's authentication failed (see 
+     *                                  {@link org.tmatesoft.svn.core.SVNAuthenticationException})
+     * @see                             SVNAnnotationGenerator
+     * @since                           1.9
+     */
+    public void getAnnotations(String path, long startRevision, long endRevision, boolean includeMergedRevisions, 
+            boolean force, SVNDiffOptions diffOptions, String inputEncoding, ISVNAnnotateHandler handler) throws SVNException {
+        if (includeMergedRevisions) {
+            assertServerIsMergeInfoCapable(null);
+        }
+        diffOptions = diffOptions == null ? new SVNDiffOptions() : diffOptions;
+        
+        try {
+            getAnnotationsImpl(path, startRevision, endRevision, includeMergedRevisions, force, diffOptions, inputEncoding, handler);
+        } catch (SVNException svne) {
+            if (svne.getErrorMessage().getErrorCode() == SVNErrorCode.RA_NOT_IMPLEMENTED) {
+                getAnnotationsFromFileRevisions(path, startRevision, endRevision, includeMergedRevisions, force, diffOptions, inputEncoding, handler);
+                return;
+            }
+            throw svne;
+        }
+    }
+
     /**
      * Checks that this object is connected to a mergeinfo capable repository. 
      * 
@@ -2846,6 +2937,12 @@ public abstract class SVNRepository {
     protected abstract int getFileRevisionsImpl(String path, long startRevision, long endRevision, 
             boolean includeMergedRevisions, ISVNFileRevisionHandler handler) throws SVNException;
 
+    protected void getAnnotationsImpl(String path, long startRevision, long endRevision, boolean includeMergedRevisions, 
+            boolean force, SVNDiffOptions diffOptions, String inputEncoding, ISVNAnnotateHandler handler) throws SVNException {
+        SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_NOT_IMPLEMENTED, "Annotation is not supported by this repository access implementation");
+        SVNErrorManager.error(err, SVNLogType.NETWORK);
+    }
+
     protected abstract Map getMergeInfoImpl(String[] paths, long revision, SVNMergeInfoInheritance inherit, 
             boolean includeDescendants) throws SVNException;
 
@@ -2886,6 +2983,7 @@ public abstract class SVNRepository {
                 }
                 myLocker = Thread.currentThread();
                 myLockCount++;
+                startCommand();
             }
     	} catch (InterruptedException e) {
     	    throw new Error("Interrupted attempt to aquire write lock");
@@ -2895,6 +2993,7 @@ public abstract class SVNRepository {
     protected synchronized void unlock() {
         synchronized(this) {
             if (--myLockCount <= 0) {
+                finishCommand();
                 myLockCount = 0;
                 myLocker = null;
                 notify();
@@ -2902,6 +3001,44 @@ public abstract class SVNRepository {
         }
     }
     
+    private void startCommand() {
+        final SVNLogType logType = getMetricsLogType();
+        if (!SVNMetrics.isEnabled(logType)) {
+            myCommandStartTime = 0;
+            return;
+        }
+        myCommandName = "command." + getCommandName();
+        myCommandStartTime = SVNMetrics.startSpan(logType, myCommandName);
+    }
+
+    private void finishCommand() {
+        if (myCommandStartTime != 0) {
+            SVNMetrics.finishSpan(getMetricsLogType(), myCommandName, myCommandStartTime, 0, null);
+            myCommandStartTime = 0;
+            myCommandName = null;
+        }
+    }
+
+    private SVNLogType getMetricsLogType() {
+        return "file".equals(getLocation().getProtocol()) ? SVNLogType.FSFS : SVNLogType.NETWORK;
+    }
+
+    private String getCommandName() {
+        // the outermost repository method on the stack is the command being run,
+        // only looked up when metrics are enabled.
+        final Set<String> classNames = new SVNHashSet();
+        for (Class<?> cls = getClass(); cls != null && SVNRepository.class.isAssignableFrom(cls); cls = cls.getSuperclass()) {
+            classNames.add(cls.getName());
+        }
+        final StackTraceElement[] stack = new Throwable().getStackTrace();
+        for (int i = stack.length - 1; i >= 0; i--) {
+            if (classNames.contains(stack[i].getClassName())) {
+                return stack[i].getMethodName();
+            }
+        }
+        return "unknown";
+    }
+
     protected static boolean isInvalidRevision(long revision) {
         return revision < 0;
     }    
@@ -3141,6 +3278,22 @@ public abstract class SVNRepository {
         return locationsLogHandler.myProcessedRevisions.size();
     }
     
+    private void getAnnotationsFromFileRevisions(String path, long startRevision, long endRevision, boolean includeMergedRevisions, 
+            boolean force, SVNDiffOptions diffOptions, String inputEncoding, ISVNAnnotateHandler handler) throws SVNException {
+        File tmpDirectory = SVNFileUtil.createTempDirectory("annotate");
+        SVNAnnotationGenerator generator = new SVNAnnotationGenerator(path, tmpDirectory, startRevision, force, 
+                includeMergedRevisions, diffOptions, inputEncoding, null, null);
+        generator.setBackwards(isValidRevision(startRevision) && isValidRevision(endRevision) && startRevision > endRevision);
+        generator.setEndRevision(endRevision);
+        try {
+            getFileRevisions(path, startRevision > 0 ? startRevision - 1 : startRevision, endRevision, includeMergedRevisions, generator);
+            generator.reportAnnotations(handler, inputEncoding);
+        } finally {
+            generator.dispose();
+            SVNFileUtil.deleteAll(tmpDirectory, true);
+        }
+    }
+
     private int getFileRevisionsFromLog(String path, long startRevision, long endRevision, 
             ISVNFileRevisionHandler handler) throws SVNException {
         SVNURL reposURL = getRepositoryRoot(true);
@@ -109,12 +109,6 @@ public abstract class SVNRepositoryFactory {
     private static final Map myFactoriesMap = new SVNHashMap();
     private static final String REPOSITORY_TEMPLATE_PATH = "/org/tmatesoft/svn/core/io/repository/template.jar";
     
-    static {
-        FSRepositoryFactory.setup();
-        SVNRepositoryFactoryImpl.setup();
-        DAVRepositoryFactory.setup();
-    }
-
     protected static void registerRepositoryFactory(String protocol, SVNRepositoryFactory factory) {
         if (protocol != null && factory != null) {
             synchronized (myFactoriesMap) {
@@ -205,14 +199,16 @@ public abstract class SVNRepositoryFactory {
      */
     public static SVNRepository create(SVNURL url, ISVNSession options) throws SVNException {
         String urlString = url.toString();
+        SVNRepositoryFactory factory;
         synchronized (myFactoriesMap) {
-            for(Iterator keys = myFactoriesMap.keySet().iterator(); keys.hasNext();) {
-                String key = (String) keys.next();
-                if (Pattern.matches(key, urlString)) {
-                    return ((SVNRepositoryFactory) myFactoriesMap.get(key)).createRepositoryImpl(url, options);
-                }
+            factory = getRepositoryFactory(urlString);
+            if (factory == null && setupDefaultRepositoryFactory(url.getProtocol())) {
+                factory = getRepositoryFactory(urlString);
             }
         }
+        if (factory != null) {
+            return factory.createRepositoryImpl(url, options);
+        }
         if ("file".equalsIgnoreCase(url.getProtocol())) {
             SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.RA_LOCAL_REPOS_OPEN_FAILED, "Unable to open repository ''{0}''", new Object[]{url});
             SVNErrorManager.error(err, SVNLogType.NETWORK);
@@ -222,6 +218,34 @@ public abstract class SVNRepositoryFactory {
         return null;
     }
 
+    private static SVNRepositoryFactory getRepositoryFactory(String urlString) {
+        for(Iterator keys = myFactoriesMap.keySet().iterator(); keys.hasNext();) {
+            String key = (String) keys.next();
+            if (Pattern.matches(key, urlString)) {
+                return (SVNRepositoryFactory) myFactoriesMap.get(key);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Built-in factories are set up on the first use of their protocol rather than when
+     * this class is loaded, so that a command that only works with, say, a local repository
+     * does not load and initialize HTTP and svn:// protocol classes.
+     */
+    private static boolean setupDefaultRepositoryFactory(String protocol) {
+        if ("file".equals(protocol)) {
+            FSRepositoryFactory.setup();
+        } else if ("svn".equals(protocol) || (protocol != null && protocol.startsWith("svn+"))) {
+            SVNRepositoryFactoryImpl.setup();
+        } else if ("http".equals(protocol) || "https".equals(protocol)) {
+            DAVRepositoryFactory.setup();
+        } else {
+            return false;
+        }
+        return true;
+    }
+
     /**
      * Creates a local blank FSFS-type repository.
      * A call to this routine is equivalent to
@@ -22,12 +22,25 @@ import java.net.UnknownHostException;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
 import java.text.MessageFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
-
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.tmatesoft.svn.core.ISVNCanceller;
 import org.tmatesoft.svn.core.ISVNLogEntryHandler;
+import org.tmatesoft.svn.core.SVNCancelException;
 import org.tmatesoft.svn.core.SVNDepth;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
@@ -48,10 +61,10 @@ import org.tmatesoft.svn.core.internal.io.fs.FSRevisionRoot;
 import org.tmatesoft.svn.core.internal.io.fs.FSRoot;
 import org.tmatesoft.svn.core.internal.util.SVNDate;
 import org.tmatesoft.svn.core.internal.util.SVNPathUtil;
+import org.tmatesoft.svn.core.internal.util.SVNSpillBuffer;
 import org.tmatesoft.svn.core.internal.util.SVNUUIDGenerator;
 import org.tmatesoft.svn.core.internal.wc.DefaultDumpFilterHandler;
 import org.tmatesoft.svn.core.internal.wc.DefaultLoadHandler;
-import org.tmatesoft.svn.core.internal.wc.ISVNLoadHandler;
 import org.tmatesoft.svn.core.internal.wc.SVNAdminDeltifier;
 import org.tmatesoft.svn.core.internal.wc.SVNAdminHelper;
 import org.tmatesoft.svn.core.internal.wc.SVNCancellableEditor;
@@ -138,7 +151,16 @@ public class SVNAdminClient extends SVNAdminBasicClient {
     private SVNDumpStreamParser myDumpStreamParser;
     private SVNDumpEditor myDumpEditor;
 
+    private int myVerifyThreadCount = Integer.getInteger("svnkit.admin.verify.threads", 1).intValue();
+    private File myVerifyCheckpointFile;
+    private int myDumpThreadCount = Integer.getInteger("svnkit.admin.dump.threads", 1).intValue();
+    private boolean myIsBulkLoad = Boolean.getBoolean("svnkit.admin.load.bulk");
+    private int myLoadReadAheadDepth = Integer.getInteger("svnkit.admin.load.readahead", 0).intValue();
+
     private static final int LOCK_RETRY_COUNT = 10;
+    private static final int VERIFY_RANGE_SIZE = 64;
+    private static final int DUMP_BUFFER_BLOCK_SIZE = 64 * 1024;
+    private static final long DUMP_BUFFER_MEMORY_SIZE = 8 * 1024 * 1024;
 
     /**
      * Creates a new admin client.
@@ -193,6 +215,141 @@ public class SVNAdminClient extends SVNAdminBasicClient {
         }
     }
 
+    /**
+     * Sets the number of threads {@link #doVerify(File, SVNRevision, SVNRevision) doVerify()}
+     * verifies revisions with. Each thread uses its own repository handle, verification
+     * events are still reported in revision order.
+     *
+     * <p/>
+     * Defaults to the value of the <code>svnkit.admin.verify.threads</code> system property, or <code>1</code>.
+     *
+     * @param threadCount number of verification threads
+     * @since 1.9
+     */
+    public void setVerifyThreadCount(int threadCount) {
+        myVerifyThreadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * Returns the number of threads revisions are verified with.
+     *
+     * @return number of verification threads
+     * @since 1.9
+     */
+    public int getVerifyThreadCount() {
+        return myVerifyThreadCount;
+    }
+
+    /**
+     * Sets the number of threads {@link #doDump(File, OutputStream, SVNRevision, SVNRevision, boolean, boolean) doDump()}
+     * prepares revisions with. Up to twice as many upcoming revisions are serialized concurrently into
+     * temporary buffers (spilled to disk above 8M each), a single writer copies them to the dump stream
+     * in revision order. Each thread uses its own repository handle.
+     *
+     * <p/>
+     * Defaults to the value of the <code>svnkit.admin.dump.threads</code> system property, or <code>1</code>.
+     *
+     * @param threadCount number of dump threads
+     * @since 1.9
+     */
+    public void setDumpThreadCount(int threadCount) {
+        myDumpThreadCount = Math.max(1, threadCount);
+    }
+
+    /**
+     * Returns the number of threads revisions are dumped with.
+     *
+     * @return number of dump threads
+     * @since 1.9
+     */
+    public int getDumpThreadCount() {
+        return myDumpThreadCount;
+    }
+
+    /**
+     * Turns on the bulk-load mode of {@link #doLoad(File, InputStream, boolean, boolean, SVNUUIDAction, String) doLoad()},
+     * meant for migrating history into a new repository or one no one else is committing to.
+     *
+     * <p/>
+     * In this mode hooks are never run, whatever the <code>usePreCommitHook</code> and <code>usePostCommitHook</code>
+     * arguments are. Revision properties are written once per revision instead of once per property,
+     * transaction node and copy ids are not persisted while the revision is being built, and rep-cache
+     * entries are inserted in batches spanning many revisions. Every revision is still committed
+     * and made visible (<code>db/current</code> updated) one at a time.
+     *
+     * <p/>
+     * Defaults to the value of the <code>svnkit.admin.load.bulk</code> system property, or <code>false</code>.
+     *
+     * @param bulkLoad <span class="javakeyword">true</span> to load in bulk mode
+     * @since 1.9
+     */
+    public void setBulkLoad(boolean bulkLoad) {
+        myIsBulkLoad = bulkLoad;
+    }
+
+    /**
+     * Tells whether dump streams are loaded in bulk mode.
+     *
+     * @return <span class="javakeyword">true</span> if bulk-load mode is on
+     * @since 1.9
+     * @see #setBulkLoad(boolean)
+     */
+    public boolean isBulkLoad() {
+        return myIsBulkLoad;
+    }
+
+    /**
+     * Sets how many dump stream records {@link #doLoad(File, InputStream, boolean, boolean, SVNUUIDAction, String) doLoad()}
+     * may read and parse ahead of the records being committed. With a positive depth the dump stream is read on
+     * a separate thread, so that reading (and decompressing) the input overlaps with writing to the repository.
+     * Text contents read ahead are buffered in memory up to 16M overall and in temporary files beyond that.
+     *
+     * <p/>
+     * Defaults to the value of the <code>svnkit.admin.load.readahead</code> system property, or <code>0</code>,
+     * which reads the stream on the calling thread.
+     *
+     * @param depth maximum number of records read ahead
+     * @since 1.9
+     */
+    public void setLoadReadAheadDepth(int depth) {
+        myLoadReadAheadDepth = Math.max(0, depth);
+    }
+
+    /**
+     * Returns how many dump stream records may be read ahead while loading.
+     *
+     * @return read-ahead depth, <code>0</code> if the stream is read on the calling thread
+     * @since 1.9
+     */
+    public int getLoadReadAheadDepth() {
+        return myLoadReadAheadDepth;
+    }
+
+    /**
+     * Sets a file {@link #doVerify(File, SVNRevision, SVNRevision) doVerify()} records its progress to.
+     *
+     * <p/>
+     * If verification is interrupted, the next verification of the same repository with the
+     * same checkpoint file starts after the last revision verified so far, provided the requested
+     * range overlaps the verified one. The file is deleted once verification completes.
+     *
+     * @param checkpointFile checkpoint file, or <span class="javakeyword">null</span> to always verify all revisions
+     * @since 1.9
+     */
+    public void setVerifyCheckpointFile(File checkpointFile) {
+        myVerifyCheckpointFile = checkpointFile;
+    }
+
+    /**
+     * Returns the file verification progress is recorded to.
+     *
+     * @return checkpoint file, or <span class="javakeyword">null</span>
+     * @since 1.9
+     */
+    public File getVerifyCheckpointFile() {
+        return myVerifyCheckpointFile;
+    }
+
     /**
      * Creates an FSFS-type repository.
      *
@@ -752,7 +909,6 @@ public class SVNAdminClient extends SVNAdminBasicClient {
     public void doListLocks(File repositoryRoot) throws SVNException {
         FSFS fsfs = SVNAdminHelper.openRepository(repositoryRoot, true);
         try {
-            File digestFile = fsfs.getDigestFileFromRepositoryPath("/");
             ISVNLockHandler handler = new ISVNLockHandler() {
                 public void handleLock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
                     checkCancelled();
@@ -765,7 +921,7 @@ public class SVNAdminClient extends SVNAdminBasicClient {
                 public void handleUnlock(String path, SVNLock lock, SVNErrorMessage error) throws SVNException {
                 }
             };
-            fsfs.walkDigestFiles(digestFile, handler, false);
+            fsfs.walkLocks("/", handler, false);
         } finally {
             SVNAdminHelper.closeRepository(fsfs);
         }
@@ -836,6 +992,35 @@ public class SVNAdminClient extends SVNAdminBasicClient {
         }
     }
 
+    /**
+     * Converts the locks storage of the repository found under <code>repositoryRoot</code>.
+     *
+     * <p/>
+     * With <code>indexed</code> set to <code>true</code> all locks are moved from the
+     * <code>db/locks</code> digest files into a single indexed lock store, which keeps lock lookups,
+     * subtree queries and expiry checks fast for repositories holding many locks. Locks kept in the
+     * indexed store are only visible to SVNKit, so convert the repository back with <code>indexed</code>
+     * set to <code>false</code> before accessing it with the native Subversion tools.
+     * Expired locks are dropped during the conversion.
+     *
+     * @param  repositoryRoot   repository root location
+     * @param  indexed          whether to move locks into the indexed store or back into the digest files
+     * @throws SVNException
+     * @since                   1.9
+     */
+    public void doMigrateLocks(File repositoryRoot, boolean indexed) throws SVNException {
+        FSFS fsfs = SVNAdminHelper.openRepository(repositoryRoot, true);
+        try {
+            if (indexed) {
+                fsfs.migrateLocksToIndex();
+            } else {
+                fsfs.migrateLocksToDigestFiles();
+            }
+        } finally {
+            SVNAdminHelper.closeRepository(fsfs);
+        }
+    }
+
     /**
      * Lists all uncommitted transactions.
      * On each uncommetted transaction found this method fires an {@link SVNAdminEvent}
@@ -1075,10 +1260,15 @@ public class SVNAdminClient extends SVNAdminBasicClient {
         FSFS fsfs = null;
         try {
             fsfs = SVNAdminHelper.openRepository(repositoryRoot, true);
-            ISVNLoadHandler handler = createLoadHandler(fsfs, usePreCommitHook, usePostCommitHook,
+            DefaultLoadHandler handler = createLoadHandler(fsfs, usePreCommitHook, usePostCommitHook,
                     uuidAction, parentDir);
-            SVNDumpStreamParser parser = getDumpStreamParser();
-            parser.parseDumpStream(dumpStream, handler, decoder);
+            try {
+                SVNDumpStreamParser parser = getDumpStreamParser();
+                parser.setReadAheadDepth(myLoadReadAheadDepth);
+                parser.parseDumpStream(dumpStream, handler, decoder);
+            } finally {
+                handler.flush();
+            }
         } finally {
             SVNAdminHelper.closeRepository(fsfs);
         }
@@ -1284,6 +1474,7 @@ public class SVNAdminClient extends SVNAdminBasicClient {
         DefaultDumpFilterHandler handler = getDumpFilterHandler(resultDumpStream, exclude, renumberRevisions,
                 dropEmptyRevisions, preserveRevisionProperties, prefixes, skipMissingMergeSources);
         SVNDumpStreamParser parser = getDumpStreamParser();
+        parser.setReadAheadDepth(0);
         parser.parseDumpStream(dumpStream, handler, decoder);
 
         if (myEventHandler != null) {
@@ -1392,26 +1583,145 @@ public class SVNAdminClient extends SVNAdminBasicClient {
             SVNErrorManager.error(err, SVNLogType.FSFS);
         }
 
-        for (long rev = startRev; rev <= endRev; rev++) {
-            FSRevisionRoot toRoot = fsfs.createRevisionRoot(rev);
-            ISVNEditor editor = getDumpEditor(fsfs, toRoot, rev, startRev, "/", SVNFileUtil.DUMMY_OUT, false, true);
-            editor = SVNCancellableEditor.newInstance(editor, getEventDispatcher(), getDebugLog());
-            FSRepositoryUtil.replay(fsfs, toRoot, "", SVNRepository.INVALID_REVISION, false, editor);
-            fsfs.getRevisionProperties(rev);
-            String message = "* Verified revision " + rev + ".";
+        final String uuid = fsfs.getUUID();
+        final long firstRev = startRev;
+        final long verifiedRev = readVerifyCheckpoint(uuid, startRev);
+        if (verifiedRev >= startRev) {
+            startRev = verifiedRev + 1;
+        }
 
-            if (myEventHandler != null) {
-                SVNAdminEvent event = new SVNAdminEvent(rev, SVNAdminEventAction.REVISION_DUMPED, message);
-                myEventHandler.handleAdminEvent(event, ISVNEventHandler.UNKNOWN);
+        final int threadCount = (int) Math.min(myVerifyThreadCount, (endRev - startRev) / VERIFY_RANGE_SIZE + 1);
+        if (threadCount <= 1) {
+            SVNDumpEditor dumpEditor = null;
+            for (long rev = startRev; rev <= endRev; rev++) {
+                dumpEditor = verifyRevision(fsfs, dumpEditor, rev, firstRev, getEventDispatcher());
+                handleRevisionVerified(rev);
+                if (rev == endRev || (rev + 1) % VERIFY_RANGE_SIZE == 0) {
+                    writeVerifyCheckpoint(uuid, firstRev, rev);
+                }
+            }
+        } else {
+            verifyInParallel(fsfs.getRepositoryRoot(), uuid, firstRev, startRev, endRev, threadCount);
+        }
+        deleteVerifyCheckpoint();
+    }
+
+    private void verifyInParallel(File repositoryRoot, String uuid, final long firstRev, long startRev, long endRev, int threadCount) throws SVNException {
+        final RepositoryWorkers workers = new RepositoryWorkers(repositoryRoot, threadCount, "svnkit-verify");
+        try {
+            final List<Future<?>> ranges = new ArrayList<Future<?>>();
+            for (long rangeStart = startRev; rangeStart <= endRev; rangeStart += VERIFY_RANGE_SIZE) {
+                final long start = rangeStart;
+                final long end = Math.min(endRev, rangeStart + VERIFY_RANGE_SIZE - 1);
+                ranges.add(workers.submit(new Callable<Object>() {
+                    public Object call() throws SVNException {
+                        FSFS fsfs = workers.getRepository();
+                        for (long rev = start; rev <= end; rev++) {
+                            workers.setDumpEditor(verifyRevision(fsfs, workers.getDumpEditor(), rev, firstRev, RepositoryWorkers.CANCELLER));
+                        }
+                        return null;
+                    }
+                }));
+            }
+            long rev = startRev;
+            for (Future<?> range : ranges) {
+                waitFor(range);
+                final long end = Math.min(endRev, rev + VERIFY_RANGE_SIZE - 1);
+                for (; rev <= end; rev++) {
+                    handleRevisionVerified(rev);
+                }
+                writeVerifyCheckpoint(uuid, firstRev, end);
+            }
+        } finally {
+            workers.dispose();
+        }
+    }
+
+    private <T> T waitFor(Future<T> task) throws SVNException {
+        while (true) {
+            try {
+                return task.get(100, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                checkCancelled();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                SVNErrorManager.cancel("Operation interrupted", SVNLogType.FSFS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SVNException) {
+                    throw (SVNException) e.getCause();
+                }
+                SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.UNKNOWN, e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+                SVNErrorManager.error(err, e.getCause(), SVNLogType.FSFS);
+            }
+        }
+    }
+
+    private SVNDumpEditor verifyRevision(FSFS fsfs, SVNDumpEditor dumpEditor, long rev, long startRev, ISVNCanceller canceller) throws SVNException {
+        FSRevisionRoot toRoot = fsfs.createRevisionRoot(rev);
+        if (dumpEditor == null) {
+            dumpEditor = new SVNDumpEditor(fsfs, toRoot, rev, startRev, "/", SVNFileUtil.DUMMY_OUT, false, true);
+        } else {
+            dumpEditor.reset(fsfs, toRoot, rev, startRev, "/", SVNFileUtil.DUMMY_OUT, false, true);
+        }
+        ISVNEditor editor = SVNCancellableEditor.newInstance(dumpEditor, canceller, getDebugLog());
+        FSRepositoryUtil.replay(fsfs, toRoot, "", SVNRepository.INVALID_REVISION, false, editor);
+        fsfs.getRevisionProperties(rev);
+        return dumpEditor;
+    }
+
+    private void handleRevisionVerified(long rev) throws SVNException {
+        String message = "* Verified revision " + rev + ".";
+
+        if (myEventHandler != null) {
+            SVNAdminEvent event = new SVNAdminEvent(rev, SVNAdminEventAction.REVISION_DUMPED, message);
+            myEventHandler.handleAdminEvent(event, ISVNEventHandler.UNKNOWN);
+        }
+    }
+
+    /**
+     * Checkpoint file contains repository UUID, the first revision and the last revision
+     * of a contiguous verified range, one per line.
+     */
+    private long readVerifyCheckpoint(String uuid, long startRev) {
+        if (myVerifyCheckpointFile == null || !myVerifyCheckpointFile.isFile()) {
+            return -1;
+        }
+        try {
+            String[] lines = SVNFileUtil.readFile(myVerifyCheckpointFile).split("\n");
+            if (lines.length < 3 || !uuid.equals(lines[0].trim())) {
+                return -1;
+            }
+            long firstRev = Long.parseLong(lines[1].trim());
+            long lastRev = Long.parseLong(lines[2].trim());
+            if (firstRev <= startRev && lastRev >= startRev) {
+                return lastRev;
             }
+        } catch (SVNException e) {
+            SVNDebugLog.getDefaultLog().logFine(SVNLogType.FSFS, e);
+        } catch (NumberFormatException e) {
+            SVNDebugLog.getDefaultLog().logFine(SVNLogType.FSFS, e);
+        }
+        return -1;
+    }
+
+    private void writeVerifyCheckpoint(String uuid, long firstRev, long lastRev) throws SVNException {
+        if (myVerifyCheckpointFile == null) {
+            return;
+        }
+        File tmpFile = SVNFileUtil.createUniqueFile(SVNFileUtil.getFileDir(myVerifyCheckpointFile), SVNFileUtil.getFileName(myVerifyCheckpointFile), ".tmp", false);
+        SVNFileUtil.writeToFile(tmpFile, uuid + "\n" + firstRev + "\n" + lastRev + "\n", "UTF-8");
+        SVNFileUtil.rename(tmpFile, myVerifyCheckpointFile);
+    }
+
+    private void deleteVerifyCheckpoint() throws SVNException {
+        if (myVerifyCheckpointFile != null) {
+            SVNFileUtil.deleteFile(myVerifyCheckpointFile);
         }
     }
 
     private void dump(FSFS fsfs, OutputStream dumpStream, long start, long end, boolean isIncremental, boolean useDeltas) throws SVNException {
         boolean isDumping = dumpStream != null && dumpStream != SVNFileUtil.DUMMY_OUT;
         long youngestRevision = fsfs.getYoungestRevision();
-        SVNAdminDeltifier deltifier = new SVNAdminDeltifier(fsfs, SVNDepth.INFINITY,
-                false, false, false, null);
 
         if (!SVNRevision.isValidRevisionNumber(start)) {
             start = 0;
@@ -1454,47 +1764,119 @@ public class SVNAdminClient extends SVNAdminBasicClient {
         writeDumpData(dumpStream, SVNAdminHelper.DUMPFILE_MAGIC_HEADER + ": " + version + "\n\n");
         writeDumpData(dumpStream, SVNAdminHelper.DUMPFILE_UUID + ": " + uuid + "\n\n");
 
-        for (long i = start; i <= end; i++) {
-            long fromRev, toRev;
+        int threadCount = (int) Math.min(myDumpThreadCount, end - start + 1);
+        if (threadCount > 1) {
+            dumpInParallel(fsfs.getRepositoryRoot(), dumpStream, start, end, isIncremental, useDeltas, threadCount, isDumping);
+            return;
+        }
 
+        for (long i = start; i <= end; i++) {
             checkCancelled();
 
-            if (i == start && !isIncremental) {
-                if (i == 0) {
-                    writeRevisionRecord(dumpStream, fsfs, 0);
-                    toRev = 0;
-                    String message = (isDumping ? "* Dumped" : "* Verified") + " revision " + toRev + ".";
-                    if (myEventHandler != null) {
-                        SVNAdminEvent event = new SVNAdminEvent(toRev, SVNAdminEventAction.REVISION_DUMPED, message);
-                        myEventHandler.handleAdminEvent(event, ISVNEventHandler.UNKNOWN);
+            SVNDumpEditor dumpEditor = getDumpEditor(fsfs, null, i, start, "/", dumpStream, useDeltas, false);
+            dumpRevision(fsfs, dumpEditor, dumpStream, i, start, isIncremental, useDeltas);
+            handleRevisionDumped(i, isDumping);
+        }
+    }
+
+    private void dumpInParallel(File repositoryRoot, OutputStream dumpStream, final long start, long end, final boolean isIncremental,
+            final boolean useDeltas, int threadCount, boolean isDumping) throws SVNException {
+        final RepositoryWorkers workers = new RepositoryWorkers(repositoryRoot, threadCount, "svnkit-dump");
+        final LinkedList<Future<SVNSpillBuffer>> pending = new LinkedList<Future<SVNSpillBuffer>>();
+        try {
+            long next = start;
+            byte[] buffer = new byte[DUMP_BUFFER_BLOCK_SIZE];
+            for (long rev = start; rev <= end; rev++) {
+                while (next <= end && pending.size() < threadCount * 2) {
+                    final long revision = next++;
+                    pending.add(workers.submit(new Callable<SVNSpillBuffer>() {
+                        public SVNSpillBuffer call() throws SVNException {
+                            RepositoryWorkers.CANCELLER.checkCancelled();
+                            FSFS fsfs = workers.getRepository();
+                            SVNDumpEditor dumpEditor = workers.getDumpEditor();
+                            if (dumpEditor == null) {
+                                dumpEditor = new SVNDumpEditor(fsfs, null, revision, start, "/", null, useDeltas, false);
+                                workers.setDumpEditor(dumpEditor);
+                            }
+                            SVNSpillBuffer revisionBuffer = new SVNSpillBuffer(DUMP_BUFFER_BLOCK_SIZE, DUMP_BUFFER_MEMORY_SIZE);
+                            try {
+                                dumpRevision(fsfs, dumpEditor, revisionBuffer.createOutputStream(), revision, start, isIncremental, useDeltas);
+                            } catch (SVNException e) {
+                                revisionBuffer.close();
+                                throw e;
+                            }
+                            return revisionBuffer;
+                        }
+                    }));
+                }
+                SVNSpillBuffer revisionBuffer = waitFor(pending.removeFirst());
+                InputStream revisionData = revisionBuffer.createInputStream();
+                try {
+                    int read;
+                    while ((read = revisionData.read(buffer, 0, buffer.length)) > 0) {
+                        dumpStream.write(buffer, 0, read);
                     }
-                    continue;
+                } catch (IOException e) {
+                    SVNErrorMessage err = SVNErrorMessage.create(SVNErrorCode.IO_ERROR, e.getLocalizedMessage());
+                    SVNErrorManager.error(err, e, SVNLogType.FSFS);
+                } finally {
+                    SVNFileUtil.closeFile(revisionData);
+                    revisionBuffer.close();
+                }
+                handleRevisionDumped(rev, isDumping);
+            }
+        } finally {
+            workers.dispose();
+            for (Future<SVNSpillBuffer> task : pending) {
+                try {
+                    if (task.isDone() && !task.isCancelled()) {
+                        task.get().close();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    //
                 }
+            }
+        }
+    }
 
-                fromRev = 0;
-                toRev = i;
-            } else {
-                fromRev = i - 1;
-                toRev = i;
+    private void dumpRevision(FSFS fsfs, SVNDumpEditor dumpEditor, OutputStream dumpStream, long rev, long start,
+            boolean isIncremental, boolean useDeltas) throws SVNException {
+        long fromRev, toRev;
+        if (rev == start && !isIncremental) {
+            if (rev == 0) {
+                writeRevisionRecord(dumpStream, fsfs, 0);
+                return;
             }
 
-            writeRevisionRecord(dumpStream, fsfs, toRev);
-            boolean useDeltasForRevision = useDeltas && (isIncremental || i != start);
-            FSRevisionRoot toRoot = fsfs.createRevisionRoot(toRev);
-            ISVNEditor dumpEditor = getDumpEditor(fsfs, toRoot, toRev, start, "/", dumpStream, useDeltasForRevision, false);
+            fromRev = 0;
+            toRev = rev;
+        } else {
+            fromRev = rev - 1;
+            toRev = rev;
+        }
 
-            if (i == start && !isIncremental) {
-                FSRevisionRoot fromRoot = fsfs.createRevisionRoot(fromRev);
-                deltifier.setEditor(dumpEditor);
-                deltifier.deltifyDir(fromRoot, "/", "", toRoot, "/");
-            } else {
-                FSRepositoryUtil.replay(fsfs, toRoot, "", -1, false, dumpEditor);
-            }
-            String message = (isDumping ? "* Dumped" : "* Verified") + " revision " + toRev + ".";
-            if (myEventHandler != null) {
-                SVNAdminEvent event = new SVNAdminEvent(toRev, SVNAdminEventAction.REVISION_DUMPED, message);
-                myEventHandler.handleAdminEvent(event, ISVNEventHandler.UNKNOWN);
-            }
+        writeRevisionRecord(dumpStream, fsfs, toRev);
+        boolean useDeltasForRevision = useDeltas && (isIncremental || rev != start);
+        FSRevisionRoot toRoot = fsfs.createRevisionRoot(toRev);
+        dumpEditor.reset(fsfs, toRoot, toRev, start, "/", dumpStream, useDeltasForRevision, false);
+
+        if (rev == start && !isIncremental) {
+            FSRevisionRoot fromRoot = fsfs.createRevisionRoot(fromRev);
+            SVNAdminDeltifier deltifier = new SVNAdminDeltifier(fsfs, SVNDepth.INFINITY, false, false, false, null);
+            deltifier.setEditor(dumpEditor);
+            deltifier.deltifyDir(fromRoot, "/", "", toRoot, "/");
+        } else {
+            FSRepositoryUtil.replay(fsfs, toRoot, "", -1, false, dumpEditor);
+        }
+    }
+
+    private void handleRevisionDumped(long rev, boolean isDumping) throws SVNException {
+        String message = (isDumping ? "* Dumped" : "* Verified") + " revision " + rev + ".";
+        if (myEventHandler != null) {
+            SVNAdminEvent event = new SVNAdminEvent(rev, SVNAdminEventAction.REVISION_DUMPED, message);
+            myEventHandler.handleAdminEvent(event, ISVNEventHandler.UNKNOWN);
         }
     }
 
@@ -1542,6 +1924,7 @@ public class SVNAdminClient extends SVNAdminBasicClient {
         handler.setUsePostCommitHook(usePostCommitHook);
         handler.setUUIDAction(uuidAction);
         handler.setParentDir(parentDir);
+        handler.setBulkLoad(myIsBulkLoad);
         return handler;
     }
 
@@ -1684,6 +2067,80 @@ public class SVNAdminClient extends SVNAdminBasicClient {
         }
     }
 
+    /**
+     * Worker threads for parallel verify and dump, each with its own repository handle
+     * and dump editor.
+     */
+    private static class RepositoryWorkers {
+
+        static final ISVNCanceller CANCELLER = new ISVNCanceller() {
+            public void checkCancelled() throws SVNCancelException {
+                if (Thread.currentThread().isInterrupted()) {
+                    SVNErrorManager.cancel("Operation cancelled", SVNLogType.FSFS);
+                }
+            }
+        };
+
+        private final File myRepositoryRoot;
+        private final ExecutorService myExecutor;
+        private final List<FSFS> myRepositories;
+        private final ThreadLocal<FSFS> myRepository;
+        private final ThreadLocal<SVNDumpEditor> myDumpEditor;
+
+        public RepositoryWorkers(File repositoryRoot, int threadCount, final String threadName) {
+            myRepositoryRoot = repositoryRoot;
+            myRepositories = new ArrayList<FSFS>();
+            myRepository = new ThreadLocal<FSFS>();
+            myDumpEditor = new ThreadLocal<SVNDumpEditor>();
+            myExecutor = Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    final Thread thread = new Thread(r, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+
+        public <T> Future<T> submit(Callable<T> task) {
+            return myExecutor.submit(task);
+        }
+
+        public FSFS getRepository() throws SVNException {
+            FSFS fsfs = myRepository.get();
+            if (fsfs == null) {
+                fsfs = SVNAdminHelper.openRepository(myRepositoryRoot, true);
+                synchronized (myRepositories) {
+                    myRepositories.add(fsfs);
+                }
+                myRepository.set(fsfs);
+            }
+            return fsfs;
+        }
+
+        public SVNDumpEditor getDumpEditor() {
+            return myDumpEditor.get();
+        }
+
+        public void setDumpEditor(SVNDumpEditor dumpEditor) {
+            myDumpEditor.set(dumpEditor);
+        }
+
+        public void dispose() {
+            myExecutor.shutdownNow();
+            try {
+                myExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            synchronized (myRepositories) {
+                for (FSFS fsfs : myRepositories) {
+                    SVNAdminHelper.closeRepository(fsfs);
+                }
+                myRepositories.clear();
+            }
+        }
+    }
+
     public static SVNProperties normalizeRevisionProperties(SVNProperties revProps) throws SVNException {
         SVNProperties normalizedProps = new SVNProperties();
         for (Iterator propNamesIter = revProps.nameSet().iterator(); propNamesIter.hasNext();) {
@@ -20,9 +20,11 @@ public abstract class AbstractSvnUpdate<V> extends SvnOperation<V> {
     private boolean updateLocksOnDemand;
     private boolean allowUnversionedObstructions;
     private ISvnExternalsHandler externalsHandler;
+    private int externalsParallelism;
 
     protected AbstractSvnUpdate(SvnOperationFactory factory) {
         super(factory);
+        externalsParallelism = Integer.getInteger("svnkit.externals.parallelism", 1).intValue();
     }
 
     /**
@@ -98,4 +100,41 @@ public abstract class AbstractSvnUpdate<V> extends SvnOperation<V> {
         this.externalsHandler = externalsHandler;
     }
 
+    /**
+     * Gets the number of externals that may be checked out or updated concurrently.
+     * 
+     * @return maximum number of externals processed at the same time
+     * @since 1.9
+     */
+    public int getExternalsParallelism() {
+        return externalsParallelism;
+    }
+
+    /**
+     * Sets the number of externals that may be checked out or updated concurrently.
+     * Each concurrently processed external uses its own repository session; events are still 
+     * reported in the order of externals definitions. Defaults to the value of the 
+     * <code>svnkit.externals.parallelism</code> system property or <code>1</code>, 
+     * which processes externals one after another.
+     * 
+     * @param externalsParallelism maximum number of externals processed at the same time
+     * @since 1.9
+     */
+    public void setExternalsParallelism(int externalsParallelism) {
+        this.externalsParallelism = externalsParallelism;
+    }
+
+    @Override
+    protected void copySettings(SvnOperation<V> copy) {
+        super.copySettings(copy);
+        if (copy instanceof AbstractSvnUpdate) {
+            AbstractSvnUpdate<V> updateCopy = (AbstractSvnUpdate<V>) copy;
+            updateCopy.setIgnoreExternals(isIgnoreExternals());
+            updateCopy.setUpdateLocksOnDemand(isUpdateLocksOnDemand());
+            updateCopy.setAllowUnversionedObstructions(isAllowUnversionedObstructions());
+            updateCopy.setExternalsHandler(getExternalsHandler());
+            updateCopy.setExternalsParallelism(getExternalsParallelism());
+        }
+    }
+
 }
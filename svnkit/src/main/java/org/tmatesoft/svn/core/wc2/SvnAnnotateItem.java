@@ -3,6 +3,7 @@ package org.tmatesoft.svn.core.wc2;
 import java.io.File;
 import java.util.Date;
 
+import org.tmatesoft.svn.core.SVNAnnotationGenerator;
 import org.tmatesoft.svn.core.SVNProperties;
 import org.tmatesoft.svn.core.SVNRevisionProperty;
 import org.tmatesoft.svn.core.internal.util.SVNDate;
@@ -23,6 +24,7 @@ public class SvnAnnotateItem {
     private String mergedPath;
     private int lineNumber;
     private File contents;
+    private SVNAnnotationGenerator generator;
     private boolean isEof;
     private boolean isRevision;
     private boolean isLine;
@@ -74,6 +76,22 @@ public class SvnAnnotateItem {
         this.contents = contents;
     }
 
+    /**
+     * Constructs and initializes an <b>SvnAnnotateItem</b> object with the
+     * specified parameters. The contents file is written by the generator
+     * only when {@link #getContents()} is called while the item is received.
+     * 
+     * @param date modification date
+     * @param revision revision of modification
+     * @param author author of modification
+     * @param generator generator to take the revision contents from
+     * @since 1.9
+     */
+    public SvnAnnotateItem(Date date, long revision, String author, SVNAnnotationGenerator generator) {
+        this(date, revision, author, (File) null);
+        this.generator = generator;
+    }
+
     /**
      * Gets date of modification.
      * 
@@ -179,6 +197,9 @@ public class SvnAnnotateItem {
      * @return modification contents
      */
     public File getContents() {
+        if (contents == null && generator != null) {
+            contents = generator.getRevisionContents();
+        }
         return contents;
     }
 
@@ -4,6 +4,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 import org.tmatesoft.sqljet.core.internal.SqlJetPagerJournalMode;
 import org.tmatesoft.svn.core.ISVNCanceller;
@@ -19,6 +20,7 @@ import org.tmatesoft.svn.core.wc.ISVNRepositoryPool;
 import org.tmatesoft.svn.core.wc.SVNEvent;
 import org.tmatesoft.svn.core.wc.SVNRevision;
 import org.tmatesoft.svn.util.SVNLogType;
+import org.tmatesoft.svn.util.SVNMetrics;
 
 /**
  * Base class for all Svn* operations. 
@@ -58,6 +60,7 @@ public class SvnOperation<V> implements ISvnOperationOptionsProvider {
     private boolean isSleepForTimestamp;
     
     private SqlJetPagerJournalMode sqliteJournalMode;
+    private int targetsParallelism;
     
     private volatile boolean isCancelled;
     
@@ -92,6 +95,7 @@ public class SvnOperation<V> implements ISvnOperationOptionsProvider {
         setDepth(SVNDepth.UNKNOWN);
         setSleepForTimestamp(true);
         setRevision(SVNRevision.UNDEFINED);
+        setTargetsParallelism(getOperationFactory() != null ? getOperationFactory().getTargetsParallelism() : 1);
         this.targets = new ArrayList<SvnTarget>();
     }
     
@@ -291,7 +295,23 @@ public class SvnOperation<V> implements ISvnOperationOptionsProvider {
     @SuppressWarnings("unchecked")
     public V run() throws SVNException {
         ensureArgumentsAreValid();
-        return (V) getOperationFactory().run(this);
+        if (!SVNMetrics.isEnabled(SVNLogType.WC)) {
+            return (V) getOperationFactory().run(this);
+        }
+        final String spanName = "operation." + getClass().getSimpleName();
+        final long startTime = SVNMetrics.startSpan(SVNLogType.WC, spanName);
+        Throwable failure = null;
+        try {
+            return (V) getOperationFactory().run(this);
+        } catch (SVNException e) {
+            failure = e;
+            throw e;
+        } catch (RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            SVNMetrics.finishSpan(SVNLogType.WC, spanName, startTime, 0, failure);
+        }
     }
     
     protected void ensureArgumentsAreValid() throws SVNException {
@@ -404,6 +424,82 @@ public class SvnOperation<V> implements ISvnOperationOptionsProvider {
         sqliteJournalMode = journalMode; 
     }
 
+    /**
+     * Gets the number of working copies this operation may process at the same time.
+     * 
+     * @return maximum number of working copies processed concurrently
+     * @see #setTargetsParallelism(int)
+     * @since 1.9
+     */
+    public int getTargetsParallelism() {
+        return targetsParallelism;
+    }
+
+    /**
+     * Sets the number of working copies this operation may process at the same time.
+     * 
+     * <p/>
+     * When it is greater than <code>1</code> and the targets belong to several working copies,
+     * none of which contains another one, operations that support it (see {@link SvnUpdate}) process 
+     * each working copy on its own thread with its own working copy context and repository 
+     * sessions. Events of each working copy are reported in targets order after it is processed, 
+     * results are merged in targets order. Otherwise targets are processed one after another.
+     * Defaults to {@link SvnOperationFactory#getTargetsParallelism()}.
+     * 
+     * @param targetsParallelism maximum number of working copies processed concurrently
+     * @since 1.9
+     */
+    public void setTargetsParallelism(int targetsParallelism) {
+        this.targetsParallelism = targetsParallelism;
+    }
+
+    /**
+     * Tells whether targets of this operation that belong to different working copies may be 
+     * processed concurrently by copies of this operation.
+     * 
+     * @return <code>true</code> if {@link #createCopyForTargets(SvnOperationFactory, Collection)}
+     *          and {@link #mergeTargetsResults(List, List)} are implemented
+     */
+    protected boolean isTargetsParallelismSupported() {
+        return false;
+    }
+
+    /**
+     * Creates a copy of this operation with the same settings and the specified subset of targets.
+     * 
+     * @param factory factory that will run the copy
+     * @param targets targets of the copy
+     * @return operation copy
+     */
+    protected SvnOperation<V> createCopyForTargets(SvnOperationFactory factory, Collection<SvnTarget> targets) {
+        return null;
+    }
+
+    /**
+     * Merges results of operation copies into the result of this operation.
+     * 
+     * @param targetIndexes for each copy, indexes of its targets in this operation targets
+     * @param results result of each copy
+     * @return result of this operation
+     */
+    protected V mergeTargetsResults(List<List<Integer>> targetIndexes, List<V> results) {
+        return null;
+    }
+
+    /**
+     * Copies settings of this operation, except for targets, to <code>copy</code>.
+     * 
+     * @param copy operation to set up
+     */
+    protected void copySettings(SvnOperation<V> copy) {
+        copy.setDepth(getDepth());
+        copy.setRevision(getRevision());
+        copy.setApplicalbeChangelists(getApplicableChangelists());
+        copy.setSleepForTimestamp(isSleepForTimestamp());
+        copy.setSqliteJournalMode(getSqliteJournalMode());
+        copy.setTargetsParallelism(getTargetsParallelism());
+    }
+
     protected File getOperationalWorkingCopy() {
         if (hasFileTargets()) {
             return getFirstTarget().getFile();
@@ -208,6 +208,7 @@ public class SvnOperationFactory implements ISvnOperationOptionsProvider {
     
     private SvnWcGeneration primaryWcGeneration;
     private int runLevel;
+    private int targetsParallelism = 1;
     
     private SvnWcGeneration detectedWcGeneration = SvnWcGeneration.NOT_DETECTED;
 	private boolean isWcGenerationSticky;
@@ -1209,6 +1210,30 @@ public class SvnOperationFactory implements ISvnOperationOptionsProvider {
         return new SvnSetWCDbVersion(this);
     }
 
+    /**
+     * Returns the number of working copies operations created by this factory may process
+     * at the same time by default.
+     * 
+     * @return maximum number of working copies processed concurrently
+     * @see SvnOperation#setTargetsParallelism(int)
+     * @since 1.9
+     */
+    public int getTargetsParallelism() {
+        return targetsParallelism;
+    }
+
+    /**
+     * Sets the number of working copies operations created by this factory may process
+     * at the same time by default; <code>1</code> processes targets one after another.
+     * 
+     * @param targetsParallelism maximum number of working copies processed concurrently
+     * @see SvnOperation#setTargetsParallelism(int)
+     * @since 1.9
+     */
+    public void setTargetsParallelism(int targetsParallelism) {
+        this.targetsParallelism = targetsParallelism;
+    }
+
     /**
      * Sets whether to dispose repository pool on {@link #dispose()} call.
      * This flag has sense only if <code>repositoryPool</code> field is not <code>null</code>.
@@ -1221,6 +1246,12 @@ public class SvnOperationFactory implements ISvnOperationOptionsProvider {
     }
 
     protected Object run(SvnOperation<?> operation) throws SVNException {
+        if (runLevel == 0 && operation.getTargetsParallelism() > 1 && operation.isTargetsParallelismSupported()) {
+            List<List<Integer>> targetGroups = SvnParallelTargetsRunner.groupTargetsByWorkingCopy(operation);
+            if (targetGroups != null) {
+                return SvnParallelTargetsRunner.run(this, operation, targetGroups);
+            }
+        }
         ISvnOperationRunner<?, SvnOperation<?>> runner = getImplementation(operation);
         if (runner != null) {
             SVNWCContext wcContext = null;
@@ -0,0 +1,155 @@
+package org.tmatesoft.svn.core.wc2;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+
+import org.tmatesoft.svn.core.ISVNCanceller;
+import org.tmatesoft.svn.core.SVNCancelException;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.internal.util.SVNPathUtil;
+import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.internal.wc2.SvnParallelWorkers;
+import org.tmatesoft.svn.core.wc.ISVNEventHandler;
+import org.tmatesoft.svn.util.SVNLogType;
+
+/**
+ * Runs an operation whose targets belong to several independent working copies as one
+ * copy of the operation per working copy, on a fixed number of threads.
+ *
+ * Every copy is run by a factory of its own, so it gets its own working copy context and
+ * repository pool; authentication manager and options are shared with the calling factory.
+ * Events of each copy are buffered and passed to the calling factory's event handler on the
+ * calling thread, in targets order.
+ *
+ * @see SvnOperation#setTargetsParallelism(int)
+ */
+class SvnParallelTargetsRunner {
+
+    /**
+     * Groups targets by working copy root, in order of first occurrence.
+     *
+     * @return indexes of targets of each working copy or <code>null</code> if targets
+     *          can not be processed concurrently
+     */
+    public static List<List<Integer>> groupTargetsByWorkingCopy(SvnOperation<?> operation) throws SVNException {
+        if (operation.getTargets().size() < 2) {
+            return null;
+        }
+        Map<String, List<Integer>> groups = new LinkedHashMap<String, List<Integer>>();
+        int index = 0;
+        for (SvnTarget target : operation.getTargets()) {
+            if (!target.isFile()) {
+                return null;
+            }
+            File path = target.getFile().getAbsoluteFile();
+            if (path.isFile()) {
+                path = path.getParentFile();
+            }
+            File root = SvnOperationFactory.getWorkingCopyRoot(path, true);
+            if (root == null) {
+                return null;
+            }
+            String rootPath = root.getAbsolutePath().replace(File.separatorChar, '/');
+            List<Integer> group = groups.get(rootPath);
+            if (group == null) {
+                group = new ArrayList<Integer>();
+                groups.put(rootPath, group);
+            }
+            group.add(Integer.valueOf(index++));
+        }
+        if (groups.size() < 2) {
+            return null;
+        }
+        List<String> roots = new ArrayList<String>(groups.keySet());
+        for (int i = 0; i < roots.size(); i++) {
+            for (int j = i + 1; j < roots.size(); j++) {
+                if (SVNPathUtil.isAncestor(roots.get(i), roots.get(j)) || SVNPathUtil.isAncestor(roots.get(j), roots.get(i))) {
+                    return null;
+                }
+            }
+        }
+        return new ArrayList<List<Integer>>(groups.values());
+    }
+
+    public static <V> V run(SvnOperationFactory factory, final SvnOperation<V> operation, List<List<Integer>> targetGroups) throws SVNException {
+        List<SvnTarget> targets = new ArrayList<SvnTarget>(operation.getTargets());
+        List<SvnParallelWorkers.EventsBuffer> buffers = new ArrayList<SvnParallelWorkers.EventsBuffer>();
+        List<Future<V>> futures = new ArrayList<Future<V>>();
+        SvnParallelWorkers workers = new SvnParallelWorkers("svnkit-targets", Math.min(operation.getTargetsParallelism(), targetGroups.size()), factory);
+
+        factory.getOperationHandler().beforeOperation(operation);
+        try {
+            ISVNCanceller canceller = new ISVNCanceller() {
+                public void checkCancelled() throws SVNCancelException {
+                    if (operation.isCancelled()) {
+                        SVNErrorManager.cancel("Operation cancelled", SVNLogType.WC);
+                    }
+                    ISVNCanceller operationCanceller = operation.getCanceller();
+                    if (operationCanceller != null) {
+                        operationCanceller.checkCancelled();
+                    }
+                }
+            };
+            for (List<Integer> group : targetGroups) {
+                SvnOperationFactory groupFactory = workers.createFactory();
+                SvnParallelWorkers.EventsBuffer buffer = new SvnParallelWorkers.EventsBuffer(canceller);
+                groupFactory.setEventHandler(buffer);
+                buffers.add(buffer);
+
+                List<SvnTarget> groupTargets = new ArrayList<SvnTarget>();
+                for (Integer index : group) {
+                    groupTargets.add(targets.get(index.intValue()));
+                }
+                final SvnOperation<V> copy = operation.createCopyForTargets(groupFactory, groupTargets);
+                copy.setSleepForTimestamp(false);
+                copy.setTargetsParallelism(1);
+                futures.add(workers.submit(new Callable<V>() {
+                    public V call() throws Exception {
+                        return copy.run();
+                    }
+                }));
+            }
+
+            List<V> results = new ArrayList<V>();
+            SVNException failure = null;
+            ISVNEventHandler eventHandler = factory.getEventHandler();
+            for (int i = 0; i < futures.size(); i++) {
+                V result = null;
+                try {
+                    result = SvnParallelWorkers.getResult(futures.get(i));
+                } catch (SVNCancelException e) {
+                    throw e;
+                } catch (SVNException e) {
+                    if (failure == null) {
+                        // the first failure in targets order is reported.
+                        failure = e;
+                    }
+                }
+                results.add(result);
+                if (eventHandler != null) {
+                    buffers.get(i).replay(eventHandler);
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            V result = operation.mergeTargetsResults(targetGroups, results);
+            if (operation.isSleepForTimestamp()) {
+                SVNFileUtil.sleepForTimestamp();
+            }
+            factory.getOperationHandler().afterOperationSuccess(operation);
+            return result;
+        } catch (SVNException e) {
+            factory.getOperationHandler().afterOperationFailure(operation);
+            throw e;
+        } finally {
+            workers.dispose();
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package org.tmatesoft.svn.core.wc2;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.tmatesoft.svn.core.SVNDepth;
 import org.tmatesoft.svn.core.SVNErrorCode;
 import org.tmatesoft.svn.core.SVNErrorMessage;
@@ -169,6 +172,36 @@ public class SvnUpdate extends AbstractSvnUpdate<long[]> {
     protected int getMaximumTargetsCount() {
         return Integer.MAX_VALUE;
     }
+
+    @Override
+    protected boolean isTargetsParallelismSupported() {
+        return true;
+    }
+
+    @Override
+    protected SvnOperation<long[]> createCopyForTargets(SvnOperationFactory factory, Collection<SvnTarget> targets) {
+        SvnUpdate copy = factory.createUpdate();
+        copySettings(copy);
+        copy.setDepthIsSticky(isDepthIsSticky());
+        copy.setMakeParents(isMakeParents());
+        copy.setTreatAddsAsModifications(isTreatAddsAsModifications());
+        for (SvnTarget target : targets) {
+            copy.addTarget(target);
+        }
+        return copy;
+    }
+
+    @Override
+    protected long[] mergeTargetsResults(List<List<Integer>> targetIndexes, List<long[]> results) {
+        long[] merged = new long[getTargets().size()];
+        for (int i = 0; i < targetIndexes.size(); i++) {
+            List<Integer> indexes = targetIndexes.get(i);
+            for (int j = 0; j < indexes.size(); j++) {
+                merged[indexes.get(j).intValue()] = results.get(i)[j];
+            }
+        }
+        return merged;
+    }
     
     /**
      * Gets whether the operation changes working copy
@@ -15,6 +15,7 @@ public class SvnRepositoryDump extends SvnRepositoryReceivingOperation<SVNAdminE
     private SVNRevision endRevision;
     private boolean useDelta;
     private boolean incremental;
+    private int threadCount = Integer.getInteger("svnkit.admin.dump.threads", 1).intValue();
 
     public SvnRepositoryDump(SvnOperationFactory factory) {
         super(factory);
@@ -60,6 +61,14 @@ public class SvnRepositoryDump extends SvnRepositoryReceivingOperation<SVNAdminE
         this.incremental = incremental;
     }
 
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
     @Override
     protected void ensureArgumentsAreValid() throws SVNException {
         if (getStartRevision() == null) {
@@ -13,6 +13,8 @@ public class SvnRepositoryLoad extends SvnRepositoryReceivingOperation<SVNAdminE
     private boolean usePostCommitHook;
     private SVNUUIDAction uuidAction;
     private String parentDir;
+    private boolean bulkLoad = Boolean.getBoolean("svnkit.admin.load.bulk");
+    private int readAheadDepth = Integer.getInteger("svnkit.admin.load.readahead", 0).intValue();
     
     
     public SvnRepositoryLoad(SvnOperationFactory factory) {
@@ -64,4 +66,20 @@ public class SvnRepositoryLoad extends SvnRepositoryReceivingOperation<SVNAdminE
 	public void setParentDir(String parentDir) {
 		this.parentDir = parentDir;
 	}
+
+	public boolean isBulkLoad() {
+		return bulkLoad;
+	}
+
+	public void setBulkLoad(boolean bulkLoad) {
+		this.bulkLoad = bulkLoad;
+	}
+
+	public int getReadAheadDepth() {
+		return readAheadDepth;
+	}
+
+	public void setReadAheadDepth(int readAheadDepth) {
+		this.readAheadDepth = readAheadDepth;
+	}
 }
@@ -1,5 +1,7 @@
 package org.tmatesoft.svn.core.wc2.admin;
 
+import java.io.File;
+
 import org.tmatesoft.svn.core.wc.SVNRevision;
 import org.tmatesoft.svn.core.wc.admin.SVNAdminEvent;
 import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
@@ -8,6 +10,8 @@ public class SvnRepositoryVerify extends SvnRepositoryReceivingOperation<SVNAdmi
 
     private SVNRevision startRevision;
     private SVNRevision endRevision;
+    private int threadCount;
+    private File checkpointFile;
     
     public SvnRepositoryVerify(SvnOperationFactory factory) {
         super(factory);
@@ -18,6 +22,7 @@ public class SvnRepositoryVerify extends SvnRepositoryReceivingOperation<SVNAdmi
     	super.initDefaults();
     	startRevision = SVNRevision.create(0);
         endRevision = SVNRevision.HEAD;
+        threadCount = Integer.getInteger("svnkit.admin.verify.threads", 1).intValue();
     }
 	
 	public SVNRevision getStartRevision() {
@@ -35,4 +40,20 @@ public class SvnRepositoryVerify extends SvnRepositoryReceivingOperation<SVNAdmi
     public void setEndRevision(SVNRevision endRevision) {
         this.endRevision = endRevision;
     }
+
+    public int getThreadCount() {
+        return threadCount;
+    }
+
+    public void setThreadCount(int threadCount) {
+        this.threadCount = threadCount;
+    }
+
+    public File getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    public void setCheckpointFile(File checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
 }
@@ -0,0 +1,81 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.util;
+
+/**
+ * Receives counters, timings and trace spans reported by SVNKit.
+ *
+ * <p/>
+ * Timings are leaf measurements, such as a single file read or an SQL transaction.
+ * Spans are units of work that may contain other spans and timings, such as a
+ * working copy operation or a repository command; a span is started and finished
+ * on the same thread, so nesting follows from the order of the calls.
+ *
+ * <p/>
+ * SVNKit only measures what {@link #isEnabled(SVNLogType)} asks for, so that a disabled
+ * category costs a single call. Implementations are called from many threads concurrently
+ * and must be thread-safe.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ * @since   1.9
+ * @see     SVNMetrics
+ */
+public interface ISVNMetrics {
+
+    /**
+     * Tells whether measurements of the given category should be reported.
+     *
+     * @param logType category of measurements
+     * @return <code>true</code> if this object wants the measurements
+     */
+    public boolean isEnabled(SVNLogType logType);
+
+    /**
+     * Adds <code>delta</code> to the counter <code>name</code>.
+     *
+     * @param logType category of the counter
+     * @param name    counter name
+     * @param delta   value to add
+     */
+    public void count(SVNLogType logType, String name, long delta);
+
+    /**
+     * Reports a single timed measurement.
+     *
+     * @param logType       category of the measurement
+     * @param name          timer name
+     * @param durationNanos elapsed time in nanoseconds
+     * @param bytes         number of bytes processed, or <code>0</code> if not applicable
+     */
+    public void time(SVNLogType logType, String name, long durationNanos, long bytes);
+
+    /**
+     * Reports the start of a span on the current thread.
+     *
+     * @param logType category of the span
+     * @param name    span name
+     */
+    public void startSpan(SVNLogType logType, String name);
+
+    /**
+     * Reports the end of the span most recently started on the current thread.
+     *
+     * @param logType       category of the span
+     * @param name          span name
+     * @param durationNanos elapsed time in nanoseconds
+     * @param bytes         number of bytes processed, or <code>0</code> if not applicable
+     * @param failure       exception the span failed with, or <code>null</code>
+     */
+    public void finishSpan(SVNLogType logType, String name, long durationNanos, long bytes, Throwable failure);
+
+}
@@ -0,0 +1,268 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link ISVNMetrics} implementation that aggregates measurements in memory.
+ *
+ * <p/>
+ * Counters and timers are keyed by the category short name and the measurement name,
+ * for instance <code>FSFS.read</code>. Finished spans are aggregated as timers too and,
+ * if a trace size is given, the most recent ones are kept with their nesting depth.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ * @since   1.9
+ */
+public class SVNInMemoryMetrics implements ISVNMetrics {
+
+    private final Set<SVNLogType> myLogTypes;
+    private final int myTraceSize;
+
+    private final ConcurrentMap<String, AtomicLong> myCounters = new ConcurrentHashMap<String, AtomicLong>();
+    private final ConcurrentMap<String, Timer> myTimers = new ConcurrentHashMap<String, Timer>();
+    private final LinkedList<Span> myTrace = new LinkedList<Span>();
+    private final ThreadLocal<int[]> myDepth = new ThreadLocal<int[]>() {
+        protected int[] initialValue() {
+            return new int[1];
+        }
+    };
+
+    public SVNInMemoryMetrics() {
+        this(1000);
+    }
+
+    /**
+     * @param traceSize number of most recent spans to keep, <code>0</code> to keep none
+     * @param logTypes  categories to measure, all categories if none given
+     */
+    public SVNInMemoryMetrics(int traceSize, SVNLogType... logTypes) {
+        myTraceSize = traceSize;
+        myLogTypes = logTypes.length == 0 ? null : new HashSet<SVNLogType>(Arrays.asList(logTypes));
+    }
+
+    public boolean isEnabled(SVNLogType logType) {
+        return myLogTypes == null || myLogTypes.contains(logType);
+    }
+
+    public void count(SVNLogType logType, String name, long delta) {
+        final String key = getKey(logType, name);
+        AtomicLong counter = myCounters.get(key);
+        if (counter == null) {
+            final AtomicLong newCounter = new AtomicLong();
+            counter = myCounters.putIfAbsent(key, newCounter);
+            if (counter == null) {
+                counter = newCounter;
+            }
+        }
+        counter.addAndGet(delta);
+    }
+
+    public void time(SVNLogType logType, String name, long durationNanos, long bytes) {
+        getTimer(getKey(logType, name)).add(durationNanos, bytes, false);
+    }
+
+    public void startSpan(SVNLogType logType, String name) {
+        myDepth.get()[0]++;
+    }
+
+    public void finishSpan(SVNLogType logType, String name, long durationNanos, long bytes, Throwable failure) {
+        final int[] depth = myDepth.get();
+        depth[0] = Math.max(0, depth[0] - 1);
+        final String key = getKey(logType, name);
+        getTimer(key).add(durationNanos, bytes, failure != null);
+        if (myTraceSize > 0) {
+            final Span span = new Span(key, Thread.currentThread().getName(), depth[0], durationNanos, bytes, failure);
+            synchronized (myTrace) {
+                myTrace.addLast(span);
+                if (myTrace.size() > myTraceSize) {
+                    myTrace.removeFirst();
+                }
+            }
+        }
+    }
+
+    public long getCount(String key) {
+        final AtomicLong counter = myCounters.get(key);
+        return counter == null ? 0 : counter.get();
+    }
+
+    public Timer getTimer(String key) {
+        Timer timer = myTimers.get(key);
+        if (timer == null) {
+            final Timer newTimer = new Timer();
+            timer = myTimers.putIfAbsent(key, newTimer);
+            if (timer == null) {
+                timer = newTimer;
+            }
+        }
+        return timer;
+    }
+
+    public Map<String, Long> getCounters() {
+        final Map<String, Long> counters = new TreeMap<String, Long>();
+        for (Map.Entry<String, AtomicLong> entry : myCounters.entrySet()) {
+            counters.put(entry.getKey(), entry.getValue().get());
+        }
+        return counters;
+    }
+
+    public Map<String, Timer> getTimers() {
+        return Collections.unmodifiableMap(new TreeMap<String, Timer>(myTimers));
+    }
+
+    public List<Span> getTrace() {
+        synchronized (myTrace) {
+            return new ArrayList<Span>(myTrace);
+        }
+    }
+
+    public void reset() {
+        myCounters.clear();
+        myTimers.clear();
+        synchronized (myTrace) {
+            myTrace.clear();
+        }
+    }
+
+    public String getReport() {
+        final StringBuilder report = new StringBuilder();
+        report.append("SVNKit metrics:");
+        for (Map.Entry<String, Long> entry : getCounters().entrySet()) {
+            report.append("\n  ").append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        for (Map.Entry<String, Timer> entry : getTimers().entrySet()) {
+            report.append("\n  ").append(entry.getKey()).append(": ").append(entry.getValue());
+        }
+        return report.toString();
+    }
+
+    public String toString() {
+        return getReport();
+    }
+
+    private static String getKey(SVNLogType logType, String name) {
+        return logType.getShortName() + "." + name;
+    }
+
+    public static class Timer {
+
+        private final AtomicLong myCount = new AtomicLong();
+        private final AtomicLong myFailures = new AtomicLong();
+        private final AtomicLong myTotalNanos = new AtomicLong();
+        private final AtomicLong myMaxNanos = new AtomicLong();
+        private final AtomicLong myBytes = new AtomicLong();
+
+        private void add(long durationNanos, long bytes, boolean failed) {
+            myCount.incrementAndGet();
+            if (failed) {
+                myFailures.incrementAndGet();
+            }
+            myTotalNanos.addAndGet(durationNanos);
+            myBytes.addAndGet(bytes);
+            long max = myMaxNanos.get();
+            while (durationNanos > max && !myMaxNanos.compareAndSet(max, durationNanos)) {
+                max = myMaxNanos.get();
+            }
+        }
+
+        public long getCount() {
+            return myCount.get();
+        }
+
+        public long getFailures() {
+            return myFailures.get();
+        }
+
+        public long getTotalNanos() {
+            return myTotalNanos.get();
+        }
+
+        public long getMaxNanos() {
+            return myMaxNanos.get();
+        }
+
+        public long getBytes() {
+            return myBytes.get();
+        }
+
+        public String toString() {
+            final StringBuilder result = new StringBuilder();
+            result.append("count=").append(getCount());
+            result.append(" total=").append(getTotalNanos() / 1000000).append("ms");
+            result.append(" max=").append(getMaxNanos() / 1000000).append("ms");
+            if (getBytes() > 0) {
+                result.append(" bytes=").append(getBytes());
+            }
+            if (getFailures() > 0) {
+                result.append(" failures=").append(getFailures());
+            }
+            return result.toString();
+        }
+    }
+
+    public static class Span {
+
+        private final String myName;
+        private final String myThreadName;
+        private final int myDepth;
+        private final long myDurationNanos;
+        private final long myBytes;
+        private final Throwable myFailure;
+
+        private Span(String name, String threadName, int depth, long durationNanos, long bytes, Throwable failure) {
+            myName = name;
+            myThreadName = threadName;
+            myDepth = depth;
+            myDurationNanos = durationNanos;
+            myBytes = bytes;
+            myFailure = failure;
+        }
+
+        public String getName() {
+            return myName;
+        }
+
+        public String getThreadName() {
+            return myThreadName;
+        }
+
+        public int getDepth() {
+            return myDepth;
+        }
+
+        public long getDurationNanos() {
+            return myDurationNanos;
+        }
+
+        public long getBytes() {
+            return myBytes;
+        }
+
+        public Throwable getFailure() {
+            return myFailure;
+        }
+    }
+}
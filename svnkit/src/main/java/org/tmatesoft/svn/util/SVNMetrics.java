@@ -0,0 +1,136 @@
+/*
+ * ====================================================================
+ * Copyright (c) 2004-2016 TMate Software Ltd.  All rights reserved.
+ *
+ * This software is licensed as described in the file COPYING, which
+ * you should have received as part of this distribution.  The terms
+ * are also available at http://svnkit.com/license.html.
+ * If newer versions of this license are posted there, you may use a
+ * newer version instead, at your option.
+ * ====================================================================
+ */
+package org.tmatesoft.svn.util;
+
+import java.util.logging.Level;
+
+/**
+ * Holds the process-wide {@link ISVNMetrics} instance and the helpers SVNKit
+ * uses to report to it.
+ *
+ * <p/>
+ * By default nothing is measured. When the <code>svnkit.metrics</code> system property
+ * is <code>true</code>, an {@link SVNInMemoryMetrics} instance is installed and its
+ * report is written to the default debug log when the JVM exits.
+ *
+ * <p/>
+ * The helpers return a start time of <code>0</code> when the category is disabled,
+ * so that instrumented code does not read the clock in that case.
+ *
+ * @version 1.9
+ * @author  TMate Software Ltd.
+ * @since   1.9
+ */
+public class SVNMetrics {
+
+    private static final ISVNMetrics NO_METRICS = new NoMetrics();
+
+    private static volatile ISVNMetrics ourDefaultMetrics = createDefaultMetrics();
+
+    public static void setDefaultMetrics(ISVNMetrics metrics) {
+        ourDefaultMetrics = metrics == null ? NO_METRICS : metrics;
+    }
+
+    public static ISVNMetrics getDefaultMetrics() {
+        return ourDefaultMetrics;
+    }
+
+    public static boolean isEnabled(SVNLogType logType) {
+        return ourDefaultMetrics.isEnabled(logType);
+    }
+
+    public static void count(SVNLogType logType, String name, long delta) {
+        final ISVNMetrics metrics = ourDefaultMetrics;
+        if (metrics.isEnabled(logType)) {
+            metrics.count(logType, name, delta);
+        }
+    }
+
+    public static long start(SVNLogType logType) {
+        if (!ourDefaultMetrics.isEnabled(logType)) {
+            return 0;
+        }
+        return now();
+    }
+
+    public static void time(SVNLogType logType, String name, long startTime, long bytes) {
+        if (startTime == 0) {
+            return;
+        }
+        final long duration = now() - startTime;
+        final ISVNMetrics metrics = ourDefaultMetrics;
+        if (metrics.isEnabled(logType)) {
+            metrics.time(logType, name, duration, bytes);
+        }
+    }
+
+    public static long startSpan(SVNLogType logType, String name) {
+        final ISVNMetrics metrics = ourDefaultMetrics;
+        if (!metrics.isEnabled(logType)) {
+            return 0;
+        }
+        metrics.startSpan(logType, name);
+        return now();
+    }
+
+    public static void finishSpan(SVNLogType logType, String name, long startTime, long bytes, Throwable failure) {
+        if (startTime == 0) {
+            return;
+        }
+        final long duration = now() - startTime;
+        final ISVNMetrics metrics = ourDefaultMetrics;
+        if (metrics.isEnabled(logType)) {
+            metrics.finishSpan(logType, name, duration, bytes, failure);
+        }
+    }
+
+    private static long now() {
+        final long time = System.nanoTime();
+        return time == 0 ? 1 : time;
+    }
+
+    private static ISVNMetrics createDefaultMetrics() {
+        if (!Boolean.getBoolean("svnkit.metrics")) {
+            return NO_METRICS;
+        }
+        final SVNInMemoryMetrics metrics = new SVNInMemoryMetrics();
+        try {
+            Runtime.getRuntime().addShutdownHook(new Thread("svnkit-metrics-report") {
+                public void run() {
+                    SVNDebugLog.getDefaultLog().log(SVNLogType.DEFAULT, metrics.getReport(), Level.INFO);
+                }
+            });
+        } catch (SecurityException e) {
+            //
+        }
+        return metrics;
+    }
+
+    private static class NoMetrics implements ISVNMetrics {
+
+        public boolean isEnabled(SVNLogType logType) {
+            return false;
+        }
+
+        public void count(SVNLogType logType, String name, long delta) {
+        }
+
+        public void time(SVNLogType logType, String name, long durationNanos, long bytes) {
+        }
+
+        public void startSpan(SVNLogType logType, String name) {
+        }
+
+        public void finishSpan(SVNLogType logType, String name, long durationNanos, long bytes, Throwable failure) {
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package org.tmatesoft.svn.test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.tmatesoft.svn.core.wc.ISVNAnnotateHandler;
+import org.tmatesoft.svn.core.wc.SVNDiffOptions;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+import org.tmatesoft.svn.core.wc2.ISvnObjectReceiver;
+import org.tmatesoft.svn.core.wc2.SvnAnnotate;
+import org.tmatesoft.svn.core.wc2.SvnAnnotateItem;
+import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
+import org.tmatesoft.svn.core.wc2.SvnTarget;
+
+public class BlameTest {
+
+    @Test
+    public void testBlameAcrossRevisions() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testBlameAcrossRevisions", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder1 = new CommitBuilder(url);
+            commitBuilder1.addFile("file", "a\nb\nc\n".getBytes());
+            commitBuilder1.commit();
+
+            final CommitBuilder commitBuilder2 = new CommitBuilder(url);
+            commitBuilder2.changeFile("file", "a\nB\nc\nd\n".getBytes());
+            commitBuilder2.commit();
+
+            final CommitBuilder commitBuilder3 = new CommitBuilder(url);
+            commitBuilder3.changeFile("file", "x\na\nB\nd\r\ne".getBytes());
+            commitBuilder3.commit();
+
+            final List<SvnAnnotateItem> lines = new ArrayList<SvnAnnotateItem>();
+            final SvnAnnotate annotate = svnOperationFactory.createAnnotate();
+            annotate.setSingleTarget(SvnTarget.fromURL(url.appendPath("file", false), SVNRevision.HEAD));
+            annotate.setStartRevision(SVNRevision.create(1));
+            annotate.setEndRevision(SVNRevision.HEAD);
+            annotate.run(lines);
+
+            final List<String> actual = new ArrayList<String>();
+            for (SvnAnnotateItem item : lines) {
+                if (item.isLine()) {
+                    actual.add(item.getRevision() + ":" + item.getLine());
+                }
+            }
+            final List<String> expected = new ArrayList<String>();
+            expected.add("3:x");
+            expected.add("1:a");
+            expected.add("2:B");
+            expected.add("3:d");
+            expected.add("3:e");
+            Assert.assertEquals(expected, actual);
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testRevisionContentsAreWrittenOnRequest() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testRevisionContentsAreWrittenOnRequest", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder1 = new CommitBuilder(url);
+            commitBuilder1.addFile("file", "a\nb\nc\n".getBytes());
+            commitBuilder1.commit();
+
+            final CommitBuilder commitBuilder2 = new CommitBuilder(url);
+            commitBuilder2.changeFile("file", "a\nB\nc\nd\n".getBytes());
+            commitBuilder2.commit();
+
+            final CommitBuilder commitBuilder3 = new CommitBuilder(url);
+            commitBuilder3.changeFile("file", "x\na\nB\nd\n".getBytes());
+            commitBuilder3.commit();
+
+            final List<String> contents = new ArrayList<String>();
+            final List<SvnAnnotateItem> revisionItems = new ArrayList<SvnAnnotateItem>();
+            final SvnAnnotate annotate = svnOperationFactory.createAnnotate();
+            annotate.setSingleTarget(SvnTarget.fromURL(url.appendPath("file", false), SVNRevision.HEAD));
+            annotate.setStartRevision(SVNRevision.create(1));
+            annotate.setEndRevision(SVNRevision.HEAD);
+            annotate.setReceiver(new ISvnObjectReceiver<SvnAnnotateItem>() {
+                public void receive(SvnTarget target, SvnAnnotateItem item) throws SVNException {
+                    if (item.isRevision()) {
+                        revisionItems.add(item);
+                        if (item.getRevision() == 2) {
+                            contents.add(SVNFileUtil.readFile(item.getContents()));
+                        }
+                    }
+                }
+            });
+            annotate.run();
+
+            Assert.assertEquals(3, revisionItems.size());
+            Assert.assertEquals(1, contents.size());
+            Assert.assertEquals("a\nB\nc\nd\n", contents.get(0));
+            Assert.assertNull(revisionItems.get(0).getContents());
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testRepositoryAnnotations() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testRepositoryAnnotations", options);
+        try {
+            checkRepositoryAnnotations(sandbox.createSvnRepository());
+        } finally {
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testRepositoryAnnotationsDav() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+        Assume.assumeTrue(TestUtil.areAllApacheOptionsSpecified(options));
+
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testRepositoryAnnotationsDav", options);
+        try {
+            checkRepositoryAnnotations(sandbox.createSvnRepositoryWithDavAccess());
+        } finally {
+            sandbox.dispose();
+        }
+    }
+
+    private void checkRepositoryAnnotations(SVNURL url) throws SVNException {
+        final CommitBuilder commitBuilder1 = new CommitBuilder(url);
+        commitBuilder1.addFile("file", "a\nb\nc\n".getBytes());
+        commitBuilder1.commit();
+
+        final CommitBuilder commitBuilder2 = new CommitBuilder(url);
+        commitBuilder2.changeFile("file", "a\nB\nc\nd\n".getBytes());
+        commitBuilder2.commit();
+
+        final CommitBuilder commitBuilder3 = new CommitBuilder(url);
+        commitBuilder3.changeFile("file", "x\na\n  B\nd\n".getBytes());
+        commitBuilder3.commit();
+
+        final List<String> actual = new ArrayList<String>();
+        final SVNDiffOptions diffOptions = new SVNDiffOptions(true, false, false);
+        final SVNRepository svnRepository = SVNRepositoryFactory.create(url);
+        try {
+            svnRepository.getAnnotations("file", 2, 3, false, false, diffOptions, "UTF-8", new ISVNAnnotateHandler() {
+                public void handleLine(Date date, long revision, String author, String line) {
+                }
+
+                public void handleLine(Date date, long revision, String author, String line, Date mergedDate,
+                                       long mergedRevision, String mergedAuthor, String mergedPath, int lineNumber) {
+                    actual.add(lineNumber + ":" + revision + ":" + line);
+                }
+
+                public boolean handleRevision(Date date, long revision, String author, File contents) {
+                    return false;
+                }
+
+                public void handleEOF() {
+                    actual.add("EOF");
+                }
+            });
+        } finally {
+            svnRepository.closeSession();
+        }
+
+        final List<String> expected = new ArrayList<String>();
+        expected.add("0:3:x");
+        expected.add("1:-1:a");
+        expected.add("2:2:  B");
+        expected.add("3:2:d");
+        expected.add("EOF");
+        Assert.assertEquals(expected, actual);
+    }
+
+    private String getTestName() {
+        return "BlameTest";
+    }
+}
@@ -1,25 +1,33 @@
 package org.tmatesoft.svn.test;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 import org.tmatesoft.svn.core.SVNDepth;
 import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNProperty;
 import org.tmatesoft.svn.core.SVNPropertyValue;
 import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.internal.wc.DefaultSVNOptions;
 import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.internal.wc.admin.SVNAdminArea16Factory;
 import org.tmatesoft.svn.core.internal.wc17.db.ISVNWCDb;
+import org.tmatesoft.svn.core.internal.wc17.db.SvnWcDbSharedPristines;
 import org.tmatesoft.svn.core.io.ISVNFileCheckoutTarget;
 import org.tmatesoft.svn.core.io.SVNRepository;
 import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
 import org.tmatesoft.svn.core.wc.SVNEvent;
 import org.tmatesoft.svn.core.wc.SVNEventAction;
+import org.tmatesoft.svn.core.wc.SVNRevision;
 import org.tmatesoft.svn.core.wc.SVNStatusType;
+import org.tmatesoft.svn.core.wc.SVNWCUtil;
 import org.tmatesoft.svn.core.wc2.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.OutputStream;
 import java.util.HashSet;
+import java.util.Map;
 
 public class CheckoutTest {
     @Test
@@ -133,6 +141,195 @@ public class CheckoutTest {
         }
     }
 
+    @Test
+    public void testCheckoutInstallsTranslatedFiles() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testCheckoutInstallsTranslatedFiles", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final int filesCount = 64;
+            final CommitBuilder commitBuilder = new CommitBuilder(url);
+            for (int i = 0; i < filesCount; i++) {
+                final String path = "directory/file" + i;
+                commitBuilder.addFile(path, ("line " + i + "\n$Rev$\n").getBytes());
+                if (i % 2 == 0) {
+                    commitBuilder.setFileProperty(path, SVNProperty.EOL_STYLE, SVNPropertyValue.create("CRLF"));
+                }
+                if (i % 3 == 0) {
+                    commitBuilder.setFileProperty(path, SVNProperty.KEYWORDS, SVNPropertyValue.create("Rev"));
+                }
+            }
+            commitBuilder.commit();
+
+            final File workingCopyDirectory = sandbox.createDirectory("wc");
+            final SvnCheckout checkout = svnOperationFactory.createCheckout();
+            checkout.setSource(SvnTarget.fromURL(url));
+            checkout.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory));
+            checkout.run();
+
+            for (int i = 0; i < filesCount; i++) {
+                final String eol = i % 2 == 0 ? "\r\n" : "\n";
+                final String keyword = i % 3 == 0 ? "$Rev: 1 $" : "$Rev$";
+                final File file = new File(workingCopyDirectory, "directory/file" + i);
+                Assert.assertEquals("line " + i + eol + keyword + eol, TestUtil.readFileContentsString(file));
+            }
+
+            final Map<File, SvnStatus> statuses = TestUtil.getStatuses(svnOperationFactory, workingCopyDirectory);
+            Assert.assertEquals(filesCount + 2, statuses.size());
+            for (SvnStatus status : statuses.values()) {
+                Assert.assertEquals(SVNStatusType.STATUS_NORMAL, status.getNodeStatus());
+            }
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testCloneInstallKeepsPristinesIntact() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testCloneInstallKeepsPristinesIntact", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder1 = new CommitBuilder(url);
+            commitBuilder1.addFile("file", "contents\n".getBytes());
+            commitBuilder1.addFile("directory/file", "contents\n".getBytes());
+            commitBuilder1.setFileProperty("directory/file", SVNProperty.EOL_STYLE, SVNPropertyValue.create("CRLF"));
+            commitBuilder1.commit();
+
+            final CommitBuilder commitBuilder2 = new CommitBuilder(url);
+            commitBuilder2.changeFile("file", "changed\n".getBytes());
+            commitBuilder2.commit();
+
+            final DefaultSVNOptions svnOptions = SVNWCUtil.createDefaultOptions(sandbox.createDirectory("configDirectory"), false);
+            svnOptions.setPristineInstallMode(DefaultSVNOptions.PRISTINE_INSTALL_CLONE);
+            svnOperationFactory.setOptions(svnOptions);
+
+            final File workingCopyDirectory = sandbox.createDirectory("wc");
+            final SvnCheckout checkout = svnOperationFactory.createCheckout();
+            checkout.setSource(SvnTarget.fromURL(url));
+            checkout.setRevision(SVNRevision.create(1));
+            checkout.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory));
+            checkout.run();
+
+            final SvnUpdate update = svnOperationFactory.createUpdate();
+            update.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory));
+            update.run();
+
+            final File file = new File(workingCopyDirectory, "file");
+            Assert.assertEquals("changed\n", TestUtil.readFileContentsString(file));
+            Assert.assertEquals("contents\r\n", TestUtil.readFileContentsString(new File(workingCopyDirectory, "directory/file")));
+            for (SvnStatus status : TestUtil.getStatuses(svnOperationFactory, workingCopyDirectory).values()) {
+                Assert.assertEquals(SVNStatusType.STATUS_NORMAL, status.getNodeStatus());
+            }
+
+            TestUtil.writeFileContentsString(file, "modified\n");
+
+            final ByteArrayOutputStream pristineContents = new ByteArrayOutputStream();
+            final SvnCat cat = svnOperationFactory.createCat();
+            cat.setSingleTarget(SvnTarget.fromFile(file, SVNRevision.BASE));
+            cat.setRevision(SVNRevision.BASE);
+            cat.setOutput(pristineContents);
+            cat.run();
+            Assert.assertEquals("changed\n", pristineContents.toString());
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testCheckoutsShareStoredPristines() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testCheckoutsShareStoredPristines", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final byte[] contents = "contents".getBytes();
+            final CommitBuilder commitBuilder = new CommitBuilder(url);
+            commitBuilder.addFile("file", contents);
+            commitBuilder.commit();
+
+            final File pristinesDirectory = sandbox.createDirectory("pristines");
+            final DefaultSVNOptions svnOptions = SVNWCUtil.createDefaultOptions(sandbox.createDirectory("configDirectory"), false);
+            svnOptions.setSharedPristinesDirectory(pristinesDirectory);
+            svnOperationFactory.setOptions(svnOptions);
+
+            final File workingCopyDirectory1 = sandbox.createDirectory("wc1");
+            final File workingCopyDirectory2 = sandbox.createDirectory("wc2");
+            for (File workingCopyDirectory : new File[] {workingCopyDirectory1, workingCopyDirectory2}) {
+                final SvnCheckout checkout = svnOperationFactory.createCheckout();
+                checkout.setSource(SvnTarget.fromURL(url));
+                checkout.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory));
+                checkout.run();
+            }
+
+            final File storeFile = SvnWcDbSharedPristines.getStoreFile(pristinesDirectory, TestUtil.calculateSha1(contents));
+            Assert.assertTrue(storeFile.isFile());
+            Assume.assumeTrue(SVNFileUtil.getHardLinkCount(storeFile) >= 0);
+            Assert.assertEquals(3, SVNFileUtil.getHardLinkCount(storeFile));
+
+            Assert.assertEquals(0, SvnWcDbSharedPristines.collectGarbage(pristinesDirectory));
+
+            SVNFileUtil.deleteAll(workingCopyDirectory1, true);
+            SVNFileUtil.deleteAll(workingCopyDirectory2, true);
+            Assert.assertEquals(1, SvnWcDbSharedPristines.collectGarbage(pristinesDirectory));
+            Assert.assertFalse(storeFile.exists());
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testCorruptSharedPristineIsReplaced() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testCorruptSharedPristineIsReplaced", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final byte[] contents = "contents".getBytes();
+            final CommitBuilder commitBuilder = new CommitBuilder(url);
+            commitBuilder.addFile("file", contents);
+            commitBuilder.commit();
+
+            final File pristinesDirectory = sandbox.createDirectory("pristines");
+            final DefaultSVNOptions svnOptions = SVNWCUtil.createDefaultOptions(sandbox.createDirectory("configDirectory"), false);
+            svnOptions.setSharedPristinesDirectory(pristinesDirectory);
+            svnOperationFactory.setOptions(svnOptions);
+
+            // a store file of the same length but with other contents.
+            final SvnChecksum sha1Checksum = TestUtil.calculateSha1(contents);
+            final File storeFile = SvnWcDbSharedPristines.getStoreFile(pristinesDirectory, sha1Checksum);
+            storeFile.getParentFile().mkdirs();
+            TestUtil.writeFileContentsString(storeFile, "CONTENTS");
+
+            final File workingCopyDirectory = sandbox.createDirectory("wc");
+            final SvnCheckout checkout = svnOperationFactory.createCheckout();
+            checkout.setSource(SvnTarget.fromURL(url));
+            checkout.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory));
+            checkout.run();
+
+            final File pristineFile = SvnWcDbSharedPristines.getStoreFile(new File(workingCopyDirectory, ".svn/pristine"), sha1Checksum);
+            Assert.assertEquals("contents", TestUtil.readFileContentsString(pristineFile));
+            Assert.assertEquals("contents", TestUtil.readFileContentsString(new File(workingCopyDirectory, "file")));
+            Assert.assertEquals("contents", TestUtil.readFileContentsString(storeFile));
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
     private String getTestName() {
         return getClass().getSimpleName();
     }
@@ -0,0 +1,43 @@
+package org.tmatesoft.svn.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tmatesoft.svn.core.internal.wc.SVNConfigCache;
+import org.tmatesoft.svn.core.internal.wc.SVNConfigFile;
+
+import java.io.File;
+
+public class ConfigCacheTest {
+
+    @Test
+    public void testConfigFileChangesAreNoticed() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testConfigFileChangesAreNoticed", options);
+        try {
+            final File directory = sandbox.createDirectory("directory");
+            final File file = new File(directory, "config");
+
+            TestUtil.writeFileContentsString(file, "[miscellany]\nglobal-ignores = *.a\n");
+            Assert.assertEquals("*.a", new SVNConfigFile(file).getPropertyValue("miscellany", "global-ignores"));
+
+            TestUtil.writeFileContentsString(file, "[miscellany]\nglobal-ignores = *.b\n");
+            Assert.assertEquals("*.b", new SVNConfigFile(file).getPropertyValue("miscellany", "global-ignores"));
+
+            file.setLastModified(System.currentTimeMillis() - 60000);
+            final SVNConfigFile configFile = new SVNConfigFile(file);
+            configFile.setPropertyValue("miscellany", "global-ignores", "*.c", false);
+            Assert.assertEquals("*.b", new SVNConfigFile(file).getPropertyValue("miscellany", "global-ignores"));
+
+            configFile.save();
+            Assert.assertEquals("*.c", new SVNConfigFile(file).getPropertyValue("miscellany", "global-ignores"));
+        } finally {
+            SVNConfigCache.clear();
+            sandbox.dispose();
+        }
+    }
+
+    private String getTestName() {
+        return "ConfigCacheTest";
+    }
+}
@@ -0,0 +1,84 @@
+package org.tmatesoft.svn.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+import org.tmatesoft.svn.core.wc.admin.SVNAdminEvent;
+import org.tmatesoft.svn.core.wc2.ISvnObjectReceiver;
+import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
+import org.tmatesoft.svn.core.wc2.SvnTarget;
+import org.tmatesoft.svn.core.wc2.admin.SvnRepositoryDump;
+
+public class DumpTest {
+
+    @Test
+    public void testParallelDumpIsIdenticalToSequentialDump() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testParallelDumpIsIdenticalToSequentialDump", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+            final File repositoryRoot = new File(url.getPath());
+
+            final CommitBuilder commitBuilder = new CommitBuilder(url);
+            commitBuilder.addFile("directory/file", "contents".getBytes());
+            commitBuilder.commit();
+            for (int i = 1; i < 30; i++) {
+                final CommitBuilder changeBuilder = new CommitBuilder(url);
+                changeBuilder.changeFile("directory/file", ("contents " + i).getBytes());
+                if (i % 5 == 0) {
+                    changeBuilder.addFileByCopying("directory/copy" + i, "directory/file");
+                }
+                changeBuilder.commit();
+            }
+
+            for (int start = 0; start < 3; start++) {
+                for (int incremental = 0; incremental < 2; incremental++) {
+                    for (int useDelta = 0; useDelta < 2; useDelta++) {
+                        final List<Long> sequentialRevisions = new ArrayList<Long>();
+                        final List<Long> parallelRevisions = new ArrayList<Long>();
+                        final byte[] sequentialDump = dump(svnOperationFactory, repositoryRoot, start, incremental == 1, useDelta == 1, 1, sequentialRevisions);
+                        final byte[] parallelDump = dump(svnOperationFactory, repositoryRoot, start, incremental == 1, useDelta == 1, 3, parallelRevisions);
+
+                        Assert.assertArrayEquals(sequentialDump, parallelDump);
+                        Assert.assertEquals(sequentialRevisions, parallelRevisions);
+                    }
+                }
+            }
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    private byte[] dump(SvnOperationFactory svnOperationFactory, File repositoryRoot, long startRevision, boolean incremental, boolean useDelta,
+            int threadCount, final List<Long> revisions) throws SVNException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SvnRepositoryDump dump = svnOperationFactory.createRepositoryDump();
+        dump.setRepositoryRoot(repositoryRoot);
+        dump.setOut(out);
+        dump.setStartRevision(SVNRevision.create(startRevision));
+        dump.setIncremental(incremental);
+        dump.setUseDelta(useDelta);
+        dump.setThreadCount(threadCount);
+        dump.setReceiver(new ISvnObjectReceiver<SVNAdminEvent>() {
+            public void receive(SvnTarget target, SVNAdminEvent event) {
+                revisions.add(event.getRevision());
+            }
+        });
+        dump.run();
+        return out.toByteArray();
+    }
+
+    private String getTestName() {
+        return "DumpTest";
+    }
+}
@@ -11,6 +11,9 @@ import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.internal.wc17.db.statement.SVNWCDbSchema;
 import org.tmatesoft.svn.core.io.SVNRepository;
 import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.tmatesoft.svn.core.wc.ISVNEventHandler;
+import org.tmatesoft.svn.core.wc.SVNEvent;
+import org.tmatesoft.svn.core.wc.SVNEventAction;
 import org.tmatesoft.svn.core.wc.SVNRevision;
 import org.tmatesoft.svn.core.wc.SVNStatusType;
 import org.tmatesoft.svn.core.wc2.*;
@@ -419,6 +422,179 @@ public class ExternalsTest {
         }
     }
 
+    @Test
+    public void testParallelExternalsCheckoutAndUpdate() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        Assume.assumeTrue(TestUtil.isNewWorkingCopyTest());
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testParallelExternalsCheckoutAndUpdate", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final StringBuilder externalsDefinition = new StringBuilder();
+            for (int i = 0; i < 4; i++) {
+                externalsDefinition.append(new SVNExternal("external" + i, url.appendPath("directory" + i, false).toString(), SVNRevision.HEAD, SVNRevision.HEAD, false, false, true)).append('\n');
+            }
+            externalsDefinition.append(new SVNExternal("fileExternal", url.appendPath("directory0/file", false).toString(), SVNRevision.HEAD, SVNRevision.HEAD, false, false, true)).append('\n');
+
+            final CommitBuilder commitBuilder1 = new CommitBuilder(url);
+            for (int i = 0; i < 4; i++) {
+                commitBuilder1.addFile("directory" + i + "/file", ("contents" + i).getBytes());
+            }
+            commitBuilder1.addDirectory("trunk");
+            commitBuilder1.setDirectoryProperty("trunk", SVNProperty.EXTERNALS, SVNPropertyValue.create(externalsDefinition.toString()));
+            commitBuilder1.commit();
+
+            final File workingCopyDirectory = sandbox.createDirectory("wc");
+            final List<String> externalEvents = new ArrayList<String>();
+            svnOperationFactory.setEventHandler(new ISVNEventHandler() {
+                public void handleEvent(SVNEvent event, double progress) throws SVNException {
+                    if (event.getAction() == SVNEventAction.UPDATE_EXTERNAL) {
+                        externalEvents.add(event.getFile().getName());
+                    }
+                }
+
+                public void checkCancelled() throws SVNCancelException {
+                }
+            });
+
+            final SvnCheckout checkout = svnOperationFactory.createCheckout();
+            checkout.setSource(SvnTarget.fromURL(url.appendPath("trunk", false)));
+            checkout.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory));
+            checkout.setIgnoreExternals(false);
+            checkout.setExternalsParallelism(3);
+            checkout.run();
+
+            final List<String> expectedEvents = new ArrayList<String>();
+            for (int i = 0; i < 4; i++) {
+                expectedEvents.add("external" + i);
+                Assert.assertEquals("contents" + i, TestUtil.readFileContentsString(new File(workingCopyDirectory, "external" + i + "/file")));
+            }
+            expectedEvents.add("fileExternal");
+            Assert.assertEquals(expectedEvents, externalEvents);
+            Assert.assertEquals("contents0", TestUtil.readFileContentsString(new File(workingCopyDirectory, "fileExternal")));
+
+            final CommitBuilder commitBuilder2 = new CommitBuilder(url);
+            for (int i = 0; i < 4; i++) {
+                commitBuilder2.changeFile("directory" + i + "/file", ("changed" + i).getBytes());
+            }
+            commitBuilder2.commit();
+
+            externalEvents.clear();
+            final SvnUpdate update = svnOperationFactory.createUpdate();
+            update.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory));
+            update.setExternalsParallelism(3);
+            update.run();
+
+            Assert.assertEquals(expectedEvents, externalEvents);
+            for (int i = 0; i < 4; i++) {
+                Assert.assertEquals("changed" + i, TestUtil.readFileContentsString(new File(workingCopyDirectory, "external" + i + "/file")));
+            }
+            Assert.assertEquals("changed0", TestUtil.readFileContentsString(new File(workingCopyDirectory, "fileExternal")));
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testParallelExternalsPassExternalsHandlerToNestedExternals() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        Assume.assumeTrue(TestUtil.isNewWorkingCopyTest());
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testParallelExternalsPassExternalsHandlerToNestedExternals", options);
+        try {
+            final SVNURL url = createRepositoryWithNestedExternal(sandbox);
+
+            final File workingCopyDirectory = sandbox.createDirectory("wc");
+            final ExternalsHandler externalsHandler = new ExternalsHandler();
+            final SvnCheckout checkout = svnOperationFactory.createCheckout();
+            checkout.setSource(SvnTarget.fromURL(url.appendPath("trunk", false)));
+            checkout.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory));
+            checkout.setIgnoreExternals(false);
+            checkout.setExternalsHandler(externalsHandler);
+            checkout.setExternalsParallelism(2);
+            checkout.run();
+
+            final File nestedExternal = new File(workingCopyDirectory, "external0/nested");
+            Assert.assertEquals(url.appendPath("directory1", false), externalsHandler.externals.get(nestedExternal));
+            Assert.assertEquals("contents1", TestUtil.readFileContentsString(new File(nestedExternal, "file")));
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testParallelExternalsReportWorkerFailurePerExternal() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        Assume.assumeTrue(TestUtil.isNewWorkingCopyTest());
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testParallelExternalsReportWorkerFailurePerExternal", options);
+        try {
+            final SVNURL url = createRepositoryWithNestedExternal(sandbox);
+
+            final List<String> failedExternals = new ArrayList<String>();
+            svnOperationFactory.setEventHandler(new ISVNEventHandler() {
+                public void handleEvent(SVNEvent event, double progress) throws SVNException {
+                    if (event.getAction() == SVNEventAction.FAILED_EXTERNAL) {
+                        failedExternals.add(event.getFile().getName());
+                    }
+                }
+
+                public void checkCancelled() throws SVNCancelException {
+                }
+            });
+
+            final File workingCopyDirectory = sandbox.createDirectory("wc");
+            final SvnCheckout checkout = svnOperationFactory.createCheckout();
+            checkout.setSource(SvnTarget.fromURL(url.appendPath("trunk", false)));
+            checkout.setSingleTarget(SvnTarget.fromFile(workingCopyDirectory));
+            checkout.setIgnoreExternals(false);
+            checkout.setExternalsHandler(new ISvnExternalsHandler() {
+                public SVNRevision[] handleExternal(File externalPath, SVNURL externalURL, SVNRevision externalRevision, SVNRevision externalPegRevision, String externalsDefinition, SVNRevision externalsWorkingRevision) {
+                    if ("nested".equals(externalPath.getName())) {
+                        throw new IllegalStateException("failure in a worker");
+                    }
+                    return new SVNRevision[] {externalRevision, externalPegRevision};
+                }
+            });
+            checkout.setExternalsParallelism(2);
+            checkout.run();
+
+            Assert.assertEquals(Collections.singletonList("external0"), failedExternals);
+            Assert.assertEquals("contents1", TestUtil.readFileContentsString(new File(workingCopyDirectory, "external1/file")));
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    private SVNURL createRepositoryWithNestedExternal(Sandbox sandbox) throws SVNException {
+        final SVNURL url = sandbox.createSvnRepository();
+
+        final String externalsDefinition =
+                new SVNExternal("external0", url.appendPath("directory0", false).toString(), SVNRevision.HEAD, SVNRevision.HEAD, false, false, true) + "\n" +
+                new SVNExternal("external1", url.appendPath("directory1", false).toString(), SVNRevision.HEAD, SVNRevision.HEAD, false, false, true) + "\n";
+        final String nestedExternalDefinition =
+                new SVNExternal("nested", url.appendPath("directory1", false).toString(), SVNRevision.HEAD, SVNRevision.HEAD, false, false, true) + "\n";
+
+        final CommitBuilder commitBuilder = new CommitBuilder(url);
+        commitBuilder.addFile("directory0/file", "contents0".getBytes());
+        commitBuilder.addFile("directory1/file", "contents1".getBytes());
+        commitBuilder.setDirectoryProperty("directory0", SVNProperty.EXTERNALS, SVNPropertyValue.create(nestedExternalDefinition));
+        commitBuilder.addDirectory("trunk");
+        commitBuilder.setDirectoryProperty("trunk", SVNProperty.EXTERNALS, SVNPropertyValue.create(externalsDefinition));
+        commitBuilder.commit();
+        return url;
+    }
+
     private void assertTableIsEmpty(WorkingCopy workingCopy, String tableName) throws SqlJetException {
         Assert.assertEquals(0, TestUtil.getTableSize(workingCopy, tableName));
     }
@@ -0,0 +1,259 @@
+package org.tmatesoft.svn.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tmatesoft.svn.core.SVNCommitInfo;
+import org.tmatesoft.svn.core.SVNDepth;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNPropertyValue;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.internal.io.fs.FSRepository;
+import org.tmatesoft.svn.core.internal.io.fs.FSUpdateContext;
+import org.tmatesoft.svn.core.internal.io.fs.PathInfo;
+import org.tmatesoft.svn.core.internal.util.SVNSpillBuffer;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.ISVNReporter;
+import org.tmatesoft.svn.core.io.ISVNReporterBaton;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.tmatesoft.svn.core.io.diff.SVNDiffWindow;
+
+public class FSUpdateContextTest {
+
+    private static final int FILES_COUNT = 64;
+    private static final int LOCK_TOKEN_LENGTH = 32 * 1024;
+
+    @Test
+    public void testReportLargerThanMemoryLimitIsSpilledToDisk() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testReportLargerThanMemoryLimitIsSpilledToDisk", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder1 = new CommitBuilder(url);
+            for (int i = 0; i < FILES_COUNT; i++) {
+                commitBuilder1.addFile("file" + i, "contents".getBytes());
+            }
+            commitBuilder1.commit();
+
+            final CommitBuilder commitBuilder2 = new CommitBuilder(url);
+            for (int i = 0; i < FILES_COUNT; i++) {
+                commitBuilder2.changeFile("file" + i, "changed contents".getBytes());
+            }
+            commitBuilder2.commit();
+
+            // 64 lock tokens of 32K make a report of 2M, above the default 1M kept in memory.
+            final char[] lockTokenChars = new char[LOCK_TOKEN_LENGTH];
+            Arrays.fill(lockTokenChars, 'x');
+            final String lockToken = new String(lockTokenChars);
+
+            final SVNRepository svnRepository = SVNRepositoryFactory.create(url);
+            try {
+                final RecordingEditor editor = new RecordingEditor((FSRepository) svnRepository);
+                svnRepository.update(2, "", SVNDepth.INFINITY, false, new ISVNReporterBaton() {
+                    public void report(ISVNReporter reporter) throws SVNException {
+                        reporter.setPath("", null, 1, SVNDepth.INFINITY, false);
+                        for (int i = 0; i < FILES_COUNT; i++) {
+                            // odd files are reported as up to date, they are not sent.
+                            reporter.setPath("file" + i, lockToken, i % 2 == 0 ? 1 : 2, SVNDepth.INFINITY, false);
+                        }
+                        reporter.finishReport();
+                    }
+                }, editor);
+
+                Assert.assertTrue(editor.isReportSpilled());
+
+                final Set<String> expectedFiles = new HashSet<String>();
+                for (int i = 0; i < FILES_COUNT; i += 2) {
+                    expectedFiles.add("file" + i);
+                }
+                Assert.assertEquals(expectedFiles, editor.getChangedFiles());
+            } finally {
+                svnRepository.closeSession();
+            }
+        } finally {
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testReadPathInfo() throws Exception {
+        final PathInfo pathInfo = readPathInfo("+4:file+5:other+3:+E++3:abc");
+        Assert.assertEquals("file", pathInfo.getPath());
+        Assert.assertEquals("other", pathInfo.getLinkPath());
+        Assert.assertEquals(3, pathInfo.getRevision());
+        Assert.assertEquals(SVNDepth.EMPTY, pathInfo.getDepth());
+        Assert.assertTrue(pathInfo.isStartEmpty());
+        Assert.assertEquals("abc", pathInfo.getLockToken());
+
+        final PathInfo defaultPathInfo = readPathInfo("+4:file-----");
+        Assert.assertEquals("file", defaultPathInfo.getPath());
+        Assert.assertNull(defaultPathInfo.getLinkPath());
+        Assert.assertEquals(SVNRepository.INVALID_REVISION, defaultPathInfo.getRevision());
+        Assert.assertEquals(SVNDepth.INFINITY, defaultPathInfo.getDepth());
+        Assert.assertFalse(defaultPathInfo.isStartEmpty());
+        Assert.assertNull(defaultPathInfo.getLockToken());
+
+        Assert.assertNull(readPathInfo("-"));
+    }
+
+    @Test
+    public void testTruncatedReportIsRejected() throws Exception {
+        final String report = "+4:file+5:other+3:+E++3:abc";
+        for (int length = 0; length < report.length(); length++) {
+            try {
+                readPathInfo(report.substring(0, length));
+                Assert.fail("Report truncated to '" + report.substring(0, length) + "' is accepted");
+            } catch (IOException e) {
+                Assert.assertEquals("Unexpected end of report", e.getMessage());
+            }
+        }
+    }
+
+    @Test
+    public void testMalformedReportIsRejected() throws Exception {
+        assertMalformed("*4:file-----");
+        assertMalformed("+4x:file-----");
+        assertMalformed("+4:file*----");
+        assertMalformed("+4:file-+3x:---");
+        assertMalformed("+4:file----*");
+        assertMalformed("+4:file----+3x:abc");
+
+        try {
+            readPathInfo("+4:file--+Q--");
+            Assert.fail("Report with invalid depth is accepted");
+        } catch (SVNException e) {
+            Assert.assertEquals(SVNErrorCode.REPOS_BAD_REVISION_REPORT, e.getErrorMessage().getErrorCode());
+        }
+    }
+
+    private static void assertMalformed(String report) throws Exception {
+        try {
+            readPathInfo(report);
+            Assert.fail("Malformed report '" + report + "' is accepted");
+        } catch (IOException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().startsWith("Malformed"));
+        }
+    }
+
+    private static PathInfo readPathInfo(String report) throws Exception {
+        final Method readPathInfo = FSUpdateContext.class.getDeclaredMethod("readPathInfo", InputStream.class);
+        readPathInfo.setAccessible(true);
+        try {
+            return (PathInfo) readPathInfo.invoke(null, new ByteArrayInputStream(report.getBytes("UTF-8")));
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private String getTestName() {
+        return getClass().getSimpleName();
+    }
+
+    private static class RecordingEditor implements ISVNEditor {
+
+        private final FSRepository myRepository;
+        private final Set<String> myChangedFiles;
+        private boolean myReportSpilled;
+
+        public RecordingEditor(FSRepository repository) {
+            myRepository = repository;
+            myChangedFiles = new HashSet<String>();
+        }
+
+        public boolean isReportSpilled() {
+            return myReportSpilled;
+        }
+
+        public Set<String> getChangedFiles() {
+            return myChangedFiles;
+        }
+
+        public void targetRevision(long revision) throws SVNException {
+        }
+
+        public void openRoot(long revision) throws SVNException {
+            try {
+                final Field contextField = FSRepository.class.getDeclaredField("myReporterContext");
+                contextField.setAccessible(true);
+                final Object context = contextField.get(myRepository);
+                final Field bufferField = FSUpdateContext.class.getDeclaredField("myReportBuffer");
+                bufferField.setAccessible(true);
+                final SVNSpillBuffer buffer = (SVNSpillBuffer) bufferField.get(context);
+                myReportSpilled = buffer.getFileName() != null;
+            } catch (NoSuchFieldException e) {
+                throw new AssertionError(e);
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        public void deleteEntry(String path, long revision) throws SVNException {
+        }
+
+        public void absentDir(String path) throws SVNException {
+        }
+
+        public void absentFile(String path) throws SVNException {
+        }
+
+        public void addDir(String path, String copyFromPath, long copyFromRevision) throws SVNException {
+        }
+
+        public void openDir(String path, long revision) throws SVNException {
+        }
+
+        public void changeDirProperty(String name, SVNPropertyValue value) throws SVNException {
+        }
+
+        public void closeDir() throws SVNException {
+        }
+
+        public void addFile(String path, String copyFromPath, long copyFromRevision) throws SVNException {
+        }
+
+        public void openFile(String path, long revision) throws SVNException {
+        }
+
+        public void changeFileProperty(String path, String propertyName, SVNPropertyValue propertyValue) throws SVNException {
+        }
+
+        public void closeFile(String path, String textChecksum) throws SVNException {
+        }
+
+        public SVNCommitInfo closeEdit() throws SVNException {
+            return null;
+        }
+
+        public void abortEdit() throws SVNException {
+        }
+
+        public void applyTextDelta(String path, String baseChecksum) throws SVNException {
+            myChangedFiles.add(path);
+        }
+
+        public OutputStream textDeltaChunk(String path, SVNDiffWindow diffWindow) throws SVNException {
+            return SVNFileUtil.DUMMY_OUT;
+        }
+
+        public void textDeltaEnd(String path) throws SVNException {
+        }
+    }
+}
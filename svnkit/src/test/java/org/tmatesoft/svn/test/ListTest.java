@@ -4,10 +4,14 @@ import org.junit.Assert;
 import org.junit.Assume;
 import org.junit.Ignore;
 import org.junit.Test;
+import org.tmatesoft.svn.core.ISVNDirEntryHandler;
 import org.tmatesoft.svn.core.SVNDirEntry;
 import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNNodeKind;
 import org.tmatesoft.svn.core.SVNURL;
 import org.tmatesoft.svn.core.internal.io.fs.FSFS;
+import org.tmatesoft.svn.core.internal.io.fs.FSRepresentation;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.internal.wc2.SvnWcGeneration;
 import org.tmatesoft.svn.core.io.SVNRepository;
 import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
@@ -20,6 +24,7 @@ import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
 import org.tmatesoft.svn.core.wc2.SvnTarget;
 
 import java.io.File;
+import java.security.MessageDigest;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -283,6 +288,181 @@ public class ListTest {
         }
     }
 
+    @Test
+    public void testGetDirStreamsSortedEntries() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testGetDirStreamsSortedEntries", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder1 = new CommitBuilder(url);
+            for (int i = 0; i < 200; i++) {
+                commitBuilder1.addFile("directory/file" + i, ("contents" + i).getBytes());
+            }
+            commitBuilder1.addDirectory("directory/subdirectory");
+            commitBuilder1.commit();
+
+            final CommitBuilder commitBuilder2 = new CommitBuilder(url);
+            commitBuilder2.delete("directory/file7");
+            commitBuilder2.addFile("directory/added", "added".getBytes());
+            commitBuilder2.commit();
+
+            final SVNRepository svnRepository = SVNRepositoryFactory.create(url);
+            try {
+                final List<SVNDirEntry> dirEntries = new ArrayList<SVNDirEntry>();
+                svnRepository.getDir("directory", 2, null, SVNDirEntry.DIRENT_KIND, new ISVNDirEntryHandler() {
+                    public void handleDirEntry(SVNDirEntry dirEntry) throws SVNException {
+                        dirEntries.add(dirEntry);
+                    }
+                });
+
+                Assert.assertEquals(201, dirEntries.size());
+                final List<String> names = new ArrayList<String>();
+                for (SVNDirEntry dirEntry : dirEntries) {
+                    names.add(dirEntry.getName());
+                    final SVNNodeKind expectedKind = "subdirectory".equals(dirEntry.getName()) ? SVNNodeKind.DIR : SVNNodeKind.FILE;
+                    Assert.assertEquals(expectedKind, dirEntry.getKind());
+                }
+                final List<String> sortedNames = new ArrayList<String>(names);
+                Collections.sort(sortedNames);
+                Assert.assertEquals(sortedNames, names);
+                Assert.assertFalse(names.contains("file7"));
+                Assert.assertTrue(names.contains("added"));
+
+                final List<SVNDirEntry> fullEntries = new ArrayList<SVNDirEntry>();
+                svnRepository.getDir("directory", 2, null, SVNDirEntry.DIRENT_ALL, new ISVNDirEntryHandler() {
+                    public void handleDirEntry(SVNDirEntry dirEntry) throws SVNException {
+                        fullEntries.add(dirEntry);
+                    }
+                });
+                Assert.assertEquals(201, fullEntries.size());
+                for (SVNDirEntry dirEntry : fullEntries) {
+                    if ("added".equals(dirEntry.getName())) {
+                        Assert.assertEquals(5, dirEntry.getSize());
+                        Assert.assertEquals(2, dirEntry.getRevision());
+                    } else if ("file10".equals(dirEntry.getName())) {
+                        Assert.assertEquals("contents10".length(), dirEntry.getSize());
+                        Assert.assertEquals(1, dirEntry.getRevision());
+                    }
+                }
+            } finally {
+                svnRepository.closeSession();
+            }
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testGetDirSortsUnsortedRepresentation() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testGetDirSortsUnsortedRepresentation", options);
+        try {
+            final File repositoryDirectory = sandbox.createDirectory("svn.repo");
+
+            final SVNClientManager clientManager = SVNClientManager.newInstance();
+            try {
+                //physical addressing, the directory representation may be changed in place
+                clientManager.getAdminClient().doCreateRepository(repositoryDirectory, null, true, false, false, false, false, false, true);
+            } finally {
+                clientManager.dispose();
+            }
+            final SVNURL url = SVNURL.fromFile(repositoryDirectory);
+
+            final CommitBuilder commitBuilder = new CommitBuilder(url);
+            for (int i = 0; i < 20; i++) {
+                commitBuilder.addFile("directory/file" + i, ("contents" + i).getBytes());
+            }
+            commitBuilder.commit();
+
+            swapFirstEntriesOfEqualLength(repositoryDirectory, "/directory", 1);
+
+            final SVNRepository svnRepository = SVNRepositoryFactory.create(url);
+            try {
+                final List<String> names = new ArrayList<String>();
+                svnRepository.getDir("directory", 1, null, SVNDirEntry.DIRENT_ALL, new ISVNDirEntryHandler() {
+                    public void handleDirEntry(SVNDirEntry dirEntry) throws SVNException {
+                        names.add(dirEntry.getName());
+                        Assert.assertEquals(("contents" + dirEntry.getName().substring("file".length())).length(), dirEntry.getSize());
+                    }
+                });
+
+                Assert.assertEquals(20, names.size());
+                final List<String> sortedNames = new ArrayList<String>(names);
+                Collections.sort(sortedNames);
+                Assert.assertEquals(sortedNames, names);
+            } finally {
+                svnRepository.closeSession();
+            }
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    private void swapFirstEntriesOfEqualLength(File repositoryDirectory, String path, long revision) throws Exception {
+        final FSFS fsfs = new FSFS(repositoryDirectory);
+        final FSRepresentation representation;
+        try {
+            fsfs.open();
+            representation = fsfs.createRevisionRoot(revision).getRevisionNode(path).getTextRepresentation();
+        } finally {
+            fsfs.close();
+        }
+        final File revisionFile = new File(repositoryDirectory, "db/revs/0/" + revision);
+        final byte[] bytes = SVNFileUtil.readFully(revisionFile);
+        final int start = (int) representation.getItemIndex() + "PLAIN\n".length();
+        final int end = start + (int) representation.getSize();
+
+        final List<int[]> entries = new ArrayList<int[]>();
+        int offset = start;
+        while (bytes[offset] == 'K') {
+            final int entryStart = offset;
+            for (int i = 0; i < 2; i++) {
+                int lineEnd = offset;
+                while (bytes[lineEnd] != '\n') {
+                    lineEnd++;
+                }
+                final int length = Integer.parseInt(new String(bytes, offset + 2, lineEnd - offset - 2, "US-ASCII"));
+                offset = lineEnd + 1 + length + 1;
+            }
+            entries.add(new int[] {entryStart, offset});
+        }
+        int[] first = null;
+        int[] second = null;
+        for (int i = 0; i < entries.size() && second == null; i++) {
+            for (int j = i + 1; j < entries.size() && second == null; j++) {
+                if (entries.get(i)[1] - entries.get(i)[0] == entries.get(j)[1] - entries.get(j)[0]) {
+                    first = entries.get(i);
+                    second = entries.get(j);
+                }
+            }
+        }
+        Assert.assertNotNull(second);
+        final int length = first[1] - first[0];
+        final byte[] firstEntry = new byte[length];
+        System.arraycopy(bytes, first[0], firstEntry, 0, length);
+        System.arraycopy(bytes, second[0], bytes, first[0], length);
+        System.arraycopy(firstEntry, 0, bytes, second[0], length);
+
+        final MessageDigest digest = MessageDigest.getInstance("MD5");
+        digest.update(bytes, start, end - start);
+        final String oldChecksum = representation.getMD5HexDigest();
+        final String newChecksum = SVNFileUtil.toHexDigest(digest);
+        final String contents = new String(bytes, "ISO-8859-1");
+        final int checksumOffset = contents.indexOf(oldChecksum);
+        Assert.assertEquals(checksumOffset, contents.lastIndexOf(oldChecksum));
+        System.arraycopy(newChecksum.getBytes("US-ASCII"), 0, bytes, checksumOffset, newChecksum.length());
+
+        SVNFileUtil.setReadonly(revisionFile, false);
+        SVNFileUtil.writeToFile(revisionFile, bytes);
+    }
+
     private String createStringForLength(int length) {
         final StringBuilder stringBuilder = new StringBuilder();
         for (int i = 0; i < length; i++) {
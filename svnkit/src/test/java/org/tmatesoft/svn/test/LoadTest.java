@@ -0,0 +1,399 @@
+package org.tmatesoft.svn.test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tmatesoft.svn.core.ISVNCanceller;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNErrorMessage;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNPropertyValue;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.internal.wc.ISVNLoadHandler;
+import org.tmatesoft.svn.core.internal.wc.SVNDumpStreamParser;
+import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.tmatesoft.svn.core.wc.SVNRevision;
+import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
+import org.tmatesoft.svn.core.wc2.admin.SvnRepositoryDump;
+import org.tmatesoft.svn.core.wc2.admin.SvnRepositoryLoad;
+import org.tmatesoft.svn.core.wc2.admin.SvnRepositoryVerify;
+import org.tmatesoft.svn.util.SVNLogType;
+
+public class LoadTest {
+
+    @Test
+    public void testBulkLoadProducesSameRepository() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testBulkLoadProducesSameRepository", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder = new CommitBuilder(url);
+            commitBuilder.addFile("directory/file", "contents".getBytes());
+            commitBuilder.setDirectoryProperty("directory", "property", SVNPropertyValue.create("value"));
+            commitBuilder.commit();
+            for (int i = 1; i < 20; i++) {
+                final CommitBuilder changeBuilder = new CommitBuilder(url);
+                changeBuilder.setCommitMessage("change " + i);
+                changeBuilder.changeFile("directory/file", ("contents " + i).getBytes());
+                if (i % 5 == 0) {
+                    changeBuilder.addDirectoryByCopying("copy" + i, "directory");
+                }
+                changeBuilder.commit();
+            }
+
+            final byte[] dump = dump(svnOperationFactory, new File(url.getPath()));
+
+            final SVNURL regularUrl = sandbox.createSvnRepository();
+            load(svnOperationFactory, new File(regularUrl.getPath()), dump, false);
+
+            final SVNURL bulkUrl = sandbox.createSvnRepository();
+            sandbox.createFailingHook(bulkUrl, "pre-commit");
+            load(svnOperationFactory, new File(bulkUrl.getPath()), dump, true);
+
+            Assert.assertArrayEquals(dump, dump(svnOperationFactory, new File(regularUrl.getPath())));
+            Assert.assertArrayEquals(dump, dump(svnOperationFactory, new File(bulkUrl.getPath())));
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testBulkLoadSharesRepeatedContents() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testBulkLoadSharesRepeatedContents", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final byte[] contents = new byte[16384];
+            new Random(0).nextBytes(contents);
+            final CommitBuilder commitBuilder1 = new CommitBuilder(url);
+            commitBuilder1.addFile("file1", contents);
+            commitBuilder1.commit();
+
+            final CommitBuilder commitBuilder2 = new CommitBuilder(url);
+            commitBuilder2.addFile("file2", contents);
+            commitBuilder2.commit();
+
+            final byte[] dump = dump(svnOperationFactory, new File(url.getPath()));
+
+            final SVNURL regularUrl = sandbox.createSvnRepository();
+            load(svnOperationFactory, new File(regularUrl.getPath()), dump, false);
+
+            final SVNURL bulkUrl = sandbox.createSvnRepository();
+            load(svnOperationFactory, new File(bulkUrl.getPath()), dump, true);
+
+            // ordinary commits and loads do not look contents up in the rep-cache.
+            Assert.assertTrue(getRevisionFile(new File(url.getPath()), 2).length() > contents.length);
+            Assert.assertTrue(getRevisionFile(new File(regularUrl.getPath()), 2).length() > contents.length);
+            Assert.assertTrue(getRevisionFile(new File(bulkUrl.getPath()), 2).length() < contents.length);
+
+            final SvnRepositoryVerify verify = svnOperationFactory.createRepositoryVerify();
+            verify.setRepositoryRoot(new File(bulkUrl.getPath()));
+            verify.run();
+
+            final SVNRepository svnRepository = SVNRepositoryFactory.create(bulkUrl);
+            try {
+                final ByteArrayOutputStream file2 = new ByteArrayOutputStream();
+                svnRepository.getFile("file2", 2, null, file2);
+                Assert.assertArrayEquals(contents, file2.toByteArray());
+            } finally {
+                svnRepository.closeSession();
+            }
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testReadAheadLoad() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testReadAheadLoad", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder = new CommitBuilder(url);
+            commitBuilder.addFile("directory/file", "contents".getBytes());
+            commitBuilder.commit();
+            for (int i = 1; i < 20; i++) {
+                final byte[] contents = new byte[i * 1000];
+                for (int j = 0; j < contents.length; j++) {
+                    contents[j] = (byte) (i * j);
+                }
+                final CommitBuilder changeBuilder = new CommitBuilder(url);
+                changeBuilder.changeFile("directory/file", contents);
+                changeBuilder.setFileProperty("directory/file", "property", SVNPropertyValue.create("value " + i));
+                changeBuilder.commit();
+            }
+
+            final byte[] dump = dump(svnOperationFactory, new File(url.getPath()));
+
+            final SVNURL loadedUrl = sandbox.createSvnRepository();
+            final File loadedRoot = new File(loadedUrl.getPath());
+            load(svnOperationFactory, loadedRoot, dump, false, 2);
+            Assert.assertArrayEquals(dump, dump(svnOperationFactory, loadedRoot));
+
+            try {
+                load(svnOperationFactory, loadedRoot, dump, false, 2);
+                Assert.fail("Loading the same revisions twice must fail");
+            } catch (SVNException e) {
+                Assert.assertEquals(SVNErrorCode.FS_ALREADY_EXISTS, e.getErrorMessage().getErrorCode());
+            }
+            Assert.assertArrayEquals(dump, dump(svnOperationFactory, loadedRoot));
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testReadAheadStopsReadingWhenHandlerFails() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testReadAheadStopsReadingWhenHandlerFails", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            for (int i = 1; i < 20; i++) {
+                final byte[] contents = new byte[i * 10000];
+                new Random(i).nextBytes(contents);
+                final CommitBuilder commitBuilder = new CommitBuilder(url);
+                if (i == 1) {
+                    commitBuilder.addFile("file", contents);
+                } else {
+                    commitBuilder.changeFile("file", contents);
+                }
+                commitBuilder.commit();
+            }
+            final byte[] dump = dump(svnOperationFactory, new File(url.getPath()));
+
+            final AtomicLong bytesRead = new AtomicLong();
+            final InputStream dumpStream = new FilterInputStream(new ByteArrayInputStream(dump)) {
+                public int read() throws IOException {
+                    final int b = super.read();
+                    bytesRead.addAndGet(b < 0 ? 0 : 1);
+                    return b;
+                }
+
+                public int read(byte[] b, int off, int len) throws IOException {
+                    final int read = super.read(b, off, len);
+                    bytesRead.addAndGet(Math.max(0, read));
+                    return read;
+                }
+            };
+
+            final SVNDumpStreamParser parser = new SVNDumpStreamParser(ISVNCanceller.NULL);
+            parser.setReadAheadDepth(1);
+            try {
+                parser.parseDumpStream(dumpStream, new FailingLoadHandler(3), Charset.forName("UTF-8").newDecoder());
+                Assert.fail("Expected the handler failure");
+            } catch (SVNException e) {
+                Assert.assertEquals(SVNErrorCode.UNKNOWN, e.getErrorMessage().getErrorCode());
+            }
+
+            final long bytesReadOnReturn = bytesRead.get();
+            Assert.assertTrue(bytesReadOnReturn < dump.length);
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                Assert.assertFalse("svnkit-dump-reader".equals(thread.getName()));
+            }
+            Thread.sleep(100);
+            Assert.assertEquals(bytesReadOnReturn, bytesRead.get());
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testReadAheadDoesNotInterruptReaderOfCallerStream() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testReadAheadDoesNotInterruptReaderOfCallerStream", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder1 = new CommitBuilder(url);
+            commitBuilder1.addFile("file", "contents".getBytes());
+            commitBuilder1.commit();
+            final CommitBuilder commitBuilder2 = new CommitBuilder(url);
+            commitBuilder2.changeFile("file", "changed contents".getBytes());
+            commitBuilder2.commit();
+            final byte[] dump = dump(svnOperationFactory, new File(url.getPath()));
+
+            // the stream blocks near its end like a pipe would, and ignores interrupts.
+            final CountDownLatch blocked = new CountDownLatch(1);
+            final CountDownLatch released = new CountDownLatch(1);
+            final AtomicBoolean interrupted = new AtomicBoolean();
+            final InputStream dumpStream = new ByteArrayInputStream(dump) {
+                public synchronized int read() {
+                    waitIfBlocked();
+                    return super.read();
+                }
+
+                public synchronized int read(byte[] b, int off, int len) {
+                    waitIfBlocked();
+                    return super.read(b, off, Math.min(len, Math.max(1, dump.length - 10 - pos)));
+                }
+
+                private void waitIfBlocked() {
+                    if (pos != dump.length - 10) {
+                        return;
+                    }
+                    blocked.countDown();
+                    while (true) {
+                        try {
+                            released.await();
+                            break;
+                        } catch (InterruptedException e) {
+                            interrupted.set(true);
+                        }
+                    }
+                    if (Thread.currentThread().isInterrupted()) {
+                        interrupted.set(true);
+                    }
+                }
+            };
+            final Thread releaser = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        blocked.await();
+                        Thread.sleep(500);
+                    } catch (InterruptedException e) {
+                        //
+                    }
+                    released.countDown();
+                }
+            });
+            releaser.start();
+
+            final SVNDumpStreamParser parser = new SVNDumpStreamParser(ISVNCanceller.NULL);
+            parser.setReadAheadDepth(100);
+            try {
+                parser.parseDumpStream(dumpStream, new FailingLoadHandler(0) {
+                    public void openRevision(Map headers) throws SVNException {
+                        try {
+                            blocked.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                        super.openRevision(headers);
+                    }
+                }, Charset.forName("UTF-8").newDecoder());
+                Assert.fail("Expected the handler failure");
+            } catch (SVNException e) {
+                Assert.assertEquals(SVNErrorCode.UNKNOWN, e.getErrorMessage().getErrorCode());
+            }
+            releaser.join();
+            Assert.assertFalse(interrupted.get());
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    private static class FailingLoadHandler implements ISVNLoadHandler {
+
+        private int myRevisionsToOpen;
+
+        public FailingLoadHandler(int revisionsToOpen) {
+            myRevisionsToOpen = revisionsToOpen;
+        }
+
+        public void openRevision(Map headers) throws SVNException {
+            if (--myRevisionsToOpen < 0) {
+                SVNErrorManager.error(SVNErrorMessage.create(SVNErrorCode.UNKNOWN, "Handler failure"), SVNLogType.DEFAULT);
+            }
+        }
+
+        public void closeRevision() {
+        }
+
+        public void openNode(Map headers) {
+        }
+
+        public void closeNode() {
+        }
+
+        public void parseUUID(String uuid) {
+        }
+
+        public void removeNodeProperties() {
+        }
+
+        public void setRevisionProperty(String propertyName, SVNPropertyValue propertyValue) {
+        }
+
+        public void applyTextDelta() {
+        }
+
+        public void setFullText() {
+        }
+
+        public void parseTextBlock(InputStream dumpStream, long contentLength, boolean isDelta) {
+        }
+
+        public void deleteNodeProperty(String propertyName) {
+        }
+
+        public void setNodeProperty(String propertyName, SVNPropertyValue propertyValue) {
+        }
+    }
+
+    private void load(SvnOperationFactory svnOperationFactory, File repositoryRoot, byte[] dump, boolean bulkLoad) throws SVNException {
+        load(svnOperationFactory, repositoryRoot, dump, bulkLoad, 0);
+    }
+
+    private void load(SvnOperationFactory svnOperationFactory, File repositoryRoot, byte[] dump, boolean bulkLoad, int readAheadDepth) throws SVNException {
+        final SvnRepositoryLoad load = svnOperationFactory.createRepositoryLoad();
+        load.setRepositoryRoot(repositoryRoot);
+        load.setDumpStream(new ByteArrayInputStream(dump));
+        load.setUsePreCommitHook(true);
+        load.setBulkLoad(bulkLoad);
+        load.setReadAheadDepth(readAheadDepth);
+        load.run();
+    }
+
+    private byte[] dump(SvnOperationFactory svnOperationFactory, File repositoryRoot) throws SVNException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final SvnRepositoryDump dump = svnOperationFactory.createRepositoryDump();
+        dump.setRepositoryRoot(repositoryRoot);
+        dump.setOut(out);
+        dump.setStartRevision(SVNRevision.create(0));
+        dump.setUseDelta(true);
+        dump.run();
+        return out.toByteArray();
+    }
+
+    private File getRevisionFile(File repositoryRoot, long revision) {
+        return new File(repositoryRoot, "db/revs/0/" + revision);
+    }
+
+    private String getTestName() {
+        return "LoadTest";
+    }
+}
@@ -0,0 +1,62 @@
+package org.tmatesoft.svn.test;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.wc2.SvnCheckout;
+import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
+import org.tmatesoft.svn.core.wc2.SvnTarget;
+import org.tmatesoft.svn.util.SVNInMemoryMetrics;
+import org.tmatesoft.svn.util.SVNLogType;
+import org.tmatesoft.svn.util.SVNMetrics;
+
+public class MetricsTest {
+
+    @Test
+    public void testCheckoutReportsMetrics() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testCheckoutReportsMetrics", options);
+        final SVNInMemoryMetrics metrics = new SVNInMemoryMetrics();
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder = new CommitBuilder(url);
+            commitBuilder.addFile("directory/file", "contents".getBytes());
+            commitBuilder.commit();
+
+            SVNMetrics.setDefaultMetrics(metrics);
+            final SvnCheckout checkout = svnOperationFactory.createCheckout();
+            checkout.setSource(SvnTarget.fromURL(url));
+            checkout.setSingleTarget(SvnTarget.fromFile(sandbox.createDirectory("wc")));
+            checkout.run();
+            SVNMetrics.setDefaultMetrics(null);
+
+            Assert.assertEquals(1, metrics.getTimer("WC.operation.SvnCheckout").getCount());
+            Assert.assertTrue(metrics.getTimer("FSFS.command.update").getCount() > 0);
+            Assert.assertTrue(metrics.getTimer("FSFS.read").getBytes() > 0);
+            Assert.assertTrue(metrics.getTimer("WC.sql-transaction").getCount() > 0);
+            Assert.assertTrue(metrics.getCount("WC.sql.INSERT_NODE") > 0);
+
+            final List<SVNInMemoryMetrics.Span> trace = metrics.getTrace();
+            final SVNInMemoryMetrics.Span lastSpan = trace.get(trace.size() - 1);
+            Assert.assertEquals("WC.operation.SvnCheckout", lastSpan.getName());
+            Assert.assertEquals(0, lastSpan.getDepth());
+            for (SVNInMemoryMetrics.Span span : trace.subList(0, trace.size() - 1)) {
+                Assert.assertTrue(span.getDepth() > 0);
+            }
+            Assert.assertFalse(SVNMetrics.isEnabled(SVNLogType.FSFS));
+        } finally {
+            SVNMetrics.setDefaultMetrics(null);
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    private String getTestName() {
+        return "MetricsTest";
+    }
+}
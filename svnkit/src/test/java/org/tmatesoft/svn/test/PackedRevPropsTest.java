@@ -206,6 +206,51 @@ public class PackedRevPropsTest {
         }
     }
 
+    @Test
+    public void testCachedRevisionPropertiesFollowChanges() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testCachedRevisionPropertiesFollowChanges", options);
+        try {
+            final File repositoryRoot = sandbox.createDirectory("svn.repo");
+            SVNURL url = SVNRepositoryFactory.createLocalRepository(repositoryRoot, null, true,
+                    false, false, false, false, false, true);
+
+            updateMaxFilesPerDirectory(repositoryRoot);
+
+            for (int i = 0; i < 25; i++) {
+                createCommitThatAddsFile(url, "file" + i);
+            }
+            final FSFS fsfs = new FSFS(repositoryRoot);
+            fsfs.open();
+            new FSPacker(null).pack(fsfs);
+            fsfs.close();
+
+            final SVNRepository svnRepository = SVNRepositoryFactory.create(url);
+            try {
+                for (int pass = 0; pass < 2; pass++) {
+                    for (int i = 1; i <= 25; i++) {
+                        Assert.assertNull(svnRepository.getRevisionPropertyValue(i, "test"));
+                    }
+                }
+                for (int i = 1; i <= 25; i += 3) {
+                    svnRepository.setRevisionPropertyValue(i, "test", SVNPropertyValue.create("value" + i));
+                }
+                for (int i = 1; i <= 25; i++) {
+                    final SVNPropertyValue propertyValue = svnRepository.getRevisionPropertyValue(i, "test");
+                    Assert.assertEquals(i % 3 == 1 ? "value" + i : null, SVNPropertyValue.getPropertyAsString(propertyValue));
+                }
+            } finally {
+                svnRepository.closeSession();
+            }
+
+            final File generationFile = new File(repositoryRoot, "db/" + FSFS.REVPROP_GENERATION_FILE);
+            Assert.assertEquals("18", SVNFileUtil.readFile(generationFile).trim());
+        } finally {
+            sandbox.dispose();
+        }
+    }
+
     private void updateCompressedFlag(File repositoryRoot, boolean compressed) throws SVNException {
         final FSFS fsfs = new FSFS(repositoryRoot);
         fsfs.open();
@@ -2,19 +2,24 @@ package org.tmatesoft.svn.test;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.lang.reflect.Field;
 import java.util.HashMap;
 import java.util.Map;
 
 import junit.framework.Assert;
 
+import org.junit.Assume;
 import org.junit.Test;
 import org.tmatesoft.svn.core.*;
 import org.tmatesoft.svn.core.auth.BasicAuthenticationManager;
+import org.tmatesoft.svn.core.internal.io.fs.FSLockIndex;
 import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
 import org.tmatesoft.svn.core.io.ISVNEditor;
+import org.tmatesoft.svn.core.io.ISVNLockHandler;
 import org.tmatesoft.svn.core.io.SVNRepository;
 import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
 import org.tmatesoft.svn.core.io.diff.SVNDeltaGenerator;
+import org.tmatesoft.svn.core.wc.admin.SVNAdminClient;
 import org.tmatesoft.svn.core.wc2.*;
 
 public class SvnLockTest {
@@ -153,6 +158,294 @@ public class SvnLockTest {
         }
     }
 
+    @Test
+    public void testIndexedLockStore() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testIndexedLockStore", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+            final File repositoryRoot = new File(url.getPath());
+
+            final CommitBuilder commitBuilder = new CommitBuilder(url);
+            commitBuilder.addFile("a/file1");
+            commitBuilder.addFile("a/file2");
+            commitBuilder.addFile("ab/file3");
+            commitBuilder.addFile("b/file4");
+            commitBuilder.commit();
+
+            final SVNRepository repository = SVNRepositoryFactory.create(url);
+            repository.setAuthenticationManager(new BasicAuthenticationManager("user", "password"));
+            try {
+                lock(repository, "a/file1", "ab/file3", "b/file4");
+
+                final SVNAdminClient adminClient = new SVNAdminClient(svnOperationFactory);
+                adminClient.doMigrateLocks(repositoryRoot, true);
+                final File lockIndexFile = new File(repositoryRoot, "db/locks/index");
+                Assert.assertTrue(lockIndexFile.isFile());
+
+                Assert.assertEquals(3, repository.getLocks("").length);
+                Assert.assertEquals(1, repository.getLocks("a").length);
+                Assert.assertEquals("/a/file1", repository.getLocks("a")[0].getPath());
+
+                lock(repository, "a/file2");
+                final SVNLock lock = repository.getLock("b/file4");
+                final Map<String, String> pathsToTokens = new HashMap<String, String>();
+                pathsToTokens.put("b/file4", lock.getID());
+                repository.unlock(pathsToTokens, false, null);
+                Assert.assertNull(repository.getLock("b/file4"));
+                Assert.assertEquals(2, repository.getLocks("a").length);
+
+                // a copy is read from the index file, as another process would read it.
+                final File repositoryCopy = sandbox.createDirectory("svn.repo.copy");
+                SVNFileUtil.copyDirectory(repositoryRoot, repositoryCopy, true, null);
+                final SVNRepository copyRepository = SVNRepositoryFactory.create(SVNURL.fromFile(repositoryCopy));
+                copyRepository.setAuthenticationManager(new BasicAuthenticationManager("user", "password"));
+                try {
+                    Assert.assertEquals(3, copyRepository.getLocks("").length);
+                    Assert.assertNull(copyRepository.getLock("b/file4"));
+                    Assert.assertNotNull(copyRepository.getLock("a/file2"));
+                    lock(copyRepository, "b/file4");
+                    Assert.assertEquals(4, copyRepository.getLocks("").length);
+                } finally {
+                    copyRepository.closeSession();
+                }
+
+                adminClient.doMigrateLocks(repositoryRoot, false);
+                Assert.assertFalse(lockIndexFile.exists());
+
+                final SVNLock[] locks = repository.getLocks("");
+                Assert.assertEquals(3, locks.length);
+                Assert.assertNotNull(repository.getLock("a/file2"));
+                Assert.assertNotNull(repository.getLock("ab/file3"));
+                Assert.assertNull(repository.getLock("b/file4"));
+            } finally {
+                repository.closeSession();
+            }
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testIndexedLockStoreRejectsCorruptRecord() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testIndexedLockStoreRejectsCorruptRecord", options);
+        try {
+            final SVNURL url = createRepositoryWithLockIndex(sandbox, svnOperationFactory);
+            final File lockIndexFile = new File(url.getPath(), "db/locks/index");
+
+            // breaks the first lock record, the ones after it are intact.
+            final String contents = TestUtil.readFileContentsString(lockIndexFile);
+            final int firstRecord = contents.indexOf("END\n") + "END\n".length();
+            TestUtil.writeFileContentsString(lockIndexFile, contents.substring(0, firstRecord) + "X" + contents.substring(firstRecord + 1));
+
+            final SVNURL copyUrl = copyRepository(sandbox, url);
+            final SVNRepository repository = SVNRepositoryFactory.create(copyUrl);
+            try {
+                repository.getLocks("");
+                Assert.fail("Corrupt lock index record is skipped");
+            } catch (SVNException e) {
+                Assert.assertEquals(SVNErrorCode.FS_CORRUPT, e.getErrorMessage().getRootErrorMessage().getErrorCode());
+            } finally {
+                repository.closeSession();
+            }
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testIndexedLockStoreDropsIncompleteTail() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testIndexedLockStoreDropsIncompleteTail", options);
+        try {
+            final SVNURL url = createRepositoryWithLockIndex(sandbox, svnOperationFactory);
+            final File lockIndexFile = new File(url.getPath(), "db/locks/index");
+
+            // an append interrupted in the middle of a record.
+            final String contents = TestUtil.readFileContentsString(lockIndexFile);
+            TestUtil.writeFileContentsString(lockIndexFile, contents + "K 4\npath\nV 8\n/b/fi");
+
+            final SVNURL copyUrl = copyRepository(sandbox, url);
+            final SVNRepository repository = SVNRepositoryFactory.create(copyUrl);
+            repository.setAuthenticationManager(new BasicAuthenticationManager("user", "password"));
+            try {
+                Assert.assertEquals(2, repository.getLocks("").length);
+                lock(repository, "b/file3");
+                Assert.assertEquals(3, repository.getLocks("").length);
+            } finally {
+                repository.closeSession();
+            }
+
+            // the appended record follows the complete ones, as another process reads it.
+            final SVNURL secondCopyUrl = copyRepository(sandbox, copyUrl);
+            final SVNRepository secondRepository = SVNRepositoryFactory.create(secondCopyUrl);
+            try {
+                Assert.assertEquals(3, secondRepository.getLocks("").length);
+                Assert.assertNotNull(secondRepository.getLock("b/file3"));
+            } finally {
+                secondRepository.closeSession();
+            }
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testLockIndexOfDeletedRepositoryIsForgotten() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testLockIndexOfDeletedRepositoryIsForgotten", options);
+        try {
+            final SVNURL url = createRepositoryWithLockIndex(sandbox, svnOperationFactory);
+            final File lockIndexFile = new File(url.getPath(), "db/locks/index").getAbsoluteFile();
+            Assert.assertTrue(getCachedLockIndexes().containsKey(lockIndexFile));
+
+            final SVNURL copyUrl = copyRepository(sandbox, url);
+            SVNFileUtil.deleteAll(new File(url.getPath()), true);
+
+            final SVNRepository repository = SVNRepositoryFactory.create(copyUrl);
+            try {
+                Assert.assertEquals(2, repository.getLocks("").length);
+            } finally {
+                repository.closeSession();
+            }
+            Assert.assertFalse(getCachedLockIndexes().containsKey(lockIndexFile));
+            Assert.assertTrue(getCachedLockIndexes().containsKey(new File(copyUrl.getPath(), "db/locks/index").getAbsoluteFile()));
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    private SVNURL createRepositoryWithLockIndex(Sandbox sandbox, SvnOperationFactory svnOperationFactory) throws SVNException {
+        final SVNURL url = sandbox.createSvnRepository();
+
+        final CommitBuilder commitBuilder = new CommitBuilder(url);
+        commitBuilder.addFile("a/file1");
+        commitBuilder.addFile("a/file2");
+        commitBuilder.addFile("b/file3");
+        commitBuilder.commit();
+
+        final SVNAdminClient adminClient = new SVNAdminClient(svnOperationFactory);
+        adminClient.doMigrateLocks(new File(url.getPath()), true);
+
+        final SVNRepository repository = SVNRepositoryFactory.create(url);
+        repository.setAuthenticationManager(new BasicAuthenticationManager("user", "password"));
+        try {
+            lock(repository, "a/file1", "a/file2");
+            Assert.assertEquals(2, repository.getLocks("").length);
+        } finally {
+            repository.closeSession();
+        }
+        return url;
+    }
+
+    private SVNURL copyRepository(Sandbox sandbox, SVNURL url) throws SVNException {
+        final File repositoryCopy = sandbox.createDirectory("svn.repo.copy");
+        SVNFileUtil.copyDirectory(new File(url.getPath()), repositoryCopy, true, null);
+        return SVNURL.fromFile(repositoryCopy);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<File, Object> getCachedLockIndexes() throws Exception {
+        final Field indexesField = FSLockIndex.class.getDeclaredField("ourIndexes");
+        indexesField.setAccessible(true);
+        return (Map<File, Object>) indexesField.get(null);
+    }
+
+    @Test
+    public void testBatchLockRunsPostHooksOnce() throws Exception {
+        Assume.assumeTrue(!SVNFileUtil.isWindows);
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testBatchLockRunsPostHooksOnce", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder = new CommitBuilder(url);
+            commitBuilder.addFile("a/file1");
+            commitBuilder.addFile("a/file2");
+            commitBuilder.addFile("b/file3");
+            commitBuilder.commit();
+
+            final File hookOutput = new File(sandbox.createDirectory("hook-output"), "hook.out");
+            final String hookContents = "#!/bin/sh\ncat >> " + hookOutput.getAbsolutePath() + "\necho --- >> " + hookOutput.getAbsolutePath() + "\n";
+            sandbox.createHook(url, "post-lock", hookContents);
+            sandbox.createHook(url, "post-unlock", hookContents);
+
+            final SVNRepository repository = SVNRepositoryFactory.create(url);
+            repository.setAuthenticationManager(new BasicAuthenticationManager("user", "password"));
+            try {
+                final Map<String, SVNErrorMessage> errors = new HashMap<String, SVNErrorMessage>();
+                final ISVNLockHandler handler = new ISVNLockHandler() {
+                    public void handleLock(String path, SVNLock lock, SVNErrorMessage error) {
+                        errors.put(path, error);
+                    }
+                    public void handleUnlock(String path, SVNLock lock, SVNErrorMessage error) {
+                        errors.put(path, error);
+                    }
+                };
+
+                final Map<String, Long> pathsToRevisions = new HashMap<String, Long>();
+                pathsToRevisions.put("a/file1", 1l);
+                pathsToRevisions.put("a/file2", 1l);
+                pathsToRevisions.put("b/file3", 1l);
+                pathsToRevisions.put("b/missing", 1l);
+                repository.lock(pathsToRevisions, null, false, handler);
+
+                Assert.assertEquals(4, errors.size());
+                Assert.assertNull(errors.get("/a/file1"));
+                Assert.assertNull(errors.get("/b/file3"));
+                Assert.assertEquals(SVNErrorCode.FS_OUT_OF_DATE, errors.get("/b/missing").getErrorCode());
+                Assert.assertEquals(3, repository.getLocks("").length);
+                Assert.assertEquals(2, repository.getLocks("a").length);
+
+                final Map<String, String> pathsToTokens = new HashMap<String, String>();
+                for (SVNLock lock : repository.getLocks("")) {
+                    pathsToTokens.put(lock.getPath().substring(1), lock.getID());
+                }
+                pathsToTokens.put("a/file2", "opaquelocktoken:wrong");
+                errors.clear();
+                repository.unlock(pathsToTokens, false, handler);
+
+                Assert.assertEquals(3, errors.size());
+                Assert.assertEquals(SVNErrorCode.FS_NO_SUCH_LOCK, errors.get("/a/file2").getErrorCode());
+                Assert.assertEquals(1, repository.getLocks("").length);
+                Assert.assertNotNull(repository.getLock("a/file2"));
+
+                final String[] hookRuns = TestUtil.readFileContentsString(hookOutput).split("---\n");
+                Assert.assertEquals(2, hookRuns.length);
+                Assert.assertEquals(3, hookRuns[0].split("\n").length);
+                Assert.assertEquals(2, hookRuns[1].split("\n").length);
+            } finally {
+                repository.closeSession();
+            }
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    private void lock(SVNRepository repository, String... paths) throws SVNException {
+        final Map<String, Long> pathsToRevisions = new HashMap<String, Long>();
+        for (String path : paths) {
+            pathsToRevisions.put(path, 1l);
+        }
+        repository.lock(pathsToRevisions, null, false, null);
+    }
+
     private String getTestName() {
         return getClass().getSimpleName();
     }
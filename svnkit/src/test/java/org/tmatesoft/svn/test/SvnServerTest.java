@@ -0,0 +1,281 @@
+package org.tmatesoft.svn.test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+import org.tmatesoft.svn.core.SVNCommitInfo;
+import org.tmatesoft.svn.core.SVNDirEntry;
+import org.tmatesoft.svn.core.SVNErrorCode;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNLogEntry;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.auth.BasicAuthenticationManager;
+import org.tmatesoft.svn.core.internal.server.svn.SVNServer;
+import org.tmatesoft.svn.core.internal.wc.SVNFileUtil;
+import org.tmatesoft.svn.core.io.SVNRepository;
+import org.tmatesoft.svn.core.io.SVNRepositoryFactory;
+import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
+
+public class SvnServerTest {
+
+    @Test
+    public void testCommitCheckoutAndLog() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testCommitCheckoutAndLog", options);
+        SVNServer server = null;
+        SVNRepository svnRepository = null;
+        try {
+            final SVNURL fileUrl = sandbox.createSvnRepository();
+            final File repositoryDirectory = new File(fileUrl.getPath());
+
+            server = new SVNServer(repositoryDirectory.getParentFile());
+            server.setHost("localhost");
+            server.setPort(0);
+            server.setAnonymousAccess(SVNServer.ACCESS_WRITE);
+            server.start();
+            final SVNURL url = SVNURL.parseURIEncoded("svn://localhost:" + server.getPort() + "/" + repositoryDirectory.getName());
+
+            final CommitBuilder commitBuilder1 = new CommitBuilder(url);
+            commitBuilder1.addFile("directory/file", "contents".getBytes());
+            commitBuilder1.commit();
+
+            final CommitBuilder commitBuilder2 = new CommitBuilder(url);
+            commitBuilder2.changeFile("directory/file", "changed contents".getBytes());
+            final SVNCommitInfo commitInfo = commitBuilder2.commit();
+            Assert.assertEquals(2, commitInfo.getNewRevision());
+
+            final WorkingCopy workingCopy = sandbox.checkoutNewWorkingCopy(url);
+            Assert.assertEquals(2, workingCopy.getCurrentRevision());
+            Assert.assertEquals("changed contents", TestUtil.readFileContentsString(workingCopy.getFile("directory/file")));
+
+            svnRepository = SVNRepositoryFactory.create(url);
+            Assert.assertEquals(url, svnRepository.getRepositoryRoot(true));
+
+            final ByteArrayOutputStream contents = new ByteArrayOutputStream();
+            svnRepository.getFile("directory/file", 1, null, contents);
+            Assert.assertEquals("contents", contents.toString());
+
+            final Collection<SVNDirEntry> entries = svnRepository.getDir("directory", -1, null, new ArrayList<SVNDirEntry>());
+            Assert.assertEquals(1, entries.size());
+            Assert.assertEquals("file", entries.iterator().next().getName());
+
+            final List<Long> revisions = new ArrayList<Long>();
+            final Collection<SVNLogEntry> logEntries = svnRepository.log(new String[] {""}, null, 1, -1, true, false);
+            for (SVNLogEntry logEntry : logEntries) {
+                revisions.add(logEntry.getRevision());
+                Assert.assertTrue(logEntry.getChangedPaths().containsKey("/directory/file"));
+            }
+            Assert.assertEquals(2, revisions.size());
+            Assert.assertEquals(Long.valueOf(1), revisions.get(0));
+            Assert.assertEquals(Long.valueOf(2), revisions.get(1));
+        } finally {
+            if (svnRepository != null) {
+                svnRepository.closeSession();
+            }
+            if (server != null) {
+                server.stop();
+            }
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testAuthenticatedCommit() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testAuthenticatedCommit", options);
+        SVNServer server = null;
+        SVNRepository svnRepository = null;
+        try {
+            final SVNURL fileUrl = sandbox.createSvnRepository();
+            final File repositoryDirectory = new File(fileUrl.getPath());
+
+            server = new SVNServer(repositoryDirectory.getParentFile());
+            server.setHost("localhost");
+            server.setPort(0);
+            server.setAnonymousAccess(SVNServer.ACCESS_READ);
+            server.setUsers(Collections.singletonMap("user", "password"));
+            server.start();
+            final SVNURL url = SVNURL.parseURIEncoded("svn://localhost:" + server.getPort() + "/" + repositoryDirectory.getName());
+
+            final CommitBuilder commitBuilder = new CommitBuilder(url);
+            commitBuilder.setAuthenticationManager(BasicAuthenticationManager.newInstance("user", "password".toCharArray()));
+            commitBuilder.addFile("file");
+            final SVNCommitInfo commitInfo = commitBuilder.commit();
+            Assert.assertEquals(1, commitInfo.getNewRevision());
+            Assert.assertEquals("user", commitInfo.getAuthor());
+
+            svnRepository = SVNRepositoryFactory.create(url);
+            Assert.assertEquals(1, svnRepository.getLatestRevision());
+        } finally {
+            if (svnRepository != null) {
+                svnRepository.closeSession();
+            }
+            if (server != null) {
+                server.stop();
+            }
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testSlowCommandIsClosedAfterReadTimeout() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testSlowCommandIsClosedAfterReadTimeout", options);
+        SVNServer server = null;
+        Socket socket = null;
+        try {
+            final SVNURL fileUrl = sandbox.createSvnRepository();
+            final File repositoryDirectory = new File(fileUrl.getPath());
+
+            server = new SVNServer(repositoryDirectory.getParentFile());
+            server.setHost("localhost");
+            server.setPort(0);
+            server.setAnonymousAccess(SVNServer.ACCESS_READ);
+            server.setReadTimeout(500);
+            server.start();
+
+            socket = new Socket("localhost", server.getPort());
+            final OutputStream outputStream = socket.getOutputStream();
+            outputStream.write("( 2 ( edit-pipeline ".getBytes("US-ASCII"));
+            outputStream.flush();
+
+            // every byte arrives well within the read timeout, the command as a whole does not.
+            final long start = System.currentTimeMillis();
+            while (server.getConnectionsCount() > 0 && System.currentTimeMillis() - start < 10000) {
+                try {
+                    outputStream.write(' ');
+                    outputStream.flush();
+                } catch (IOException e) {
+                    break;
+                }
+                Thread.sleep(100);
+            }
+            Assert.assertEquals(0, server.getConnectionsCount());
+        } finally {
+            if (socket != null) {
+                socket.close();
+            }
+            if (server != null) {
+                server.stop();
+            }
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testAnonymousAccessIsDeniedByDefault() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testAnonymousAccessIsDeniedByDefault", options);
+        SVNServer server = null;
+        SVNRepository svnRepository = null;
+        try {
+            final SVNURL fileUrl = sandbox.createSvnRepository();
+            final File repositoryDirectory = new File(fileUrl.getPath());
+
+            server = new SVNServer(repositoryDirectory.getParentFile());
+            server.setHost("localhost");
+            server.setPort(0);
+            server.start();
+            final SVNURL url = SVNURL.parseURIEncoded("svn://localhost:" + server.getPort() + "/" + repositoryDirectory.getName());
+
+            svnRepository = SVNRepositoryFactory.create(url);
+            try {
+                svnRepository.getLatestRevision();
+                Assert.fail("Anonymous client is served");
+            } catch (SVNException e) {
+                Assert.assertEquals(SVNErrorCode.RA_NOT_AUTHORIZED, e.getErrorMessage().getRootErrorMessage().getErrorCode());
+            }
+        } finally {
+            if (svnRepository != null) {
+                svnRepository.closeSession();
+            }
+            if (server != null) {
+                server.stop();
+            }
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testRepositoryAboveRootIsNotServed() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testRepositoryAboveRootIsNotServed", options);
+        try {
+            final SVNURL fileUrl = sandbox.createSvnRepository();
+            final File repositoryDirectory = new File(fileUrl.getPath());
+
+            // the repository is found by searching upwards from the served root.
+            assertRepositoryNotServed(new File(repositoryDirectory, "db"), "");
+        } finally {
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testRepositoryLinkedFromRootIsNotServed() throws Exception {
+        Assume.assumeTrue(SVNFileUtil.symlinksSupported());
+        final TestOptions options = TestOptions.getInstance();
+
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testRepositoryLinkedFromRootIsNotServed", options);
+        try {
+            final SVNURL fileUrl = sandbox.createSvnRepository();
+            final File repositoryDirectory = new File(fileUrl.getPath());
+
+            final File root = sandbox.createDirectory("root");
+            SVNFileUtil.createSymlink(new File(root, "link"), repositoryDirectory.getAbsolutePath());
+
+            assertRepositoryNotServed(root, "link");
+        } finally {
+            sandbox.dispose();
+        }
+    }
+
+    private void assertRepositoryNotServed(File root, String path) throws Exception {
+        SVNServer server = null;
+        SVNRepository svnRepository = null;
+        try {
+            server = new SVNServer(root);
+            server.setHost("localhost");
+            server.setPort(0);
+            server.setAnonymousAccess(SVNServer.ACCESS_READ);
+            server.start();
+            final SVNURL url = SVNURL.parseURIEncoded("svn://localhost:" + server.getPort() + "/" + path);
+
+            svnRepository = SVNRepositoryFactory.create(url);
+            try {
+                svnRepository.getLatestRevision();
+                Assert.fail("Repository outside of the served root is served");
+            } catch (SVNException e) {
+                Assert.assertEquals(e.getErrorMessage().getFullMessage(), SVNErrorCode.RA_SVN_REPOS_NOT_FOUND, e.getErrorMessage().getRootErrorMessage().getErrorCode());
+            }
+        } finally {
+            if (svnRepository != null) {
+                svnRepository.closeSession();
+            }
+            if (server != null) {
+                server.stop();
+            }
+        }
+    }
+
+    private String getTestName() {
+        return "SvnServerTest";
+    }
+}
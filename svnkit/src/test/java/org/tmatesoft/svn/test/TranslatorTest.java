@@ -0,0 +1,83 @@
+package org.tmatesoft.svn.test;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tmatesoft.svn.core.internal.wc.admin.SVNTranslatorInputStream;
+import org.tmatesoft.svn.core.internal.wc.admin.SVNTranslatorOutputStream;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+public class TranslatorTest {
+
+    @Test
+    public void testEolAndKeywordsExpansion() throws Exception {
+        final String text = "$Rev$\nline $Id$ and $Unknown$\r\n$Rev::    $\n$$Rev: old $\rend$";
+        final String expected = "$Rev: 12 $\r\nline $Id: file 12 $ and $Unknown$\r\n$Rev:: 12 $\r\n$$Rev: 12 $\r\nend$";
+
+        Assert.assertEquals(expected, expand(text, 100000));
+        for (int chunk = 1; chunk < 16; chunk++) {
+            Assert.assertEquals("chunk size " + chunk, expected, expand(text, chunk));
+        }
+    }
+
+    @Test
+    public void testEolAndKeywordsContraction() throws Exception {
+        final String text = "$Rev: 12 $\r\nline $Id: file 12 $\r\n" + createLongLine() + "\r\n$Rev:: 12 $\r\n";
+        final String expected = "$Rev$\nline $Id$\n" + createLongLine() + "\n$Rev::    $\n";
+
+        for (int chunk = 1; chunk < 16; chunk++) {
+            Assert.assertEquals("chunk size " + chunk, expected, contract(text, chunk));
+        }
+    }
+
+    @Test
+    public void testUntranslatedContentIsPassedAsIs() throws Exception {
+        final String text = createLongLine() + createLongLine();
+
+        Assert.assertEquals(text, expand(text, 7));
+        Assert.assertEquals(text, contract(text, 7));
+    }
+
+    private static String expand(String text, int chunkSize) throws Exception {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final OutputStream os = new SVNTranslatorOutputStream(result, new byte[] {'\r', '\n'}, true, createKeywords(), true);
+        final byte[] bytes = text.getBytes("UTF-8");
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            os.write(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+        }
+        os.close();
+        return new String(result.toByteArray(), "UTF-8");
+    }
+
+    private static String contract(String text, int chunkSize) throws Exception {
+        final InputStream is = new SVNTranslatorInputStream(new ByteArrayInputStream(text.getBytes("UTF-8")), new byte[] {'\n'}, false, createKeywords(), false);
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[chunkSize];
+        int read;
+        while ((read = is.read(buffer)) >= 0) {
+            result.write(buffer, 0, read);
+        }
+        is.close();
+        return new String(result.toByteArray(), "UTF-8");
+    }
+
+    private static Map<String, byte[]> createKeywords() throws Exception {
+        final Map<String, byte[]> keywords = new HashMap<String, byte[]>();
+        keywords.put("Rev", "12".getBytes("UTF-8"));
+        keywords.put("Id", "file 12".getBytes("UTF-8"));
+        return keywords;
+    }
+
+    private static String createLongLine() {
+        final StringBuilder line = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            line.append((char) ('a' + i % 26));
+        }
+        return line.toString();
+    }
+}
@@ -1444,6 +1444,115 @@ public class UpdateTest {
         }
     }
 
+    @Test
+    public void testUpdateTargetsOfSeveralWorkingCopiesInParallel() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testUpdateTargetsOfSeveralWorkingCopiesInParallel", options);
+        try {
+            final SVNURL url1 = sandbox.createSvnRepository();
+            final SVNURL url2 = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder1 = new CommitBuilder(url1);
+            commitBuilder1.addFile("directory/file", "original".getBytes());
+            commitBuilder1.commit();
+
+            final CommitBuilder commitBuilder2 = new CommitBuilder(url2);
+            commitBuilder2.addFile("file", "original".getBytes());
+            commitBuilder2.commit();
+
+            final WorkingCopy workingCopy1 = sandbox.checkoutNewWorkingCopy(url1);
+            final WorkingCopy workingCopy2 = sandbox.checkoutNewWorkingCopy(url2);
+
+            final CommitBuilder commitBuilder3 = new CommitBuilder(url1);
+            commitBuilder3.changeFile("directory/file", "changed1".getBytes());
+            commitBuilder3.commit();
+
+            final CommitBuilder commitBuilder4 = new CommitBuilder(url2);
+            commitBuilder4.changeFile("file", "changed2".getBytes());
+            commitBuilder4.commit();
+
+            final CommitBuilder commitBuilder5 = new CommitBuilder(url2);
+            commitBuilder5.addFile("anotherFile");
+            commitBuilder5.commit();
+
+            final File directory1 = workingCopy1.getFile("directory");
+            final File directory2 = workingCopy2.getWorkingCopyDirectory();
+
+            final EventsHandler eventsHandler = new EventsHandler();
+            svnOperationFactory.setEventHandler(eventsHandler);
+
+            final SvnUpdate update = svnOperationFactory.createUpdate();
+            update.addTarget(SvnTarget.fromFile(workingCopy1.getWorkingCopyDirectory()));
+            update.addTarget(SvnTarget.fromFile(directory2));
+            update.addTarget(SvnTarget.fromFile(directory1));
+            update.setTargetsParallelism(2);
+            final long[] revisions = update.run();
+
+            Assert.assertEquals(3, revisions.length);
+            Assert.assertEquals(2, revisions[0]);
+            Assert.assertEquals(3, revisions[1]);
+            Assert.assertEquals(2, revisions[2]);
+
+            Assert.assertEquals("changed1", TestUtil.readFileContentsString(new File(directory1, "file")));
+            Assert.assertEquals("changed2", TestUtil.readFileContentsString(new File(directory2, "file")));
+            Assert.assertTrue(new File(directory2, "anotherFile").isFile());
+
+            int completedCount = 0;
+            for (SVNEvent event : eventsHandler.getEvents()) {
+                if (event.getAction() == SVNEventAction.UPDATE_COMPLETED) {
+                    completedCount++;
+                }
+            }
+            Assert.assertEquals(3, completedCount);
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testUpdateOfMixedRevisionWorkingCopyWithMissingFile() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testUpdateOfMixedRevisionWorkingCopyWithMissingFile", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+
+            final CommitBuilder commitBuilder1 = new CommitBuilder(url);
+            commitBuilder1.addFile("uniform/directory/file", "original".getBytes());
+            commitBuilder1.addFile("mixed/file", "original".getBytes());
+            commitBuilder1.commit();
+
+            final CommitBuilder commitBuilder2 = new CommitBuilder(url);
+            commitBuilder2.changeFile("mixed/file", "changed".getBytes());
+            commitBuilder2.commit();
+
+            final WorkingCopy workingCopy = sandbox.checkoutNewWorkingCopy(url);
+
+            final SvnUpdate backdate = svnOperationFactory.createUpdate();
+            backdate.setSingleTarget(SvnTarget.fromFile(workingCopy.getFile("mixed")));
+            backdate.setRevision(SVNRevision.create(1));
+            backdate.run();
+
+            final File missingFile = workingCopy.getFile("uniform/directory/file");
+            SVNFileUtil.deleteFile(missingFile);
+
+            final SvnUpdate update = svnOperationFactory.createUpdate();
+            update.setSingleTarget(SvnTarget.fromFile(workingCopy.getWorkingCopyDirectory()));
+            final long[] revisions = update.run();
+
+            Assert.assertEquals(2, revisions[0]);
+            Assert.assertEquals("original", TestUtil.readFileContentsString(missingFile));
+            Assert.assertEquals("changed", TestUtil.readFileContentsString(workingCopy.getFile("mixed/file")));
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
     private void assertDavPropertiesAreCleaned(WorkingCopy workingCopy) throws SqlJetException, SVNException {
         final SqlJetDb db = SqlJetDb.open(workingCopy.getWCDbFile(), false);
         try {
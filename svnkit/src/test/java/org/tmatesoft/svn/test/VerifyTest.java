@@ -0,0 +1,107 @@
+package org.tmatesoft.svn.test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.tmatesoft.svn.core.SVNCancelException;
+import org.tmatesoft.svn.core.SVNException;
+import org.tmatesoft.svn.core.SVNURL;
+import org.tmatesoft.svn.core.internal.wc.SVNErrorManager;
+import org.tmatesoft.svn.core.wc.admin.SVNAdminEvent;
+import org.tmatesoft.svn.core.wc2.ISvnObjectReceiver;
+import org.tmatesoft.svn.core.wc2.SvnOperationFactory;
+import org.tmatesoft.svn.core.wc2.SvnTarget;
+import org.tmatesoft.svn.core.wc2.admin.SvnRepositoryVerify;
+import org.tmatesoft.svn.util.SVNLogType;
+
+public class VerifyTest {
+
+    @Test
+    public void testParallelVerifyReportsRevisionsInOrder() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testParallelVerifyReportsRevisionsInOrder", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+            final File repositoryRoot = new File(url.getPath());
+            createRevisions(url, 200);
+
+            final List<Long> revisions = verify(svnOperationFactory, repositoryRoot, 4, null, -1);
+            Assert.assertEquals(201, revisions.size());
+            for (int i = 0; i < revisions.size(); i++) {
+                Assert.assertEquals(i, revisions.get(i).longValue());
+            }
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    @Test
+    public void testInterruptedVerifyResumesFromCheckpoint() throws Exception {
+        final TestOptions options = TestOptions.getInstance();
+
+        final SvnOperationFactory svnOperationFactory = new SvnOperationFactory();
+        final Sandbox sandbox = Sandbox.createWithCleanup(getTestName() + ".testInterruptedVerifyResumesFromCheckpoint", options);
+        try {
+            final SVNURL url = sandbox.createSvnRepository();
+            final File repositoryRoot = new File(url.getPath());
+            final File checkpointFile = new File(sandbox.createDirectory("verify"), "checkpoint");
+            createRevisions(url, 200);
+
+            try {
+                verify(svnOperationFactory, repositoryRoot, 2, checkpointFile, 150);
+                Assert.fail("Verification was expected to be cancelled");
+            } catch (SVNCancelException e) {
+                //expected
+            }
+            Assert.assertTrue(checkpointFile.isFile());
+
+            final List<Long> revisions = verify(svnOperationFactory, repositoryRoot, 2, checkpointFile, -1);
+            Assert.assertTrue(revisions.get(0) > 0);
+            Assert.assertTrue(revisions.get(0) <= 150);
+            Assert.assertEquals(200, revisions.get(revisions.size() - 1).longValue());
+            Assert.assertFalse(checkpointFile.exists());
+        } finally {
+            svnOperationFactory.dispose();
+            sandbox.dispose();
+        }
+    }
+
+    private List<Long> verify(SvnOperationFactory svnOperationFactory, File repositoryRoot, int threadCount, File checkpointFile, final long cancelAtRevision) throws SVNException {
+        final List<Long> revisions = new ArrayList<Long>();
+        final SvnRepositoryVerify verify = svnOperationFactory.createRepositoryVerify();
+        verify.setRepositoryRoot(repositoryRoot);
+        verify.setThreadCount(threadCount);
+        verify.setCheckpointFile(checkpointFile);
+        verify.setReceiver(new ISvnObjectReceiver<SVNAdminEvent>() {
+            public void receive(SvnTarget target, SVNAdminEvent event) throws SVNException {
+                if (event.getRevision() == cancelAtRevision) {
+                    SVNErrorManager.cancel("cancelled", SVNLogType.DEFAULT);
+                }
+                revisions.add(event.getRevision());
+            }
+        });
+        verify.run();
+        return revisions;
+    }
+
+    private void createRevisions(SVNURL url, int count) throws SVNException {
+        final CommitBuilder commitBuilder = new CommitBuilder(url);
+        commitBuilder.addFile("file", "0".getBytes());
+        commitBuilder.commit();
+        for (int i = 1; i < count; i++) {
+            final CommitBuilder changeBuilder = new CommitBuilder(url);
+            changeBuilder.changeFile("file", String.valueOf(i).getBytes());
+            changeBuilder.commit();
+        }
+    }
+
+    private String getTestName() {
+        return "VerifyTest";
+    }
+}